@@ -0,0 +1,54 @@
+package esri.shapefile.benchmarks;
+
+import esri.shapefile.models.MainFileHeader;
+import esri.shapefile.models.RecordHeader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding the fixed-length headers: the main file header, read once per file, and the record header, read
+ * once per record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeaderBenchmark {
+
+    private byte[] mainFileHeader;
+    private byte[] recordHeader;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (final RandomAccessFile file = new RandomAccessFile(SyntheticShapefiles.polygons(1000, 10), "r")) {
+            mainFileHeader = new byte[100];
+            recordHeader = new byte[8];
+            file.readFully(mainFileHeader);
+            file.readFully(recordHeader);
+        }
+    }
+
+    @Benchmark
+    public MainFileHeader mainFileHeader() {
+        return MainFileHeader.fromBytes(mainFileHeader);
+    }
+
+    @Benchmark
+    public RecordHeader recordHeader() {
+        return RecordHeader.fromBytes(recordHeader);
+    }
+}
@@ -0,0 +1,51 @@
+package esri.shapefile.benchmarks;
+
+import esri.shapefile.models.shapes.Polygon;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding the contents of a single polygon record, from 10 to a million vertices.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolygonDecodeBenchmark {
+
+    @Param({ "10", "1000", "100000", "1000000" })
+    public int vertices;
+
+    private ByteBuffer recordContents;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (final RandomAccessFile file = new RandomAccessFile(SyntheticShapefiles.polygons(1, vertices), "r")) {
+            final byte[] bytes = new byte[(int) file.length() - 108];
+            file.seek(108);
+            file.readFully(bytes);
+            recordContents = ByteBuffer.wrap(bytes);
+        }
+    }
+
+    @Benchmark
+    public Polygon fromBytes() {
+        return Polygon.fromBytes(recordContents);
+    }
+}
@@ -0,0 +1,141 @@
+package esri.shapefile.benchmarks;
+
+import esri.shapefile.ShapefileReader;
+import esri.shapefile.dbf.DbfPredicate;
+import esri.shapefile.exceptions.ShapefileConsumerException;
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import esri.shapefile.models.BoundingBox;
+import esri.shapefile.models.shapes.Polygon;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures reading every record of a file once, in each of the read modes of {@link ShapefileReader}. One operation
+ * is one pass over the whole file, so the scores of files of different sizes are not comparable with each other, only
+ * across modes.
+ *
+ * <p>
+ *   Run with the GC profiler ({@code -prof gc}, which the Gradle task adds) to see the allocation rate of each mode.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadModesBenchmark {
+
+    private static final List<String> ID = Collections.singletonList("ID");
+
+    @Param({ "1000", "1000000", "10000000" })
+    public int records;
+
+    @Param({ "10" })
+    public int vertices;
+
+    private final ShapefileReader shapefileReader = new ShapefileReader();
+    private String shapefile;
+    private BoundingBox viewport;
+    private DbfPredicate predicate;
+
+    @Setup
+    public void setUp() throws IOException {
+        shapefile = SyntheticShapefiles.polygons(records, vertices);
+
+        // About one record in a hundred lies in the first tenth of the first ten rows of the grid.
+        final int rows = Math.min(10, (records + SyntheticShapefiles.GRID_WIDTH - 1) / SyntheticShapefiles.GRID_WIDTH);
+        viewport = BoundingBox.of(0, 0, SyntheticShapefiles.GRID_WIDTH / 10, rows);
+        predicate = DbfPredicate.startsWith("NAME", "Feature 7");
+    }
+
+    @Benchmark
+    public void forEachRecord(final Blackhole blackhole) throws ShapefileNotReadableException, ShapefileConsumerException {
+        shapefileReader.forEachRecord(shapefile, (recordHeader, shape) -> blackhole.consume(shape));
+    }
+
+    @Benchmark
+    public void forEachRecordFromInputStream(final Blackhole blackhole) throws IOException, ShapefileConsumerException {
+        try (final InputStream inputStream = new FileInputStream(shapefile)) {
+            shapefileReader.forEachRecord(inputStream, (recordHeader, shape) -> blackhole.consume(shape));
+        }
+    }
+
+    @Benchmark
+    public void forEachRecordMapped(final Blackhole blackhole) throws ShapefileNotReadableException, ShapefileConsumerException {
+        shapefileReader.forEachRecordMapped(shapefile, (recordHeader, shape) -> blackhole.consume(shape));
+    }
+
+    @Benchmark
+    public void forEachRecordPipelined(final Blackhole blackhole) throws ShapefileNotReadableException, ShapefileConsumerException {
+        shapefileReader.forEachRecordPipelined(shapefile, (recordHeader, shape) -> blackhole.consume(shape));
+    }
+
+    @Benchmark
+    public void forEachShapeView(final Blackhole blackhole) throws ShapefileNotReadableException, ShapefileConsumerException {
+        shapefileReader.forEachShapeView(shapefile, (shapeView) -> blackhole.consume(shapeView.getXMin()));
+    }
+
+    @Benchmark
+    public void records(final Blackhole blackhole) throws ShapefileNotReadableException {
+        shapefileReader.records(shapefile).forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public long parallelForEachRecordOrdered() throws ShapefileNotReadableException, ShapefileConsumerException {
+        return parallelForEachRecord(ShapefileReader.Delivery.ORDERED);
+    }
+
+    @Benchmark
+    public long parallelForEachRecordUnordered() throws ShapefileNotReadableException, ShapefileConsumerException {
+        return parallelForEachRecord(ShapefileReader.Delivery.UNORDERED);
+    }
+
+    @Benchmark
+    public void forEachFeature(final Blackhole blackhole) throws ShapefileNotReadableException, ShapefileConsumerException {
+        shapefileReader.forEachFeature(shapefile, ID, (recordHeader, shape, dbfRow) -> {
+            blackhole.consume(shape);
+            blackhole.consume(dbfRow.getLong("ID"));
+        });
+    }
+
+    @Benchmark
+    public void forEachFeatureMatching(final Blackhole blackhole) throws ShapefileNotReadableException, ShapefileConsumerException {
+        shapefileReader.forEachFeatureMatching(shapefile, predicate, ID, (recordHeader, shape, dbfRow) -> blackhole.consume(shape));
+    }
+
+    @Benchmark
+    public void forEachRecordIntersecting(final Blackhole blackhole) throws ShapefileNotReadableException, ShapefileConsumerException {
+        shapefileReader.forEachRecordIntersecting(shapefile, viewport, (recordHeader, shape) -> blackhole.consume(shape));
+    }
+
+    /**
+     * Records decoded on other threads are summed rather than handed to the {@link Blackhole}, which is not meant to be
+     * shared between threads.
+     */
+    private long parallelForEachRecord(final ShapefileReader.Delivery delivery) throws ShapefileNotReadableException, ShapefileConsumerException {
+        final LongAdder points = new LongAdder();
+        shapefileReader.parallelForEachRecord(shapefile, (recordHeader, shape) -> points.add(((Polygon) shape).getNumPoints()),
+                Runtime.getRuntime().availableProcessors(), delivery);
+
+        return points.sum();
+    }
+}
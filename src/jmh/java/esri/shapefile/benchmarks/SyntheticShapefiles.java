@@ -0,0 +1,87 @@
+package esri.shapefile.benchmarks;
+
+import esri.shapefile.ShapefileWriter;
+import esri.shapefile.dbf.DbfField;
+import esri.shapefile.io.ShapefilePaths;
+import esri.shapefile.models.BoundingBox;
+import esri.shapefile.models.shapes.Polygon;
+import esri.shapefile.models.shapes.ShapeType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Generates the shapefiles the benchmarks read.
+ *
+ * <p>
+ *   Every record is a single ring with the given number of vertices, laid out on a grid a thousand cells wide, so
+ *   record {@code n} covers the cell at column {@code (n - 1) % 1000} and row {@code (n - 1) / 1000}. Its row in the
+ *   dBASE table holds its record number in ID and "Feature n" in NAME.
+ * </p>
+ *
+ * <p>
+ *   Files with millions of records take a while to write, so they are kept between runs in the directory named by the
+ *   {@code esri.shapefile.benchmarks.dir} system property, which defaults to a directory under {@code java.io.tmpdir}.
+ *   A file is only reused once a marker written after it was closed exists, so an interrupted run is regenerated.
+ * </p>
+ */
+final class SyntheticShapefiles {
+
+    static final int GRID_WIDTH = 1000;
+
+    /**
+     * Returns the path of a shapefile with {@code records} polygons of {@code vertices} vertices each, writing it
+     * first if needed.
+     *
+     * @param records Number of records
+     * @param vertices Number of vertices in each ring, including the closing vertex; at least 4
+     * @return Path to the main file
+     */
+    static String polygons(final int records, final int vertices) throws IOException {
+        final File directory = new File(System.getProperty("esri.shapefile.benchmarks.dir",
+                new File(System.getProperty("java.io.tmpdir"), "esri-shapefile-benchmarks").getPath()));
+        final File shapefile = new File(directory, "polygons-" + records + "x" + vertices + ".shp");
+        final File marker = ShapefilePaths.sibling(shapefile, "complete");
+
+        if (!marker.isFile()) {
+            Files.createDirectories(directory.toPath());
+            writePolygons(shapefile, records, vertices);
+            Files.write(marker.toPath(), new byte[0]);
+        }
+
+        return shapefile.getAbsolutePath();
+    }
+
+    private static void writePolygons(final File shapefile, final int records, final int vertices) throws IOException {
+        if (vertices < 4) {
+            throw new IllegalArgumentException("A ring needs at least 4 vertices: " + vertices);
+        }
+
+        final int[] parts = { 0 };
+        final double[] xy = new double[vertices * 2];
+
+        try (final ShapefileWriter shapefileWriter = ShapefileWriter.create(shapefile.getPath(), ShapeType.Polygon,
+                Arrays.asList(DbfField.of("ID", 'N', 10, 0), DbfField.of("NAME", 'C', 16, 0)))) {
+            for (int recordNumber = 1; recordNumber <= records; recordNumber++) {
+                final double centerX = (recordNumber - 1) % GRID_WIDTH + 0.5;
+                final double centerY = (recordNumber - 1) / GRID_WIDTH + 0.5;
+
+                // Clockwise, as outer rings must be, and closed by repeating the first vertex.
+                for (int i = 0; i < vertices - 1; i++) {
+                    final double angle = -2 * Math.PI * i / (vertices - 1);
+                    xy[2 * i] = centerX + 0.4 * Math.cos(angle);
+                    xy[2 * i + 1] = centerY + 0.4 * Math.sin(angle);
+                }
+                xy[2 * (vertices - 1)] = xy[0];
+                xy[2 * (vertices - 1) + 1] = xy[1];
+
+                final BoundingBox boundingBox = BoundingBox.of(centerX - 0.4, centerY - 0.4, centerX + 0.4, centerY + 0.4);
+                shapefileWriter.write(Polygon.of(boundingBox, parts, xy), recordNumber, "Feature " + recordNumber);
+            }
+        }
+    }
+
+    private SyntheticShapefiles() {}
+}
@@ -0,0 +1,143 @@
+package esri.shapefile.benchmarks;
+
+import esri.shapefile.ShapefileReader;
+import esri.shapefile.exceptions.ShapefileConsumerException;
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import esri.shapefile.models.Record;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures how long each read mode takes to hand over the first record of a file: the cost of opening, mapping or
+ * indexing it, and of starting any threads, before the first record is seen. Each operation stops as soon as the
+ * first record arrives.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 50)
+@Fork(3)
+public class TimeToFirstRecordBenchmark {
+
+    /**
+     * Thrown by consumers to stop reading once they have the first record.
+     */
+    private static final class FirstRecord extends RuntimeException {
+
+        private final Object value;
+
+        private FirstRecord(final Object value) {
+            super(null, null, false, false);
+            this.value = value;
+        }
+    }
+
+    @Param({ "1000", "1000000", "10000000" })
+    public int records;
+
+    private final ShapefileReader shapefileReader = new ShapefileReader();
+    private String shapefile;
+
+    @Setup
+    public void setUp() throws IOException {
+        shapefile = SyntheticShapefiles.polygons(records, 10);
+    }
+
+    @Benchmark
+    public Object forEachRecord() throws ShapefileNotReadableException {
+        try {
+            shapefileReader.forEachRecord(shapefile, (recordHeader, shape) -> stop(shape));
+            return null;
+        } catch (final ShapefileConsumerException e) {
+            return firstRecord(e);
+        }
+    }
+
+    @Benchmark
+    public Object forEachRecordMapped() throws ShapefileNotReadableException {
+        try {
+            shapefileReader.forEachRecordMapped(shapefile, (recordHeader, shape) -> stop(shape));
+            return null;
+        } catch (final ShapefileConsumerException e) {
+            return firstRecord(e);
+        }
+    }
+
+    @Benchmark
+    public Object forEachRecordPipelined() throws ShapefileNotReadableException {
+        try {
+            shapefileReader.forEachRecordPipelined(shapefile, (recordHeader, shape) -> stop(shape));
+            return null;
+        } catch (final ShapefileConsumerException e) {
+            return firstRecord(e);
+        }
+    }
+
+    @Benchmark
+    public Object forEachShapeView() throws ShapefileNotReadableException {
+        try {
+            shapefileReader.forEachShapeView(shapefile, (shapeView) -> stop(shapeView.toShape()));
+            return null;
+        } catch (final ShapefileConsumerException e) {
+            return firstRecord(e);
+        }
+    }
+
+    @Benchmark
+    public Object forEachFeature() throws ShapefileNotReadableException {
+        try {
+            shapefileReader.forEachFeature(shapefile, (recordHeader, shape, dbfRow) -> stop(dbfRow.getString("NAME")));
+            return null;
+        } catch (final ShapefileConsumerException e) {
+            return firstRecord(e);
+        }
+    }
+
+    @Benchmark
+    public Object parallelForEachRecord() throws ShapefileNotReadableException {
+        try {
+            shapefileReader.parallelForEachRecord(shapefile, (recordHeader, shape) -> stop(shape),
+                    Runtime.getRuntime().availableProcessors(), ShapefileReader.Delivery.ORDERED);
+            return null;
+        } catch (final ShapefileConsumerException e) {
+            return firstRecord(e);
+        }
+    }
+
+    @Benchmark
+    public Record records() throws ShapefileNotReadableException {
+        try (final Stream<Record> records = shapefileReader.records(shapefile)) {
+            return records.findFirst().orElse(null);
+        }
+    }
+
+    private static void stop(final Object value) throws ShapefileConsumerException {
+        throw new ShapefileConsumerException(1, new FirstRecord(value));
+    }
+
+    /**
+     * Finds the record a consumer stopped with. Modes that consume on other threads may wrap the exception again.
+     */
+    private static Object firstRecord(final ShapefileConsumerException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof FirstRecord) {
+                return ((FirstRecord) cause).value;
+            }
+        }
+        throw new IllegalStateException(e);
+    }
+}
@@ -0,0 +1,184 @@
+package esri.shapefile;
+
+import esri.shapefile.ShapefileReader.RecordConsumer;
+import esri.shapefile.exceptions.ShapefileConsumerException;
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import esri.shapefile.io.MappedFile;
+import esri.shapefile.metrics.ReaderMetrics;
+import esri.shapefile.models.Record;
+import esri.shapefile.models.ShapefileIndex;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Decodes the records of a memory-mapped shapefile on a {@link ForkJoinPool}.
+ *
+ * <p>
+ *   Once the offset of every record is known, records can be decoded independently of one another. The offsets come
+ *   from a {@link ShapefileIndex}, which is split into ranges of record numbers that are decoded by separate workers.
+ * </p>
+ */
+final class ParallelRecordDecoder {
+
+    /**
+     * Ranges are split until there are roughly this many per worker, which leaves enough small tasks for work
+     * stealing to even out records of very different sizes.
+     */
+    private static final int TASKS_PER_WORKER = 8;
+
+    /**
+     * Upper bound on the number of records decoded together when delivering in order.
+     */
+    private static final int MAX_ORDERED_BATCH_SIZE = 1024;
+
+    private final MappedFile mappedFile;
+    private final ShapefileIndex shapefileIndex;
+    private final int parallelism;
+    private final ReaderMetrics metrics;
+
+    /**
+     * @param metrics Listener each decoded record is reported to, from the worker that decoded it, or null
+     */
+    ParallelRecordDecoder(final MappedFile mappedFile, final ShapefileIndex shapefileIndex, final int parallelism, final ReaderMetrics metrics) {
+        this.mappedFile = mappedFile;
+        this.shapefileIndex = shapefileIndex;
+        this.parallelism = parallelism;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Decodes every record and hands it to the consumer on the worker that decoded it. The consumer is called
+     * concurrently and in no particular order.
+     */
+    void forEachUnordered(final RecordConsumer recordConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
+        final int numRecords = shapefileIndex.getNumRecords();
+        final int threshold = Math.max(1, numRecords / (parallelism * TASKS_PER_WORKER));
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(parallelism);
+        try {
+            forkJoinPool.invoke(new DecodeRange(recordConsumer, failure, 1, numRecords + 1, threshold));
+        } finally {
+            forkJoinPool.shutdown();
+        }
+
+        rethrow(failure.get());
+    }
+
+    /**
+     * Decodes batches of records in parallel, but hands them to the consumer on the calling thread in file order.
+     * Only a bounded number of batches are decoded ahead of the consumer.
+     */
+    void forEachOrdered(final RecordConsumer recordConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
+        final int numRecords = shapefileIndex.getNumRecords();
+        final int batchSize = Math.min(MAX_ORDERED_BATCH_SIZE, Math.max(1, numRecords / (parallelism * TASKS_PER_WORKER)));
+        final int window = parallelism * 2;
+
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(parallelism);
+        final Deque<Future<Record[]>> pending = new ArrayDeque<>(window);
+
+        try {
+            int nextRecordNumber = 1;
+            while (nextRecordNumber <= numRecords || !pending.isEmpty()) {
+                while (nextRecordNumber <= numRecords && pending.size() < window) {
+                    final int from = nextRecordNumber;
+                    final int to = Math.min(numRecords + 1, from + batchSize);
+                    pending.add(forkJoinPool.submit(() -> decodeBatch(from, to)));
+                    nextRecordNumber = to;
+                }
+
+                for (final Record record : await(pending.poll())) {
+                    recordConsumer.consume(record.getRecordHeader(), record.getShape());
+                }
+            }
+        } finally {
+            forkJoinPool.shutdownNow();
+        }
+    }
+
+    private Record[] decodeBatch(final int from, final int to) throws ShapefileNotReadableException {
+        final Record[] records = new Record[to - from];
+        for (int recordNumber = from; recordNumber < to; recordNumber++) {
+            records[recordNumber - from] = decode(recordNumber);
+        }
+
+        return records;
+    }
+
+    private Record decode(final int recordNumber) throws ShapefileNotReadableException {
+        return ShapefileReader.decodeRecord(mappedFile, shapefileIndex.getOffsetBytes(recordNumber), metrics);
+    }
+
+    private Record[] await(final Future<Record[]> batch) throws ShapefileNotReadableException {
+        try {
+            return batch.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ShapefileNotReadableException(mappedFile.getFile(), e);
+        } catch (final ExecutionException e) {
+            // A ForkJoinPool wraps the checked exceptions of a Callable in RuntimeExceptions.
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof ShapefileNotReadableException) {
+                    throw (ShapefileNotReadableException) cause;
+                }
+            }
+            throw new ShapefileNotReadableException(mappedFile.getFile(), e.getCause());
+        }
+    }
+
+    private static void rethrow(final Exception failure) throws ShapefileNotReadableException, ShapefileConsumerException {
+        if (failure instanceof ShapefileNotReadableException) {
+            throw (ShapefileNotReadableException) failure;
+        } else if (failure instanceof ShapefileConsumerException) {
+            throw (ShapefileConsumerException) failure;
+        }
+    }
+
+    /**
+     * Decodes the records numbered [from, to), splitting the range in half until it is no larger than the threshold.
+     * The first failure is recorded and stops every range that has not finished yet.
+     */
+    private final class DecodeRange extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final RecordConsumer recordConsumer;
+        private final AtomicReference<Exception> failure;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        DecodeRange(final RecordConsumer recordConsumer, final AtomicReference<Exception> failure, final int from, final int to, final int threshold) {
+            this.recordConsumer = recordConsumer;
+            this.failure = failure;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > threshold) {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new DecodeRange(recordConsumer, failure, from, middle, threshold),
+                          new DecodeRange(recordConsumer, failure, middle, to, threshold));
+                return;
+            }
+
+            for (int recordNumber = from; recordNumber < to && failure.get() == null; recordNumber++) {
+                try {
+                    final Record record = decode(recordNumber);
+                    recordConsumer.consume(record.getRecordHeader(), record.getShape());
+                } catch (final ShapefileNotReadableException | ShapefileConsumerException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        }
+    }
+}
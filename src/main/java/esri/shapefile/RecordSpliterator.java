@@ -0,0 +1,83 @@
+package esri.shapefile;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import esri.shapefile.io.MappedFile;
+import esri.shapefile.metrics.ReaderMetrics;
+import esri.shapefile.models.Record;
+import esri.shapefile.models.ShapefileIndex;
+
+import java.io.UncheckedIOException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Spliterator} over the records numbered [from, to) of a memory-mapped main file. The offsets of the records
+ * come from a {@link ShapefileIndex}, so the spliterator knows its exact size and splits into two halves of equal
+ * size without touching the file.
+ */
+final class RecordSpliterator implements Spliterator<Record> {
+
+    private final MappedFile mappedFile;
+    private final ShapefileIndex shapefileIndex;
+    private final ReaderMetrics metrics;
+    private int from;
+    private final int to;
+
+    /**
+     * @param metrics Listener each decoded record is reported to, or null
+     */
+    RecordSpliterator(final MappedFile mappedFile, final ShapefileIndex shapefileIndex, final int from, final int to, final ReaderMetrics metrics) {
+        this.mappedFile = mappedFile;
+        this.shapefileIndex = shapefileIndex;
+        this.metrics = metrics;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super Record> action) {
+        if (from >= to) {
+            return false;
+        }
+
+        action.accept(decode(from++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(final Consumer<? super Record> action) {
+        while (from < to) {
+            action.accept(decode(from++));
+        }
+    }
+
+    @Override
+    public Spliterator<Record> trySplit() {
+        final int middle = (from + to) >>> 1;
+        if (middle <= from) {
+            return null;
+        }
+
+        final Spliterator<Record> prefix = new RecordSpliterator(mappedFile, shapefileIndex, from, middle, metrics);
+        from = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return to - from;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+
+    private Record decode(final int recordNumber) {
+        try {
+            return ShapefileReader.decodeRecord(mappedFile, shapefileIndex.getOffsetBytes(recordNumber), metrics);
+        } catch (final ShapefileNotReadableException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
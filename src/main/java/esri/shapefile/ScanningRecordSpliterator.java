@@ -0,0 +1,134 @@
+package esri.shapefile;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import esri.shapefile.io.MappedFile;
+import esri.shapefile.metrics.ReaderMetrics;
+import esri.shapefile.models.MainFileHeader;
+import esri.shapefile.models.Record;
+import esri.shapefile.models.ShapefileIndex;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Spliterator} over the records of a memory-mapped main file that has no index file.
+ *
+ * <p>
+ *   Records are found by following the content length in each record header. Splitting walks ahead over the next
+ *   batch of record headers only, and hands those offsets off as a {@link RecordSpliterator}, so the records
+ *   themselves are still decoded by whichever thread consumes the batch. Batches grow with every split, in the same
+ *   way as {@link java.util.Spliterators.AbstractSpliterator}.
+ * </p>
+ */
+final class ScanningRecordSpliterator implements Spliterator<Record> {
+
+    private static final int BATCH_SIZE_INCREMENT = 1024;
+
+    private static final int MAX_BATCH_SIZE = 1 << 25;
+
+    private final MappedFile mappedFile;
+    private final ReaderMetrics metrics;
+    private MainFileHeader mainFileHeader;
+    private long offset;
+    private long end;
+    private int batchSize;
+
+    /**
+     * @param metrics Listener each decoded record is reported to, or null
+     */
+    ScanningRecordSpliterator(final MappedFile mappedFile, final ReaderMetrics metrics) {
+        this.mappedFile = mappedFile;
+        this.metrics = metrics;
+        this.offset = -1;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super Record> action) {
+        if (!hasNext()) {
+            return false;
+        }
+
+        action.accept(next());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(final Consumer<? super Record> action) {
+        while (hasNext()) {
+            action.accept(next());
+        }
+    }
+
+    @Override
+    public Spliterator<Record> trySplit() {
+        if (!hasNext()) {
+            return null;
+        }
+
+        batchSize = Math.min(MAX_BATCH_SIZE, batchSize + BATCH_SIZE_INCREMENT);
+        final int[] offsets = new int[batchSize];
+        final int[] contentLengths = new int[batchSize];
+
+        int numRecords = 0;
+        while (numRecords < batchSize && offset < end) {
+            final int contentLength = getInt(offset + 4);
+            offsets[numRecords] = (int) (offset / 2);
+            contentLengths[numRecords] = contentLength;
+            numRecords++;
+
+            try {
+                offset += ShapefileReader.RECORD_HEADER_SIZE + ShapefileReader.checkContentLength(mappedFile.getFile(), offset, contentLength, end);
+            } catch (final ShapefileNotReadableException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        final ShapefileIndex batch = ShapefileIndex.of(mainFileHeader, offsets, contentLengths);
+        return new RecordSpliterator(mappedFile, batch, 1, numRecords + 1, metrics);
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+
+    private boolean hasNext() {
+        if (offset < 0) {
+            try {
+                mainFileHeader = MainFileHeader.fromBytes(mappedFile.slice(0, ShapefileReader.MAIN_FILE_HEADER_SIZE));
+            } catch (final ShapefileNotReadableException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            offset = ShapefileReader.MAIN_FILE_HEADER_SIZE;
+            end = Math.min(mainFileHeader.getFileLengthBytes(), mappedFile.size());
+        }
+
+        return offset < end;
+    }
+
+    private Record next() {
+        try {
+            final Record record = ShapefileReader.decodeRecord(mappedFile, offset, metrics);
+            offset += ShapefileReader.RECORD_HEADER_SIZE + record.getRecordHeader().getContentLengthBytes();
+            return record;
+        } catch (final ShapefileNotReadableException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int getInt(final long position) {
+        try {
+            return mappedFile.getInt(position, ByteOrder.BIG_ENDIAN);
+        } catch (final ShapefileNotReadableException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
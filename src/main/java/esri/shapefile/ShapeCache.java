@@ -0,0 +1,285 @@
+package esri.shapefile;
+
+import esri.shapefile.models.Record;
+import esri.shapefile.models.shapes.MultiPartShape;
+import esri.shapefile.models.shapes.PackedShape;
+import esri.shapefile.models.shapes.Shape;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps decoded records in memory, so that records requested over and over, such as the outlines of states, are
+ * decoded once rather than on every request. Set it on a reader with {@link ShapefileReader#withShapeCache(ShapeCache)},
+ * and {@link ShapefileReader#readRecord(String, esri.shapefile.models.ShapefileIndex, int)} and
+ * {@link ShapefileReader#readRecords(String, esri.shapefile.models.ShapefileIndex, int[])} look records up here before reading the file.
+ *
+ * <p>
+ *   Records are keyed by the absolute path of the main file, its modification time, its length and the record
+ *   number, so a record is never served from a file that has since changed; stale records simply age out. A file
+ *   rewritten within the resolution of its modification time is still caught when its length changes. The cache is bounded by
+ *   the estimated heap size of the records it holds, which is dominated by their coordinates, so one polygon of a
+ *   million vertices weighs as much as a hundred thousand of ten.
+ * </p>
+ *
+ * <p>
+ *   The cache is split into stripes, each a least-recently-used map with its own lock and an equal share of the
+ *   budget. A key always belongs to the same stripe, so concurrent readers only contend when their records land in the
+ *   same stripe. Hits and misses are counted with striped counters as well.
+ * </p>
+ *
+ * <p>
+ *   Cached shapes are shared by every caller that reads them. Their arrays are not copies and must not be modified.
+ * </p>
+ */
+public final class ShapeCache {
+
+    public static final int DEFAULT_STRIPES = 16;
+
+    /**
+     * Estimated heap size of a record apart from its arrays: the record, its header, the shape and the array headers.
+     */
+    static final int RECORD_OVERHEAD_BYTES = 160;
+
+    /**
+     * Creates an empty cache with {@link #DEFAULT_STRIPES} stripes.
+     *
+     * @param maxWeightBytes The most the cached records may weigh in total
+     * @return {@link ShapeCache}
+     */
+    public static ShapeCache create(final long maxWeightBytes) {
+        return create(maxWeightBytes, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maxWeightBytes The most the cached records may weigh in total
+     * @param stripes Number of independently locked stripes the budget is split between
+     * @return {@link ShapeCache}
+     * @throws IllegalArgumentException if the budget is negative or there are no stripes
+     */
+    public static ShapeCache create(final long maxWeightBytes, final int stripes) {
+        if (maxWeightBytes < 0) {
+            throw new IllegalArgumentException("Budget must not be negative: " + maxWeightBytes);
+        } else if (stripes < 1) {
+            throw new IllegalArgumentException("There must be at least one stripe: " + stripes);
+        }
+
+        final ShapeCache shapeCache = new ShapeCache();
+        shapeCache.maxWeightBytes = maxWeightBytes;
+        shapeCache.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            shapeCache.stripes[i] = new Stripe(maxWeightBytes / stripes);
+        }
+
+        return shapeCache;
+    }
+
+    private ShapeCache() {}
+
+    private long maxWeightBytes;
+    private Stripe[] stripes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Identifies one record of one version of a main file.
+     */
+    static final class Key {
+
+        private final String path;
+        private final long lastModified;
+        private final long length;
+        private final int recordNumber;
+        private final int hash;
+
+        /**
+         * @param path Absolute path of the main file
+         * @param lastModified Modification time of the main file
+         * @param length Length of the main file in bytes
+         * @param recordNumber Record numbers begin at 1.
+         */
+        Key(final String path, final long lastModified, final long length, final int recordNumber) {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.recordNumber = recordNumber;
+            this.hash = 31 * (31 * (31 * path.hashCode() + Long.hashCode(lastModified)) + Long.hashCode(length)) + recordNumber;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (other instanceof Key) {
+                final Key otherKey = (Key) other;
+                return otherKey.recordNumber == recordNumber
+                        && otherKey.lastModified == lastModified
+                        && otherKey.length == length
+                        && otherKey.path.equals(path);
+            } else {
+                return false;
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Stripe {
+
+        private final long maxWeightBytes;
+        private final LinkedHashMap<Key, Record> records = new LinkedHashMap<>(16, 0.75f, true);
+        private long weightBytes;
+
+        private Stripe(final long maxWeightBytes) {
+            this.maxWeightBytes = maxWeightBytes;
+        }
+    }
+
+    /**
+     * @return The cached record, or null.
+     */
+    Record get(final Key key) {
+        final Stripe stripe = stripeOf(key);
+
+        final Record record;
+        synchronized (stripe) {
+            record = stripe.records.get(key);
+        }
+
+        if (record == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return record;
+    }
+
+    /**
+     * Caches the record, evicting the least recently used records of its stripe to make room. A record heavier than a
+     * whole stripe is not cached.
+     */
+    void put(final Key key, final Record record) {
+        final Stripe stripe = stripeOf(key);
+        final long weight = weigh(record);
+        if (weight > stripe.maxWeightBytes) {
+            return;
+        }
+
+        synchronized (stripe) {
+            final Record replaced = stripe.records.put(key, record);
+            stripe.weightBytes += weight - (replaced == null ? 0 : weigh(replaced));
+
+            final Iterator<Record> eldest = stripe.records.values().iterator();
+            while (stripe.weightBytes > stripe.maxWeightBytes && eldest.hasNext()) {
+                stripe.weightBytes -= weigh(eldest.next());
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Estimates the heap size of a record from the lengths of the arrays behind its shape.
+     */
+    static long weigh(final Record record) {
+        final Shape shape = record.getShape();
+
+        long weight = RECORD_OVERHEAD_BYTES;
+        if (shape instanceof PackedShape) {
+            final PackedShape packedShape = (PackedShape) shape;
+            weight += 16L * packedShape.getNumPoints();
+            weight += packedShape.hasZ() ? 8L * packedShape.getNumPoints() : 0;
+            weight += packedShape.hasM() ? 8L * packedShape.getNumPoints() : 0;
+        }
+        if (shape instanceof MultiPartShape) {
+            weight += 4L * ((MultiPartShape) shape).getNumParts();
+        }
+
+        return weight;
+    }
+
+    /**
+     * Drops every record.
+     */
+    public void clear() {
+        for (final Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.records.clear();
+                stripe.weightBytes = 0;
+            }
+        }
+    }
+
+    /**
+     * @return The number of cached records.
+     */
+    public int size() {
+        int size = 0;
+        for (final Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.records.size();
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * @return The estimated heap size of the cached records.
+     */
+    public long getWeightBytes() {
+        long weightBytes = 0;
+        for (final Stripe stripe : stripes) {
+            synchronized (stripe) {
+                weightBytes += stripe.weightBytes;
+            }
+        }
+
+        return weightBytes;
+    }
+
+    public long getMaxWeightBytes() {
+        return maxWeightBytes;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return The share of lookups that found their record, or 0 before the first lookup.
+     */
+    public double getHitRate() {
+        final long hits = getHitCount();
+        final long lookups = hits + getMissCount();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Resets the hit, miss and eviction counts.
+     */
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    private Stripe stripeOf(final Key key) {
+        final int hash = key.hashCode() ^ (key.hashCode() >>> 16);
+        return stripes[(hash & 0x7FFFFFFF) % stripes.length];
+    }
+}
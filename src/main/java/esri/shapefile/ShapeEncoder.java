@@ -0,0 +1,164 @@
+package esri.shapefile;
+
+import esri.shapefile.models.BoundingBox;
+import esri.shapefile.models.shapes.MultiPartShape;
+import esri.shapefile.models.shapes.MultiPatch;
+import esri.shapefile.models.shapes.PackedShape;
+import esri.shapefile.models.shapes.Point;
+import esri.shapefile.models.shapes.Shape;
+import esri.shapefile.models.shapes.ShapeType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Encodes shapes into record contents, the reverse of {@link ShapefileReader#buildShapeFromBytes(ByteBuffer)}.
+ *
+ * <p>
+ *   Shapes backed by primitive arrays are written straight from those arrays, so encoding allocates nothing. Z types
+ *   whose measures are missing are written without the optional M section; M types whose measures are missing are
+ *   written with every measure set to {@link #NO_DATA}.
+ * </p>
+ */
+final class ShapeEncoder {
+
+    /**
+     * Any measure smaller than -10^38 is read as "no data".
+     */
+    static final double NO_DATA = -1e39;
+
+    /**
+     * @return The length of the record contents for the shape, in bytes.
+     */
+    static long contentLengthBytes(final Shape shape) {
+        final ShapeType shapeType = shape.getShapeType();
+
+        switch (shapeType) {
+            case NullShape:
+                return 4;
+            case Point:
+                return 20;
+            case PointM:
+                return 28;
+            case PointZ:
+                return 36;
+            default:
+                break;
+        }
+
+        final PackedShape packedShape = (PackedShape) shape;
+        final int numPoints = packedShape.getNumPoints();
+
+        long length = shapeType.isMultiPoint() ? 40 : 44 + 4L * ((MultiPartShape) shape).getNumParts();
+        if (shapeType == ShapeType.MultiPatch) {
+            length += 4L * ((MultiPartShape) shape).getNumParts();
+        }
+
+        length += 16L * numPoints;
+
+        if (hasZ(shapeType)) {
+            length += 16 + 8L * numPoints;
+        }
+
+        if (hasM(shapeType) || (hasZ(shapeType) && packedShape.hasM())) {
+            length += 16 + 8L * numPoints;
+        }
+
+        return length;
+    }
+
+    /**
+     * Writes the record contents of the shape at the position of the buffer, advancing it.
+     */
+    static void encode(final Shape shape, final ByteBuffer byteBuffer) {
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        final ShapeType shapeType = shape.getShapeType();
+        byteBuffer.putInt(shapeType.getCode());
+
+        if (shapeType == ShapeType.NullShape) {
+            return;
+        }
+
+        if (shapeType.isPoint()) {
+            final Point point = (Point) shape;
+            byteBuffer.putDouble(point.getX());
+            byteBuffer.putDouble(point.getY());
+
+            if (shapeType == ShapeType.PointZ) {
+                byteBuffer.putDouble(point.getZ());
+            }
+            if (shapeType != ShapeType.Point) {
+                byteBuffer.putDouble(Double.isNaN(point.getM()) ? NO_DATA : point.getM());
+            }
+            return;
+        }
+
+        final PackedShape packedShape = (PackedShape) shape;
+        final BoundingBox boundingBox = packedShape.getBoundingBox();
+        byteBuffer.putDouble(boundingBox.getXMin());
+        byteBuffer.putDouble(boundingBox.getYMin());
+        byteBuffer.putDouble(boundingBox.getXMax());
+        byteBuffer.putDouble(boundingBox.getYMax());
+
+        if (shapeType.isMultiPoint()) {
+            byteBuffer.putInt(packedShape.getNumPoints());
+        } else {
+            final MultiPartShape multiPartShape = (MultiPartShape) shape;
+            byteBuffer.putInt(multiPartShape.getNumParts());
+            byteBuffer.putInt(multiPartShape.getNumPoints());
+            putInts(byteBuffer, multiPartShape.getPartStarts(), multiPartShape.getNumParts());
+
+            if (shapeType == ShapeType.MultiPatch) {
+                putInts(byteBuffer, ((MultiPatch) shape).getPartTypes(), multiPartShape.getNumParts());
+            }
+        }
+
+        putDoubles(byteBuffer, packedShape.getCoordinates(), 2 * packedShape.getNumPoints());
+
+        if (hasZ(shapeType)) {
+            byteBuffer.putDouble(packedShape.getZMin());
+            byteBuffer.putDouble(packedShape.getZMax());
+            putDoubles(byteBuffer, packedShape.getZValues(), packedShape.getNumPoints());
+        }
+
+        if (packedShape.hasM() && (hasM(shapeType) || hasZ(shapeType))) {
+            byteBuffer.putDouble(packedShape.getMMin());
+            byteBuffer.putDouble(packedShape.getMMax());
+            putDoubles(byteBuffer, packedShape.getMValues(), packedShape.getNumPoints());
+        } else if (hasM(shapeType)) {
+            byteBuffer.putDouble(NO_DATA);
+            byteBuffer.putDouble(NO_DATA);
+            for (int i = 0; i < packedShape.getNumPoints(); i++) {
+                byteBuffer.putDouble(NO_DATA);
+            }
+        }
+    }
+
+    static boolean hasZ(final ShapeType shapeType) {
+        return shapeType == ShapeType.PointZ || shapeType == ShapeType.PolyLineZ || shapeType == ShapeType.PolygonZ ||
+               shapeType == ShapeType.MultiPointZ || shapeType == ShapeType.MultiPatch;
+    }
+
+    static boolean hasM(final ShapeType shapeType) {
+        return shapeType == ShapeType.PointM || shapeType == ShapeType.PolyLineM || shapeType == ShapeType.PolygonM ||
+               shapeType == ShapeType.MultiPointM;
+    }
+
+    /**
+     * Element by element rather than through an {@link java.nio.IntBuffer} view, which would be allocated per call.
+     */
+    private static void putInts(final ByteBuffer byteBuffer, final int[] values, final int count) {
+        for (int i = 0; i < count; i++) {
+            byteBuffer.putInt(values[i]);
+        }
+    }
+
+    private static void putDoubles(final ByteBuffer byteBuffer, final double[] values, final int count) {
+        for (int i = 0; i < count; i++) {
+            byteBuffer.putDouble(values[i]);
+        }
+    }
+
+    private ShapeEncoder() {}
+}
@@ -0,0 +1,205 @@
+package esri.shapefile;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import esri.shapefile.io.MappedFile;
+import esri.shapefile.models.RecordHeader;
+import esri.shapefile.models.shapes.Shape;
+import esri.shapefile.models.shapes.ShapeType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A reusable, read-only cursor over a single record of a memory-mapped main file.
+ *
+ * <p>
+ *   Nothing is decoded up front. Each accessor reads its value from the mapping when it is called, so a consumer that
+ *   rejects a record after looking at its bounding box never pays for its points. The same instance is moved from
+ *   record to record, which means a {@link ShapeView} is only valid until the consumer it was handed to returns; use
+ *   {@link #toShape()} to keep a record.
+ * </p>
+ *
+ * <p>
+ *   Positions below are relative to the start of the record contents, and follow the layouts documented on each
+ *   shape. Single points have no bounding box of their own; the point is reported as a degenerate box.
+ * </p>
+ */
+public final class ShapeView {
+
+    /**
+     * The smallest contents that hold what the bounding box accessors read: the shape type and either the x and y of a
+     * point, or a bounding box.
+     */
+    private static final int MIN_POINT_BYTES = 4 + 16;
+    private static final int MIN_BOUNDING_BOX_BYTES = 4 + 32;
+
+    private final MappedFile mappedFile;
+
+    /**
+     * The buffer the current record is read from, in little-endian order, and the index of its record header.
+     */
+    private ByteBuffer buffer;
+    private int base;
+
+    private int contentLengthBytes;
+    private ShapeType shapeType;
+
+    ShapeView(final MappedFile mappedFile) {
+        this.mappedFile = mappedFile;
+    }
+
+    /**
+     * Moves the view to the record whose header starts at {@code offset}. The whole record is read in place when it
+     * lies within a single mapped chunk, which is the case for all but the rare record that straddles two chunks.
+     *
+     * @throws ShapefileNotReadableException if the content length is negative or the record runs past the end of the
+     * file, so that callers stepping from record to record by the content length always move forwards, or if the
+     * contents are too short for the bounding box of their shape type
+     */
+    void moveTo(final long offset) throws ShapefileNotReadableException {
+        final int contentLength = mappedFile.getInt(offset + 4, ByteOrder.BIG_ENDIAN);
+        final int recordLength = ShapefileReader.RECORD_HEADER_SIZE +
+                ShapefileReader.checkContentLength(mappedFile.getFile(), offset, contentLength, mappedFile.size());
+
+        if (mappedFile.isContiguous(offset, recordLength)) {
+            buffer = mappedFile.chunk(offset, ByteOrder.LITTLE_ENDIAN);
+            base = mappedFile.chunkOffset(offset);
+        } else {
+            buffer = mappedFile.slice(offset, recordLength).order(ByteOrder.LITTLE_ENDIAN);
+            base = 0;
+        }
+
+        contentLengthBytes = contentLength * 2;
+        try {
+            shapeType = contentLengthBytes < 4 ? ShapeType.NullShape : ShapeType.fromCode(content(0));
+        } catch (final IllegalArgumentException e) {
+            throw new ShapefileNotReadableException(e.getMessage());
+        }
+
+        final int minimumBytes = shapeType.isPoint() ? MIN_POINT_BYTES : shapeType.hasBoundingBox() ? MIN_BOUNDING_BOX_BYTES : 0;
+        if (contentLengthBytes < minimumBytes) {
+            throw new ShapefileNotReadableException(String.format("%s: record at position %d holds a %s in %d bytes, but needs at least %d",
+                    mappedFile.getFile().getAbsolutePath(), offset, shapeType, contentLengthBytes, minimumBytes));
+        }
+    }
+
+    public int getRecordNumber() {
+        return Integer.reverseBytes(buffer.getInt(base));
+    }
+
+    public int getContentLengthBytes() {
+        return contentLengthBytes;
+    }
+
+    public ShapeType getShapeType() {
+        return shapeType;
+    }
+
+    public double getXMin() {
+        return shapeType.isPoint() ? getX(0) : contentDouble(4);
+    }
+
+    public double getYMin() {
+        return shapeType.isPoint() ? getY(0) : contentDouble(12);
+    }
+
+    public double getXMax() {
+        return shapeType.isPoint() ? getX(0) : contentDouble(20);
+    }
+
+    public double getYMax() {
+        return shapeType.isPoint() ? getY(0) : contentDouble(28);
+    }
+
+    /**
+     * Whether the bounding box of the record intersects the given box. Null shapes intersect nothing.
+     */
+    public boolean intersects(final double xMin, final double yMin, final double xMax, final double yMax) {
+        return shapeType != ShapeType.NullShape &&
+               getXMin() <= xMax && getXMax() >= xMin &&
+               getYMin() <= yMax && getYMax() >= yMin;
+    }
+
+    public int getNumParts() {
+        return hasParts() ? content(36) : 0;
+    }
+
+    public int getNumPoints() {
+        if (shapeType == ShapeType.NullShape) {
+            return 0;
+        } else if (shapeType.isPoint()) {
+            return 1;
+        } else if (shapeType.isMultiPoint()) {
+            return content(36);
+        }
+
+        return content(40);
+    }
+
+    public int getPartStart(final int part) {
+        return content(44 + 4 * part);
+    }
+
+    public int getPartEnd(final int part) {
+        return part + 1 < getNumParts() ? getPartStart(part + 1) : getNumPoints();
+    }
+
+    public double getX(final int point) {
+        return contentDouble(pointsOffset() + 16 * point);
+    }
+
+    public double getY(final int point) {
+        return contentDouble(pointsOffset() + 16 * point + 8);
+    }
+
+    /**
+     * Decodes the header of the current record into a {@link RecordHeader} that remains valid after the view moves on.
+     */
+    public RecordHeader toRecordHeader() {
+        final ByteBuffer header = buffer.duplicate();
+        header.limit(base + ShapefileReader.RECORD_HEADER_SIZE).position(base);
+
+        return RecordHeader.fromBytes(header.slice());
+    }
+
+    /**
+     * Decodes the current record into a {@link Shape} that remains valid after the view moves on.
+     */
+    public Shape toShape() throws ShapefileNotReadableException {
+        return ShapefileReader.buildShapeFromBytes(contents());
+    }
+
+    /**
+     * @return The record contents, without the record header, as a buffer of their own.
+     */
+    ByteBuffer contents() {
+        final ByteBuffer contents = buffer.duplicate();
+        contents.limit(base + ShapefileReader.RECORD_HEADER_SIZE + contentLengthBytes).position(base + ShapefileReader.RECORD_HEADER_SIZE);
+
+        return contents.slice();
+    }
+
+    private boolean hasParts() {
+        return shapeType.hasBoundingBox() && !shapeType.isMultiPoint();
+    }
+
+    private int pointsOffset() {
+        if (shapeType.isPoint()) {
+            return 4;
+        } else if (shapeType.isMultiPoint()) {
+            return 40;
+        } else if (shapeType == ShapeType.MultiPatch) {
+            return 44 + 8 * getNumParts();
+        }
+
+        return 44 + 4 * getNumParts();
+    }
+
+    private int content(final int position) {
+        return buffer.getInt(base + ShapefileReader.RECORD_HEADER_SIZE + position);
+    }
+
+    private double contentDouble(final int position) {
+        return buffer.getDouble(base + ShapefileReader.RECORD_HEADER_SIZE + position);
+    }
+}
@@ -0,0 +1,206 @@
+package esri.shapefile;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import esri.shapefile.models.MainFileHeader;
+import esri.shapefile.models.ShapefileIndex;
+
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps shapefiles open between calls, so that a service reading the same files over and over maps each file and
+ * parses its header and index once, rather than on every request.
+ *
+ * <p>
+ *   Each file has at most one {@link ShapefileSession}, shared by every caller. Sessions are held in a
+ *   {@link ConcurrentHashMap}: finding an open session takes no lock at all, and opening one locks only the entry for
+ *   that file, so concurrent callers wait for each other only when they open the same file at the same time.
+ * </p>
+ *
+ * <p>
+ *   The cache is bounded by the total {@link ShapefileSession#getWeightBytes() weight} of its sessions. Once it is over
+ *   budget, the sessions used least recently are evicted until it is back under. Recency is a tick of a shared clock
+ *   recorded on every use, so using a session never reorders a shared list. Eviction runs on whichever thread pushed
+ *   the cache over budget, and is skipped by the others while it runs.
+ * </p>
+ *
+ * <p>
+ *   A session is replaced as soon as the modification time of its main file or index file changes, or the length of
+ *   its main file does, so callers never see a header or an index that is out of date with the file on disk.
+ * </p>
+ *
+ * <pre>
+ * {@code
+ *   final ShapefileCache shapefileCache = ShapefileCache.create(512L << 20);
+ *
+ *   final Record record = shapefileCache.session("/path/to/shapefile.shp").readRecord(42);
+ * }
+ * </pre>
+ */
+public final class ShapefileCache {
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maxWeightBytes The most the sessions may weigh in total before the least recently used are evicted
+     * @return {@link ShapefileCache}
+     * @throws IllegalArgumentException if the budget is negative
+     */
+    public static ShapefileCache create(final long maxWeightBytes) {
+        if (maxWeightBytes < 0) {
+            throw new IllegalArgumentException("Budget must not be negative: " + maxWeightBytes);
+        }
+
+        final ShapefileCache shapefileCache = new ShapefileCache();
+        shapefileCache.maxWeightBytes = maxWeightBytes;
+
+        return shapefileCache;
+    }
+
+    private ShapefileCache() {}
+
+    private static final class Entry {
+
+        private final ShapefileSession session;
+        private volatile long lastUsed;
+
+        private Entry(final ShapefileSession session, final long lastUsed) {
+            this.session = session;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong weightBytes = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private long maxWeightBytes;
+
+    /**
+     * Returns the open session for the shapefile, opening it first when the cache has none, or when the files changed
+     * since it was opened.
+     *
+     * @param pathToShapefile
+     * @return {@link ShapefileSession}
+     * @throws ShapefileNotReadableException
+     */
+    public ShapefileSession session(final String pathToShapefile) throws ShapefileNotReadableException {
+        final File shapefile = new File(pathToShapefile).getAbsoluteFile();
+        final String key = shapefile.getPath();
+
+        final Entry cached = entries.get(key);
+        if (cached != null && cached.session.isCurrent()) {
+            cached.lastUsed = clock.incrementAndGet();
+            return cached.session;
+        }
+
+        final Entry entry;
+        try {
+            entry = entries.compute(key, (path, current) -> {
+                if (current != null && current.session.isCurrent()) {
+                    return current;
+                }
+
+                try {
+                    final Entry opened = new Entry(ShapefileSession.open(shapefile), clock.incrementAndGet());
+                    weightBytes.addAndGet(opened.session.getWeightBytes() - (current == null ? 0 : current.session.getWeightBytes()));
+                    return opened;
+                } catch (final ShapefileNotReadableException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (final UncheckedIOException e) {
+            throw (ShapefileNotReadableException) e.getCause();
+        }
+
+        entry.lastUsed = clock.incrementAndGet();
+        evictIfOverBudget();
+        return entry.session;
+    }
+
+    /**
+     * @return The header of the main file, parsed once per session.
+     */
+    public MainFileHeader getMainFileHeader(final String pathToShapefile) throws ShapefileNotReadableException {
+        return session(pathToShapefile).getMainFileHeader();
+    }
+
+    /**
+     * @return The offsets of every record, loaded once per session.
+     */
+    public ShapefileIndex getShapefileIndex(final String pathToShapefile) throws ShapefileNotReadableException {
+        return session(pathToShapefile).getShapefileIndex();
+    }
+
+    /**
+     * Drops the session for the shapefile, if there is one.
+     */
+    public void invalidate(final String pathToShapefile) {
+        final Entry removed = entries.remove(new File(pathToShapefile).getAbsoluteFile().getPath());
+        if (removed != null) {
+            weightBytes.addAndGet(-removed.session.getWeightBytes());
+        }
+    }
+
+    /**
+     * Drops every session.
+     */
+    public void invalidateAll() {
+        for (final String key : entries.keySet()) {
+            final Entry removed = entries.remove(key);
+            if (removed != null) {
+                weightBytes.addAndGet(-removed.session.getWeightBytes());
+            }
+        }
+    }
+
+    /**
+     * @return The number of open sessions.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return The total weight of the open sessions.
+     */
+    public long getWeightBytes() {
+        return weightBytes.get();
+    }
+
+    public long getMaxWeightBytes() {
+        return maxWeightBytes;
+    }
+
+    /**
+     * Evicts the least recently used sessions until the cache is within its budget. A thread that finds another
+     * already evicting leaves it to that thread.
+     */
+    private void evictIfOverBudget() {
+        while (weightBytes.get() > maxWeightBytes && evictionLock.tryLock()) {
+            try {
+                while (weightBytes.get() > maxWeightBytes) {
+                    Map.Entry<String, Entry> eldest = null;
+                    for (final Map.Entry<String, Entry> candidate : entries.entrySet()) {
+                        if (eldest == null || candidate.getValue().lastUsed < eldest.getValue().lastUsed) {
+                            eldest = candidate;
+                        }
+                    }
+
+                    if (eldest == null) {
+                        return;
+                    }
+                    if (entries.remove(eldest.getKey(), eldest.getValue())) {
+                        weightBytes.addAndGet(-eldest.getValue().session.getWeightBytes());
+                    }
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+}
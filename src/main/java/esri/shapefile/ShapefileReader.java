@@ -1,20 +1,62 @@
 package esri.shapefile;
 
+import esri.shapefile.dbf.DbfPredicate;
+import esri.shapefile.dbf.DbfRow;
+import esri.shapefile.dbf.DbfStream;
+import esri.shapefile.dbf.DbfTable;
 import esri.shapefile.exceptions.ShapefileConsumerException;
 import esri.shapefile.exceptions.ShapefileNotReadableException;
+import esri.shapefile.index.PackedRTree;
+import esri.shapefile.index.QixIndex;
+import esri.shapefile.index.SbnIndex;
+import esri.shapefile.index.SpatialIndex;
+import esri.shapefile.io.MappedFile;
+import esri.shapefile.io.ReadAheadChannel;
+import esri.shapefile.io.ShapefilePaths;
+import esri.shapefile.metrics.ReaderMetrics;
+import esri.shapefile.models.BoundingBox;
 import esri.shapefile.models.MainFileHeader;
+import esri.shapefile.models.Record;
 import esri.shapefile.models.RecordHeader;
+import esri.shapefile.models.ShapefileIndex;
+import esri.shapefile.models.shapes.MultiPatch;
+import esri.shapefile.models.shapes.MultiPoint;
 import esri.shapefile.models.shapes.Null;
+import esri.shapefile.models.shapes.PackedShape;
 import esri.shapefile.models.shapes.Point;
+import esri.shapefile.models.shapes.PolyLine;
 import esri.shapefile.models.shapes.Polygon;
 import esri.shapefile.models.shapes.Shape;
+import esri.shapefile.models.shapes.ShapeType;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
  * An ESRI Shapefile Reader.
@@ -58,12 +100,12 @@ public final class ShapefileReader {
     /**
      * The main file header is 100 bytes long.
      */
-    private static final int MAIN_FILE_HEADER_SIZE = 100;
+    static final int MAIN_FILE_HEADER_SIZE = 100;
 
     /**
      * Record headers have a fixed length of 8 bytes.
      */
-    private static final int RECORD_HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 8;
 
     /**
      * Interface that must be implemented in order to consume each RecordHeader and Shape contained within a shapefile.
@@ -72,6 +114,103 @@ public final class ShapefileReader {
         void consume(final RecordHeader recordHeader, final Shape shape) throws ShapefileConsumerException;
     }
 
+    /**
+     * Interface that must be implemented in order to consume each record of a shapefile through a {@link ShapeView}.
+     * It may throw {@link ShapefileNotReadableException} so that {@link ShapeView#toShape()} can be called directly.
+     */
+    public interface ShapeViewConsumer {
+        void consume(final ShapeView shapeView) throws ShapefileConsumerException, ShapefileNotReadableException;
+    }
+
+    /**
+     * Interface that must be implemented in order to consume each record of a shapefile together with its row of
+     * attributes. The {@link DbfRow} is only valid until the consumer returns.
+     */
+    public interface FeatureConsumer {
+        void consume(final RecordHeader recordHeader, final Shape shape, final DbfRow dbfRow) throws ShapefileConsumerException;
+    }
+
+    /**
+     * How records decoded in parallel are handed to a {@link RecordConsumer}.
+     */
+    public enum Delivery {
+        /**
+         * Records are consumed one at a time, on the calling thread, in the order they appear in the file.
+         */
+        ORDERED,
+
+        /**
+         * Records are consumed concurrently, on the threads that decoded them, in no particular order. The
+         * {@link RecordConsumer} must be thread-safe.
+         */
+        UNORDERED
+    }
+
+    /**
+     * Listens to the records this reader reads, or null.
+     */
+    private final ReaderMetrics metrics;
+
+    /**
+     * Decoded records looked up before reading a record by its number, or null.
+     */
+    private final ShapeCache shapeCache;
+
+    /**
+     * Creates a reader without a {@link ReaderMetrics} listener or a {@link ShapeCache}.
+     */
+    public ShapefileReader() {
+        this(null, null);
+    }
+
+    private ShapefileReader(final ReaderMetrics metrics, final ShapeCache shapeCache) {
+        this.metrics = metrics;
+        this.shapeCache = shapeCache;
+    }
+
+    /**
+     * Returns a reader that reports to the given listener the bytes it reads, the records it decodes and skips, and
+     * the time spent decoding each record as opposed to consuming it. This reader is left unchanged.
+     *
+     * <p>
+     *   Every read mode that decodes records reports them, except {@link #forEachShapeView(String, ShapeViewConsumer)},
+     *   whose views are decoded by the consumer, if at all.
+     * </p>
+     *
+     * @param metrics The listener, or null for none
+     * @return {@link ShapefileReader}
+     */
+    public ShapefileReader withMetrics(final ReaderMetrics metrics) {
+        return new ShapefileReader(metrics, shapeCache);
+    }
+
+    /**
+     * @return The listener set by {@link #withMetrics(ReaderMetrics)}, or null.
+     */
+    public ReaderMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns a reader that looks records up in the given cache before reading them by their record number, and
+     * caches the records it reads. Only {@link #readRecord(String, ShapefileIndex, int)},
+     * {@link #readRecords(String, ShapefileIndex, int[])} and their overloads use the cache; reading whole files does
+     * not fill it. This reader is left unchanged.
+     *
+     * @param shapeCache The cache, or null for none
+     * @return {@link ShapefileReader}
+     */
+    public ShapefileReader withShapeCache(final ShapeCache shapeCache) {
+        return new ShapefileReader(metrics, shapeCache);
+    }
+
+    /**
+     * @return The cache set by {@link #withShapeCache(ShapeCache)}, or null.
+     */
+    public ShapeCache getShapeCache() {
+        return shapeCache;
+    }
+
     /**
      * This method reads the {@link MainFileHeader} of the shapefile located at the provided absolute filepath.
      *
@@ -93,11 +232,25 @@ public final class ShapefileReader {
      * @throws ShapefileNotReadableException
      */
     public MainFileHeader getMainFileHeader(final String pathToShapefile) throws ShapefileNotReadableException {
-        final File file = new File(pathToShapefile);
-        final FileInputStream fileInputStream = getInputStream(file);
+        final File shapefile = new File(pathToShapefile);
+
+        try (final StreamRecordReader streamRecordReader = new StreamRecordReader(openInputStream(shapefile), shapefile.getAbsolutePath())) {
+            return MainFileHeader.fromBytes(streamRecordReader.next(MAIN_FILE_HEADER_SIZE));
+        }
+    }
 
-        final byte[] mainFileHeaderBytes = readBytes(file, fileInputStream, MAIN_FILE_HEADER_SIZE);
-        return MainFileHeader.fromBytes(mainFileHeaderBytes);
+    /**
+     * Reads the {@link MainFileHeader} of the main file at the given path, which may belong to any
+     * {@link java.nio.file.FileSystem}.
+     *
+     * @param shapefile
+     * @return {@link MainFileHeader}
+     * @throws ShapefileNotReadableException
+     */
+    public MainFileHeader getMainFileHeader(final Path shapefile) throws ShapefileNotReadableException {
+        try (final StreamRecordReader streamRecordReader = new StreamRecordReader(openInputStream(shapefile), shapefile.toUri().toString())) {
+            return MainFileHeader.fromBytes(streamRecordReader.next(MAIN_FILE_HEADER_SIZE));
+        }
     }
 
     /**
@@ -129,58 +282,1257 @@ public final class ShapefileReader {
      */
     public void forEachRecord(final String pathToShapefile, final RecordConsumer recordConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
         final File shapefile = new File(pathToShapefile);
-        final FileInputStream fileInputStream = getInputStream(shapefile);
+        forEachRecord(openInputStream(shapefile), shapefile.getAbsolutePath(), recordConsumer);
+    }
 
-        final byte[] mainFileHeaderBytes = readBytes(shapefile, fileInputStream, MAIN_FILE_HEADER_SIZE);
-        final MainFileHeader mainFileHeader = MainFileHeader.fromBytes(mainFileHeaderBytes);
+    /**
+     * Reads the records of a main file from a stream, which is closed once reading stops, successfully or not.
+     *
+     * @param inputStream
+     * @param source Describes the stream in error messages
+     * @param recordConsumer
+     */
+    void forEachRecord(final InputStream inputStream, final String source, final RecordConsumer recordConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
+        final RecordConsumer measuredConsumer = measure(recordConsumer);
 
-        int offset = mainFileHeaderBytes.length;
-        while (offset < mainFileHeader.getFileLengthBytes()) {
-            final byte[] recordHeaderBytes = readBytes(shapefile, fileInputStream, RECORD_HEADER_SIZE);
-            final RecordHeader recordHeader = RecordHeader.fromBytes(recordHeaderBytes);
-            offset += recordHeaderBytes.length;
+        try (final StreamRecordReader streamRecordReader = new StreamRecordReader(inputStream, source)) {
+            final MainFileHeader mainFileHeader = MainFileHeader.fromBytes(streamRecordReader.next(MAIN_FILE_HEADER_SIZE));
 
-            final byte[] shapeBytes = readBytes(shapefile, fileInputStream, recordHeader.getContentLengthBytes());
-            final Shape shape = buildShapeFromBytes(shapeBytes);
-            offset += shapeBytes.length;
+            while (streamRecordReader.position() < mainFileHeader.getFileLengthBytes()) {
+                final long offset = streamRecordReader.position();
+                final RecordHeader recordHeader = RecordHeader.fromBytes(streamRecordReader.next(RECORD_HEADER_SIZE));
+                final int contentLength = checkContentLength(source, offset, recordHeader.getContentLength(), mainFileHeader.getFileLengthBytes());
+                final Shape shape = decodeShape(recordHeader, streamRecordReader.next(contentLength), metrics);
 
-            recordConsumer.consume(recordHeader, shape);
+                measuredConsumer.consume(recordHeader, shape);
+            }
         }
     }
 
-    private Shape buildShapeFromBytes(final byte[] shapeBytes) throws ShapefileNotReadableException {
-        final ByteBuffer shapeByteBuffer = ByteBuffer.wrap(shapeBytes);
-        shapeByteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+    /**
+     * Reads the records of a main file (.shp) from a stream, front to back, in a single pass. Nothing is written to
+     * disk, so this suits shapefiles held in memory, downloaded over a network or read from an archive. The stream is
+     * read through an internal buffer, and it is left open for the caller to close.
+     *
+     * @param inputStream A stream positioned at the start of the main file
+     * @param recordConsumer
+     * @throws ShapefileNotReadableException
+     * @throws ShapefileConsumerException
+     */
+    public void forEachRecord(final InputStream inputStream, final RecordConsumer recordConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
+        forEachRecord(new UnclosableInputStream(inputStream), "<input stream>", recordConsumer);
+    }
 
-        final int shapeType = shapeByteBuffer.getInt(0);
-        shapeByteBuffer.rewind();
+    /**
+     * Behaves like {@link #forEachRecord(InputStream, RecordConsumer)} for a channel, which is left open for the
+     * caller to close.
+     *
+     * @param channel A channel positioned at the start of the main file
+     * @param recordConsumer
+     * @throws ShapefileNotReadableException
+     * @throws ShapefileConsumerException
+     */
+    public void forEachRecord(final ReadableByteChannel channel, final RecordConsumer recordConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
+        forEachRecord(new UnclosableInputStream(Channels.newInputStream(channel)), "<channel>", recordConsumer);
+    }
+
+    /**
+     * Reads the records of the main file at the given path, which may belong to any {@link java.nio.file.FileSystem},
+     * such as the one returned by {@link java.nio.file.FileSystems#newFileSystem(Path, ClassLoader)} for a zip archive.
+     * The file is streamed, not mapped, so the filesystem need not support mapping.
+     *
+     * @param shapefile
+     * @param recordConsumer
+     * @throws ShapefileNotReadableException
+     * @throws ShapefileConsumerException
+     */
+    public void forEachRecord(final Path shapefile, final RecordConsumer recordConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
+        forEachRecord(openInputStream(shapefile), shapefile.toUri().toString(), recordConsumer);
+    }
+
+    /**
+     * Reads the records of a main file (.shp) stored in a zip archive, decompressing it as it is read, without
+     * extracting it.
+     *
+     * @param zipFile The archive
+     * @param entryName Name of the main file within the archive, including its directories
+     * @param recordConsumer
+     * @throws ShapefileNotReadableException if there is no such entry, or it cannot be read
+     * @throws ShapefileConsumerException
+     */
+    public void forEachRecord(final ZipFile zipFile, final String entryName, final RecordConsumer recordConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
+        final ZipEntry zipEntry = getZipEntry(zipFile, entryName);
+        forEachRecord(openInputStream(zipFile, zipEntry), describe(zipFile, zipEntry), recordConsumer);
+    }
+
+    /**
+     * Behaves like {@link #forEachRecord(String, RecordConsumer)}, but memory-maps the shapefile instead of reading it
+     * through a stream. Record headers and shapes are decoded directly from slices of the mapping, so no bytes are
+     * copied for each record. Files larger than 2 GB are mapped in chunks.
+     *
+     * <p>
+     *   This mode suits large local files. It keeps the whole file mapped for the duration of the call, so prefer
+     *   {@link #forEachRecord(String, RecordConsumer)} for files on filesystems that do not support mapping.
+     * </p>
+     *
+     * @param pathToShapefile
+     * @param recordConsumer
+     * @throws ShapefileNotReadableException
+     * @throws ShapefileConsumerException
+     */
+    public void forEachRecordMapped(final String pathToShapefile, final RecordConsumer recordConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
+        final RecordConsumer measuredConsumer = measure(recordConsumer);
+
+        try (final MappedFile mappedFile = MappedFile.open(new File(pathToShapefile))) {
+            final MainFileHeader mainFileHeader = MainFileHeader.fromBytes(mappedFile.slice(0, MAIN_FILE_HEADER_SIZE));
+            final long end = Math.min(mainFileHeader.getFileLengthBytes(), mappedFile.size());
+
+            long offset = MAIN_FILE_HEADER_SIZE;
+            while (offset < end) {
+                final RecordHeader recordHeader = RecordHeader.fromBytes(mappedFile.slice(offset, RECORD_HEADER_SIZE));
+                final int contentLength = checkContentLength(mappedFile.getFile(), offset, recordHeader.getContentLength(), end);
+                offset += RECORD_HEADER_SIZE;
+
+                final Shape shape = decodeShape(recordHeader, mappedFile.slice(offset, contentLength), metrics);
+                offset += contentLength;
+
+                measuredConsumer.consume(recordHeader, shape);
+            }
+        }
+    }
+
+    /**
+     * Behaves like {@link #forEachRecordPipelined(String, RecordConsumer, int, int)} with blocks of
+     * {@link ReadAheadChannel#DEFAULT_BLOCK_SIZE} bytes and a depth of {@link ReadAheadChannel#DEFAULT_DEPTH}.
+     *
+     * @param pathToShapefile
+     * @param recordConsumer
+     * @throws ShapefileNotReadableException
+     * @throws ShapefileConsumerException
+     */
+    public void forEachRecordPipelined(final String pathToShapefile, final RecordConsumer recordConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
+        forEachRecordPipelined(pathToShapefile, recordConsumer, ReadAheadChannel.DEFAULT_BLOCK_SIZE, ReadAheadChannel.DEFAULT_DEPTH);
+    }
+
+    /**
+     * Behaves like {@link #forEachRecord(String, RecordConsumer)}, but reads the shapefile on a background thread that
+     * stays up to {@code depth - 1} blocks ahead of the decoding, which happens on the calling thread. Reading and
+     * decoding overlap instead of taking turns, which pays off on storage with high latency, such as network
+     * filesystems, where the file cannot or should not be memory-mapped.
+     *
+     * <p>
+     *   The blocks are a fixed ring of reusable buffers. Records are decoded in place from the block that holds them,
+     *   and only the few that straddle two blocks are copied.
+     * </p>
+     *
+     * @param pathToShapefile
+     * @param recordConsumer
+     * @param blockSize Number of bytes read from the file at a time
+     * @param depth Number of blocks in the ring, at least 2
+     * @throws ShapefileNotReadableException
+     * @throws ShapefileConsumerException
+     * @throws IllegalArgumentException if the block size is not positive or the depth is less than 2
+     */
+    public void forEachRecordPipelined(final String pathToShapefile, final RecordConsumer recordConsumer, final int blockSize, final int depth) throws ShapefileNotReadableException, ShapefileConsumerException {
+        final File shapefile = new File(pathToShapefile);
+        final RecordConsumer measuredConsumer = measure(recordConsumer);
+
+        try (final ReadAheadChannel readAheadChannel = ReadAheadChannel.open(shapefile, blockSize, depth)) {
+            final MainFileHeader mainFileHeader = MainFileHeader.fromBytes(readAheadChannel.next(MAIN_FILE_HEADER_SIZE));
+            final long end = Math.min(mainFileHeader.getFileLengthBytes(), shapefile.length());
+
+            while (readAheadChannel.position() < end) {
+                final long offset = readAheadChannel.position();
+                final RecordHeader recordHeader = RecordHeader.fromBytes(readAheadChannel.next(RECORD_HEADER_SIZE));
+                final int contentLength = checkContentLength(shapefile, offset, recordHeader.getContentLength(), end);
+                final Shape shape = decodeShape(recordHeader, readAheadChannel.next(contentLength), metrics);
 
-        switch (shapeType) {
-            case 0: return Null.fromBytes(shapeByteBuffer);
-            case 1: return Point.fromBytes(shapeByteBuffer);
-            case 5: return Polygon.fromBytes(shapeByteBuffer);
-            default: throw new ShapefileNotReadableException("Unknown Shape Value: " + shapeType);
+                measuredConsumer.consume(recordHeader, shape);
+            }
         }
     }
 
-    private byte[] readBytes(final File shapefile, final FileInputStream fileInputStream, final int numberOfBytes) throws ShapefileNotReadableException {
-        final byte[] bytes = new byte[numberOfBytes];
+    /**
+     * Visits each record of the shapefile through a single, reusable {@link ShapeView}. The view reads the shape type,
+     * bounding box, part and point counts, and coordinates straight from the memory-mapped file as they are asked
+     * for, so a consumer that only looks at bounding boxes never decodes a single point. Visiting the whole file
+     * allocates nothing per record.
+     *
+     * <pre>
+     * {@code
+     *   shapefileReader.forEachShapeView("/path/to/shapefile.shp", (shapeView) -> {
+     *       if (shapeView.intersects(-97.0, 30.0, -96.0, 31.0)) {
+     *           final Shape shape = shapeView.toShape();
+     *           // Do something with the shape...
+     *       }
+     *   });
+     * }
+     * </pre>
+     *
+     * @param pathToShapefile
+     * @param shapeViewConsumer
+     * @throws ShapefileNotReadableException
+     * @throws ShapefileConsumerException
+     */
+    public void forEachShapeView(final String pathToShapefile, final ShapeViewConsumer shapeViewConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
+        try (final MappedFile mappedFile = MappedFile.open(new File(pathToShapefile))) {
+            final MainFileHeader mainFileHeader = MainFileHeader.fromBytes(mappedFile.slice(0, MAIN_FILE_HEADER_SIZE));
+            final long end = Math.min(mainFileHeader.getFileLengthBytes(), mappedFile.size());
+            final ShapeView shapeView = new ShapeView(mappedFile);
+
+            long offset = MAIN_FILE_HEADER_SIZE;
+            while (offset < end) {
+                shapeView.moveTo(offset);
+                shapeViewConsumer.consume(shapeView);
+
+                offset += RECORD_HEADER_SIZE + shapeView.getContentLengthBytes();
+            }
+        }
+    }
+
+    /**
+     * Behaves like {@link #forEachFeature(String, Collection, FeatureConsumer)} with every column of the dBASE table
+     * available.
+     *
+     * @param pathToShapefile
+     * @param featureConsumer
+     * @throws ShapefileNotReadableException
+     * @throws ShapefileConsumerException
+     */
+    public void forEachFeature(final String pathToShapefile, final FeatureConsumer featureConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
+        forEachFeature(pathToShapefile, null, featureConsumer);
+    }
+
+    /**
+     * Reads the main file and the dBASE table (.dbf) next to it side by side, in a single pass, and calls the consumer
+     * with each record and its row of attributes. Row {@code n} of the table holds the attributes of the {@code n}th
+     * record. Both files are memory-mapped; only the given columns of each row can be read, and they are decoded only
+     * when the consumer asks for them.
+     *
+     * <pre>
+     * {@code
+     *   shapefileReader.forEachFeature("/path/to/shapefile.shp", Arrays.asList("STATE"), (recordHeader, shape, dbfRow) -> {
+     *       if (dbfRow.getString("STATE").equals("TX")) {
+     *           // Do something with the shape...
+     *       }
+     *   });
+     * }
+     * </pre>
+     *
+     * @param pathToShapefile
+     * @param columns Names of the columns to read, or null for every column
+     * @param featureConsumer
+     * @throws ShapefileNotReadableException if either file cannot be read, or the table has fewer rows than there are
+     * records
+     * @throws ShapefileConsumerException
+     * @throws IllegalArgumentException if a column does not exist
+     */
+    public void forEachFeature(final String pathToShapefile, final Collection<String> columns, final FeatureConsumer featureConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
+        final File shapefile = new File(pathToShapefile);
+        final FeatureConsumer measuredConsumer = measure(featureConsumer);
+
+        try (final MappedFile mappedFile = MappedFile.open(shapefile);
+             final DbfTable dbfTable = DbfTable.open(ShapefilePaths.sibling(shapefile, "dbf"))) {
+            final MainFileHeader mainFileHeader = MainFileHeader.fromBytes(mappedFile.slice(0, MAIN_FILE_HEADER_SIZE));
+            final long end = Math.min(mainFileHeader.getFileLengthBytes(), mappedFile.size());
+            final DbfRow dbfRow = dbfTable.newRow(columns);
+
+            int ordinal = 0;
+            long offset = MAIN_FILE_HEADER_SIZE;
+            while (offset < end) {
+                final int contentLength = checkContentLength(shapefile, offset, mappedFile.getInt(offset + 4, ByteOrder.BIG_ENDIAN), end);
+                final Record record = decodeRecord(mappedFile, offset, metrics);
+                offset += RECORD_HEADER_SIZE + contentLength;
+
+                dbfRow.moveTo(++ordinal);
+                measuredConsumer.consume(record.getRecordHeader(), record.getShape(), dbfRow);
+            }
+        }
+    }
+
+    /**
+     * Behaves like {@link #forEachFeature(String, Collection, FeatureConsumer)} for a main file and a dBASE table read
+     * from streams. Both are read front to back in a single pass, side by side, and are left open for the caller to
+     * close.
+     *
+     * @param shapefile A stream positioned at the start of the main file
+     * @param dbf A stream positioned at the start of the dBASE table
+     * @param charset Charset text in the table is decoded with
+     * @param columns Names of the columns to read, or null for every column
+     * @param featureConsumer
+     * @throws ShapefileNotReadableException if either stream cannot be read, or the table has fewer rows than there
+     * are records
+     * @throws ShapefileConsumerException
+     * @throws IllegalArgumentException if a column does not exist
+     */
+    public void forEachFeature(final InputStream shapefile, final InputStream dbf, final Charset charset, final Collection<String> columns, final FeatureConsumer featureConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
+        forEachFeature(new UnclosableInputStream(shapefile), "<input stream>", new UnclosableInputStream(dbf), "<input stream>",
+                charset, columns, featureConsumer);
+    }
+
+    /**
+     * Behaves like {@link #forEachFeature(String, Collection, FeatureConsumer)} for a main file at a path on any
+     * {@link java.nio.file.FileSystem}. The dBASE table and code page file (.cpg) are expected next to it. Both files
+     * are streamed, not mapped.
+     *
+     * @param shapefile
+     * @param columns Names of the columns to read, or null for every column
+     * @param featureConsumer
+     * @throws ShapefileNotReadableException
+     * @throws ShapefileConsumerException
+     * @throws IllegalArgumentException if a column does not exist
+     */
+    public void forEachFeature(final Path shapefile, final Collection<String> columns, final FeatureConsumer featureConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
+        final Path dbf = ShapefilePaths.sibling(shapefile, "dbf");
+        final Path cpg = ShapefilePaths.sibling(shapefile, "cpg");
 
+        Charset charset = DbfTable.DEFAULT_CHARSET;
+        if (Files.isRegularFile(cpg)) {
+            try {
+                charset = DbfTable.charsetForCodePage(Files.readAllBytes(cpg));
+            } catch (final IOException e) {
+                throw new ShapefileNotReadableException(cpg.toUri().toString(), e);
+            }
+        }
+
+        final InputStream shapefileStream = openInputStream(shapefile);
+        final InputStream dbfStream;
         try {
-            fileInputStream.read(bytes);
-        } catch (final IOException e) {
-            throw new ShapefileNotReadableException(shapefile, e);
+            dbfStream = openInputStream(dbf);
+        } catch (final ShapefileNotReadableException e) {
+            closeAfterFailure(shapefileStream, e);
+            throw e;
+        }
+
+        forEachFeature(shapefileStream, shapefile.toUri().toString(), dbfStream, dbf.toUri().toString(), charset, columns, featureConsumer);
+    }
+
+    /**
+     * Behaves like {@link #forEachFeature(String, Collection, FeatureConsumer)} for a shapefile stored in a zip
+     * archive. The dBASE table and code page file (.cpg) are found next to the main file within the archive, matching
+     * the base name regardless of case when needed. Both members are decompressed as they are read, without being
+     * extracted.
+     *
+     * @param zipFile The archive
+     * @param entryName Name of the main file within the archive, including its directories
+     * @param columns Names of the columns to read, or null for every column
+     * @param featureConsumer
+     * @throws ShapefileNotReadableException if either member is missing or cannot be read
+     * @throws ShapefileConsumerException
+     * @throws IllegalArgumentException if a column does not exist
+     */
+    public void forEachFeature(final ZipFile zipFile, final String entryName, final Collection<String> columns, final FeatureConsumer featureConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
+        final ZipEntry shpEntry = getZipEntry(zipFile, entryName);
+        final ZipEntry dbfEntry = ShapefilePaths.siblingEntry(zipFile, entryName, "dbf");
+        final ZipEntry cpgEntry = ShapefilePaths.siblingEntry(zipFile, entryName, "cpg");
+
+        if (dbfEntry == null) {
+            throw new ShapefileNotReadableException(zipFile.getName() + ": no dBASE table next to " + entryName);
+        }
+
+        Charset charset = DbfTable.DEFAULT_CHARSET;
+        if (cpgEntry != null) {
+            try (final InputStream cpg = openInputStream(zipFile, cpgEntry)) {
+                charset = DbfTable.charsetForCodePage(readAllBytes(cpg));
+            } catch (final IOException e) {
+                throw new ShapefileNotReadableException(describe(zipFile, cpgEntry), e);
+            }
+        }
+
+        final InputStream shapefileStream = openInputStream(zipFile, shpEntry);
+        final InputStream dbfStream;
+        try {
+            dbfStream = openInputStream(zipFile, dbfEntry);
+        } catch (final ShapefileNotReadableException e) {
+            closeAfterFailure(shapefileStream, e);
+            throw e;
+        }
+
+        forEachFeature(shapefileStream, describe(zipFile, shpEntry), dbfStream, describe(zipFile, dbfEntry), charset, columns, featureConsumer);
+    }
+
+    /**
+     * Reads a main file and a dBASE table side by side from streams, which are both closed once reading stops, even
+     * when the table's header cannot be read.
+     */
+    private void forEachFeature(final InputStream shapefile, final String shapefileSource, final InputStream dbf, final String dbfSource,
+                                final Charset charset, final Collection<String> columns, final FeatureConsumer featureConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
+        final FeatureConsumer measuredConsumer = measure(featureConsumer);
+
+        try (final StreamRecordReader streamRecordReader = new StreamRecordReader(shapefile, shapefileSource);
+             final DbfStream dbfStream = DbfStream.open(dbf, charset, dbfSource)) {
+            final MainFileHeader mainFileHeader = MainFileHeader.fromBytes(streamRecordReader.next(MAIN_FILE_HEADER_SIZE));
+            final DbfRow dbfRow = dbfStream.newRow(columns);
+
+            while (streamRecordReader.position() < mainFileHeader.getFileLengthBytes()) {
+                final long offset = streamRecordReader.position();
+                final RecordHeader recordHeader = RecordHeader.fromBytes(streamRecordReader.next(RECORD_HEADER_SIZE));
+                final int contentLength = checkContentLength(shapefileSource, offset, recordHeader.getContentLength(), mainFileHeader.getFileLengthBytes());
+                final Shape shape = decodeShape(recordHeader, streamRecordReader.next(contentLength), metrics);
+
+                if (!dbfStream.next(dbfRow)) {
+                    throw new ShapefileNotReadableException(String.format("%s: no row %d of %d",
+                            dbfSource, dbfRow.getRecordNumber() + 1, dbfStream.getHeader().getNumRecords()));
+                }
+                measuredConsumer.consume(recordHeader, shape, dbfRow);
+            }
+        }
+    }
+
+    /**
+     * Calls the consumer with each record whose attributes match the predicate, along with its row.
+     *
+     * <p>
+     *   The predicate is evaluated first, against the raw bytes of every row of the dBASE table, without decoding a
+     *   single shape. Only the matching records are then decoded, by seeking straight to them through the offsets in
+     *   the index file (.shx), or through a quick pass over the record headers when there is none. A selective
+     *   predicate therefore costs one scan of the fixed-width table plus a handful of reads of the main file. Rows
+     *   flagged as deleted never match.
+     * </p>
+     *
+     * <pre>
+     * {@code
+     *   shapefileReader.forEachFeatureMatching("/path/to/shapefile.shp", DbfPredicate.equalTo("STATE", "TX"),
+     *       Arrays.asList("COUNTY"), (recordHeader, shape, dbfRow) -> {
+     *           // Do something with the shape...
+     *       });
+     * }
+     * </pre>
+     *
+     * @param pathToShapefile
+     * @param dbfPredicate The condition rows must match
+     * @param columns Names of the columns the consumer may read, or null for every column
+     * @param featureConsumer
+     * @throws ShapefileNotReadableException
+     * @throws ShapefileConsumerException
+     * @throws IllegalArgumentException if a column does not exist
+     */
+    public void forEachFeatureMatching(final String pathToShapefile, final DbfPredicate dbfPredicate, final Collection<String> columns, final FeatureConsumer featureConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
+        final File shapefile = new File(pathToShapefile);
+        final FeatureConsumer measuredConsumer = measure(featureConsumer);
+
+        try (final DbfTable dbfTable = DbfTable.open(ShapefilePaths.sibling(shapefile, "dbf"))) {
+            final DbfRow dbfRow = dbfTable.newRow(columns);
+            final int[] recordNumbers = dbfTable.findRecordNumbers(dbfPredicate);
+            if (metrics != null) {
+                for (int skipped = dbfTable.getNumRecords() - recordNumbers.length; skipped > 0; skipped--) {
+                    metrics.recordSkipped();
+                }
+            }
+            if (recordNumbers.length == 0) {
+                return;
+            }
+
+            try (final MappedFile mappedFile = MappedFile.open(shapefile)) {
+                final ShapefileIndex shapefileIndex = getOrScanShapefileIndex(shapefile, mappedFile);
+
+                for (final int recordNumber : recordNumbers) {
+                    if (!shapefileIndex.contains(recordNumber)) {
+                        throw new ShapefileNotReadableException("Record number out of range: " + recordNumber);
+                    }
+
+                    final Record record = decodeRecord(mappedFile, shapefileIndex.getOffsetBytes(recordNumber), metrics);
+                    dbfRow.moveTo(recordNumber);
+                    measuredConsumer.consume(record.getRecordHeader(), record.getShape(), dbfRow);
+                }
+            }
         }
+    }
+
+    /**
+     * Calls the consumer for each record whose bounding box intersects the envelope.
+     *
+     * <p>
+     *   The envelope is first compared with the bounding box in the {@link MainFileHeader}; when they do not intersect,
+     *   no records are read at all. When a spatial index sits next to the shapefile, only the records it returns are
+     *   visited: either a packed R-tree built by {@link #buildSpatialIndex(String)} that is newer than the shapefile,
+     *   or a quadtree (.qix) or spatial bin (.sbn) index that shipped with it. Otherwise each record is visited
+     *   through a {@link ShapeView}, which reads only the shape type and the 32-byte bounding box at byte 4 of the
+     *   record contents (or the coordinates of a single point). A record is decoded only when its box intersects the
+     *   envelope.
+     * </p>
+     *
+     * <pre>
+     * {@code
+     *   final BoundingBox viewport = BoundingBox.of(-97.0, 30.0, -96.0, 31.0);
+     *   shapefileReader.forEachRecordIntersecting("/path/to/shapefile.shp", viewport, (recordHeader, shape) -> {
+     *       // Do something with the shape...
+     *   });
+     * }
+     * </pre>
+     *
+     * @param pathToShapefile
+     * @param envelope The box records must intersect
+     * @param recordConsumer
+     * @throws ShapefileNotReadableException
+     * @throws ShapefileConsumerException
+     */
+    public void forEachRecordIntersecting(final String pathToShapefile, final BoundingBox envelope, final RecordConsumer recordConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
+        final RecordConsumer measuredConsumer = measure(recordConsumer);
 
-        return bytes;
+        visitIntersecting(new File(pathToShapefile), envelope, (recordNumber, shapeView) -> {
+            final RecordHeader recordHeader = shapeView.toRecordHeader();
+            measuredConsumer.consume(recordHeader, decodeShape(recordHeader, shapeView.contents(), metrics));
+        });
     }
 
-    private FileInputStream getInputStream(final File shapefile) throws ShapefileNotReadableException {
+    /**
+     * Finds the records whose bounding box intersects the envelope, without decoding any of them. Uses the same
+     * spatial index, when there is one, as {@link #forEachRecordIntersecting(String, BoundingBox, RecordConsumer)}.
+     *
+     * @param pathToShapefile
+     * @param envelope The box records must intersect
+     * @return Record numbers, beginning at 1, in ascending order
+     * @throws ShapefileNotReadableException
+     */
+    public int[] findRecordNumbersIntersecting(final String pathToShapefile, final BoundingBox envelope) throws ShapefileNotReadableException {
+        final IntStream.Builder recordNumbers = IntStream.builder();
+
         try {
-            return new FileInputStream(shapefile);
-        } catch (final FileNotFoundException fileNotFound) {
-            throw new ShapefileNotReadableException(shapefile, fileNotFound);
+            visitIntersecting(new File(pathToShapefile), envelope, (recordNumber, shapeView) -> recordNumbers.add(recordNumber));
+        } catch (final ShapefileConsumerException e) {
+            throw new IllegalStateException(e);
         }
+
+        return recordNumbers.build().toArray();
+    }
+
+    /**
+     * Builds a packed Hilbert R-tree over the bounding boxes of every non-null record and writes it next to the
+     * shapefile, with the extension "{@value PackedRTree#EXTENSION}". Once it exists,
+     * {@link #forEachRecordIntersecting(String, BoundingBox, RecordConsumer)} and
+     * {@link #findRecordNumbersIntersecting(String, BoundingBox)} answer queries in O(log n + k) instead of visiting
+     * every record, reading only the entries of the matching records from the index file (.shx). Without an index
+     * file, every query walks the record headers of the main file to find them. A {@link ShapefileSession} also keeps
+     * the spatial index open between queries. The index is ignored if the shapefile is modified after it was written.
+     *
+     * @param pathToShapefile
+     * @return {@link PackedRTree}
+     * @throws IOException if the shapefile cannot be read or the index cannot be written
+     */
+    public PackedRTree buildSpatialIndex(final String pathToShapefile) throws IOException {
+        final File shapefile = new File(pathToShapefile);
+
+        final IntStream.Builder recordNumbers = IntStream.builder();
+        final DoubleStream.Builder boxes = DoubleStream.builder();
+
+        try {
+            forEachShapeView(pathToShapefile, new ShapeViewConsumer() {
+                private int recordNumber = 0;
+
+                @Override
+                public void consume(final ShapeView shapeView) {
+                    recordNumber++;
+                    if (shapeView.getShapeType() != ShapeType.NullShape) {
+                        recordNumbers.add(recordNumber);
+                        boxes.add(shapeView.getXMin()).add(shapeView.getYMin()).add(shapeView.getXMax()).add(shapeView.getYMax());
+                    }
+                }
+            });
+        } catch (final ShapefileConsumerException e) {
+            throw new IllegalStateException(e);
+        }
+
+        final PackedRTree packedRTree = PackedRTree.build(recordNumbers.build().toArray(), boxes.build().toArray(), PackedRTree.DEFAULT_NODE_SIZE);
+        packedRTree.write(ShapefilePaths.sibling(shapefile, PackedRTree.EXTENSION));
+        return packedRTree;
+    }
+
+    /**
+     * Called with the record number, counted from 1 in file order, and a view of each record that intersects a query.
+     */
+    interface IntersectingRecordVisitor {
+        void visit(final int recordNumber, final ShapeView shapeView) throws ShapefileConsumerException, ShapefileNotReadableException;
+    }
+
+    /**
+     * Finds where a record starts in the main file.
+     */
+    interface RecordLocator {
+
+        /**
+         * @param recordNumber Record numbers begin at 1.
+         * @return The offset of the record header in bytes, or -1 when there is no such record
+         */
+        long getOffsetBytes(final int recordNumber) throws ShapefileNotReadableException;
+    }
+
+    private void visitIntersecting(final File shapefile, final BoundingBox envelope, final IntersectingRecordVisitor visitor) throws ShapefileNotReadableException, ShapefileConsumerException {
+        try (final MappedFile mappedFile = MappedFile.open(shapefile)) {
+            final MainFileHeader mainFileHeader = MainFileHeader.fromBytes(mappedFile.slice(0, MAIN_FILE_HEADER_SIZE));
+            if (!envelope.intersects(mainFileHeader.getXMin(), mainFileHeader.getYMin(), mainFileHeader.getXMax(), mainFileHeader.getYMax())) {
+                return;
+            }
+
+            final SpatialIndex spatialIndex = openSpatialIndex(shapefile);
+            if (spatialIndex == null) {
+                visitAll(mappedFile, mainFileHeader, envelope, visitor, metrics);
+                return;
+            }
+
+            // Only the entries of the candidates are read from the index file, so the query stays O(log n + k).
+            final File indexFile = ShapefilePaths.sibling(shapefile, "shx");
+            if (indexFile.isFile()) {
+                try (final MappedFile mappedIndexFile = MappedFile.open(indexFile)) {
+                    visitCandidates(mappedFile, spatialIndex, (recordNumber) -> getOffsetBytes(mappedIndexFile, recordNumber), envelope, visitor, metrics);
+                }
+            } else {
+                visitCandidates(mappedFile, spatialIndex, locator(scanShapefileIndex(mappedFile)), envelope, visitor, metrics);
+            }
+        }
+    }
+
+    /**
+     * Visits the records the spatial index returns for the envelope whose own bounding box intersects it.
+     */
+    static void visitCandidates(final MappedFile mappedFile, final SpatialIndex spatialIndex, final RecordLocator recordLocator, final BoundingBox envelope,
+                                final IntersectingRecordVisitor visitor, final ReaderMetrics metrics) throws ShapefileNotReadableException, ShapefileConsumerException {
+        final ShapeView shapeView = new ShapeView(mappedFile);
+        final int[] candidates = spatialIndex.query(envelope.getXMin(), envelope.getYMin(), envelope.getXMax(), envelope.getYMax());
+
+        for (final int recordNumber : candidates) {
+            final long offset = recordLocator.getOffsetBytes(recordNumber);
+            if (offset < 0) {
+                continue;
+            }
+
+            shapeView.moveTo(offset);
+            if (shapeView.intersects(envelope.getXMin(), envelope.getYMin(), envelope.getXMax(), envelope.getYMax())) {
+                visitor.visit(recordNumber, shapeView);
+            } else if (metrics != null) {
+                metrics.recordSkipped();
+            }
+        }
+    }
+
+    /**
+     * Visits every record whose bounding box intersects the envelope, walking the main file from front to back.
+     */
+    static void visitAll(final MappedFile mappedFile, final MainFileHeader mainFileHeader, final BoundingBox envelope,
+                         final IntersectingRecordVisitor visitor, final ReaderMetrics metrics) throws ShapefileNotReadableException, ShapefileConsumerException {
+        final ShapeView shapeView = new ShapeView(mappedFile);
+        final long end = Math.min(mainFileHeader.getFileLengthBytes(), mappedFile.size());
+
+        int recordNumber = 0;
+        long offset = MAIN_FILE_HEADER_SIZE;
+        while (offset < end) {
+            recordNumber++;
+            shapeView.moveTo(offset);
+            if (shapeView.intersects(envelope.getXMin(), envelope.getYMin(), envelope.getXMax(), envelope.getYMax())) {
+                visitor.visit(recordNumber, shapeView);
+            } else if (metrics != null) {
+                metrics.recordSkipped();
+            }
+
+            offset += RECORD_HEADER_SIZE + shapeView.getContentLengthBytes();
+        }
+    }
+
+    static RecordLocator locator(final ShapefileIndex shapefileIndex) {
+        return (recordNumber) -> shapefileIndex.contains(recordNumber) ? shapefileIndex.getOffsetBytes(recordNumber) : -1;
+    }
+
+    /**
+     * Reads the offset of a single record from its entry in a mapped index file (.shx), at byte
+     * {@code 100 + 8 * (recordNumber - 1)}, without reading any other entry.
+     *
+     * @return The offset of the record header in bytes, or -1 when the index file has no entry for the record
+     */
+    static long getOffsetBytes(final MappedFile indexFile, final int recordNumber) throws ShapefileNotReadableException {
+        final long position = MAIN_FILE_HEADER_SIZE + 8L * (recordNumber - 1);
+        if (recordNumber < 1 || position + 8 > indexFile.size()) {
+            return -1;
+        }
+
+        return Integer.toUnsignedLong(indexFile.getInt(position, ByteOrder.BIG_ENDIAN)) * 2;
+    }
+
+    /**
+     * Opens the spatial index next to the shapefile, or returns null when there is none. A packed R-tree built by
+     * {@link #buildSpatialIndex(String)} is preferred. Otherwise a quadtree (.qix) or spatial bin (.sbn) index that
+     * shipped with the shapefile is used; their results are a superset of the intersecting records, which callers
+     * narrow down by comparing each record's own bounding box. Any index older than the shapefile is ignored, since
+     * it may not cover the records as they are now.
+     */
+    SpatialIndex openSpatialIndex(final File shapefile) throws ShapefileNotReadableException {
+        final File packedRTree = ShapefilePaths.sibling(shapefile, PackedRTree.EXTENSION);
+        if (isCurrentIndex(packedRTree, shapefile)) {
+            return PackedRTree.open(packedRTree);
+        }
+
+        final File qixIndex = ShapefilePaths.sibling(shapefile, QixIndex.EXTENSION);
+        if (isCurrentIndex(qixIndex, shapefile)) {
+            return QixIndex.open(qixIndex);
+        }
+
+        final File sbnIndex = ShapefilePaths.sibling(shapefile, SbnIndex.EXTENSION);
+        if (isCurrentIndex(sbnIndex, shapefile)) {
+            return SbnIndex.open(sbnIndex);
+        }
+
+        return null;
+    }
+
+    private static boolean isCurrentIndex(final File index, final File shapefile) {
+        return index.isFile() && index.lastModified() >= shapefile.lastModified();
+    }
+
+    /**
+     * Decodes the records of the shapefile in parallel and delivers them to the consumer in file order.
+     * See {@link #parallelForEachRecord(String, RecordConsumer, int, Delivery)}.
+     *
+     * @param pathToShapefile
+     * @param recordConsumer
+     * @param parallelism Number of threads used to decode records
+     * @throws ShapefileNotReadableException
+     * @throws ShapefileConsumerException
+     */
+    public void parallelForEachRecord(final String pathToShapefile, final RecordConsumer recordConsumer, final int parallelism) throws ShapefileNotReadableException, ShapefileConsumerException {
+        parallelForEachRecord(pathToShapefile, recordConsumer, parallelism, Delivery.ORDERED);
+    }
+
+    /**
+     * Decodes the records of the shapefile on a pool of {@code parallelism} threads. The main file is memory-mapped and
+     * partitioned into ranges of records using the offsets in the index file (.shx). When there is no index file, the
+     * offsets are found by a quick pass over the record headers, which skips the record contents entirely.
+     *
+     * <pre>
+     * {@code
+     *   shapefileReader.parallelForEachRecord("/path/to/shapefile.shp", (recordHeader, shape) -> {
+     *       // Called concurrently from every decoding thread.
+     *   }, Runtime.getRuntime().availableProcessors(), ShapefileReader.Delivery.UNORDERED);
+     * }
+     * </pre>
+     *
+     * @param pathToShapefile
+     * @param recordConsumer
+     * @param parallelism Number of threads used to decode records
+     * @param delivery Whether records are consumed in file order on the calling thread, or concurrently
+     * @throws ShapefileNotReadableException
+     * @throws ShapefileConsumerException
+     */
+    public void parallelForEachRecord(final String pathToShapefile, final RecordConsumer recordConsumer, final int parallelism, final Delivery delivery) throws ShapefileNotReadableException, ShapefileConsumerException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+
+        final File shapefile = new File(pathToShapefile);
+        try (final MappedFile mappedFile = MappedFile.open(shapefile)) {
+            final ShapefileIndex shapefileIndex = getOrScanShapefileIndex(shapefile, mappedFile);
+            final ParallelRecordDecoder parallelRecordDecoder = new ParallelRecordDecoder(mappedFile, shapefileIndex, parallelism, metrics);
+
+            if (delivery == Delivery.ORDERED) {
+                parallelRecordDecoder.forEachOrdered(measure(recordConsumer));
+            } else {
+                parallelRecordDecoder.forEachUnordered(measure(recordConsumer));
+            }
+        }
+    }
+
+    /**
+     * Returns a lazily evaluated {@link Stream} of the records in the shapefile. Records are decoded one at a time as
+     * the stream pulls them, so short-circuiting operations such as {@code limit} or {@code findFirst} stop decoding
+     * as soon as they are satisfied.
+     *
+     * <p>
+     *   The main file is memory-mapped. When an index file (.shx) is present the stream is SIZED and SUBSIZED, and a
+     *   parallel stream splits it into evenly sized ranges of records. Without an index file the stream still splits,
+     *   by walking ahead over record headers to hand off batches of offsets.
+     * </p>
+     *
+     * <p>
+     *   Errors encountered while decoding are thrown as {@link UncheckedIOException}s wrapping a
+     *   {@link ShapefileNotReadableException}.
+     * </p>
+     *
+     * <pre>
+     * {@code
+     *   try (final Stream<Record> records = shapefileReader.records("/path/to/shapefile.shp")) {
+     *       final Optional<Record> first = records
+     *           .filter(record -> record.getShape().getShapeType() == ShapeType.Polygon)
+     *           .findFirst();
+     *   }
+     * }
+     * </pre>
+     *
+     * @param pathToShapefile
+     * @return {@link Stream} of {@link Record}
+     * @throws ShapefileNotReadableException
+     */
+    public Stream<Record> records(final String pathToShapefile) throws ShapefileNotReadableException {
+        final File shapefile = new File(pathToShapefile);
+        final MappedFile mappedFile = MappedFile.open(shapefile);
+
+        final Spliterator<Record> spliterator;
+        try {
+            if (ShapefilePaths.sibling(shapefile, "shx").isFile()) {
+                final ShapefileIndex shapefileIndex = getShapefileIndex(pathToShapefile);
+                spliterator = new RecordSpliterator(mappedFile, shapefileIndex, 1, shapefileIndex.getNumRecords() + 1, metrics);
+            } else {
+                spliterator = new ScanningRecordSpliterator(mappedFile, metrics);
+            }
+        } catch (final ShapefileNotReadableException | RuntimeException e) {
+            mappedFile.close();
+            throw e;
+        }
+
+        return StreamSupport.stream(spliterator, false).onClose(mappedFile::close);
+    }
+
+    /**
+     * Reads the index file (.shx) that accompanies the shapefile at the provided path. The index holds the offset and
+     * content length of every record, which lets {@link #readRecord(String, ShapefileIndex, int)} seek straight to a
+     * record instead of scanning the whole main file.
+     *
+     * @param pathToShapefile Path to the main file (.shp); the index file is expected next to it
+     * @return {@link ShapefileIndex}
+     * @throws ShapefileNotReadableException
+     */
+    public ShapefileIndex getShapefileIndex(final String pathToShapefile) throws ShapefileNotReadableException {
+        final File indexFile = ShapefilePaths.sibling(new File(pathToShapefile), "shx");
+
+        try (final MappedFile mappedFile = MappedFile.open(indexFile)) {
+            return ShapefileIndex.fromBytes(mappedFile.slice(0, (int) mappedFile.size()));
+        }
+    }
+
+    /**
+     * Reads the index file (.shx) next to the main file at the given path, which may belong to any
+     * {@link java.nio.file.FileSystem}.
+     *
+     * @param shapefile Path to the main file (.shp)
+     * @return {@link ShapefileIndex}
+     * @throws ShapefileNotReadableException
+     */
+    public ShapefileIndex getShapefileIndex(final Path shapefile) throws ShapefileNotReadableException {
+        final Path indexFile = ShapefilePaths.sibling(shapefile, "shx");
+
+        try {
+            return ShapefileIndex.fromBytes(Files.readAllBytes(indexFile));
+        } catch (final IOException e) {
+            throw new ShapefileNotReadableException(indexFile.toUri().toString(), e);
+        }
+    }
+
+    /**
+     * Reads the index file (.shx) next to the main file within a zip archive.
+     *
+     * @param zipFile The archive
+     * @param entryName Name of the main file within the archive, including its directories
+     * @return {@link ShapefileIndex}
+     * @throws ShapefileNotReadableException if there is no index file, or it cannot be read
+     */
+    public ShapefileIndex getShapefileIndex(final ZipFile zipFile, final String entryName) throws ShapefileNotReadableException {
+        final ZipEntry shxEntry = ShapefilePaths.siblingEntry(zipFile, entryName, "shx");
+        if (shxEntry == null) {
+            throw new ShapefileNotReadableException(zipFile.getName() + ": no index file next to " + entryName);
+        }
+
+        try (final InputStream inputStream = openInputStream(zipFile, shxEntry)) {
+            return ShapefileIndex.fromBytes(readAllBytes(inputStream));
+        } catch (final ShapefileNotReadableException e) {
+            throw e;
+        } catch (final IOException e) {
+            throw new ShapefileNotReadableException(describe(zipFile, shxEntry), e);
+        }
+    }
+
+    /**
+     * Reads a single record by its record number. This loads the index file on every call; callers looking up many
+     * records should load the {@link ShapefileIndex} once and use {@link #readRecord(String, ShapefileIndex, int)}.
+     *
+     * @param pathToShapefile
+     * @param recordNumber Record numbers begin at 1.
+     * @return {@link Record}
+     * @throws ShapefileNotReadableException
+     */
+    public Record readRecord(final String pathToShapefile, final int recordNumber) throws ShapefileNotReadableException {
+        return readRecord(pathToShapefile, getShapefileIndex(pathToShapefile), recordNumber);
+    }
+
+    /**
+     * Reads a single record by its record number, using the offsets in the provided {@link ShapefileIndex}. Only the
+     * bytes of the requested record are read from the main file.
+     *
+     * <pre>
+     * {@code
+     *     final ShapefileIndex shapefileIndex = shapefileReader.getShapefileIndex("/path/to/shapefile.shp");
+     *     final Record record = shapefileReader.readRecord("/path/to/shapefile.shp", shapefileIndex, 42);
+     * }
+     * </pre>
+     *
+     * @param pathToShapefile
+     * @param shapefileIndex
+     * @param recordNumber Record numbers begin at 1.
+     * @return {@link Record}
+     * @throws ShapefileNotReadableException
+     */
+    public Record readRecord(final String pathToShapefile, final ShapefileIndex shapefileIndex, final int recordNumber) throws ShapefileNotReadableException {
+        return readRecords(pathToShapefile, shapefileIndex, new int[] { recordNumber }).get(0);
+    }
+
+    /**
+     * Reads the records with the provided record numbers. See {@link #readRecords(String, ShapefileIndex, int[])}.
+     *
+     * @param pathToShapefile
+     * @param recordNumbers Record numbers begin at 1.
+     * @return A {@link Record} for each record number, in the order they were requested
+     * @throws ShapefileNotReadableException
+     */
+    public List<Record> readRecords(final String pathToShapefile, final int[] recordNumbers) throws ShapefileNotReadableException {
+        return readRecords(pathToShapefile, getShapefileIndex(pathToShapefile), recordNumbers);
+    }
+
+    /**
+     * Reads the records with the provided record numbers, using the offsets in the provided {@link ShapefileIndex}.
+     * The records are read in file order, whatever order they were requested in, so that a batch touches the main
+     * file in a single forward sweep. Each record is read with one positional read of exactly its own length.
+     *
+     * @param pathToShapefile
+     * @param shapefileIndex
+     * @param recordNumbers Record numbers begin at 1.
+     * @return A {@link Record} for each record number, in the order they were requested
+     * @throws ShapefileNotReadableException if a record number is out of range, or the index places a record outside
+     * the main file or gives it a different content length from its record header
+     */
+    public List<Record> readRecords(final String pathToShapefile, final ShapefileIndex shapefileIndex, final int[] recordNumbers) throws ShapefileNotReadableException {
+        for (final int recordNumber : recordNumbers) {
+            if (!shapefileIndex.contains(recordNumber)) {
+                throw new ShapefileNotReadableException("Record number out of range: " + recordNumber);
+            }
+        }
+
+        final File shapefile = new File(pathToShapefile).getAbsoluteFile();
+        final Record[] records = new Record[recordNumbers.length];
+
+        final ShapeCache.Key[] keys = shapeCache == null ? null : new ShapeCache.Key[recordNumbers.length];
+        final long lastModified = shapeCache == null ? 0 : shapefile.lastModified();
+        final long length = shapeCache == null ? 0 : shapefile.length();
+        int numMisses = 0;
+        Integer[] readOrder = new Integer[recordNumbers.length];
+        for (int i = 0; i < recordNumbers.length; i++) {
+            if (keys != null) {
+                keys[i] = new ShapeCache.Key(shapefile.getPath(), lastModified, length, recordNumbers[i]);
+                records[i] = shapeCache.get(keys[i]);
+            }
+            if (records[i] == null) {
+                readOrder[numMisses++] = i;
+            }
+        }
+        if (numMisses == 0) {
+            return Arrays.asList(records);
+        }
+
+        readOrder = Arrays.copyOf(readOrder, numMisses);
+        Arrays.sort(readOrder, Comparator.comparingLong((i) -> shapefileIndex.getOffsetBytes(recordNumbers[i])));
+
+        try (final FileChannel fileChannel = FileChannel.open(shapefile.toPath(), StandardOpenOption.READ)) {
+            final long size = fileChannel.size();
+            ByteBuffer recordBuffer = ByteBuffer.allocate(0);
+
+            for (final int i : readOrder) {
+                final int recordNumber = recordNumbers[i];
+                final long offset = shapefileIndex.getOffsetBytes(recordNumber);
+                if (offset < MAIN_FILE_HEADER_SIZE) {
+                    throw new ShapefileNotReadableException(String.format("%s: the index puts record %d at position %d, inside the file header",
+                            shapefile.getAbsolutePath(), recordNumber, offset));
+                }
+                final int recordLength = RECORD_HEADER_SIZE + checkContentLength(shapefile, offset, shapefileIndex.getContentLength(recordNumber), size);
+
+                if (recordBuffer.capacity() < recordLength) {
+                    recordBuffer = ByteBuffer.allocate(recordLength);
+                }
+                recordBuffer.clear().limit(recordLength);
+                readFully(shapefile, fileChannel, recordBuffer, offset);
+
+                final RecordHeader recordHeader = RecordHeader.fromBytes(recordBuffer);
+                if (recordHeader.getContentLength() != shapefileIndex.getContentLength(recordNumber)) {
+                    throw new ShapefileNotReadableException(String.format("%s: record at position %d has a content length of %d words, but the index gives %d",
+                            shapefile.getAbsolutePath(), offset, recordHeader.getContentLength(), shapefileIndex.getContentLength(recordNumber)));
+                }
+                recordBuffer.position(RECORD_HEADER_SIZE);
+                final Shape shape = decodeShape(recordHeader, recordBuffer.slice(), metrics);
+
+                records[i] = Record.of(recordHeader, shape);
+            }
+        } catch (final IOException e) {
+            throw new ShapefileNotReadableException(shapefile, e);
+        }
+
+        // Records read after the file was rewritten would otherwise be cached under the key of the old file.
+        if (keys != null && shapefile.lastModified() == lastModified && shapefile.length() == length) {
+            for (final int i : readOrder) {
+                shapeCache.put(keys[i], records[i]);
+            }
+        }
+
+        return Arrays.asList(records);
+    }
+
+    /**
+     * Loads the index file next to the shapefile or, when there is none, builds the same offsets by walking the record
+     * headers of the already mapped main file.
+     */
+    ShapefileIndex getOrScanShapefileIndex(final File shapefile, final MappedFile mappedFile) throws ShapefileNotReadableException {
+        if (ShapefilePaths.sibling(shapefile, "shx").isFile()) {
+            return getShapefileIndex(shapefile.getPath());
+        }
+
+        return scanShapefileIndex(mappedFile);
+    }
+
+    /**
+     * Decodes the record whose header starts at the given offset of a mapped main file, reporting it to the listener.
+     * The content length is checked against the size of the file before the contents are sliced.
+     */
+    static Record decodeRecord(final MappedFile mappedFile, final long offset, final ReaderMetrics metrics) throws ShapefileNotReadableException {
+        final RecordHeader recordHeader = RecordHeader.fromBytes(mappedFile.slice(offset, RECORD_HEADER_SIZE));
+        final int contentLength = checkContentLength(mappedFile.getFile(), offset, recordHeader.getContentLength(), mappedFile.size());
+        final Shape shape = decodeShape(recordHeader, mappedFile.slice(offset + RECORD_HEADER_SIZE, contentLength), metrics);
+
+        return Record.of(recordHeader, shape);
+    }
+
+    /**
+     * Decodes the contents of a record and, when there is a listener, reports the record and the time it took.
+     */
+    static Shape decodeShape(final RecordHeader recordHeader, final ByteBuffer contents, final ReaderMetrics metrics) throws ShapefileNotReadableException {
+        if (metrics == null) {
+            return buildShapeFromBytes(contents);
+        }
+
+        final long start = System.nanoTime();
+        final Shape shape = buildShapeFromBytes(contents);
+        final long decodeNanos = System.nanoTime() - start;
+
+        metrics.bytesRead(RECORD_HEADER_SIZE + recordHeader.getContentLengthBytes());
+        metrics.recordDecoded(shape.getShapeType(), recordHeader.getContentLengthBytes(), numPoints(shape), decodeNanos);
+        return shape;
+    }
+
+    private static int numPoints(final Shape shape) {
+        if (shape instanceof PackedShape) {
+            return ((PackedShape) shape).getNumPoints();
+        }
+
+        return shape instanceof Point ? 1 : 0;
+    }
+
+    /**
+     * Wraps the consumer so that the time spent in it is reported, or returns it unchanged when there is no listener.
+     */
+    private RecordConsumer measure(final RecordConsumer recordConsumer) {
+        if (metrics == null) {
+            return recordConsumer;
+        }
+
+        return (recordHeader, shape) -> {
+            final long start = System.nanoTime();
+            recordConsumer.consume(recordHeader, shape);
+            metrics.recordConsumed(System.nanoTime() - start);
+        };
+    }
+
+    private FeatureConsumer measure(final FeatureConsumer featureConsumer) {
+        if (metrics == null) {
+            return featureConsumer;
+        }
+
+        return (recordHeader, shape, dbfRow) -> {
+            final long start = System.nanoTime();
+            featureConsumer.consume(recordHeader, shape, dbfRow);
+            metrics.recordConsumed(System.nanoTime() - start);
+        };
+    }
+
+    static ShapefileIndex scanShapefileIndex(final MappedFile mappedFile) throws ShapefileNotReadableException {
+        final MainFileHeader mainFileHeader = MainFileHeader.fromBytes(mappedFile.slice(0, MAIN_FILE_HEADER_SIZE));
+        final long end = Math.min(mainFileHeader.getFileLengthBytes(), mappedFile.size());
+
+        int[] offsets = new int[1024];
+        int[] contentLengths = new int[1024];
+        int numRecords = 0;
+
+        long offset = MAIN_FILE_HEADER_SIZE;
+        while (offset < end) {
+            if (numRecords == offsets.length) {
+                offsets = Arrays.copyOf(offsets, numRecords * 2);
+                contentLengths = Arrays.copyOf(contentLengths, numRecords * 2);
+            }
+
+            final int contentLength = mappedFile.getInt(offset + 4, ByteOrder.BIG_ENDIAN);
+            offsets[numRecords] = (int) (offset / 2);
+            contentLengths[numRecords] = contentLength;
+            numRecords++;
+
+            offset += RECORD_HEADER_SIZE + checkContentLength(mappedFile.getFile(), offset, contentLength, end);
+        }
+
+        return ShapefileIndex.of(mainFileHeader, Arrays.copyOf(offsets, numRecords), Arrays.copyOf(contentLengths, numRecords));
+    }
+
+    /**
+     * Checks the content length of the record whose header starts at {@code offset} before a walk over the record
+     * headers steps past it. A negative length would stop the walk from advancing, or send it backwards, and a length
+     * running past the end of the file would send it off the end.
+     *
+     * @param contentLength In 16-bit words, as stored in the record header
+     * @param end The position the last record must end by
+     * @return The content length in bytes
+     * @throws ShapefileNotReadableException if the record does not fit between its header and the end
+     */
+    static int checkContentLength(final File file, final long offset, final int contentLength, final long end) throws ShapefileNotReadableException {
+        return checkContentLength(file.getAbsolutePath(), offset, contentLength, end);
+    }
+
+    /**
+     * See {@link #checkContentLength(File, long, int, long)}.
+     *
+     * @param source Describes the file in error messages
+     */
+    static int checkContentLength(final String source, final long offset, final int contentLength, final long end) throws ShapefileNotReadableException {
+        if (contentLength < 0 || contentLength > Integer.MAX_VALUE / 2 || offset + RECORD_HEADER_SIZE + 2L * contentLength > end) {
+            throw new ShapefileNotReadableException(String.format("%s: record at position %d has a content length of %d words, but the file ends at %d",
+                    source, offset, contentLength, end));
+        }
+
+        return 2 * contentLength;
+    }
+
+    private void readFully(final File shapefile, final FileChannel fileChannel, final ByteBuffer byteBuffer, final long position) throws IOException {
+        long current = position;
+        while (byteBuffer.hasRemaining()) {
+            final int read = fileChannel.read(byteBuffer, current);
+            if (read < 0) {
+                throw new ShapefileNotReadableException("Unexpected end of file: " + shapefile.getAbsolutePath());
+            }
+            current += read;
+        }
+        byteBuffer.flip();
+    }
+
+    static Shape buildShapeFromBytes(final ByteBuffer shapeByteBuffer) throws ShapefileNotReadableException {
+        shapeByteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (shapeByteBuffer.limit() < 4) {
+            throw new ShapefileNotReadableException("Truncated or corrupt record contents of " + shapeByteBuffer.limit() + " bytes, too short for a shape type");
+        }
+
+        final int shapeType = shapeByteBuffer.getInt(0);
+        shapeByteBuffer.rewind();
+
+        try {
+            switch (shapeType) {
+                case 0:  return Null.fromBytes(shapeByteBuffer);
+                case 1:
+                case 11:
+                case 21: return Point.fromBytes(shapeByteBuffer);
+                case 3:
+                case 13:
+                case 23: return PolyLine.fromBytes(shapeByteBuffer);
+                case 5:
+                case 15:
+                case 25: return Polygon.fromBytes(shapeByteBuffer);
+                case 8:
+                case 18:
+                case 28: return MultiPoint.fromBytes(shapeByteBuffer);
+                case 31: return MultiPatch.fromBytes(shapeByteBuffer);
+                default: throw new ShapefileNotReadableException("Unknown Shape Value: " + shapeType);
+            }
+        } catch (final BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new ShapefileNotReadableException("Truncated or corrupt record contents for shape type " + shapeType);
+        }
+    }
+
+    /**
+     * Closes a stream that was opened before a failure, keeping the failure as the exception to report.
+     */
+    private static void closeAfterFailure(final InputStream inputStream, final Exception failure) {
+        try {
+            inputStream.close();
+        } catch (final IOException suppressed) {
+            failure.addSuppressed(suppressed);
+        }
+    }
+
+    private InputStream openInputStream(final File shapefile) throws ShapefileNotReadableException {
+        try {
+            return new FileInputStream(shapefile);
+        } catch (final FileNotFoundException fileNotFound) {
+            throw new ShapefileNotReadableException(shapefile, fileNotFound);
+        }
+    }
+
+    private InputStream openInputStream(final Path path) throws ShapefileNotReadableException {
+        try {
+            return Files.newInputStream(path);
+        } catch (final IOException e) {
+            throw new ShapefileNotReadableException(path.toUri().toString(), e);
+        }
+    }
+
+    private InputStream openInputStream(final ZipFile zipFile, final ZipEntry zipEntry) throws ShapefileNotReadableException {
+        try {
+            return zipFile.getInputStream(zipEntry);
+        } catch (final IOException e) {
+            throw new ShapefileNotReadableException(describe(zipFile, zipEntry), e);
+        }
+    }
+
+    private static ZipEntry getZipEntry(final ZipFile zipFile, final String entryName) throws ShapefileNotReadableException {
+        final ZipEntry zipEntry = zipFile.getEntry(entryName);
+        if (zipEntry == null || zipEntry.isDirectory()) {
+            throw new ShapefileNotReadableException(zipFile.getName() + ": no entry named " + entryName);
+        }
+
+        return zipEntry;
+    }
+
+    private static String describe(final ZipFile zipFile, final ZipEntry zipEntry) {
+        return zipFile.getName() + "!/" + zipEntry.getName();
+    }
+
+    private static byte[] readAllBytes(final InputStream inputStream) throws IOException {
+        byte[] bytes = new byte[StreamRecordReader.DEFAULT_BUFFER_SIZE];
+        int length = 0;
+        while (true) {
+            length += readUpTo(inputStream, bytes, length);
+            if (length < bytes.length) {
+                return Arrays.copyOf(bytes, length);
+            }
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+    }
+
+    /**
+     * Reads until {@code bytes} is full or the stream ends, starting at {@code offset}.
+     *
+     * @return The number of bytes read
+     */
+    private static int readUpTo(final InputStream inputStream, final byte[] bytes, final int offset) throws IOException {
+        int length = offset;
+        while (length < bytes.length) {
+            final int read = inputStream.read(bytes, length, bytes.length - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+
+        return length - offset;
+    }
+
+    /**
+     * Shields a stream owned by the caller from being closed when reading it stops.
+     */
+    private static final class UnclosableInputStream extends FilterInputStream {
+
+        private UnclosableInputStream(final InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        public void close() {}
     }
 
 }
@@ -0,0 +1,210 @@
+package esri.shapefile;
+
+import esri.shapefile.ShapefileReader.RecordConsumer;
+import esri.shapefile.exceptions.ShapefileConsumerException;
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import esri.shapefile.index.SpatialIndex;
+import esri.shapefile.io.MappedFile;
+import esri.shapefile.io.ShapefilePaths;
+import esri.shapefile.models.BoundingBox;
+import esri.shapefile.models.MainFileHeader;
+import esri.shapefile.models.Record;
+import esri.shapefile.models.RecordHeader;
+import esri.shapefile.models.ShapefileIndex;
+import esri.shapefile.models.shapes.Shape;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An open shapefile: its main file mapped into memory and its header parsed once, together with its index and its
+ * spatial index, which are loaded the first time they are needed. Sessions are handed out by a {@link ShapefileCache}, which shares one session
+ * per file among every caller.
+ *
+ * <p>
+ *   A session is safe to use from any number of threads. It stays usable after the cache evicts it, for as long as it
+ *   is referenced, but it always reflects the files as they were when it was opened; ask the cache again for a
+ *   session that reflects later changes.
+ * </p>
+ */
+public final class ShapefileSession {
+
+    /**
+     * Maps the main file and parses its header.
+     */
+    static ShapefileSession open(final File shapefile) throws ShapefileNotReadableException {
+        final File indexFile = ShapefilePaths.sibling(shapefile, "shx");
+
+        final ShapefileSession session = new ShapefileSession();
+        session.shapefile = shapefile;
+        session.lastModified = shapefile.lastModified();
+        session.indexLastModified = indexFile.lastModified();
+        session.mappedFile = MappedFile.open(shapefile);
+        session.mainFileHeader = MainFileHeader.fromBytes(session.mappedFile.slice(0, ShapefileReader.MAIN_FILE_HEADER_SIZE));
+        session.weightBytes = session.mappedFile.size() + indexFile.length();
+
+        return session;
+    }
+
+    private ShapefileSession() {}
+
+    private File shapefile;
+    private long lastModified;
+    private long indexLastModified;
+    private MappedFile mappedFile;
+    private MainFileHeader mainFileHeader;
+    private long weightBytes;
+
+    private volatile ShapefileIndex shapefileIndex;
+    private volatile boolean spatialIndexOpened;
+    private SpatialIndex spatialIndex;
+
+    public File getFile() {
+        return shapefile;
+    }
+
+    public MainFileHeader getMainFileHeader() {
+        return mainFileHeader;
+    }
+
+    /**
+     * Returns the offsets of every record, read from the index file (.shx) or, when there is none, found by walking
+     * the record headers of the main file. Either way this happens once per session.
+     *
+     * @return {@link ShapefileIndex}
+     * @throws ShapefileNotReadableException
+     */
+    public ShapefileIndex getShapefileIndex() throws ShapefileNotReadableException {
+        ShapefileIndex loaded = shapefileIndex;
+        if (loaded == null) {
+            synchronized (this) {
+                loaded = shapefileIndex;
+                if (loaded == null) {
+                    loaded = new ShapefileReader().getOrScanShapefileIndex(shapefile, mappedFile);
+                    shapefileIndex = loaded;
+                }
+            }
+        }
+
+        return loaded;
+    }
+
+    /**
+     * Returns the spatial index next to the shapefile, opened once per session, by the same rules as
+     * {@link ShapefileReader#forEachRecordIntersecting(String, BoundingBox, RecordConsumer)}.
+     *
+     * @return {@link SpatialIndex}, or null when there is no usable one
+     * @throws ShapefileNotReadableException
+     */
+    SpatialIndex getSpatialIndex() throws ShapefileNotReadableException {
+        if (!spatialIndexOpened) {
+            synchronized (this) {
+                if (!spatialIndexOpened) {
+                    spatialIndex = new ShapefileReader().openSpatialIndex(shapefile);
+                    spatialIndexOpened = true;
+                }
+            }
+        }
+
+        return spatialIndex;
+    }
+
+    /**
+     * Reads a single record, straight from the mapping, by its record number.
+     *
+     * @param recordNumber Record numbers begin at 1.
+     * @return {@link Record}
+     * @throws ShapefileNotReadableException if there is no such record
+     */
+    public Record readRecord(final int recordNumber) throws ShapefileNotReadableException {
+        final ShapefileIndex shapefileIndex = getShapefileIndex();
+        if (!shapefileIndex.contains(recordNumber)) {
+            throw new ShapefileNotReadableException("Record number out of range: " + recordNumber);
+        }
+
+        return ShapefileReader.decodeRecord(mappedFile, shapefileIndex.getOffsetBytes(recordNumber), null);
+    }
+
+    /**
+     * Reads the records with the given record numbers, in the order they were requested.
+     *
+     * @param recordNumbers Record numbers begin at 1.
+     * @return {@link Record}s
+     * @throws ShapefileNotReadableException if there is no such record
+     */
+    public List<Record> readRecords(final int[] recordNumbers) throws ShapefileNotReadableException {
+        final List<Record> records = new ArrayList<>(recordNumbers.length);
+        for (final int recordNumber : recordNumbers) {
+            records.add(readRecord(recordNumber));
+        }
+
+        return records;
+    }
+
+    /**
+     * Behaves like {@link ShapefileReader#forEachRecordMapped(String, RecordConsumer)}, without opening the file again.
+     *
+     * @param recordConsumer
+     * @throws ShapefileNotReadableException
+     * @throws ShapefileConsumerException
+     */
+    public void forEachRecord(final RecordConsumer recordConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
+        final long end = Math.min(mainFileHeader.getFileLengthBytes(), mappedFile.size());
+
+        long offset = ShapefileReader.MAIN_FILE_HEADER_SIZE;
+        while (offset < end) {
+            final Record record = ShapefileReader.decodeRecord(mappedFile, offset, null);
+            final RecordHeader recordHeader = record.getRecordHeader();
+            final Shape shape = record.getShape();
+            offset += ShapefileReader.RECORD_HEADER_SIZE + recordHeader.getContentLengthBytes();
+
+            recordConsumer.consume(recordHeader, shape);
+        }
+    }
+
+    /**
+     * Behaves like {@link ShapefileReader#forEachRecordIntersecting(String, BoundingBox, RecordConsumer)}, without
+     * opening the file or its spatial index again.
+     *
+     * @param envelope The box records must intersect
+     * @param recordConsumer
+     * @throws ShapefileNotReadableException
+     * @throws ShapefileConsumerException
+     */
+    public void forEachRecordIntersecting(final BoundingBox envelope, final RecordConsumer recordConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
+        if (!envelope.intersects(mainFileHeader.getXMin(), mainFileHeader.getYMin(), mainFileHeader.getXMax(), mainFileHeader.getYMax())) {
+            return;
+        }
+
+        final ShapefileReader.IntersectingRecordVisitor visitor = (recordNumber, shapeView) -> {
+            final RecordHeader recordHeader = shapeView.toRecordHeader();
+            recordConsumer.consume(recordHeader, ShapefileReader.decodeShape(recordHeader, shapeView.contents(), null));
+        };
+
+        final SpatialIndex spatialIndex = getSpatialIndex();
+        if (spatialIndex == null) {
+            ShapefileReader.visitAll(mappedFile, mainFileHeader, envelope, visitor, null);
+        } else {
+            ShapefileReader.visitCandidates(mappedFile, spatialIndex, ShapefileReader.locator(getShapefileIndex()), envelope, visitor, null);
+        }
+    }
+
+    /**
+     * @return The bytes this session counts against the budget of its cache: the size of the mapped main file and of
+     * the index file.
+     */
+    public long getWeightBytes() {
+        return weightBytes;
+    }
+
+    /**
+     * Whether the files on disk still match the files this session was opened from, judging by their modification
+     * times and the length of the main file.
+     */
+    boolean isCurrent() {
+        return shapefile.lastModified() == lastModified
+                && shapefile.length() == mappedFile.size()
+                && ShapefilePaths.sibling(shapefile, "shx").lastModified() == indexLastModified;
+    }
+}
@@ -0,0 +1,371 @@
+package esri.shapefile;
+
+import esri.shapefile.dbf.DbfField;
+import esri.shapefile.dbf.DbfTable;
+import esri.shapefile.dbf.DbfWriter;
+import esri.shapefile.exceptions.ShapefileNotWritableException;
+import esri.shapefile.io.ShapefilePaths;
+import esri.shapefile.models.BoundingBox;
+import esri.shapefile.models.shapes.PackedShape;
+import esri.shapefile.models.shapes.Point;
+import esri.shapefile.models.shapes.Shape;
+import esri.shapefile.models.shapes.ShapeType;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An ESRI Shapefile Writer.
+ *
+ * <p>
+ *   Records are appended to the main file (.shp) and the index file (.shx) in a single pass, through large direct
+ *   buffers that are written to the channels whenever they fill up. The file lengths and the overall bounding box in
+ *   the two main file headers are only known at the end, so the headers are reserved up front and written when the
+ *   writer is closed. When fields are given, a dBASE table (.dbf) is written alongside, one row per record, together
+ *   with a code page file (.cpg) naming its charset.
+ * </p>
+ *
+ * <p>
+ *   Shapes read by {@link ShapefileReader} are backed by primitive arrays, and are encoded straight from them into the
+ *   buffer, so writing allocates nothing per record.
+ * </p>
+ *
+ * <pre>
+ * {@code
+ *   try (final ShapefileWriter shapefileWriter = ShapefileWriter.create("/path/to/output.shp", ShapeType.Polygon,
+ *           Arrays.asList(DbfField.of("NAME", 'C', 32, 0)))) {
+ *       shapefileReader.forEachFeature("/path/to/input.shp", (recordHeader, shape, dbfRow) -> {
+ *           shapefileWriter.write(shape, dbfRow.getString("NAME"));
+ *       });
+ *   }
+ * }
+ * </pre>
+ */
+public final class ShapefileWriter implements Closeable {
+
+    static final int DEFAULT_BUFFER_SIZE = 4 << 20;
+
+    private static final int INDEX_BUFFER_SIZE = 64 << 10;
+
+    /**
+     * Files are addressed in 16-bit words by unsigned 32-bit integers.
+     */
+    private static final long MAX_FILE_LENGTH_BYTES = 0xFFFFFFFFL * 2;
+
+    /**
+     * Creates a shapefile without attributes, replacing any existing files.
+     *
+     * @param pathToShapefile
+     * @param shapeType The type of every non-null shape in the file
+     * @return {@link ShapefileWriter}
+     * @throws ShapefileNotWritableException
+     */
+    public static ShapefileWriter create(final String pathToShapefile, final ShapeType shapeType) throws ShapefileNotWritableException {
+        return create(pathToShapefile, shapeType, Collections.<DbfField>emptyList());
+    }
+
+    /**
+     * Creates a shapefile whose attributes are encoded in {@link DbfTable#DEFAULT_CHARSET}.
+     *
+     * @param pathToShapefile
+     * @param shapeType The type of every non-null shape in the file
+     * @param fields The columns of the dBASE table, or an empty list for none
+     * @return {@link ShapefileWriter}
+     * @throws ShapefileNotWritableException
+     */
+    public static ShapefileWriter create(final String pathToShapefile, final ShapeType shapeType, final List<DbfField> fields) throws ShapefileNotWritableException {
+        return create(pathToShapefile, shapeType, fields, DbfTable.DEFAULT_CHARSET);
+    }
+
+    public static ShapefileWriter create(final String pathToShapefile, final ShapeType shapeType, final List<DbfField> fields, final Charset charset) throws ShapefileNotWritableException {
+        final File shapefile = new File(pathToShapefile);
+        final ShapefileWriter shapefileWriter = new ShapefileWriter();
+        shapefileWriter.shapefile = shapefile;
+        shapefileWriter.shapeType = shapeType;
+        shapefileWriter.shpBuffer = ByteBuffer.allocateDirect(DEFAULT_BUFFER_SIZE);
+        shapefileWriter.shxBuffer = ByteBuffer.allocateDirect(INDEX_BUFFER_SIZE).order(ByteOrder.BIG_ENDIAN);
+
+        try {
+            shapefileWriter.shpChannel = openChannel(shapefile);
+            shapefileWriter.shxChannel = openChannel(ShapefilePaths.sibling(shapefile, "shx"));
+
+            if (!fields.isEmpty()) {
+                final File cpg = ShapefilePaths.sibling(shapefile, "cpg");
+                Files.write(cpg.toPath(), charset.name().getBytes(DbfTable.DEFAULT_CHARSET));
+                shapefileWriter.dbfWriter = DbfWriter.create(ShapefilePaths.sibling(shapefile, "dbf"), fields, charset);
+            }
+        } catch (final IOException e) {
+            shapefileWriter.closeQuietly();
+            throw new ShapefileNotWritableException(shapefile, e);
+        }
+
+        return shapefileWriter;
+    }
+
+    private static FileChannel openChannel(final File file) throws IOException {
+        final FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        fileChannel.position(ShapefileReader.MAIN_FILE_HEADER_SIZE);
+
+        return fileChannel;
+    }
+
+    private ShapefileWriter() {}
+
+    private File shapefile;
+    private ShapeType shapeType;
+
+    private FileChannel shpChannel;
+    private FileChannel shxChannel;
+    private DbfWriter dbfWriter;
+
+    private ByteBuffer shpBuffer;
+    private ByteBuffer shxBuffer;
+
+    private int numRecords;
+    private long offset = ShapefileReader.MAIN_FILE_HEADER_SIZE;
+    private boolean closed;
+
+    private double xMin = Double.POSITIVE_INFINITY;
+    private double yMin = Double.POSITIVE_INFINITY;
+    private double xMax = Double.NEGATIVE_INFINITY;
+    private double yMax = Double.NEGATIVE_INFINITY;
+    private double zMin = Double.POSITIVE_INFINITY;
+    private double zMax = Double.NEGATIVE_INFINITY;
+    private double mMin = Double.POSITIVE_INFINITY;
+    private double mMax = Double.NEGATIVE_INFINITY;
+
+    public ShapeType getShapeType() {
+        return shapeType;
+    }
+
+    public int getNumRecords() {
+        return numRecords;
+    }
+
+    /**
+     * Appends a record, along with its row of attributes when the shapefile has a dBASE table.
+     *
+     * @param shape A shape of the type of the file, or a null shape
+     * @param attributes One value per field, as accepted by {@link DbfWriter#write(Object...)}
+     * @return The record number of the new record, starting at 1
+     * @throws ShapefileNotWritableException
+     * @throws IllegalArgumentException if the shape is of another type, or the attributes do not match the fields
+     */
+    public int write(final Shape shape, final Object... attributes) throws ShapefileNotWritableException {
+        if (closed) {
+            throw new ShapefileNotWritableException(shapefile.getAbsolutePath() + ": the writer has been closed");
+        } else if (shape.getShapeType() != shapeType && shape.getShapeType() != ShapeType.NullShape) {
+            throw new IllegalArgumentException(String.format("Cannot write a %s to a %s shapefile", shape.getShapeType(), shapeType));
+        } else if (dbfWriter == null && attributes.length > 0) {
+            throw new IllegalArgumentException("The shapefile was created without fields");
+        }
+
+        final long encodedLengthBytes = ShapeEncoder.contentLengthBytes(shape);
+        if (encodedLengthBytes > Integer.MAX_VALUE - ShapefileReader.RECORD_HEADER_SIZE) {
+            throw new ShapefileNotWritableException(String.format("%s: a record of %d bytes is too large to write",
+                    shapefile.getAbsolutePath(), encodedLengthBytes));
+        }
+        final int contentLengthBytes = (int) encodedLengthBytes;
+        final int recordLengthBytes = ShapefileReader.RECORD_HEADER_SIZE + contentLengthBytes;
+        if (offset + recordLengthBytes > MAX_FILE_LENGTH_BYTES) {
+            throw new ShapefileNotWritableException(shapefile.getAbsolutePath() + ": the main file cannot grow beyond 8 GB");
+        }
+
+        final int recordNumber = numRecords + 1;
+
+        // The shape is encoded before the row is written, and taken back out of the buffer when either fails, so
+        // that the main file and the table never get out of step.
+        reserve(recordLengthBytes);
+        final int start = shpBuffer.position();
+        try {
+            shpBuffer.order(ByteOrder.BIG_ENDIAN);
+            shpBuffer.putInt(recordNumber);
+            shpBuffer.putInt(contentLengthBytes / 2);
+            ShapeEncoder.encode(shape, shpBuffer);
+
+            if (dbfWriter != null) {
+                dbfWriter.write(attributes);
+            }
+        } catch (final ShapefileNotWritableException | RuntimeException e) {
+            shpBuffer.position(start);
+            throw e;
+        }
+
+        numRecords = recordNumber;
+
+        if (shxBuffer.remaining() < 8) {
+            flush(shxChannel, shxBuffer);
+        }
+        shxBuffer.putInt((int) (offset / 2));
+        shxBuffer.putInt(contentLengthBytes / 2);
+
+        offset += recordLengthBytes;
+        extendBounds(shape);
+
+        return recordNumber;
+    }
+
+    /**
+     * Flushes the remaining records, writes the headers of the main file and the index file now that their lengths
+     * and the overall bounding box are known, and closes every file.
+     */
+    @Override
+    public void close() throws ShapefileNotWritableException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            flush(shpChannel, shpBuffer);
+            flush(shxChannel, shxBuffer);
+
+            writeHeader(shpChannel, offset);
+            writeHeader(shxChannel, ShapefileReader.MAIN_FILE_HEADER_SIZE + 8L * numRecords);
+        } catch (final IOException e) {
+            closeQuietly();
+            throw new ShapefileNotWritableException(shapefile, e);
+        }
+
+        try {
+            shpChannel.close();
+            shxChannel.close();
+            if (dbfWriter != null) {
+                dbfWriter.close();
+            }
+        } catch (final IOException e) {
+            closeQuietly();
+            throw new ShapefileNotWritableException(shapefile, e);
+        }
+    }
+
+    /**
+     * Makes room for a record in the main file buffer, flushing it first, or replacing it with a larger one for a
+     * record that would not fit even in an empty buffer.
+     */
+    private void reserve(final int recordLengthBytes) throws ShapefileNotWritableException {
+        if (shpBuffer.remaining() >= recordLengthBytes) {
+            return;
+        }
+
+        flush(shpChannel, shpBuffer);
+        if (shpBuffer.capacity() < recordLengthBytes) {
+            shpBuffer = ByteBuffer.allocateDirect((int) Math.min(Integer.MAX_VALUE, Long.highestOneBit(recordLengthBytes - 1L) << 1));
+        }
+    }
+
+    private void flush(final FileChannel fileChannel, final ByteBuffer byteBuffer) throws ShapefileNotWritableException {
+        byteBuffer.flip();
+        try {
+            while (byteBuffer.hasRemaining()) {
+                fileChannel.write(byteBuffer);
+            }
+        } catch (final IOException e) {
+            throw new ShapefileNotWritableException(shapefile, e);
+        }
+        byteBuffer.clear();
+    }
+
+    private void extendBounds(final Shape shape) {
+        if (shape.getShapeType() == ShapeType.NullShape) {
+            return;
+        }
+
+        if (shape instanceof Point) {
+            final Point point = (Point) shape;
+            extendXY(point.getX(), point.getY(), point.getX(), point.getY());
+            extendZ(point.getZ(), point.getZ());
+            extendM(point.getM(), point.getM());
+            return;
+        }
+
+        final PackedShape packedShape = (PackedShape) shape;
+        final BoundingBox boundingBox = packedShape.getBoundingBox();
+        extendXY(boundingBox.getXMin(), boundingBox.getYMin(), boundingBox.getXMax(), boundingBox.getYMax());
+
+        if (packedShape.hasZ()) {
+            extendZ(packedShape.getZMin(), packedShape.getZMax());
+        }
+        if (packedShape.hasM()) {
+            extendM(packedShape.getMMin(), packedShape.getMMax());
+        }
+    }
+
+    private void extendXY(final double shapeXMin, final double shapeYMin, final double shapeXMax, final double shapeYMax) {
+        xMin = Math.min(xMin, shapeXMin);
+        yMin = Math.min(yMin, shapeYMin);
+        xMax = Math.max(xMax, shapeXMax);
+        yMax = Math.max(yMax, shapeYMax);
+    }
+
+    private void extendZ(final double shapeZMin, final double shapeZMax) {
+        if (!Double.isNaN(shapeZMin) && ShapeEncoder.hasZ(shapeType)) {
+            zMin = Math.min(zMin, shapeZMin);
+            zMax = Math.max(zMax, shapeZMax);
+        }
+    }
+
+    private void extendM(final double shapeMMin, final double shapeMMax) {
+        if (!Double.isNaN(shapeMMin) && shapeMMin > ShapeEncoder.NO_DATA && (ShapeEncoder.hasM(shapeType) || ShapeEncoder.hasZ(shapeType))) {
+            mMin = Math.min(mMin, shapeMMin);
+            mMax = Math.max(mMax, shapeMMax);
+        }
+    }
+
+    /**
+     * Writes a main file header, in the layout documented on {@link esri.shapefile.models.MainFileHeader}, at the start
+     * of the file. Ranges that no shape contributed to are written as 0.0.
+     */
+    private void writeHeader(final FileChannel fileChannel, final long fileLengthBytes) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(ShapefileReader.MAIN_FILE_HEADER_SIZE);
+
+        header.order(ByteOrder.BIG_ENDIAN);
+        header.putInt(9994);
+        header.position(24);
+        header.putInt((int) (fileLengthBytes / 2));
+
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(1000);
+        header.putInt(shapeType.getCode());
+        header.putDouble(orZero(xMin));
+        header.putDouble(orZero(yMin));
+        header.putDouble(orZero(xMax));
+        header.putDouble(orZero(yMax));
+        header.putDouble(orZero(zMin));
+        header.putDouble(orZero(zMax));
+        header.putDouble(orZero(mMin));
+        header.putDouble(orZero(mMax));
+
+        header.flip();
+        long position = 0;
+        while (header.hasRemaining()) {
+            position += fileChannel.write(header, position);
+        }
+    }
+
+    private static double orZero(final double value) {
+        return Double.isInfinite(value) ? 0.0 : value;
+    }
+
+    private void closeQuietly() {
+        for (final Closeable closeable : new Closeable[] { shpChannel, shxChannel, dbfWriter }) {
+            if (closeable != null) {
+                try {
+                    closeable.close();
+                } catch (final IOException e) {
+                    // Already reporting the failure that led here.
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package esri.shapefile;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads consecutive regions of a stream through a single reusable buffer.
+ *
+ * <p>
+ *   The buffer is refilled with as much as the stream will give in each call, so a stream of small records costs one
+ *   read per buffer rather than two per record. A read that returns fewer bytes than asked for is followed by more
+ *   reads until the region is complete; the end of the stream before that is an error, never a partly zeroed record.
+ *   The buffer grows to fit a region larger than itself, and is never shrunk.
+ * </p>
+ */
+final class StreamRecordReader implements Closeable {
+
+    static final int DEFAULT_BUFFER_SIZE = 64 << 10;
+
+    private final InputStream inputStream;
+    private final String source;
+
+    private byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
+    private int start;
+    private int end;
+    private long position;
+
+    /**
+     * @param inputStream The stream to read, which is closed with this reader
+     * @param source Describes the stream in error messages
+     */
+    StreamRecordReader(final InputStream inputStream, final String source) {
+        this.inputStream = inputStream;
+        this.source = source;
+    }
+
+    /**
+     * @return The number of bytes handed out so far.
+     */
+    long position() {
+        return position;
+    }
+
+    /**
+     * Returns the next {@code length} bytes of the stream, reading until they are all available. The returned buffer
+     * shares the reusable buffer, so it is only valid until the next call.
+     *
+     * @return {@link ByteBuffer} positioned at zero with a limit of {@code length}, in big-endian order
+     * @throws ShapefileNotReadableException if the length is negative, as a corrupt record header can make it, or the
+     * stream ends first, or reading it fails
+     */
+    ByteBuffer next(final int length) throws ShapefileNotReadableException {
+        if (length < 0) {
+            throw new ShapefileNotReadableException(String.format("%s: negative length of %d bytes at position %d", source, length, position));
+        }
+        if (end - start < length) {
+            fill(length);
+        }
+
+        final ByteBuffer region = ByteBuffer.wrap(buffer, start, length).slice();
+        start += length;
+        position += length;
+
+        return region;
+    }
+
+    @Override
+    public void close() throws ShapefileNotReadableException {
+        try {
+            inputStream.close();
+        } catch (final IOException e) {
+            throw new ShapefileNotReadableException(source, e);
+        }
+    }
+
+    private void fill(final int length) throws ShapefileNotReadableException {
+        final int available = end - start;
+        if (buffer.length < length) {
+            final byte[] larger = new byte[Math.max(length, buffer.length * 2)];
+            System.arraycopy(buffer, start, larger, 0, available);
+            buffer = larger;
+        } else {
+            System.arraycopy(buffer, start, buffer, 0, available);
+        }
+        start = 0;
+        end = available;
+
+        try {
+            while (end < length) {
+                final int read = inputStream.read(buffer, end, buffer.length - end);
+                if (read < 0) {
+                    throw new ShapefileNotReadableException(String.format("%s: unexpected end of file after %d bytes",
+                            source, position + end));
+                }
+                end += read;
+            }
+        } catch (final ShapefileNotReadableException e) {
+            throw e;
+        } catch (final IOException e) {
+            throw new ShapefileNotReadableException(source, e);
+        }
+    }
+}
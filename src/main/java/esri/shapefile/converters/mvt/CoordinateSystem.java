@@ -0,0 +1,48 @@
+package esri.shapefile.converters.mvt;
+
+/**
+ * The coordinate systems a shapefile can be cut into tiles from. Both are mapped onto the unit square of the web
+ * mercator tile grid, with (0, 0) at the north-west corner of the world and (1, 1) at the south-east.
+ */
+public enum CoordinateSystem {
+
+    /**
+     * Longitude and latitude in degrees, as in WGS 84. Latitudes beyond the poles of the web mercator projection,
+     * about 85.05 degrees north and south, are clamped to them.
+     */
+    GEOGRAPHIC {
+        @Override
+        double worldX(final double x) {
+            return (x + 180) / 360;
+        }
+
+        @Override
+        double worldY(final double y) {
+            final double sin = Math.sin(Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, y))));
+            return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+        }
+    },
+
+    /**
+     * Web mercator (EPSG:3857) metres.
+     */
+    WEB_MERCATOR {
+        @Override
+        double worldX(final double x) {
+            return (x + HALF_CIRCUMFERENCE) / (2 * HALF_CIRCUMFERENCE);
+        }
+
+        @Override
+        double worldY(final double y) {
+            return (HALF_CIRCUMFERENCE - y) / (2 * HALF_CIRCUMFERENCE);
+        }
+    };
+
+    static final double MAX_LATITUDE = 85.0511287798066;
+
+    static final double HALF_CIRCUMFERENCE = Math.PI * 6378137;
+
+    abstract double worldX(double x);
+
+    abstract double worldY(double y);
+}
@@ -0,0 +1,198 @@
+package esri.shapefile.converters.mvt;
+
+import java.util.Arrays;
+
+/**
+ * Encodes the geometry of a single vector tile feature as the command integers of the vector tile specification.
+ *
+ * <p>
+ *   Each command is an integer holding the command id in its low three bits and a repeat count above them: MoveTo (1)
+ *   and LineTo (2) are followed by a pair of zigzag-encoded parameters per repeat, each relative to the point before,
+ *   and ClosePath (7) has none. The cursor starts at (0, 0) for each feature and carries over from one ring or line to
+ *   the next.
+ * </p>
+ *
+ * <p>
+ *   Coordinates are rounded to whole tile units as they are added, and points that round onto the point before them
+ *   are dropped. Rings left with fewer than three points or with no area, and lines left with fewer than two points,
+ *   are dropped too. An encoder is reused from feature to feature and must not be shared between threads.
+ * </p>
+ */
+final class GeometryEncoder {
+
+    static final int MOVE_TO = 1;
+    static final int LINE_TO = 2;
+    static final int CLOSE_PATH = 7;
+
+    private int[] commands = new int[256];
+    private int size;
+
+    private int[] points = new int[256];
+
+    private int cursorX;
+    private int cursorY;
+
+    /**
+     * Starts a new feature.
+     */
+    void reset() {
+        size = 0;
+        cursorX = 0;
+        cursorY = 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int[] commands() {
+        return commands;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds a ring given without its closing point.
+     *
+     * @param xy Packed coordinates in tile units
+     * @param numPoints Number of points in the ring
+     * @param exterior Whether the ring is an exterior ring, which the specification orders clockwise in tile
+     * coordinates, with y pointing down; interior rings are ordered counter-clockwise. Rings are reversed as needed
+     * @return Whether the ring was added
+     */
+    boolean addRing(final double[] xy, final int numPoints, final boolean exterior) {
+        int count = round(xy, 0, numPoints);
+        while (count > 1 && points[0] == points[2 * count - 2] && points[1] == points[2 * count - 1]) {
+            count--;
+        }
+        if (count < 3) {
+            return false;
+        }
+
+        long doubleArea = 0;
+        for (int i = 0, j = count - 1; i < count; j = i++) {
+            doubleArea += (long) points[2 * j] * points[2 * i + 1] - (long) points[2 * i] * points[2 * j + 1];
+        }
+        if (doubleArea == 0) {
+            return false;
+        }
+        if ((doubleArea > 0) != exterior) {
+            reverse(count);
+        }
+
+        ensureCapacity(2 * count + 3);
+        moveTo(points[0], points[1]);
+        commands[size++] = command(LINE_TO, count - 1);
+        for (int i = 1; i < count; i++) {
+            lineTo(points[2 * i], points[2 * i + 1]);
+        }
+        commands[size++] = command(CLOSE_PATH, 1);
+
+        return true;
+    }
+
+    /**
+     * Adds a line.
+     *
+     * @param xy Packed coordinates in tile units
+     * @param from Index of the first point
+     * @param to Index one past the last point
+     * @return Whether the line was added
+     */
+    boolean addLine(final double[] xy, final int from, final int to) {
+        final int count = round(xy, from, to);
+        if (count < 2) {
+            return false;
+        }
+
+        ensureCapacity(2 * count + 2);
+        moveTo(points[0], points[1]);
+        commands[size++] = command(LINE_TO, count - 1);
+        for (int i = 1; i < count; i++) {
+            lineTo(points[2 * i], points[2 * i + 1]);
+        }
+
+        return true;
+    }
+
+    /**
+     * Adds a point. The points of a feature are written with a single MoveTo command when the feature is finished,
+     * as the specification requires for multipoints, so a feature holds either points or rings and lines.
+     *
+     * @param x In tile units
+     * @param y In tile units
+     */
+    void addPoint(final double x, final double y) {
+        ensureCapacity(3);
+        if (size == 0) {
+            commands[size++] = command(MOVE_TO, 0);
+        }
+
+        commands[0] = command(MOVE_TO, (commands[0] >>> 3) + 1);
+        lineTo((int) Math.round(x), (int) Math.round(y));
+    }
+
+    /**
+     * Rounds the points in [from, to) into {@link #points}, dropping points that round onto the point before them.
+     *
+     * @return The number of points kept
+     */
+    private int round(final double[] xy, final int from, final int to) {
+        if (points.length < 2 * (to - from)) {
+            points = new int[Math.max(2 * (to - from), 2 * points.length)];
+        }
+
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            final int x = (int) Math.round(xy[2 * i]);
+            final int y = (int) Math.round(xy[2 * i + 1]);
+            if (count > 0 && x == points[2 * count - 2] && y == points[2 * count - 1]) {
+                continue;
+            }
+            points[2 * count] = x;
+            points[2 * count + 1] = y;
+            count++;
+        }
+
+        return count;
+    }
+
+    private void reverse(final int count) {
+        // Keep the first point first, and reverse the order of the rest.
+        for (int i = 1, j = count - 1; i < j; i++, j--) {
+            final int x = points[2 * i];
+            final int y = points[2 * i + 1];
+            points[2 * i] = points[2 * j];
+            points[2 * i + 1] = points[2 * j + 1];
+            points[2 * j] = x;
+            points[2 * j + 1] = y;
+        }
+    }
+
+    private void moveTo(final int x, final int y) {
+        commands[size++] = command(MOVE_TO, 1);
+        lineTo(x, y);
+    }
+
+    /**
+     * Writes the parameters of a point relative to the cursor, and moves the cursor to it.
+     */
+    private void lineTo(final int x, final int y) {
+        commands[size++] = ProtobufWriter.zigZag(x - cursorX);
+        commands[size++] = ProtobufWriter.zigZag(y - cursorY);
+        cursorX = x;
+        cursorY = y;
+    }
+
+    private static int command(final int id, final int count) {
+        return (id & 0x7) | (count << 3);
+    }
+
+    private void ensureCapacity(final int additional) {
+        if (size + additional > commands.length) {
+            commands = Arrays.copyOf(commands, Math.max(size + additional, 2 * commands.length));
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package esri.shapefile.converters.mvt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes the protocol buffer wire format into a growable array, for the handful of field types that vector tiles use.
+ *
+ * <p>
+ *   A field is a key, made of its field number and wire type, followed by its value: a varint for integers, eight
+ *   little-endian bytes for doubles, and a varint length followed by the bytes for strings, packed repeated integers
+ *   and embedded messages. Embedded messages are written to a writer of their own first, since their length must come
+ *   before them, then copied in with {@link #writeMessage(int, ProtobufWriter)}.
+ * </p>
+ */
+final class ProtobufWriter {
+
+    static final int VARINT = 0;
+    static final int FIXED64 = 1;
+    static final int LENGTH_DELIMITED = 2;
+
+    private byte[] bytes;
+    private int size;
+
+    ProtobufWriter() {
+        this(64);
+    }
+
+    ProtobufWriter(final int initialCapacity) {
+        this.bytes = new byte[Math.max(16, initialCapacity)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    void writeKey(final int field, final int wireType) {
+        writeVarint(field << 3 | wireType);
+    }
+
+    void writeVarint(final long value) {
+        ensureCapacity(10);
+
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            bytes[size++] = (byte) ((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        bytes[size++] = (byte) remaining;
+    }
+
+    void writeUInt32(final int field, final int value) {
+        writeKey(field, VARINT);
+        writeVarint(value & 0xFFFFFFFFL);
+    }
+
+    void writeUInt64(final int field, final long value) {
+        writeKey(field, VARINT);
+        writeVarint(value);
+    }
+
+    void writeSInt64(final int field, final long value) {
+        writeKey(field, VARINT);
+        writeVarint(zigZag(value));
+    }
+
+    void writeBool(final int field, final boolean value) {
+        writeKey(field, VARINT);
+        writeVarint(value ? 1 : 0);
+    }
+
+    void writeDouble(final int field, final double value) {
+        writeKey(field, FIXED64);
+        ensureCapacity(8);
+
+        final long bits = Double.doubleToLongBits(value);
+        for (int i = 0; i < 8; i++) {
+            bytes[size++] = (byte) (bits >>> (8 * i));
+        }
+    }
+
+    void writeString(final int field, final String value) {
+        writeBytes(field, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    void writeBytes(final int field, final byte[] value) {
+        writeKey(field, LENGTH_DELIMITED);
+        writeVarint(value.length);
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, bytes, size, value.length);
+        size += value.length;
+    }
+
+    void writeMessage(final int field, final ProtobufWriter message) {
+        writeKey(field, LENGTH_DELIMITED);
+        writeVarint(message.size);
+        ensureCapacity(message.size);
+        System.arraycopy(message.bytes, 0, bytes, size, message.size);
+        size += message.size;
+    }
+
+    /**
+     * Copies fields already written to another writer.
+     */
+    void writeRaw(final ProtobufWriter fields) {
+        ensureCapacity(fields.size);
+        System.arraycopy(fields.bytes, 0, bytes, size, fields.size);
+        size += fields.size;
+    }
+
+    /**
+     * Writes values as a packed repeated uint32 field. Nothing is written when there are no values.
+     */
+    void writePackedUInt32(final int field, final int[] values, final int from, final int to) {
+        if (from == to) {
+            return;
+        }
+
+        int length = 0;
+        for (int i = from; i < to; i++) {
+            length += varintSize(values[i] & 0xFFFFFFFFL);
+        }
+
+        writeKey(field, LENGTH_DELIMITED);
+        writeVarint(length);
+        for (int i = from; i < to; i++) {
+            writeVarint(values[i] & 0xFFFFFFFFL);
+        }
+    }
+
+    /**
+     * Maps signed integers onto unsigned ones so that values near zero, either side, stay small: 0, -1, 1, -2, 2 map
+     * to 0, 1, 2, 3, 4.
+     */
+    static long zigZag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static int zigZag(final int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int varintSize(final long value) {
+        int size = 1;
+        for (long remaining = value >>> 7; remaining != 0; remaining >>>= 7) {
+            size++;
+        }
+
+        return size;
+    }
+
+    private void ensureCapacity(final int additional) {
+        if (size + additional > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+        }
+    }
+}
@@ -0,0 +1,484 @@
+package esri.shapefile.converters.mvt;
+
+import esri.shapefile.ShapefileReader;
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import esri.shapefile.geometry.GeometryOps;
+import esri.shapefile.models.RecordHeader;
+import esri.shapefile.models.shapes.MultiPartShape;
+import esri.shapefile.models.shapes.MultiPoint;
+import esri.shapefile.models.shapes.PackedShape;
+import esri.shapefile.models.shapes.Point;
+import esri.shapefile.models.shapes.PolyLine;
+import esri.shapefile.models.shapes.Polygon;
+import esri.shapefile.models.shapes.Shape;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Cuts a shapefile into Mapbox vector tiles (version 2 of the specification), one layer per tile.
+ *
+ * <p>
+ *   Each zoom level is tiled by a pass of its own over the memory-mapped shapefile, and the zoom levels are tiled in
+ *   parallel, highest first, since they have the most tiles. For every record, its bounding box picks out the block
+ *   of tiles it can appear in, and its geometry is split among them by halving the block until each piece reaches a
+ *   single tile, widened by a buffer so that strokes do not stop short at the edges, so each point is clipped
+ *   O(zoom) times however many tiles the record covers. Each piece is then rounded to the tile's grid of
+ *   {@link #getExtent()} units. Polygons, lines and points of every dimension are tiled; the Z and M values are
+ *   dropped, as are null shapes and multipatches.
+ * </p>
+ *
+ * <p>
+ *   Features are encoded as soon as they are clipped, so a zoom level holds the encoded bytes of its tiles, rather
+ *   than their geometry, until its pass is over and its tiles are written to the {@link TileSink}. Records arrive in
+ *   file order rather than by tile, so no tile is known to be finished before then. A conversion therefore holds, at
+ *   most, the encoded tiles of as many zoom levels as its {@link #getParallelism()}, which at first are the highest and
+ *   largest; where that is more than the heap can take, convert a few zoom levels at a time, or lower the
+ *   parallelism. Each feature's id is its record number, and its attributes are the chosen columns of the dBASE
+ *   table.
+ * </p>
+ *
+ * <pre>
+ * {@code
+ *   final ShapefileToMvtConverter converter = ShapefileToMvtConverter.create("counties")
+ *       .withZoomLevels(0, 10)
+ *       .withColumns(Arrays.asList("NAME", "STATE"));
+ *
+ *   try (final TileArchiveWriter tileArchiveWriter = TileArchiveWriter.create(new File("/path/to/counties.mvta"))) {
+ *       converter.convert("/path/to/counties.shp", tileArchiveWriter);
+ *   }
+ * }
+ * </pre>
+ */
+public class ShapefileToMvtConverter {
+
+    public static final int DEFAULT_MIN_ZOOM = 0;
+    public static final int DEFAULT_MAX_ZOOM = 14;
+    public static final int DEFAULT_EXTENT = 4096;
+    public static final int DEFAULT_BUFFER = 64;
+
+    private static final Object[] NO_ATTRIBUTES = new Object[0];
+
+    /**
+     * Creates a converter that writes its features to a layer with the given name, at the default zoom levels, extent
+     * and buffer, without attributes, from geographic coordinates, on as many threads as there are processors.
+     *
+     * @param layerName
+     * @return {@link ShapefileToMvtConverter}
+     */
+    public static ShapefileToMvtConverter create(final String layerName) {
+        return new ShapefileToMvtConverter(layerName, DEFAULT_MIN_ZOOM, DEFAULT_MAX_ZOOM, DEFAULT_EXTENT, DEFAULT_BUFFER,
+                Collections.<String>emptyList(), CoordinateSystem.GEOGRAPHIC, Runtime.getRuntime().availableProcessors());
+    }
+
+    private final String layerName;
+    private final int minZoom;
+    private final int maxZoom;
+    private final int extent;
+    private final int buffer;
+    private final List<String> columns;
+    private final CoordinateSystem coordinateSystem;
+    private final int parallelism;
+
+    private ShapefileToMvtConverter(final String layerName,
+                                    final int minZoom,
+                                    final int maxZoom,
+                                    final int extent,
+                                    final int buffer,
+                                    final List<String> columns,
+                                    final CoordinateSystem coordinateSystem,
+                                    final int parallelism) {
+        this.layerName = layerName;
+        this.minZoom = minZoom;
+        this.maxZoom = maxZoom;
+        this.extent = extent;
+        this.buffer = buffer;
+        this.columns = columns;
+        this.coordinateSystem = coordinateSystem;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @param minZoom The lowest zoom level to tile, from 0
+     * @param maxZoom The highest zoom level to tile, up to {@link TileArchive#MAX_ZOOM}
+     * @return A converter that tiles the given zoom levels. This converter is left unchanged.
+     * @throws IllegalArgumentException if the zoom levels are out of range or out of order
+     */
+    public ShapefileToMvtConverter withZoomLevels(final int minZoom, final int maxZoom) {
+        if (minZoom < 0 || maxZoom > TileArchive.MAX_ZOOM || minZoom > maxZoom) {
+            throw new IllegalArgumentException("Zoom levels must be in order between 0 and " + TileArchive.MAX_ZOOM + ": " + minZoom + " to " + maxZoom);
+        }
+
+        return new ShapefileToMvtConverter(layerName, minZoom, maxZoom, extent, buffer, columns, coordinateSystem, parallelism);
+    }
+
+    /**
+     * @param extent The number of units across each tile
+     * @return A converter that rounds coordinates to a grid of the given size. This converter is left unchanged.
+     * @throws IllegalArgumentException if the extent is not positive
+     */
+    public ShapefileToMvtConverter withExtent(final int extent) {
+        if (extent < 1) {
+            throw new IllegalArgumentException("Extent must be at least 1: " + extent);
+        }
+
+        return new ShapefileToMvtConverter(layerName, minZoom, maxZoom, extent, buffer, columns, coordinateSystem, parallelism);
+    }
+
+    /**
+     * @param buffer The number of units, in the tile's grid, that geometry is kept for beyond each edge of a tile
+     * @return A converter that clips to tiles widened by the given buffer. This converter is left unchanged.
+     * @throws IllegalArgumentException if the buffer is negative
+     */
+    public ShapefileToMvtConverter withBuffer(final int buffer) {
+        if (buffer < 0) {
+            throw new IllegalArgumentException("Buffer must not be negative: " + buffer);
+        }
+
+        return new ShapefileToMvtConverter(layerName, minZoom, maxZoom, extent, buffer, columns, coordinateSystem, parallelism);
+    }
+
+    /**
+     * @param columns Names of the columns of the dBASE table to write as attributes of each feature
+     * @return A converter that writes the given attributes. This converter is left unchanged.
+     */
+    public ShapefileToMvtConverter withColumns(final Collection<String> columns) {
+        return new ShapefileToMvtConverter(layerName, minZoom, maxZoom, extent, buffer,
+                Collections.unmodifiableList(new ArrayList<>(columns)), coordinateSystem, parallelism);
+    }
+
+    /**
+     * @param coordinateSystem The coordinate system of the shapefile
+     * @return A converter that reads coordinates in the given system. This converter is left unchanged.
+     */
+    public ShapefileToMvtConverter withCoordinateSystem(final CoordinateSystem coordinateSystem) {
+        return new ShapefileToMvtConverter(layerName, minZoom, maxZoom, extent, buffer, columns, coordinateSystem, parallelism);
+    }
+
+    /**
+     * @param parallelism The most zoom levels to tile at once, each holding its encoded tiles in memory until it is done
+     * @return A converter that tiles on the given number of threads. This converter is left unchanged.
+     * @throws IllegalArgumentException if the parallelism is not positive
+     */
+    public ShapefileToMvtConverter withParallelism(final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+
+        return new ShapefileToMvtConverter(layerName, minZoom, maxZoom, extent, buffer, columns, coordinateSystem, parallelism);
+    }
+
+    public String getLayerName() {
+        return layerName;
+    }
+
+    public int getMinZoom() {
+        return minZoom;
+    }
+
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    public int getExtent() {
+        return extent;
+    }
+
+    public int getBuffer() {
+        return buffer;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public CoordinateSystem getCoordinateSystem() {
+        return coordinateSystem;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Tiles the shapefile and writes every tile that holds at least one feature to the sink. The sink is not closed.
+     *
+     * @param pathToShapefile
+     * @param tileSink
+     * @return The number of tiles written
+     * @throws IOException if the shapefile could not be read, or a tile could not be written
+     * @throws IllegalArgumentException if a column does not exist
+     */
+    public long convert(final String pathToShapefile, final TileSink tileSink) throws IOException {
+        // Fail early, on the calling thread, when the file cannot be read at all.
+        new ShapefileReader().getMainFileHeader(pathToShapefile);
+
+        final int numZoomLevels = maxZoom - minZoom + 1;
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(Math.min(parallelism, numZoomLevels));
+        final List<Future<Long>> zoomLevels = new ArrayList<>(numZoomLevels);
+
+        try {
+            for (int zoom = maxZoom; zoom >= minZoom; zoom--) {
+                final int z = zoom;
+                zoomLevels.add(forkJoinPool.submit(() -> new ZoomLevel(z).tile(pathToShapefile, tileSink)));
+            }
+
+            long numTiles = 0;
+            for (final Future<Long> zoomLevel : zoomLevels) {
+                numTiles += await(zoomLevel, pathToShapefile);
+            }
+
+            return numTiles;
+        } finally {
+            forkJoinPool.shutdownNow();
+        }
+    }
+
+    private static long await(final Future<Long> zoomLevel, final String pathToShapefile) throws IOException {
+        try {
+            return zoomLevel.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ShapefileNotReadableException(pathToShapefile, e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Tiles a single zoom level. The buffers here are reused from record to record and from tile to tile, so a zoom
+     * level must be tiled on a single thread.
+     */
+    private final class ZoomLevel {
+
+        private final int zoom;
+        private final int tilesAcross;
+        private final double margin = (double) buffer / extent;
+        private final Map<Long, TileBuilder> tiles = new HashMap<>();
+
+        private final TileClipper tileClipper = new TileClipper(-buffer, extent + buffer);
+        private final TileSplitter[] tileSplitters = new TileSplitter[TileBuilder.POLYGON + 1];
+        private final GeometryEncoder geometryEncoder = new GeometryEncoder();
+        private final ProtobufWriter scratch = new ProtobufWriter();
+        private final int[] tags = new int[2 * columns.size()];
+        private final Object[] attributes = new Object[columns.size()];
+
+        /**
+         * The points of the current record in tiles at this zoom level, where tile (x, y) spans [x, x + 1) and
+         * [y, y + 1).
+         */
+        private double[] world = new double[256];
+
+        /**
+         * A single part of the current record, in the units of the current tile.
+         */
+        private double[] local = new double[256];
+
+        private ZoomLevel(final int zoom) {
+            this.zoom = zoom;
+            this.tilesAcross = 1 << zoom;
+            for (final int type : new int[] { TileBuilder.POINT, TileBuilder.LINESTRING, TileBuilder.POLYGON }) {
+                tileSplitters[type] = new TileSplitter(type, margin);
+            }
+        }
+
+        private long tile(final String pathToShapefile, final TileSink tileSink) throws Exception {
+            final ShapefileReader shapefileReader = new ShapefileReader();
+            if (columns.isEmpty()) {
+                shapefileReader.forEachRecordMapped(pathToShapefile, (recordHeader, shape) -> add(recordHeader, shape, NO_ATTRIBUTES));
+            } else {
+                shapefileReader.forEachFeature(pathToShapefile, columns, (recordHeader, shape, dbfRow) -> {
+                    for (int i = 0; i < attributes.length; i++) {
+                        attributes[i] = dbfRow.getValue(columns.get(i));
+                    }
+                    add(recordHeader, shape, attributes);
+                });
+            }
+
+            final long[] keys = new long[tiles.size()];
+            int i = 0;
+            for (final Long key : tiles.keySet()) {
+                keys[i++] = key;
+            }
+            Arrays.sort(keys);
+
+            for (final long key : keys) {
+                final TileBuilder tileBuilder = tiles.remove(key);
+                tileSink.write(zoom, (int) (key >>> 32), (int) key, tileBuilder.toByteArray());
+            }
+
+            return keys.length;
+        }
+
+        private void add(final RecordHeader recordHeader, final Shape shape, final Object[] attributes) {
+            final int type;
+            final PackedShape packedShape;
+            if (shape instanceof Polygon) {
+                type = TileBuilder.POLYGON;
+                packedShape = (PackedShape) shape;
+            } else if (shape instanceof PolyLine) {
+                type = TileBuilder.LINESTRING;
+                packedShape = (PackedShape) shape;
+            } else if (shape instanceof MultiPoint) {
+                type = TileBuilder.POINT;
+                packedShape = (PackedShape) shape;
+            } else if (shape instanceof Point) {
+                type = TileBuilder.POINT;
+                packedShape = null;
+            } else {
+                return;
+            }
+
+            final int numPoints = packedShape == null ? 1 : packedShape.getNumPoints();
+            if (numPoints == 0) {
+                return;
+            }
+            project(shape, packedShape, numPoints);
+
+            final TileSplitter tileSplitter = tileSplitters[type];
+            final TileSplitter.Parts parts = tileSplitter.parts();
+            if (type == TileBuilder.POINT) {
+                for (int i = 0; i < numPoints; i++) {
+                    parts.add(world[2 * i], world[2 * i + 1]);
+                    parts.endPart(false);
+                }
+            } else {
+                addParts((MultiPartShape) shape, type == TileBuilder.POLYGON, parts);
+            }
+
+            double xMin = Double.POSITIVE_INFINITY;
+            double yMin = Double.POSITIVE_INFINITY;
+            double xMax = Double.NEGATIVE_INFINITY;
+            double yMax = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < numPoints; i++) {
+                xMin = Math.min(xMin, world[2 * i]);
+                yMin = Math.min(yMin, world[2 * i + 1]);
+                xMax = Math.max(xMax, world[2 * i]);
+                yMax = Math.max(yMax, world[2 * i + 1]);
+            }
+
+            tileSplitter.split(parts, tileIndex(xMin - margin), tileIndex(yMin - margin), tileIndex(xMax + margin), tileIndex(yMax + margin), (x, y, pieces) -> {
+                geometryEncoder.reset();
+                if (type == TileBuilder.POINT) {
+                    addPoints(pieces, x, y);
+                } else {
+                    addPieces(pieces, type == TileBuilder.POLYGON, x, y);
+                }
+
+                if (!geometryEncoder.isEmpty()) {
+                    final TileBuilder tileBuilder = tiles.computeIfAbsent((long) x << 32 | y, (key) -> new TileBuilder(layerName, extent));
+                    tileBuilder.addFeature(recordHeader.getRecordNumber(), type, geometryEncoder, columns, attributes, scratch, tags);
+                }
+            });
+        }
+
+        /**
+         * Projects the points of the shape into {@link #world}.
+         */
+        private void project(final Shape shape, final PackedShape packedShape, final int numPoints) {
+            if (world.length < 2 * numPoints) {
+                world = new double[Math.max(2 * numPoints, 2 * world.length)];
+            }
+
+            if (packedShape == null) {
+                final Point point = (Point) shape;
+                world[0] = coordinateSystem.worldX(point.getX()) * tilesAcross;
+                world[1] = coordinateSystem.worldY(point.getY()) * tilesAcross;
+            } else {
+                final double[] xy = packedShape.getCoordinates();
+                for (int i = 0; i < numPoints; i++) {
+                    world[2 * i] = coordinateSystem.worldX(xy[2 * i]) * tilesAcross;
+                    world[2 * i + 1] = coordinateSystem.worldY(xy[2 * i + 1]) * tilesAcross;
+                }
+            }
+        }
+
+        /**
+         * Copies the parts of the shape from {@link #world} to the parts to split, with the orientation of each ring.
+         */
+        private void addParts(final MultiPartShape shape, final boolean polygon, final TileSplitter.Parts parts) {
+            for (int part = 0; part < shape.getNumParts(); part++) {
+                final int from = shape.getPartStart(part);
+                int to = shape.getPartEnd(part);
+                if (polygon && to - from > 1 && world[2 * from] == world[2 * to - 2] && world[2 * from + 1] == world[2 * to - 1]) {
+                    // The closing point is implied by ClosePath.
+                    to--;
+                }
+
+                for (int i = from; i < to; i++) {
+                    parts.add(world[2 * i], world[2 * i + 1]);
+                }
+
+                // Outer rings run clockwise in the shapefile.
+                parts.endPart(polygon && GeometryOps.isClockwise(((PackedShape) shape).getCoordinates(), from, shape.getPartEnd(part)));
+            }
+        }
+
+        private void addPoints(final TileSplitter.Parts points, final int x, final int y) {
+            final double min = -buffer;
+            final double max = extent + buffer;
+            final double[] xy = points.coordinates();
+            for (int i = 0; i < points.end(points.getNumParts() - 1); i++) {
+                final double px = (xy[2 * i] - x) * extent;
+                final double py = (xy[2 * i + 1] - y) * extent;
+                if (px >= min && px <= max && py >= min && py <= max) {
+                    geometryEncoder.addPoint(px, py);
+                }
+            }
+        }
+
+        /**
+         * Clips the pieces of the shape that reach a tile to it exactly, in the units of the tile, and encodes them.
+         */
+        private void addPieces(final TileSplitter.Parts pieces, final boolean polygon, final int x, final int y) {
+            final double[] xy = pieces.coordinates();
+            boolean hasExterior = false;
+            for (int piece = 0; piece < pieces.getNumParts(); piece++) {
+                final int from = pieces.start(piece);
+                final int numPoints = pieces.end(piece) - from;
+                if (local.length < 2 * numPoints) {
+                    local = new double[Math.max(2 * numPoints, 2 * local.length)];
+                }
+                for (int i = 0; i < numPoints; i++) {
+                    local[2 * i] = (xy[2 * (from + i)] - x) * extent;
+                    local[2 * i + 1] = (xy[2 * (from + i) + 1] - y) * extent;
+                }
+
+                if (polygon) {
+                    // A polygon feature must begin with an exterior ring, so holes are only kept after one.
+                    final boolean exterior = pieces.flag(piece);
+                    if (exterior || hasExterior) {
+                        final int count = tileClipper.clipRing(local, numPoints);
+                        hasExterior |= geometryEncoder.addRing(tileClipper.output(), count, exterior) && exterior;
+                    }
+                } else {
+                    final int numLines = tileClipper.clipLine(local, numPoints);
+                    for (int line = 0; line < numLines; line++) {
+                        geometryEncoder.addLine(tileClipper.output(), tileClipper.pieceStart(line), tileClipper.pieceStart(line + 1));
+                    }
+                }
+            }
+        }
+
+        private int tileIndex(final double world) {
+            return (int) Math.max(0, Math.min(tilesAcross - 1, Math.floor(world)));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package esri.shapefile.converters.mvt;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A set of vector tiles stored in a single file, as written by {@link TileArchiveWriter}.
+ *
+ * <p>
+ *   The tiles are stored one after another, in the order they were written, and followed by an index of every tile
+ *   sorted by its key. A tile's key orders tiles by zoom, then column, then row. The index is read into memory when
+ *   the archive is opened, so finding a tile is a binary search, and reading it is a single positional read. All values
+ *   are little-endian.
+ * </p>
+ *
+ * <pre>
+ * Position  Field       Value        Type    Number
+ * --------  -----       -----        ----    ------
+ * Byte 0    Signature   "MVT1"       Byte    4
+ * Byte 4    NumTiles    NumTiles     Integer 1
+ * Byte 8    IndexStart  IndexStart   Long    1
+ * Byte 16   Tiles       Tile         Byte    *
+ * Byte X    Keys        Key          Long    NumTiles
+ * Byte Y    Offsets     Offset       Long    NumTiles
+ * Byte Z    Lengths     Length       Integer NumTiles
+ *
+ * * Note: X = IndexStart, Y = X + 8 * NumTiles, Z = Y + 8 * NumTiles
+ * </pre>
+ *
+ * <p>
+ *   Archives may be read from many threads at once.
+ * </p>
+ */
+public final class TileArchive implements Closeable {
+
+    public static final String EXTENSION = "mvta";
+
+    static final int SIGNATURE = 'M' | 'V' << 8 | 'T' << 16 | '1' << 24;
+
+    static final int HEADER_SIZE = 16;
+
+    /**
+     * The highest zoom level a key can hold: the column and row of each tile take up to 29 bits each.
+     */
+    public static final int MAX_ZOOM = 29;
+
+    /**
+     * Opens an archive and reads its index.
+     *
+     * @param file
+     * @return {@link TileArchive}
+     * @throws ShapefileNotReadableException if the archive cannot be read, or is not an archive
+     */
+    public static TileArchive open(final File file) throws ShapefileNotReadableException {
+        FileChannel fileChannel = null;
+        try {
+            fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+            final ByteBuffer header = read(fileChannel, 0, HEADER_SIZE);
+            if (header.getInt(0) != SIGNATURE) {
+                throw new ShapefileNotReadableException("Not a tile archive: " + file.getAbsolutePath());
+            }
+
+            final int numTiles = header.getInt(4);
+            final long indexStart = header.getLong(8);
+            final ByteBuffer index = read(fileChannel, indexStart, 20 * numTiles);
+
+            final long[] keys = new long[numTiles];
+            final long[] offsets = new long[numTiles];
+            final int[] lengths = new int[numTiles];
+            for (int tile = 0; tile < numTiles; tile++) {
+                keys[tile] = index.getLong(8 * tile);
+                offsets[tile] = index.getLong(8 * numTiles + 8 * tile);
+                lengths[tile] = index.getInt(16 * numTiles + 4 * tile);
+            }
+
+            return new TileArchive(fileChannel, keys, offsets, lengths);
+        } catch (final IOException e) {
+            if (fileChannel != null) {
+                try {
+                    fileChannel.close();
+                } catch (final IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            if (e instanceof ShapefileNotReadableException) {
+                throw (ShapefileNotReadableException) e;
+            }
+            throw new ShapefileNotReadableException(file, e);
+        }
+    }
+
+    /**
+     * Orders tiles by zoom, then column, then row.
+     */
+    static long key(final int zoom, final int x, final int y) {
+        return (long) zoom << 58 | (long) x << 29 | y;
+    }
+
+    private final FileChannel fileChannel;
+    private final long[] keys;
+    private final long[] offsets;
+    private final int[] lengths;
+
+    private TileArchive(final FileChannel fileChannel, final long[] keys, final long[] offsets, final int[] lengths) {
+        this.fileChannel = fileChannel;
+        this.keys = keys;
+        this.offsets = offsets;
+        this.lengths = lengths;
+    }
+
+    public int getNumTiles() {
+        return keys.length;
+    }
+
+    public boolean contains(final int zoom, final int x, final int y) {
+        return Arrays.binarySearch(keys, key(zoom, x, y)) >= 0;
+    }
+
+    /**
+     * @return The encoded tile, or null if the archive does not have it.
+     * @throws ShapefileNotReadableException
+     */
+    public byte[] getTile(final int zoom, final int x, final int y) throws ShapefileNotReadableException {
+        final int tile = Arrays.binarySearch(keys, key(zoom, x, y));
+        if (tile < 0) {
+            return null;
+        }
+
+        try {
+            return read(fileChannel, offsets[tile], lengths[tile]).array();
+        } catch (final IOException e) {
+            throw new ShapefileNotReadableException("Tile " + zoom + "/" + x + "/" + y, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        fileChannel.close();
+    }
+
+    private static ByteBuffer read(final FileChannel fileChannel, final long position, final int length) throws IOException {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (byteBuffer.hasRemaining()) {
+            if (fileChannel.read(byteBuffer, position + byteBuffer.position()) < 0) {
+                throw new ShapefileNotReadableException("Tile archive ends at " + (position + byteBuffer.position()));
+            }
+        }
+
+        byteBuffer.flip();
+        return byteBuffer;
+    }
+}
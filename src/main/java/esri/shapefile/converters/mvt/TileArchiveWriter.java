@@ -0,0 +1,108 @@
+package esri.shapefile.converters.mvt;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes vector tiles to a single file in the format read by {@link TileArchive}. Tiles are appended as they arrive,
+ * and the index is written when the writer is closed; an archive whose writer was not closed cannot be opened.
+ */
+public final class TileArchiveWriter implements TileSink {
+
+    /**
+     * Creates an archive, replacing any file that is already there.
+     *
+     * @param file
+     * @return {@link TileArchiveWriter}
+     * @throws IOException
+     */
+    public static TileArchiveWriter create(final File file) throws IOException {
+        final FileChannel fileChannel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+
+        return new TileArchiveWriter(fileChannel);
+    }
+
+    private final FileChannel fileChannel;
+
+    private long position = TileArchive.HEADER_SIZE;
+    private int numTiles;
+    private long[] keys = new long[256];
+    private long[] offsets = new long[256];
+    private int[] lengths = new int[256];
+    private boolean closed;
+
+    private TileArchiveWriter(final FileChannel fileChannel) {
+        this.fileChannel = fileChannel;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the zoom level is above {@link TileArchive#MAX_ZOOM}
+     */
+    @Override
+    public synchronized void write(final int zoom, final int x, final int y, final byte[] tile) throws IOException {
+        if (closed) {
+            throw new IOException("Tile archive is closed");
+        }
+        if (zoom < 0 || zoom > TileArchive.MAX_ZOOM) {
+            throw new IllegalArgumentException("Zoom must be between 0 and " + TileArchive.MAX_ZOOM + ": " + zoom);
+        }
+
+        if (numTiles == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * numTiles);
+            offsets = Arrays.copyOf(offsets, 2 * numTiles);
+            lengths = Arrays.copyOf(lengths, 2 * numTiles);
+        }
+
+        writeFully(ByteBuffer.wrap(tile), position);
+        keys[numTiles] = TileArchive.key(zoom, x, y);
+        offsets[numTiles] = position;
+        lengths[numTiles] = tile.length;
+        numTiles++;
+        position += tile.length;
+    }
+
+    /**
+     * Writes the index and the header, and closes the file.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            final Integer[] order = new Integer[numTiles];
+            for (int tile = 0; tile < numTiles; tile++) {
+                order[tile] = tile;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+
+            final ByteBuffer index = ByteBuffer.allocate(20 * numTiles).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < numTiles; i++) {
+                index.putLong(8 * i, keys[order[i]]);
+                index.putLong(8 * numTiles + 8 * i, offsets[order[i]]);
+                index.putInt(16 * numTiles + 4 * i, lengths[order[i]]);
+            }
+            writeFully(index, position);
+
+            final ByteBuffer header = ByteBuffer.allocate(TileArchive.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(TileArchive.SIGNATURE).putInt(numTiles).putLong(position).flip();
+            writeFully(header, 0);
+        } finally {
+            fileChannel.close();
+        }
+    }
+
+    private void writeFully(final ByteBuffer byteBuffer, final long at) throws IOException {
+        while (byteBuffer.hasRemaining()) {
+            fileChannel.write(byteBuffer, at + byteBuffer.position());
+        }
+    }
+}
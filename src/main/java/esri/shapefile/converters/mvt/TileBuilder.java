@@ -0,0 +1,174 @@
+package esri.shapefile.converters.mvt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the features of a single layer of a single tile, and encodes them as a vector tile.
+ *
+ * <pre>
+ * message Tile {
+ *     repeated Layer layers = 3;
+ * }
+ *
+ * message Layer {
+ *     required uint32 version = 15;
+ *     required string name = 1;
+ *     repeated Feature features = 2;
+ *     repeated string keys = 3;
+ *     repeated Value values = 4;
+ *     optional uint32 extent = 5;
+ * }
+ *
+ * message Feature {
+ *     optional uint64 id = 1;
+ *     repeated uint32 tags = 2 [ packed = true ];
+ *     optional GeomType type = 3;
+ *     repeated uint32 geometry = 4 [ packed = true ];
+ * }
+ *
+ * message Value {
+ *     optional string string_value = 1;
+ *     optional double double_value = 3;
+ *     optional sint64 sint_value = 6;
+ *     optional bool bool_value = 7;
+ * }
+ * </pre>
+ *
+ * <p>
+ *   Features are encoded as they are added, so a tile holds its encoded bytes rather than its features. Attribute
+ *   names and values are shared by every feature of the layer: each feature refers to them by their position in the
+ *   layer's lists of keys and values. Values that are null are left out.
+ * </p>
+ */
+final class TileBuilder {
+
+    static final int VERSION = 2;
+
+    static final int POINT = 1;
+    static final int LINESTRING = 2;
+    static final int POLYGON = 3;
+
+    private final String layerName;
+    private final int extent;
+
+    /**
+     * Every feature added so far, each already written as field 2 of the layer.
+     */
+    private final ProtobufWriter features = new ProtobufWriter(256);
+    private final Map<String, Integer> keyIndexes = new HashMap<>();
+    private final List<String> keys = new ArrayList<>();
+    private final Map<Object, Integer> valueIndexes = new HashMap<>();
+    private final List<Object> values = new ArrayList<>();
+
+    private int numFeatures;
+
+    TileBuilder(final String layerName, final int extent) {
+        this.layerName = layerName;
+        this.extent = extent;
+    }
+
+    int getNumFeatures() {
+        return numFeatures;
+    }
+
+    /**
+     * Adds a feature.
+     *
+     * @param id Record number
+     * @param type One of {@link #POINT}, {@link #LINESTRING} or {@link #POLYGON}
+     * @param geometry The geometry of the feature
+     * @param columns Names of the attributes
+     * @param attributes Values of the attributes, in the same order as their names
+     * @param scratch A writer to encode the feature in, which is reset first
+     * @param tags A buffer for the tags of the feature, with room for two per attribute
+     */
+    void addFeature(final long id,
+                    final int type,
+                    final GeometryEncoder geometry,
+                    final List<String> columns,
+                    final Object[] attributes,
+                    final ProtobufWriter scratch,
+                    final int[] tags) {
+        int numTags = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            final Object value = normalize(attributes[i]);
+            if (value != null) {
+                tags[numTags++] = indexOf(keyIndexes, keys, columns.get(i));
+                tags[numTags++] = indexOf(valueIndexes, values, value);
+            }
+        }
+
+        scratch.reset();
+        scratch.writeUInt64(1, id);
+        scratch.writePackedUInt32(2, tags, 0, numTags);
+        scratch.writeUInt32(3, type);
+        scratch.writePackedUInt32(4, geometry.commands(), 0, geometry.size());
+
+        features.writeMessage(2, scratch);
+        numFeatures++;
+    }
+
+    /**
+     * @return The tile, holding this layer.
+     */
+    byte[] toByteArray() {
+        final ProtobufWriter layer = new ProtobufWriter(features.size() + 64 * (keys.size() + values.size()) + 64);
+        layer.writeUInt32(15, VERSION);
+        layer.writeString(1, layerName);
+        layer.writeRaw(features);
+        for (final String key : keys) {
+            layer.writeString(3, key);
+        }
+
+        final ProtobufWriter value = new ProtobufWriter();
+        for (final Object object : values) {
+            value.reset();
+            if (object instanceof String) {
+                value.writeString(1, (String) object);
+            } else if (object instanceof Double) {
+                value.writeDouble(3, (Double) object);
+            } else if (object instanceof Long) {
+                value.writeSInt64(6, (Long) object);
+            } else {
+                value.writeBool(7, (Boolean) object);
+            }
+            layer.writeMessage(4, value);
+        }
+        layer.writeUInt32(5, extent);
+
+        final ProtobufWriter tile = new ProtobufWriter(layer.size() + 8);
+        tile.writeMessage(3, layer);
+
+        return tile.toByteArray();
+    }
+
+    /**
+     * Maps attribute values onto the types a vector tile can hold: numbers other than longs and doubles are widened,
+     * and anything else, such as a date, is written as its string form.
+     */
+    private static Object normalize(final Object value) {
+        if (value == null || value instanceof String || value instanceof Long || value instanceof Double || value instanceof Boolean) {
+            return value;
+        } else if (value instanceof Float) {
+            return ((Float) value).doubleValue();
+        } else if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+
+        return value.toString();
+    }
+
+    private static <T> int indexOf(final Map<T, Integer> indexes, final List<T> list, final T item) {
+        final Integer index = indexes.get(item);
+        if (index != null) {
+            return index;
+        }
+
+        indexes.put(item, list.size());
+        list.add(item);
+        return list.size() - 1;
+    }
+}
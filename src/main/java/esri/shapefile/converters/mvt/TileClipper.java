@@ -0,0 +1,226 @@
+package esri.shapefile.converters.mvt;
+
+import java.util.Arrays;
+
+/**
+ * Clips rings and lines, given as packed x, y coordinates, to a square.
+ *
+ * <p>
+ *   Rings are clipped by the Sutherland-Hodgman algorithm, one side of the square at a time. Where a ring leaves the
+ *   square and comes back, the result runs along the side in between, which is harmless when it is filled. Lines are
+ *   clipped segment by segment, by the Liang-Barsky algorithm, and split into a separate piece each time they leave
+ *   the square.
+ * </p>
+ *
+ * <p>
+ *   A clipper keeps its results in buffers that it reuses from one call to the next, so it must not be shared between
+ *   threads, and each result is only valid until the next call.
+ * </p>
+ */
+final class TileClipper {
+
+    private final double min;
+    private final double max;
+
+    private double[] output = new double[256];
+    private double[] scratch = new double[256];
+    private int[] pieceStarts = new int[16];
+
+    /**
+     * The part of the segment being clipped that lies inside the square, as fractions of its length.
+     */
+    private double t0;
+    private double t1;
+
+    /**
+     * @param min The smallest x and y of the square
+     * @param max The largest x and y of the square
+     */
+    TileClipper(final double min, final double max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * The coordinates of the last result, packed as x, y.
+     */
+    double[] output() {
+        return output;
+    }
+
+    /**
+     * The index of the first point of a piece of the last line clipped. The piece ends where the next one starts.
+     */
+    int pieceStart(final int piece) {
+        return pieceStarts[piece];
+    }
+
+    /**
+     * Clips a ring, given without its closing point, to the square.
+     *
+     * @param xy Packed coordinates
+     * @param numPoints Number of points in the ring
+     * @return Number of points in the clipped ring, in {@link #output()}, which may be fewer than 3 when the ring lies
+     * outside the square
+     */
+    int clipRing(final double[] xy, final int numPoints) {
+        ensureCapacity(2 * numPoints + 8);
+
+        if (isInside(xy, numPoints)) {
+            System.arraycopy(xy, 0, output, 0, 2 * numPoints);
+            return numPoints;
+        }
+
+        System.arraycopy(xy, 0, scratch, 0, 2 * numPoints);
+        int count = numPoints;
+        for (int side = 0; side < 4 && count > 0; side++) {
+            // Each side can add a point for every point it keeps.
+            ensureCapacity(4 * count + 8);
+            count = clipRingToSide(scratch, count, output, side);
+
+            final double[] swap = scratch;
+            scratch = output;
+            output = swap;
+        }
+
+        // After four passes the last result is back in scratch.
+        final double[] swap = scratch;
+        scratch = output;
+        output = swap;
+
+        return count;
+    }
+
+    /**
+     * Clips a line to the square.
+     *
+     * @param xy Packed coordinates
+     * @param numPoints Number of points in the line
+     * @return Number of pieces in the clipped line, whose points are in {@link #output()} and start at
+     * {@link #pieceStart(int)}; {@code pieceStart(pieces)} is the total number of points
+     */
+    int clipLine(final double[] xy, final int numPoints) {
+        ensureCapacity(4 * numPoints);
+
+        int pieces = 0;
+        int count = 0;
+        boolean open = false;
+        for (int i = 0; i + 1 < numPoints; i++) {
+            final double x0 = xy[2 * i];
+            final double y0 = xy[2 * i + 1];
+            final double dx = xy[2 * i + 2] - x0;
+            final double dy = xy[2 * i + 3] - y0;
+
+            t0 = 0;
+            t1 = 1;
+            final boolean visible = clip(-dx, x0 - min) && clip(dx, max - x0) && clip(-dy, y0 - min) && clip(dy, max - y0);
+
+            if (!visible) {
+                open = false;
+                continue;
+            }
+
+            if (!open || t0 > 0) {
+                if (pieces + 1 >= pieceStarts.length) {
+                    pieceStarts = Arrays.copyOf(pieceStarts, pieceStarts.length * 2);
+                }
+                pieceStarts[pieces++] = count;
+                output[2 * count] = x0 + t0 * dx;
+                output[2 * count + 1] = y0 + t0 * dy;
+                count++;
+            }
+
+            output[2 * count] = x0 + t1 * dx;
+            output[2 * count + 1] = y0 + t1 * dy;
+            count++;
+            open = t1 == 1;
+        }
+
+        pieceStarts[pieces] = count;
+        return pieces;
+    }
+
+    /**
+     * Narrows [t0, t1], the part of the current segment inside the square, to the inside of one side, where the
+     * segment moves towards the side at rate {@code p} and starts {@code q} inside it. Returns false once nothing of
+     * the segment is left.
+     */
+    private boolean clip(final double p, final double q) {
+        if (p == 0) {
+            return q >= 0;
+        }
+
+        final double t = q / p;
+        if (p < 0) {
+            t0 = Math.max(t0, t);
+        } else {
+            t1 = Math.min(t1, t);
+        }
+
+        return t0 <= t1;
+    }
+
+    private boolean isInside(final double[] xy, final int numPoints) {
+        for (int i = 0; i < 2 * numPoints; i++) {
+            if (xy[i] < min || xy[i] > max) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Keeps the part of the ring on the inside of one side of the square: 0 is the left, 1 the right, 2 the top and
+     * 3 the bottom.
+     */
+    private int clipRingToSide(final double[] in, final int count, final double[] out, final int side) {
+        int size = 0;
+        double previousX = in[2 * (count - 1)];
+        double previousY = in[2 * (count - 1) + 1];
+        boolean previousInside = isInside(previousX, previousY, side);
+
+        for (int i = 0; i < count; i++) {
+            final double x = in[2 * i];
+            final double y = in[2 * i + 1];
+            final boolean inside = isInside(x, y, side);
+
+            if (inside != previousInside) {
+                final double bound = side == 0 || side == 2 ? min : max;
+                final double t = side < 2 ? (bound - previousX) / (x - previousX) : (bound - previousY) / (y - previousY);
+                out[2 * size] = side < 2 ? bound : previousX + t * (x - previousX);
+                out[2 * size + 1] = side < 2 ? previousY + t * (y - previousY) : bound;
+                size++;
+            }
+            if (inside) {
+                out[2 * size] = x;
+                out[2 * size + 1] = y;
+                size++;
+            }
+
+            previousX = x;
+            previousY = y;
+            previousInside = inside;
+        }
+
+        return size;
+    }
+
+    private boolean isInside(final double x, final double y, final int side) {
+        switch (side) {
+            case 0: return x >= min;
+            case 1: return x <= max;
+            case 2: return y >= min;
+            default: return y <= max;
+        }
+    }
+
+    private void ensureCapacity(final int length) {
+        if (output.length < length) {
+            output = Arrays.copyOf(output, Math.max(length, output.length * 2));
+        }
+        if (scratch.length < length) {
+            scratch = Arrays.copyOf(scratch, Math.max(length, scratch.length * 2));
+        }
+    }
+}
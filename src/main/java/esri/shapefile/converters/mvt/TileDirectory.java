@@ -0,0 +1,49 @@
+package esri.shapefile.converters.mvt;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Writes each tile to a file of its own, at {@code zoom/x/y.mvt} under a directory, the layout tile servers and
+ * map libraries read directly.
+ */
+public final class TileDirectory implements TileSink {
+
+    public static final String EXTENSION = "mvt";
+
+    /**
+     * @param directory Created if it does not exist
+     * @return {@link TileDirectory}
+     */
+    public static TileDirectory create(final File directory) {
+        return new TileDirectory(directory);
+    }
+
+    private final File directory;
+
+    private TileDirectory(final File directory) {
+        this.directory = directory;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return The file a tile is written to, whether or not it exists.
+     */
+    public File getFile(final int zoom, final int x, final int y) {
+        return new File(new File(new File(directory, String.valueOf(zoom)), String.valueOf(x)), y + "." + EXTENSION);
+    }
+
+    @Override
+    public void write(final int zoom, final int x, final int y, final byte[] tile) throws IOException {
+        final File file = getFile(zoom, x, y);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), tile);
+    }
+
+    @Override
+    public void close() {}
+}
@@ -0,0 +1,22 @@
+package esri.shapefile.converters.mvt;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Somewhere to put vector tiles as they are made. Tiles from different zoom levels are written from different
+ * threads at the same time, so implementations must be thread-safe.
+ */
+public interface TileSink extends Closeable {
+
+    /**
+     * Writes an encoded tile. Each tile is written at most once.
+     *
+     * @param zoom
+     * @param x Column of the tile, from 0 at the west
+     * @param y Row of the tile, from 0 at the north
+     * @param tile The tile, encoded as a protocol buffer
+     * @throws IOException
+     */
+    void write(int zoom, int x, int y, byte[] tile) throws IOException;
+}
@@ -0,0 +1,310 @@
+package esri.shapefile.converters.mvt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Splits the parts of a shape, in the units of the tiles of one zoom level, among the tiles of a block of them.
+ *
+ * <p>
+ *   The block is halved again and again, first across its columns and then across its rows, and the parts are clipped
+ *   to each half, widened by the margin, before the half is split in turn. A point therefore reaches no more than a
+ *   couple of halves at each step, so a shape of n points is split among its tiles in O(n log t) time, for t tiles
+ *   across its bounding box, rather than the O(n t) of clipping the whole shape to every tile. The pieces reaching a
+ *   tile have already been cut down to its widened square, but may still be clipped to it exactly.
+ * </p>
+ *
+ * <p>
+ *   Rings are clipped by the Sutherland-Hodgman algorithm and lines by the Liang-Barsky algorithm, one axis at a time,
+ *   and lines are split into a separate part each time they leave a half. A splitter reuses its buffers, one set for
+ *   each step of the halving, so it must not be shared between threads.
+ * </p>
+ */
+final class TileSplitter {
+
+    /**
+     * Called with the parts that reach each tile. The parts are only valid until the call returns.
+     */
+    interface TileVisitor {
+        void visit(int x, int y, Parts parts);
+    }
+
+    /**
+     * Parts of a shape, packed as x, y coordinates one after the other, with a flag for each.
+     */
+    static final class Parts {
+
+        private double[] xy = new double[256];
+        private int[] starts = new int[17];
+        private boolean[] flags = new boolean[16];
+        private int numParts;
+        private int size;
+
+        int getNumParts() {
+            return numParts;
+        }
+
+        double[] coordinates() {
+            return xy;
+        }
+
+        /**
+         * The index of the first point of a part. The part ends where the next one starts.
+         */
+        int start(final int part) {
+            return starts[part];
+        }
+
+        int end(final int part) {
+            return starts[part + 1];
+        }
+
+        /**
+         * Whether a ring is an exterior ring.
+         */
+        boolean flag(final int part) {
+            return flags[part];
+        }
+
+        void clear() {
+            numParts = 0;
+            size = 0;
+        }
+
+        /**
+         * Adds a point to the part being built.
+         */
+        void add(final double x, final double y) {
+            if (xy.length < 2 * size + 2) {
+                xy = Arrays.copyOf(xy, 2 * xy.length);
+            }
+            xy[2 * size] = x;
+            xy[2 * size + 1] = y;
+            size++;
+        }
+
+        /**
+         * Ends the part being built, and drops it if it has no points.
+         */
+        void endPart(final boolean flag) {
+            if (size == starts[numParts]) {
+                return;
+            }
+            if (numParts + 2 > starts.length) {
+                starts = Arrays.copyOf(starts, 2 * starts.length);
+                flags = Arrays.copyOf(flags, starts.length);
+            }
+            flags[numParts] = flag;
+            starts[++numParts] = size;
+        }
+    }
+
+    private final int type;
+    private final double margin;
+    private final List<Parts> steps = new ArrayList<>();
+
+    /**
+     * Intermediate results of clipping a ring to both ends of an interval.
+     */
+    private double[] scratch = new double[256];
+
+    /**
+     * The part of the segment being clipped that lies inside the interval, as fractions of its length.
+     */
+    private double t0;
+    private double t1;
+
+    /**
+     * @param type One of {@link TileBuilder#POINT}, {@link TileBuilder#LINESTRING} or {@link TileBuilder#POLYGON}. Points
+     * are given as parts of a single point each, and rings without their closing points.
+     * @param margin How far beyond each edge of a tile parts are kept, in tiles
+     */
+    TileSplitter(final int type, final double margin) {
+        this.type = type;
+        this.margin = margin;
+    }
+
+    /**
+     * @return Empty parts to fill with the shape to split, which are cleared by the next call.
+     */
+    Parts parts() {
+        final Parts parts = step(0);
+        parts.clear();
+        return parts;
+    }
+
+    /**
+     * Visits every tile of the block from (xFrom, yFrom) to (xTo, yTo), inclusive, that some part reaches.
+     */
+    void split(final Parts parts, final int xFrom, final int yFrom, final int xTo, final int yTo, final TileVisitor visitor) {
+        split(0, parts, xFrom, yFrom, xTo, yTo, visitor);
+    }
+
+    private void split(final int depth, final Parts parts, final int xFrom, final int yFrom, final int xTo, final int yTo, final TileVisitor visitor) {
+        if (parts.getNumParts() == 0) {
+            return;
+        }
+
+        if (xFrom < xTo) {
+            final int middle = (xFrom + xTo + 1) >>> 1;
+            final Parts half = step(depth + 1);
+            clip(parts, 0, xFrom - margin, middle + margin, half);
+            split(depth + 1, half, xFrom, yFrom, middle - 1, yTo, visitor);
+            clip(parts, 0, middle - margin, xTo + 1 + margin, half);
+            split(depth + 1, half, middle, yFrom, xTo, yTo, visitor);
+        } else if (yFrom < yTo) {
+            final int middle = (yFrom + yTo + 1) >>> 1;
+            final Parts half = step(depth + 1);
+            clip(parts, 1, yFrom - margin, middle + margin, half);
+            split(depth + 1, half, xFrom, yFrom, xTo, middle - 1, visitor);
+            clip(parts, 1, middle - margin, yTo + 1 + margin, half);
+            split(depth + 1, half, xFrom, middle, xTo, yTo, visitor);
+        } else {
+            visitor.visit(xFrom, yFrom, parts);
+        }
+    }
+
+    private Parts step(final int depth) {
+        while (steps.size() <= depth) {
+            steps.add(new Parts());
+        }
+        return steps.get(depth);
+    }
+
+    /**
+     * Keeps the parts, or the pieces of them, whose coordinates on the axis, 0 for x and 1 for y, lie within
+     * [min, max].
+     */
+    void clip(final Parts in, final int axis, final double min, final double max, final Parts out) {
+        out.clear();
+        final double[] xy = in.coordinates();
+        for (int part = 0; part < in.getNumParts(); part++) {
+            final int from = in.start(part);
+            final int to = in.end(part);
+
+            if (isInside(xy, from, to, axis, min, max)) {
+                for (int i = from; i < to; i++) {
+                    out.add(xy[2 * i], xy[2 * i + 1]);
+                }
+            } else if (type == TileBuilder.POLYGON) {
+                clipRing(xy, from, to, axis, min, max, out);
+            } else if (type == TileBuilder.LINESTRING) {
+                clipLine(xy, from, to, axis, min, max, out);
+            }
+            out.endPart(in.flag(part));
+        }
+    }
+
+    private static boolean isInside(final double[] xy, final int from, final int to, final int axis, final double min, final double max) {
+        for (int i = from; i < to; i++) {
+            final double value = xy[2 * i + axis];
+            if (value < min || value > max) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void clipRing(final double[] xy, final int from, final int to, final int axis, final double min, final double max, final Parts out) {
+        // Each end can add a point for every point it keeps, so the first pass writes up to 2 * count points and the
+        // second, written after them, up to 4 * count.
+        final int count = to - from;
+        if (scratch.length < 12 * count) {
+            scratch = new double[Math.max(12 * count, 2 * scratch.length)];
+        }
+
+        final int kept = clipRingToBound(xy, from, count, axis, min, true, scratch, 0);
+        final int clipped = clipRingToBound(scratch, 0, kept, axis, max, false, scratch, 2 * count);
+        for (int i = 2 * count; i < 2 * count + clipped; i++) {
+            out.add(scratch[2 * i], scratch[2 * i + 1]);
+        }
+    }
+
+    /**
+     * Keeps the part of a ring on one side of a bound: at or above it, or at or below it. The points read from
+     * {@code in} starting at point {@code from} are written to {@code out} starting at point {@code at}.
+     */
+    private static int clipRingToBound(final double[] in, final int from, final int count, final int axis, final double bound,
+                                       final boolean above, final double[] out, final int at) {
+        if (count == 0) {
+            return 0;
+        }
+
+        int size = 0;
+        double previousX = in[2 * (from + count - 1)];
+        double previousY = in[2 * (from + count - 1) + 1];
+        boolean previousInside = above ? (axis == 0 ? previousX : previousY) >= bound : (axis == 0 ? previousX : previousY) <= bound;
+
+        for (int i = from; i < from + count; i++) {
+            final double x = in[2 * i];
+            final double y = in[2 * i + 1];
+            final boolean inside = above ? (axis == 0 ? x : y) >= bound : (axis == 0 ? x : y) <= bound;
+
+            if (inside != previousInside) {
+                final double t = axis == 0 ? (bound - previousX) / (x - previousX) : (bound - previousY) / (y - previousY);
+                out[2 * (at + size)] = axis == 0 ? bound : previousX + t * (x - previousX);
+                out[2 * (at + size) + 1] = axis == 0 ? previousY + t * (y - previousY) : bound;
+                size++;
+            }
+            if (inside) {
+                out[2 * (at + size)] = x;
+                out[2 * (at + size) + 1] = y;
+                size++;
+            }
+
+            previousX = x;
+            previousY = y;
+            previousInside = inside;
+        }
+
+        return size;
+    }
+
+    private void clipLine(final double[] xy, final int from, final int to, final int axis, final double min, final double max, final Parts out) {
+        boolean open = false;
+        for (int i = from; i + 1 < to; i++) {
+            final double x0 = xy[2 * i];
+            final double y0 = xy[2 * i + 1];
+            final double dx = xy[2 * i + 2] - x0;
+            final double dy = xy[2 * i + 3] - y0;
+            final double value = axis == 0 ? x0 : y0;
+            final double delta = axis == 0 ? dx : dy;
+
+            t0 = 0;
+            t1 = 1;
+            if (!clip(-delta, value - min) || !clip(delta, max - value)) {
+                open = false;
+                continue;
+            }
+
+            if (!open || t0 > 0) {
+                out.endPart(false);
+                out.add(x0 + t0 * dx, y0 + t0 * dy);
+            }
+            out.add(x0 + t1 * dx, y0 + t1 * dy);
+            open = t1 == 1;
+        }
+    }
+
+    /**
+     * Narrows [t0, t1], the part of the current segment inside the interval, to the inside of one of its ends, where
+     * the segment moves towards the end at rate {@code p} and starts {@code q} inside it. Returns false once nothing
+     * of the segment is left.
+     */
+    private boolean clip(final double p, final double q) {
+        if (p == 0) {
+            return q >= 0;
+        }
+
+        final double t = q / p;
+        if (p < 0) {
+            t0 = Math.max(t0, t);
+        } else {
+            t1 = Math.min(t1, t);
+        }
+
+        return t0 <= t1;
+    }
+}
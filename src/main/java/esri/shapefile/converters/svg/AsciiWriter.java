@@ -0,0 +1,158 @@
+package esri.shapefile.converters.svg;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes ASCII text and numbers to a stream through a fixed buffer, without creating a string for either.
+ *
+ * <p>
+ *   Numbers are written with a fixed number of decimals, after rounding, and without trailing zeros, so 12.50 is
+ *   written as 12.5 and 3.0 as 3. The digits are produced by integer arithmetic straight into the buffer, which keeps
+ *   a converter writing millions of coordinates from creating any garbage. The stream is not closed.
+ * </p>
+ */
+final class AsciiWriter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The most decimals a number can be written with.
+     */
+    static final int MAX_DECIMALS = 9;
+
+    /**
+     * Numbers at least this large, once scaled by their decimals, may not fit in a long, and are written with
+     * {@link Double#toString(double)} instead.
+     */
+    private static final double MAX_SCALED = 1e17;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_DECIMALS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_DECIMALS; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final OutputStream outputStream;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+
+    AsciiWriter(final OutputStream outputStream) {
+        this.outputStream = outputStream;
+    }
+
+    AsciiWriter write(final char c) throws IOException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = (byte) c;
+
+        return this;
+    }
+
+    AsciiWriter write(final String ascii) throws IOException {
+        for (int i = 0; i < ascii.length(); i++) {
+            write(ascii.charAt(i));
+        }
+
+        return this;
+    }
+
+    AsciiWriter write(final long value) throws IOException {
+        if (value < 0) {
+            write('-');
+            // Long.MIN_VALUE has no positive counterpart, so its last digit is written on its own.
+            if (value == Long.MIN_VALUE) {
+                return writeDigits(-(value / 10)).write('8');
+            }
+            return writeDigits(-value);
+        }
+
+        return writeDigits(value);
+    }
+
+    /**
+     * Writes the value rounded to the given number of decimals, dropping trailing zeros and the decimal point when
+     * nothing follows it. Negative zero is written as 0, and values that are not finite are written as 0 too, since
+     * SVG has no way to express them.
+     *
+     * @param value
+     * @param decimals Between 0 and {@link #MAX_DECIMALS}
+     */
+    AsciiWriter write(final double value, final int decimals) throws IOException {
+        if (decimals < 0 || decimals > MAX_DECIMALS) {
+            throw new IllegalArgumentException("Decimals must be between 0 and " + MAX_DECIMALS + ": " + decimals);
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return write('0');
+        }
+
+        final long powerOfTen = POWERS_OF_TEN[decimals];
+        final double scaled = Math.abs(value) * powerOfTen;
+        if (scaled >= MAX_SCALED) {
+            return write(Double.toString(value));
+        }
+
+        final long rounded = Math.round(scaled);
+        if (rounded == 0) {
+            return write('0');
+        }
+        if (value < 0) {
+            write('-');
+        }
+        writeDigits(rounded / powerOfTen);
+
+        long fraction = rounded % powerOfTen;
+        if (fraction == 0) {
+            return this;
+        }
+
+        int digits = decimals;
+        while (fraction % 10 == 0) {
+            fraction /= 10;
+            digits--;
+        }
+
+        write('.');
+        for (long leading = POWERS_OF_TEN[digits - 1]; leading > fraction && leading > 1; leading /= 10) {
+            write('0');
+        }
+        return writeDigits(fraction);
+    }
+
+    void flush() throws IOException {
+        flushBuffer();
+        outputStream.flush();
+    }
+
+    /**
+     * Writes the digits of a value that is not negative, most significant first.
+     */
+    private AsciiWriter writeDigits(final long value) throws IOException {
+        int length = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+            length++;
+        }
+
+        if (buffer.length - position < length) {
+            flushBuffer();
+        }
+
+        long remaining = value;
+        for (int i = position + length - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        position += length;
+
+        return this;
+    }
+
+    private void flushBuffer() throws IOException {
+        outputStream.write(buffer, 0, position);
+        position = 0;
+    }
+}
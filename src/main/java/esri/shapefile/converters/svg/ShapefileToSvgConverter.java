@@ -1,77 +1,279 @@
-/*package esri.shapefile.converters.svg;
+package esri.shapefile.converters.svg;
 
+import esri.shapefile.ShapeView;
 import esri.shapefile.ShapefileReader;
+import esri.shapefile.exceptions.ShapefileConsumerException;
 import esri.shapefile.models.MainFileHeader;
-import esri.shapefile.models.shapes.Polygon;
+import esri.shapefile.models.shapes.ShapeType;
 
-import java.io.*;
-import java.util.stream.Collectors;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 
+/**
+ * Converts a shapefile to an SVG image.
+ *
+ * <p>
+ *   The image is {@link #getWidth()} pixels wide, and as tall as the extent of the shapefile in its main file header
+ *   requires. Coordinates are scaled into pixels, with y flipped so that north is up, and written with
+ *   {@link #DECIMALS} decimal places.
+ * </p>
+ *
+ * <p>
+ *   Records are read through a {@link ShapeView} moved over the memory-mapped shapefile, and written straight to the
+ *   output through a fixed buffer. Nothing is decoded into shapes, and nothing is kept from one record to the next, so
+ *   the converter runs in constant memory however large the shapefile is.
+ * </p>
+ *
+ * <p>
+ *   Detail that the image cannot show is left out. A vertex is written only when it is at least a pixel away, along x
+ *   or y, from the last vertex written, and a ring, line or record whose extent is smaller than a pixel is not written
+ *   at all. The last vertex of each line is always written, so lines keep their ends.
+ * </p>
+ *
+ * <p>
+ *   Polygons are written as paths filled by the even-odd rule, lines as unfilled paths, and points as small circles.
+ *   Multipatches and null shapes are not written.
+ * </p>
+ */
 public class ShapefileToSvgConverter {
 
+    public static final int DEFAULT_WIDTH = 1024;
+
+    /**
+     * The number of decimal places coordinates are written with: a tenth of a pixel.
+     */
+    public static final int DECIMALS = 1;
+
+    /**
+     * The radius of the circle drawn for each point, in pixels.
+     */
+    private static final double POINT_RADIUS = 1.5;
+
+    private final int width;
+
+    public ShapefileToSvgConverter() {
+        this(DEFAULT_WIDTH);
+    }
+
+    private ShapefileToSvgConverter(final int width) {
+        this.width = width;
+    }
+
+    /**
+     * Returns a converter that draws images of the given width. This converter is left unchanged.
+     *
+     * @param width Width of the image in pixels
+     * @return {@link ShapefileToSvgConverter}
+     * @throws IllegalArgumentException if the width is not positive
+     */
+    public ShapefileToSvgConverter withWidth(final int width) {
+        if (width < 1) {
+            throw new IllegalArgumentException("Width must be at least 1 pixel: " + width);
+        }
+
+        return new ShapefileToSvgConverter(width);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Converts the shapefile to an SVG image in a new temporary file.
+     *
+     * @param pathToShapefile
+     * @return The SVG file
+     * @throws IOException if the shapefile could not be read, or the image could not be written
+     */
     public File convert(final String pathToShapefile) throws IOException {
-        final File file = File.createTempFile("shapefile-to-svg-converter", ".html");
-        final FileWriter fileWriter = new FileWriter(file);
-        final BufferedWriter bufferedWriter = new BufferedWriter(fileWriter);
+        final File file = File.createTempFile("shapefile-to-svg-converter", ".svg");
+
+        try (final OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
+            convert(pathToShapefile, outputStream);
+        }
 
+        return file;
+    }
+
+    /**
+     * Converts the shapefile to an SVG image, written to the stream. The stream is flushed, but not closed.
+     *
+     * @param pathToShapefile
+     * @param outputStream
+     * @throws IOException if the shapefile could not be read, or the image could not be written
+     */
+    public void convert(final String pathToShapefile, final OutputStream outputStream) throws IOException {
         final ShapefileReader shapefileReader = new ShapefileReader();
         final MainFileHeader mainFileHeader = shapefileReader.getMainFileHeader(pathToShapefile);
-        writeHeader(bufferedWriter, mainFileHeader);
+        final Projection projection = new Projection(mainFileHeader, width);
+        final AsciiWriter writer = new AsciiWriter(outputStream);
 
-        shapefileReader.forEachRecord(pathToShapefile, ((recordHeader, shape) -> {
-            switch (shape.getShapeType()) {
-                case Polygon:
-                    writePolygon(bufferedWriter, (Polygon) shape);
-                    break;
-            }
+        writer.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").write(width)
+              .write("\" height=\"").write(projection.height)
+              .write("\" viewBox=\"0 0 ").write(width).write(' ').write(projection.height)
+              .write("\">\n<g fill=\"#ccc\" fill-rule=\"evenodd\" stroke=\"#333\" stroke-width=\"0.5\">\n");
 
-            try {
-                if (recordHeader.getRecordNumber() % 4 == 0) {
-                    bufferedWriter.flush();
+        try {
+            shapefileReader.forEachShapeView(pathToShapefile, (shapeView) -> {
+                try {
+                    writeShape(writer, projection, shapeView);
+                } catch (final IOException e) {
+                    throw new ShapefileConsumerException(shapeView.getRecordNumber(), e);
                 }
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+            });
+        } catch (final ShapefileConsumerException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
             }
-        }));
+            throw new IOException(e);
+        }
 
-        bufferedWriter.write("</svg></body></html>");
-        bufferedWriter.flush();
-        return file;
+        writer.write("</g>\n</svg>\n");
+        writer.flush();
     }
 
-    private void writeHeader(final BufferedWriter bufferedWriter, final MainFileHeader mainFileHeader) throws IOException {
-        bufferedWriter.write("<!DOCTYPE html>");
-        bufferedWriter.append("<html>");
-        bufferedWriter.append("<body>");
+    private static void writeShape(final AsciiWriter writer, final Projection projection, final ShapeView shapeView) throws IOException {
+        final ShapeType shapeType = shapeView.getShapeType();
+        if (shapeType == ShapeType.NullShape || shapeType == ShapeType.MultiPatch) {
+            return;
+        }
 
-        final double width = mainFileHeader.getXMax() - mainFileHeader.getXMin();
-        final double height = mainFileHeader.getYMax() - mainFileHeader.getYMin();
+        if (shapeType.isPoint() || shapeType.isMultiPoint()) {
+            writePoints(writer, projection, shapeView);
+            return;
+        }
 
-        bufferedWriter.append("<svg ");
-        bufferedWriter.append(" height=\"100%\"");
-        bufferedWriter.append(" width=\"100%\"");
-        bufferedWriter.append(String.format(" viewbox=\"%.3f %.3f %.3f %.3f\"", mainFileHeader.getXMin(), -mainFileHeader.getYMax(), width, height));
-        bufferedWriter.append(">");
-    }
+        if (!projection.isVisible(shapeView.getXMin(), shapeView.getYMin(), shapeView.getXMax(), shapeView.getYMax())) {
+            return;
+        }
 
-    private void writePolygon(final BufferedWriter bufferedWriter, final Polygon polygon) {
-        try {
-            bufferedWriter.write("<g>");
+        final boolean polygon = shapeType == ShapeType.Polygon || shapeType == ShapeType.PolygonZ || shapeType == ShapeType.PolygonM;
 
-            polygon.getRings().forEach((points) -> {
-                try {
-                    bufferedWriter.write(points.stream().
-                            map(point -> String.format("%.3f,%.3f", point.getX(), -point.getY())).
-                            collect(Collectors.joining(" ", "<polygon points=\"", "\" />")));
-                } catch (IOException e) {
-                    // Super Annoying...
+        boolean started = false;
+        for (int part = 0; part < shapeView.getNumParts(); part++) {
+            final int from = shapeView.getPartStart(part);
+            final int to = shapeView.getPartEnd(part);
+            if (to <= from || !isVisible(projection, shapeView, from, to)) {
+                continue;
+            }
+
+            if (!started) {
+                writer.write(polygon ? "<path d=\"" : "<path fill=\"none\" d=\"");
+                started = true;
+            }
+
+            double lastX = projection.x(shapeView.getX(from));
+            double lastY = projection.y(shapeView.getY(from));
+            writer.write('M').write(lastX, DECIMALS).write(',').write(lastY, DECIMALS);
+
+            // Z closes a polygon ring, so a last point that repeats the first is not written.
+            final boolean closed = shapeView.getX(to - 1) == shapeView.getX(from) && shapeView.getY(to - 1) == shapeView.getY(from);
+            final int end = polygon && closed ? to - 1 : to;
+
+            for (int point = from + 1; point < end; point++) {
+                final double x = projection.x(shapeView.getX(point));
+                final double y = projection.y(shapeView.getY(point));
+                final boolean endOfLine = !polygon && point == end - 1;
+                if (!endOfLine && Math.abs(x - lastX) < 1 && Math.abs(y - lastY) < 1) {
+                    continue;
                 }
-            });
 
-            bufferedWriter.write("</g>");
-        } catch (IOException e) {
-            // Super Annoting...
+                writer.write(' ').write(x, DECIMALS).write(',').write(y, DECIMALS);
+                lastX = x;
+                lastY = y;
+            }
+
+            if (polygon) {
+                writer.write('Z');
+            }
+        }
+
+        if (started) {
+            writer.write("\"/>\n");
+        }
+    }
+
+    private static void writePoints(final AsciiWriter writer, final Projection projection, final ShapeView shapeView) throws IOException {
+        double lastX = Double.NaN;
+        double lastY = Double.NaN;
+        for (int point = 0; point < shapeView.getNumPoints(); point++) {
+            final double x = projection.x(shapeView.getX(point));
+            final double y = projection.y(shapeView.getY(point));
+            if (Math.abs(x - lastX) < 1 && Math.abs(y - lastY) < 1) {
+                continue;
+            }
+
+            writer.write("<circle cx=\"").write(x, DECIMALS)
+                  .write("\" cy=\"").write(y, DECIMALS)
+                  .write("\" r=\"").write(POINT_RADIUS, DECIMALS)
+                  .write("\"/>\n");
+            lastX = x;
+            lastY = y;
         }
     }
 
-}*/
+    /**
+     * Whether the extent of the points in [from, to) spans at least a pixel. Stops reading as soon as it does.
+     */
+    private static boolean isVisible(final Projection projection, final ShapeView shapeView, final int from, final int to) {
+        final double x0 = shapeView.getX(from);
+        final double y0 = shapeView.getY(from);
+        double xMin = x0;
+        double yMin = y0;
+        double xMax = x0;
+        double yMax = y0;
+        for (int point = from + 1; point < to; point++) {
+            final double x = shapeView.getX(point);
+            final double y = shapeView.getY(point);
+            xMin = Math.min(xMin, x);
+            yMin = Math.min(yMin, y);
+            xMax = Math.max(xMax, x);
+            yMax = Math.max(yMax, y);
+            if (projection.isVisible(xMin, yMin, xMax, yMax)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Maps coordinates onto pixels: the extent of the shapefile is scaled to the width of the image, and flipped so
+     * that the largest y is at the top.
+     */
+    private static final class Projection {
+
+        private final double xMin;
+        private final double yMax;
+        private final double scale;
+        private final int height;
+
+        private Projection(final MainFileHeader mainFileHeader, final int width) {
+            final double dataWidth = mainFileHeader.getXMax() - mainFileHeader.getXMin();
+            final double dataHeight = mainFileHeader.getYMax() - mainFileHeader.getYMin();
+
+            this.xMin = mainFileHeader.getXMin();
+            this.yMax = mainFileHeader.getYMax();
+            this.scale = dataWidth > 0 ? width / dataWidth : dataHeight > 0 ? width / dataHeight : 1;
+            this.height = Math.max(1, (int) Math.ceil(dataHeight * scale));
+        }
+
+        private double x(final double x) {
+            return (x - xMin) * scale;
+        }
+
+        private double y(final double y) {
+            return (yMax - y) * scale;
+        }
+
+        /**
+         * Whether a box spans at least a pixel along x or y.
+         */
+        private boolean isVisible(final double xMin, final double yMin, final double xMax, final double yMax) {
+            return (xMax - xMin) * scale >= 1 || (yMax - yMin) * scale >= 1;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package esri.shapefile.dbf;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A field descriptor of a dBASE table. Descriptors are 32 bytes long and follow the table header, one per column.
+ *
+ * Position  Field          Value          Type       Byte Order
+ * --------  -----          -----          ----       ----------
+ * Byte 0    Name           Name           Char[11]   -
+ * Byte 11   Type           C, N, F, L, D  Char       -
+ * Byte 12   Reserved       0              Byte[4]    -
+ * Byte 16   Length         Length         Byte       -
+ * Byte 17   Decimal Count  Decimal Count  Byte       -
+ * Byte 18   Reserved       0              Byte[14]   -
+ *
+ * The name is padded with NUL bytes. Values are stored as fixed-width ASCII text in the order the fields are
+ * declared, after a single deletion flag byte at the start of each row.
+ */
+public class DbfField {
+
+    /**
+     * Each field descriptor is 32 bytes long.
+     */
+    static final int DESCRIPTOR_SIZE = 32;
+
+    /**
+     * Describes a field to be written by {@link DbfWriter}.
+     *
+     * @param name Up to 10 ASCII characters
+     * @param type One of 'C' (character), 'N' (numeric), 'F' (float), 'L' (logical) or 'D' (date)
+     * @param length Width of the field in bytes, from 1 to 254; logical fields are 1 wide and date fields 8
+     * @param decimalCount Number of digits after the decimal point of a numeric field
+     * @return {@link DbfField}
+     * @throws IllegalArgumentException if the descriptor is not valid
+     */
+    public static DbfField of(final String name, final char type, final int length, final int decimalCount) {
+        if (name.isEmpty() || name.length() > 10 || !StandardCharsets.US_ASCII.newEncoder().canEncode(name)) {
+            throw new IllegalArgumentException("Field names must be 1 to 10 ASCII characters: " + name);
+        } else if ("CNFLD".indexOf(type) < 0) {
+            throw new IllegalArgumentException("Unsupported field type: " + type);
+        } else if (length < 1 || length > 254 || decimalCount < 0 || decimalCount > Math.max(0, length - 2)) {
+            throw new IllegalArgumentException(String.format("Invalid width %d.%d for field %s", length, decimalCount, name));
+        }
+
+        final DbfField dbfField = new DbfField();
+        dbfField.name = name;
+        dbfField.type = type;
+        dbfField.length = type == 'L' ? 1 : type == 'D' ? 8 : length;
+        dbfField.decimalCount = type == 'N' || type == 'F' ? decimalCount : 0;
+
+        return dbfField;
+    }
+
+    /**
+     * Reads the descriptor at {@code position} of the buffer.
+     *
+     * @param byteBuffer Buffer holding the table header
+     * @param position Index of the descriptor within the buffer
+     * @param offset Index of the first byte of the field within each row
+     * @return {@link DbfField}
+     */
+    static DbfField fromBytes(final ByteBuffer byteBuffer, final int position, final int offset) {
+        int nameLength = 0;
+        while (nameLength < 11 && byteBuffer.get(position + nameLength) != 0) {
+            nameLength++;
+        }
+
+        final byte[] name = new byte[nameLength];
+        for (int i = 0; i < nameLength; i++) {
+            name[i] = byteBuffer.get(position + i);
+        }
+
+        final DbfField dbfField = new DbfField();
+        dbfField.name = new String(name, StandardCharsets.ISO_8859_1).trim();
+        dbfField.type = (char) (byteBuffer.get(position + 11) & 0xFF);
+        dbfField.length = byteBuffer.get(position + 16) & 0xFF;
+        dbfField.decimalCount = byteBuffer.get(position + 17) & 0xFF;
+        dbfField.offset = offset;
+
+        return dbfField;
+    }
+
+    /**
+     * @return A copy of this descriptor positioned at the given offset within a row.
+     */
+    DbfField at(final int offset) {
+        final DbfField dbfField = new DbfField();
+        dbfField.name = name;
+        dbfField.type = type;
+        dbfField.length = length;
+        dbfField.decimalCount = decimalCount;
+        dbfField.offset = offset;
+
+        return dbfField;
+    }
+
+    private DbfField() {}
+
+    private String name;
+    private char type;
+    private int length;
+    private int decimalCount;
+    private int offset;
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The dBASE type code, such as 'C' for character, 'N' for numeric, 'F' for float, 'L' for logical and
+     * 'D' for date.
+     */
+    public char getType() {
+        return type;
+    }
+
+    /**
+     * @return The width of the field in bytes.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    public int getDecimalCount() {
+        return decimalCount;
+    }
+
+    /**
+     * @return The index of the first byte of the field within a row. The deletion flag occupies byte 0, so the first
+     * field starts at 1. Descriptors created with {@link #of(String, char, int, int)} have no offset until written.
+     */
+    public int getOffset() {
+        return offset;
+    }
+}
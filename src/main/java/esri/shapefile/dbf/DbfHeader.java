@@ -0,0 +1,145 @@
+package esri.shapefile.dbf;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The header of a dBASE table (.dbf). The attributes of a shapefile are stored in a dBASE table with one row per
+ * record, in the same order as the records of the main file.
+ *
+ * Position  Field               Value          Type         Byte Order
+ * --------  -----               -----          ----         ----------
+ * Byte 0    Version             3              Byte         -
+ * Byte 1    Last Update         YY MM DD       Byte[3]      -
+ * Byte 4    Number of Records   Records        Integer      Little
+ * Byte 8    Header Length       Header Length  Short        Little
+ * Byte 10   Record Length       Record Length  Short        Little
+ * Byte 12   Reserved            0              Byte[20]     -
+ * Byte 32   Field Descriptors   Fields         Byte[32]     -
+ * Byte X    Terminator          0x0D           Byte         -
+ *
+ * * Note: X = 32 + 32 * Number of Fields. The year of the last update is stored as an offset from 1900.
+ */
+public class DbfHeader {
+
+    /**
+     * The fixed part of the header, before the field descriptors, is 32 bytes long.
+     */
+    static final int HEADER_PREFIX_SIZE = 32;
+
+    private static final byte FIELD_TERMINATOR = 0x0D;
+
+    public static DbfHeader fromBytes(final ByteBuffer byteBuffer) throws ShapefileNotReadableException {
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        final DbfHeader dbfHeader = new DbfHeader();
+        dbfHeader.version = byteBuffer.get(0) & 0xFF;
+        dbfHeader.lastUpdateYear = 1900 + (byteBuffer.get(1) & 0xFF);
+        dbfHeader.lastUpdateMonth = byteBuffer.get(2) & 0xFF;
+        dbfHeader.lastUpdateDay = byteBuffer.get(3) & 0xFF;
+        dbfHeader.numRecords = byteBuffer.getInt(4);
+        dbfHeader.headerLength = byteBuffer.getShort(8) & 0xFFFF;
+        dbfHeader.recordLength = byteBuffer.getShort(10) & 0xFFFF;
+
+        final List<DbfField> fields = new ArrayList<>();
+        final Map<String, Integer> fieldIndexes = new HashMap<>();
+
+        int position = HEADER_PREFIX_SIZE;
+        int offset = 1;
+        while (position + DbfField.DESCRIPTOR_SIZE <= dbfHeader.headerLength && byteBuffer.get(position) != FIELD_TERMINATOR) {
+            final DbfField dbfField = DbfField.fromBytes(byteBuffer, position, offset);
+            fieldIndexes.put(dbfField.getName().toUpperCase(Locale.ROOT), fields.size());
+            fields.add(dbfField);
+
+            offset += dbfField.getLength();
+            position += DbfField.DESCRIPTOR_SIZE;
+        }
+
+        if (offset > dbfHeader.recordLength) {
+            throw new ShapefileNotReadableException(String.format("Fields span %d bytes but records are %d bytes long",
+                    offset, dbfHeader.recordLength));
+        }
+
+        dbfHeader.fields = Collections.unmodifiableList(fields);
+        dbfHeader.fieldIndexes = fieldIndexes;
+
+        return dbfHeader;
+    }
+
+    private DbfHeader() {}
+
+    private int version;
+    private int lastUpdateYear;
+    private int lastUpdateMonth;
+    private int lastUpdateDay;
+    private int numRecords;
+    private int headerLength;
+    private int recordLength;
+
+    private List<DbfField> fields;
+    private Map<String, Integer> fieldIndexes;
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return The date of the last update, or null when the header does not hold a valid date.
+     */
+    public LocalDate getLastUpdate() {
+        try {
+            return LocalDate.of(lastUpdateYear, lastUpdateMonth, lastUpdateDay);
+        } catch (final RuntimeException e) {
+            return null;
+        }
+    }
+
+    public int getNumRecords() {
+        return numRecords;
+    }
+
+    /**
+     * @return The number of bytes before the first row.
+     */
+    public int getHeaderLength() {
+        return headerLength;
+    }
+
+    /**
+     * @return The number of bytes in each row, including the deletion flag.
+     */
+    public int getRecordLength() {
+        return recordLength;
+    }
+
+    public List<DbfField> getFields() {
+        return fields;
+    }
+
+    /**
+     * @return The position of the field in {@link #getFields()}, or -1 when there is no such field. Names are
+     * compared without regard to case.
+     */
+    public int indexOf(final String name) {
+        final Integer index = fieldIndexes.get(name.toUpperCase(Locale.ROOT));
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @return The field with the given name, or null when there is no such field. Names are compared without regard
+     * to case.
+     */
+    public DbfField getField(final String name) {
+        final int index = indexOf(name);
+        return index < 0 ? null : fields.get(index);
+    }
+}
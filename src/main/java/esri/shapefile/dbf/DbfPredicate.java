@@ -0,0 +1,145 @@
+package esri.shapefile.dbf;
+
+/**
+ * A condition on the attributes of a row, evaluated against the raw bytes of the row.
+ *
+ * <p>
+ *   The predicates created here never build a {@link String} from the table: text is compared byte for byte with the
+ *   value encoded once in the charset of the table, and numbers are parsed straight from the digits of the field.
+ *   They can therefore be evaluated against every row of a table for little more than the cost of reading it.
+ *   {@link DbfTable#findRecordNumbers(DbfPredicate)} also {@link #bind(DbfHeader) binds} the predicate to the table
+ *   first, so that each field is found by name once rather than once per row.
+ * </p>
+ *
+ * <pre>
+ * {@code
+ *   final DbfPredicate texas = DbfPredicate.equalTo("STATE", "TX").and(DbfPredicate.greaterThan("TOTAL_VOTE", 10000));
+ * }
+ * </pre>
+ */
+@FunctionalInterface
+public interface DbfPredicate {
+
+    boolean test(final DbfRow dbfRow);
+
+    /**
+     * Looks up the columns the predicate reads in the header of a table once, so that testing the rows of that table
+     * reads each field at a fixed offset rather than finding it by name every time. The result must only be tested
+     * against rows of that table. Predicates that read no columns of their own, such as lambdas, are returned as is.
+     *
+     * @throws IllegalArgumentException if a column does not exist
+     */
+    default DbfPredicate bind(final DbfHeader header) {
+        return this;
+    }
+
+    default DbfPredicate and(final DbfPredicate other) {
+        return new DbfPredicates.Bindable((header) -> {
+            final DbfPredicate first = bind(header);
+            final DbfPredicate second = other.bind(header);
+            return (dbfRow) -> first.test(dbfRow) && second.test(dbfRow);
+        });
+    }
+
+    default DbfPredicate or(final DbfPredicate other) {
+        return new DbfPredicates.Bindable((header) -> {
+            final DbfPredicate first = bind(header);
+            final DbfPredicate second = other.bind(header);
+            return (dbfRow) -> first.test(dbfRow) || second.test(dbfRow);
+        });
+    }
+
+    default DbfPredicate negate() {
+        return new DbfPredicates.Bindable((header) -> {
+            final DbfPredicate bound = bind(header);
+            return (dbfRow) -> !bound.test(dbfRow);
+        });
+    }
+
+    /**
+     * Matches rows whose field, ignoring leading and trailing blanks, is exactly {@code value}.
+     */
+    static DbfPredicate equalTo(final String column, final String value) {
+        final DbfPredicates.EncodedValue encodedValue = new DbfPredicates.EncodedValue(value);
+        return new DbfPredicates.Bindable((header) -> {
+            final DbfField field = DbfPredicates.field(header, column);
+            return (dbfRow) -> dbfRow.fieldEquals(field, encodedValue.in(dbfRow.getCharset()));
+        });
+    }
+
+    /**
+     * Matches rows whose field, ignoring leading and trailing blanks, is exactly one of {@code values}.
+     */
+    static DbfPredicate in(final String column, final String... values) {
+        final DbfPredicates.EncodedValue[] encodedValues = new DbfPredicates.EncodedValue[values.length];
+        for (int i = 0; i < values.length; i++) {
+            encodedValues[i] = new DbfPredicates.EncodedValue(values[i]);
+        }
+
+        return new DbfPredicates.Bindable((header) -> {
+            final DbfField field = DbfPredicates.field(header, column);
+            return (dbfRow) -> {
+                for (final DbfPredicates.EncodedValue encodedValue : encodedValues) {
+                    if (dbfRow.fieldEquals(field, encodedValue.in(dbfRow.getCharset()))) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        });
+    }
+
+    /**
+     * Matches rows whose field, ignoring leading blanks, starts with {@code prefix}.
+     */
+    static DbfPredicate startsWith(final String column, final String prefix) {
+        final DbfPredicates.EncodedValue encodedPrefix = new DbfPredicates.EncodedValue(prefix);
+        return new DbfPredicates.Bindable((header) -> {
+            final DbfField field = DbfPredicates.field(header, column);
+            return (dbfRow) -> dbfRow.fieldStartsWith(field, encodedPrefix.in(dbfRow.getCharset()));
+        });
+    }
+
+    /**
+     * Matches rows whose field is blank.
+     */
+    static DbfPredicate isNull(final String column) {
+        return new DbfPredicates.Bindable((header) -> {
+            final DbfField field = DbfPredicates.field(header, column);
+            return (dbfRow) -> dbfRow.isNull(field);
+        });
+    }
+
+    /**
+     * Matches rows whose numeric field is strictly less than {@code value}. Blank fields never match.
+     */
+    static DbfPredicate lessThan(final String column, final double value) {
+        return new DbfPredicates.Bindable((header) -> {
+            final DbfField field = DbfPredicates.field(header, column);
+            return (dbfRow) -> dbfRow.getDouble(field) < value;
+        });
+    }
+
+    /**
+     * Matches rows whose numeric field is strictly greater than {@code value}. Blank fields never match.
+     */
+    static DbfPredicate greaterThan(final String column, final double value) {
+        return new DbfPredicates.Bindable((header) -> {
+            final DbfField field = DbfPredicates.field(header, column);
+            return (dbfRow) -> dbfRow.getDouble(field) > value;
+        });
+    }
+
+    /**
+     * Matches rows whose numeric field lies between {@code min} and {@code max}, inclusive. Blank fields never match.
+     */
+    static DbfPredicate between(final String column, final double min, final double max) {
+        return new DbfPredicates.Bindable((header) -> {
+            final DbfField field = DbfPredicates.field(header, column);
+            return (dbfRow) -> {
+                final double value = dbfRow.getDouble(field);
+                return value >= min && value <= max;
+            };
+        });
+    }
+}
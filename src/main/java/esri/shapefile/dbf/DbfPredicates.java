@@ -0,0 +1,107 @@
+package esri.shapefile.dbf;
+
+import java.nio.charset.Charset;
+
+/**
+ * Support for the predicates created by {@link DbfPredicate}.
+ */
+final class DbfPredicates {
+
+    /**
+     * Finds the fields a predicate reads in the header of a table, and returns the predicate reading them.
+     */
+    interface Binder {
+        DbfPredicate bind(DbfHeader header);
+    }
+
+    /**
+     * A predicate whose fields are found when it is bound to a table. Testing it without binding it first binds it to
+     * the header of the row, and keeps that binding for as long as the rows come from the same table.
+     */
+    static final class Bindable implements DbfPredicate {
+
+        private final Binder binder;
+        private volatile Binding binding;
+
+        Bindable(final Binder binder) {
+            this.binder = binder;
+        }
+
+        @Override
+        public boolean test(final DbfRow dbfRow) {
+            return bind(dbfRow.getHeader()).test(dbfRow);
+        }
+
+        @Override
+        public DbfPredicate bind(final DbfHeader header) {
+            final Binding current = binding;
+            if (current != null && current.header == header) {
+                return current.predicate;
+            }
+
+            final Binding updated = new Binding(header, binder.bind(header));
+            binding = updated;
+
+            return updated.predicate;
+        }
+    }
+
+    /**
+     * A value to compare fields with, encoded in the charset of the table it is compared against. The encoding is
+     * kept for as long as the charset stays the same, which is the life of a scan.
+     */
+    static final class EncodedValue {
+
+        private final String value;
+        private volatile Encoding encoding;
+
+        EncodedValue(final String value) {
+            this.value = value;
+        }
+
+        byte[] in(final Charset charset) {
+            final Encoding current = encoding;
+            if (current != null && current.charset.equals(charset)) {
+                return current.bytes;
+            }
+
+            final Encoding updated = new Encoding(charset, value.getBytes(charset));
+            encoding = updated;
+
+            return updated.bytes;
+        }
+    }
+
+    private static final class Encoding {
+
+        private final Charset charset;
+        private final byte[] bytes;
+
+        Encoding(final Charset charset, final byte[] bytes) {
+            this.charset = charset;
+            this.bytes = bytes;
+        }
+    }
+
+    private static final class Binding {
+
+        private final DbfHeader header;
+        private final DbfPredicate predicate;
+
+        Binding(final DbfHeader header, final DbfPredicate predicate) {
+            this.header = header;
+            this.predicate = predicate;
+        }
+    }
+
+    static DbfField field(final DbfHeader header, final String column) {
+        final DbfField field = header.getField(column);
+        if (field == null) {
+            throw new IllegalArgumentException("Unknown column: " + column);
+        }
+
+        return field;
+    }
+
+    private DbfPredicates() {}
+}
@@ -0,0 +1,132 @@
+package esri.shapefile.dbf;
+
+import esri.shapefile.exceptions.ShapefileConsumerException;
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.Collection;
+
+/**
+ * A dBASE (.dbf) table reader, for the attributes that accompany a shapefile.
+ *
+ * <p>
+ *   The table is memory-mapped and each row is visited through a single, reusable {@link DbfRow}. Values are decoded
+ *   from the fixed-width row only when they are asked for, and a projection limits which columns may be asked for at
+ *   all, so columns a consumer does not need cost nothing.
+ * </p>
+ *
+ * <pre>
+ * {@code
+ *   final DbfReader dbfReader = new DbfReader();
+ *
+ *   dbfReader.forEachRow("/path/to/shapefile.dbf", Arrays.asList("STATE", "COUNTY"), (dbfRow) -> {
+ *       System.out.println(dbfRow.getString("STATE") + ": " + dbfRow.getString("COUNTY"));
+ *   });
+ * }
+ * </pre>
+ */
+public final class DbfReader {
+
+    /**
+     * Interface that must be implemented in order to consume each row of a dBASE table.
+     */
+    public interface RowConsumer {
+        void consume(final DbfRow dbfRow) throws ShapefileConsumerException;
+    }
+
+    /**
+     * The charset text is decoded with, or null to use the .cpg sibling of each table.
+     */
+    private final Charset charset;
+
+    public DbfReader() {
+        this(null);
+    }
+
+    public DbfReader(final Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * Reads the {@link DbfHeader} of the table, including its field descriptors.
+     *
+     * @param pathToDbf
+     * @return {@link DbfHeader}
+     * @throws ShapefileNotReadableException
+     */
+    public DbfHeader getHeader(final String pathToDbf) throws ShapefileNotReadableException {
+        try (final DbfTable dbfTable = open(pathToDbf)) {
+            return dbfTable.getHeader();
+        }
+    }
+
+    /**
+     * Calls the consumer for each row of the table, in order, with every column available. Rows flagged as deleted
+     * are delivered as well, so that row numbers keep lining up with record numbers; see {@link DbfRow#isDeleted()}.
+     *
+     * @param pathToDbf
+     * @param rowConsumer
+     * @throws ShapefileNotReadableException
+     * @throws ShapefileConsumerException
+     */
+    public void forEachRow(final String pathToDbf, final RowConsumer rowConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
+        forEachRow(pathToDbf, null, rowConsumer);
+    }
+
+    /**
+     * Calls the consumer for each row of the table, in order, with only the given columns available.
+     *
+     * @param pathToDbf
+     * @param columns Names of the columns to read, or null for every column
+     * @param rowConsumer
+     * @throws ShapefileNotReadableException
+     * @throws ShapefileConsumerException
+     * @throws IllegalArgumentException if a column does not exist
+     */
+    public void forEachRow(final String pathToDbf, final Collection<String> columns, final RowConsumer rowConsumer) throws ShapefileNotReadableException, ShapefileConsumerException {
+        try (final DbfTable dbfTable = open(pathToDbf)) {
+            final DbfRow dbfRow = dbfTable.newRow(columns);
+
+            for (int recordNumber = 1; recordNumber <= dbfTable.getNumRecords(); recordNumber++) {
+                dbfRow.moveTo(recordNumber);
+                rowConsumer.consume(dbfRow);
+            }
+        }
+    }
+
+    /**
+     * Reads a single row, with every column available.
+     *
+     * @param pathToDbf
+     * @param recordNumber The 1-based position of the row
+     * @return {@link DbfRow}
+     * @throws ShapefileNotReadableException if the table cannot be read or there is no such row
+     */
+    public DbfRow readRow(final String pathToDbf, final int recordNumber) throws ShapefileNotReadableException {
+        try (final DbfTable dbfTable = open(pathToDbf)) {
+            return dbfTable.readRow(recordNumber, null);
+        }
+    }
+
+    /**
+     * Evaluates the predicate against the raw bytes of each row and returns the record numbers of the rows that
+     * match, skipping rows flagged as deleted. The result can be handed to
+     * {@link esri.shapefile.ShapefileReader#readRecords(String, int[])} to decode only the matching shapes.
+     *
+     * @param pathToDbf
+     * @param dbfPredicate
+     * @return The matching record numbers, in ascending order
+     * @throws ShapefileNotReadableException
+     */
+    public int[] findRecordNumbers(final String pathToDbf, final DbfPredicate dbfPredicate) throws ShapefileNotReadableException {
+        try (final DbfTable dbfTable = open(pathToDbf)) {
+            return dbfTable.findRecordNumbers(dbfPredicate);
+        }
+    }
+
+    private DbfTable open(final String pathToDbf) throws ShapefileNotReadableException {
+        final File dbf = new File(pathToDbf);
+        return charset == null ? DbfTable.open(dbf) : DbfTable.open(dbf, charset);
+    }
+}
@@ -0,0 +1,500 @@
+package esri.shapefile.dbf;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import esri.shapefile.io.MappedFile;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A reusable, read-only cursor over one row of a dBASE table.
+ *
+ * <p>
+ *   Rows are fixed-width, so moving to a row only records where it starts. Nothing is decoded until a value is asked
+ *   for, and then only the bytes of that one field are read. When the row is created with a projection, only the
+ *   projected columns can be read at all; asking for any other column is an error rather than a silent decode.
+ * </p>
+ *
+ * <p>
+ *   A row handed to a consumer is only valid until the consumer returns, because the same instance is moved on to the
+ *   next row. Use {@link #copy()} to keep it.
+ * </p>
+ */
+public final class DbfRow {
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final MappedFile mappedFile;
+    private final DbfHeader header;
+    private final Charset charset;
+
+    /**
+     * The fields that may be read, indexed like {@link DbfHeader#getFields()}, and the same fields in order.
+     */
+    private final boolean[] projected;
+    private final List<DbfField> columns;
+
+    /**
+     * Holds the bytes of a single field while it is converted to a {@link String}.
+     */
+    private final byte[] scratch;
+
+    private ByteBuffer buffer;
+    private int base;
+    private int recordNumber;
+
+    DbfRow(final MappedFile mappedFile, final DbfHeader header, final Charset charset, final Collection<String> columnNames) {
+        this.mappedFile = mappedFile;
+        this.header = header;
+        this.charset = charset;
+        this.projected = new boolean[header.getFields().size()];
+        this.scratch = new byte[header.getRecordLength()];
+
+        if (columnNames == null) {
+            Arrays.fill(projected, true);
+            this.columns = header.getFields();
+        } else {
+            for (final String columnName : columnNames) {
+                final int index = header.indexOf(columnName);
+                if (index < 0) {
+                    throw new IllegalArgumentException("Unknown column: " + columnName);
+                }
+                projected[index] = true;
+            }
+
+            final List<DbfField> columns = new ArrayList<>();
+            for (int index = 0; index < projected.length; index++) {
+                if (projected[index]) {
+                    columns.add(header.getFields().get(index));
+                }
+            }
+            this.columns = Collections.unmodifiableList(columns);
+        }
+    }
+
+    /**
+     * Moves the row to the given record number, starting at 1. The row is read in place from the mapping. Rows read
+     * from a {@link DbfStream} cannot be moved; they advance with {@link DbfStream#next(DbfRow)}.
+     *
+     * @param recordNumber The 1-based position of the row in the table
+     * @throws ShapefileNotReadableException if there is no such row
+     */
+    public void moveTo(final int recordNumber) throws ShapefileNotReadableException {
+        if (mappedFile == null) {
+            throw new IllegalStateException("Rows read from a stream cannot be moved");
+        } else if (recordNumber < 1 || recordNumber > header.getNumRecords()) {
+            throw new ShapefileNotReadableException(String.format("%s: no row %d of %d",
+                    mappedFile.getFile().getAbsolutePath(), recordNumber, header.getNumRecords()));
+        }
+
+        final long position = header.getHeaderLength() + (long) (recordNumber - 1) * header.getRecordLength();
+        if (mappedFile.isContiguous(position, header.getRecordLength())) {
+            buffer = mappedFile.chunk(position, ByteOrder.LITTLE_ENDIAN);
+            base = mappedFile.chunkOffset(position);
+        } else {
+            buffer = mappedFile.slice(position, header.getRecordLength());
+            base = 0;
+        }
+
+        this.recordNumber = recordNumber;
+    }
+
+    /**
+     * Points the row at a row held in the given buffer, starting at {@code base}.
+     */
+    void point(final ByteBuffer buffer, final int base, final int recordNumber) {
+        this.buffer = buffer;
+        this.base = base;
+        this.recordNumber = recordNumber;
+    }
+
+    public DbfHeader getHeader() {
+        return header;
+    }
+
+    /**
+     * @return The 1-based position of the row, which matches the record number of its shape.
+     */
+    public int getRecordNumber() {
+        return recordNumber;
+    }
+
+    /**
+     * @return The fields this row was projected to, in table order.
+     */
+    public List<DbfField> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return Whether the row has been flagged as deleted with an asterisk.
+     */
+    public boolean isDeleted() {
+        return buffer.get(base) == '*';
+    }
+
+    /**
+     * @return Whether the field holds nothing but blanks, which is how dBASE stores a missing value.
+     */
+    public boolean isNull(final String column) {
+        return isNull(field(column));
+    }
+
+    /**
+     * @return The value of the field with leading and trailing blanks removed.
+     */
+    public String getString(final String column) {
+        final DbfField field = field(column);
+        final int start = firstNonBlank(field);
+        final int end = lastNonBlank(field, start);
+
+        for (int i = start; i < end; i++) {
+            scratch[i - start] = buffer.get(i);
+        }
+
+        return new String(scratch, 0, end - start, charset);
+    }
+
+    /**
+     * Parses an integer straight from the bytes of the field. Any fractional part is discarded.
+     *
+     * @throws NumberFormatException if the field is blank or is not a number
+     */
+    public long getLong(final String column) {
+        final DbfField field = field(column);
+        final int start = firstNonBlank(field);
+        final int end = lastNonBlank(field, start);
+
+        int position = start;
+        final boolean negative = position < end && buffer.get(position) == '-';
+        if (position < end && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+            position++;
+        }
+
+        if (position == end) {
+            throw new NumberFormatException(column + ": \"" + getString(column) + "\"");
+        }
+
+        long value = 0;
+        for (; position < end; position++) {
+            final byte digit = buffer.get(position);
+            if (digit == '.') {
+                break;
+            } else if (digit < '0' || digit > '9') {
+                throw new NumberFormatException(column + ": \"" + getString(column) + "\"");
+            }
+            value = value * 10 + (digit - '0');
+        }
+
+        for (position++; position < end; position++) {
+            final byte digit = buffer.get(position);
+            if (digit < '0' || digit > '9') {
+                throw new NumberFormatException(column + ": \"" + getString(column) + "\"");
+            }
+        }
+
+        return negative ? -value : value;
+    }
+
+    public int getInt(final String column) {
+        return Math.toIntExact(getLong(column));
+    }
+
+    /**
+     * @return The value of the field, or NaN when it is blank or filled with asterisks, which some writers use to
+     * mark a value that did not fit.
+     * @throws NumberFormatException if the field is not a number
+     */
+    public double getDouble(final String column) {
+        return parseDouble(field(column));
+    }
+
+    /**
+     * @return True for T, t, Y or y, false for F, f, N or n, and null for anything else, including '?' which dBASE
+     * uses for an unset logical.
+     */
+    public Boolean getBoolean(final String column) {
+        final DbfField field = field(column);
+        final int start = firstNonBlank(field);
+
+        if (start == end(field)) {
+            return null;
+        }
+
+        switch (buffer.get(start)) {
+            case 'T': case 't': case 'Y': case 'y': return Boolean.TRUE;
+            case 'F': case 'f': case 'N': case 'n': return Boolean.FALSE;
+            default: return null;
+        }
+    }
+
+    /**
+     * @return The date stored as YYYYMMDD, or null when the field is blank or does not hold a valid date.
+     */
+    public LocalDate getDate(final String column) {
+        final DbfField field = field(column);
+        final int start = firstNonBlank(field);
+        final int end = lastNonBlank(field, start);
+
+        if (end - start != 8) {
+            return null;
+        }
+
+        try {
+            return LocalDate.of(digits(start, 4), digits(start + 4, 2), digits(start + 6, 2));
+        } catch (final DateTimeException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Decodes the field according to its type: a {@link String} for character fields, a {@link Long} or a
+     * {@link Double} for numeric fields depending on their decimal count, a {@link Boolean} for logical fields, and
+     * a {@link LocalDate} for date fields. Blank fields are null.
+     */
+    public Object getValue(final String column) {
+        final DbfField field = field(column);
+
+        if (field.getType() != 'C' && isNull(column)) {
+            return null;
+        }
+
+        switch (field.getType()) {
+            case 'N':
+            case 'F':
+                return field.getDecimalCount() == 0 && field.getLength() < 19 ? (Object) getLong(column) : (Object) getDouble(column);
+            case 'L':
+                return getBoolean(column);
+            case 'D':
+                return getDate(column);
+            default:
+                return getString(column);
+        }
+    }
+
+    /**
+     * @return The decoded value of every projected column, keyed by field name, in table order.
+     */
+    public Map<String, Object> toMap() {
+        final Map<String, Object> values = new LinkedHashMap<>();
+        for (final DbfField column : columns) {
+            values.put(column.getName(), getValue(column.getName()));
+        }
+
+        return values;
+    }
+
+    /**
+     * @return A copy of this row that remains valid after this row moves on.
+     */
+    public DbfRow copy() {
+        final byte[] bytes = new byte[header.getRecordLength()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(base + i);
+        }
+
+        final DbfRow copy = new DbfRow(mappedFile, header, charset, projection());
+        copy.buffer = ByteBuffer.wrap(bytes);
+        copy.base = 0;
+        copy.recordNumber = recordNumber;
+
+        return copy;
+    }
+
+    Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Whether the field, which has already been looked up in the header, holds nothing but blanks.
+     */
+    boolean isNull(final DbfField field) {
+        return firstNonBlank(field) == end(field);
+    }
+
+    /**
+     * Parses the field, which has already been looked up in the header, like {@link #getDouble(String)}.
+     */
+    double getDouble(final DbfField field) {
+        return parseDouble(field);
+    }
+
+    /**
+     * Whether the field, with leading and trailing blanks removed, consists of exactly the given bytes.
+     */
+    boolean fieldEquals(final DbfField field, final byte[] value) {
+        final int start = firstNonBlank(field);
+        final int end = lastNonBlank(field, start);
+
+        return end - start == value.length && regionMatches(start, value);
+    }
+
+    /**
+     * Whether the field, with leading blanks removed, starts with the given bytes.
+     */
+    boolean fieldStartsWith(final DbfField field, final byte[] prefix) {
+        final int start = firstNonBlank(field);
+
+        return end(field) - start >= prefix.length && regionMatches(start, prefix);
+    }
+
+    /**
+     * Parses the field without creating a {@link String} whenever the result is certain to be exact: when the number
+     * has at most 15 significant digits and a power of ten no larger than 10^22, both of which are exactly
+     * representable doubles, so a single multiplication or division rounds correctly. Anything else falls back to
+     * {@link Double#parseDouble(String)}.
+     */
+    private double parseDouble(final DbfField field) {
+        final int start = firstNonBlank(field);
+        final int end = lastNonBlank(field, start);
+
+        if (start == end || buffer.get(start) == '*') {
+            return Double.NaN;
+        }
+
+        int position = start;
+        final boolean negative = buffer.get(position) == '-';
+        if (buffer.get(position) == '-' || buffer.get(position) == '+') {
+            position++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int scale = 0;
+        int exponent = 0;
+        boolean digits = false;
+        boolean fraction = false;
+        boolean exact = true;
+
+        for (; position < end && exact; position++) {
+            final byte character = buffer.get(position);
+
+            if (character >= '0' && character <= '9') {
+                digits = true;
+                if (mantissa != 0 || character != '0') {
+                    significantDigits++;
+                }
+                mantissa = mantissa * 10 + (character - '0');
+                scale -= fraction ? 1 : 0;
+                exact = significantDigits <= 15;
+            } else if (character == '.' && !fraction) {
+                fraction = true;
+            } else if ((character == 'e' || character == 'E') && digits) {
+                int index = position + 1;
+                final boolean negativeExponent = index < end && buffer.get(index) == '-';
+                if (index < end && (buffer.get(index) == '-' || buffer.get(index) == '+')) {
+                    index++;
+                }
+
+                exact = index < end;
+                for (; index < end && exact; index++) {
+                    final byte digit = buffer.get(index);
+                    exact = digit >= '0' && digit <= '9' && exponent < 1000;
+                    exponent = exponent * 10 + (digit - '0');
+                }
+
+                exponent = negativeExponent ? -exponent : exponent;
+                position = end;
+            } else {
+                exact = false;
+            }
+        }
+
+        final int power = scale + exponent;
+        if (!exact || !digits || power > 22 || power < -22) {
+            for (int i = start; i < end; i++) {
+                scratch[i - start] = buffer.get(i);
+            }
+
+            return Double.parseDouble(new String(scratch, 0, end - start, StandardCharsets.ISO_8859_1));
+        }
+
+        final double value = power >= 0 ? mantissa * POWERS_OF_TEN[power] : mantissa / POWERS_OF_TEN[-power];
+        return negative ? -value : value;
+    }
+
+    private Collection<String> projection() {
+        final List<String> names = new ArrayList<>();
+        for (final DbfField column : columns) {
+            names.add(column.getName());
+        }
+
+        return names;
+    }
+
+    private DbfField field(final String column) {
+        final int index = header.indexOf(column);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown column: " + column);
+        } else if (!projected[index]) {
+            throw new IllegalArgumentException("Column was not projected: " + column);
+        }
+
+        return header.getFields().get(index);
+    }
+
+    private int end(final DbfField field) {
+        return base + field.getOffset() + field.getLength();
+    }
+
+    private int firstNonBlank(final DbfField field) {
+        final int end = end(field);
+
+        int position = base + field.getOffset();
+        while (position < end && isBlank(buffer.get(position))) {
+            position++;
+        }
+
+        return position;
+    }
+
+    private int lastNonBlank(final DbfField field, final int start) {
+        int end = end(field);
+        while (end > start && isBlank(buffer.get(end - 1))) {
+            end--;
+        }
+
+        return end;
+    }
+
+    private boolean regionMatches(final int start, final byte[] value) {
+        for (int i = 0; i < value.length; i++) {
+            if (buffer.get(start + i) != value[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int digits(final int position, final int count) {
+        int value = 0;
+        for (int i = position; i < position + count; i++) {
+            final byte digit = buffer.get(i);
+            if (digit < '0' || digit > '9') {
+                throw new NumberFormatException();
+            }
+            value = value * 10 + (digit - '0');
+        }
+
+        return value;
+    }
+
+    private static boolean isBlank(final byte value) {
+        return value == ' ' || value == 0;
+    }
+}
@@ -0,0 +1,131 @@
+package esri.shapefile.dbf;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Collection;
+
+/**
+ * Reads the rows of a dBASE table front to back from a stream, for tables that cannot be mapped, such as members of
+ * an archive or objects in a remote store.
+ *
+ * <p>
+ *   Each row is read in full into a single reusable array, and handed out through a {@link DbfRow} cursor that is
+ *   pointed at that array, so reading a table allocates nothing per row.
+ * </p>
+ */
+public final class DbfStream implements Closeable {
+
+    /**
+     * Reads the header of the table from the stream, leaving it positioned at the first row.
+     *
+     * @param inputStream The stream to read, which is closed with this {@link DbfStream}, or straight away when its
+     * header cannot be read
+     * @param charset Charset text is decoded with
+     * @param source Describes the stream in error messages
+     * @return {@link DbfStream}
+     * @throws ShapefileNotReadableException
+     */
+    public static DbfStream open(final InputStream inputStream, final Charset charset, final String source) throws ShapefileNotReadableException {
+        final DbfStream dbfStream = new DbfStream();
+        dbfStream.inputStream = new DataInputStream(inputStream);
+        dbfStream.charset = charset;
+        dbfStream.source = source;
+
+        try {
+            final byte[] prefix = new byte[DbfHeader.HEADER_PREFIX_SIZE];
+            dbfStream.readFully(prefix, prefix.length);
+
+            final int headerLength = (prefix[8] & 0xFF) | (prefix[9] & 0xFF) << 8;
+            final byte[] header = new byte[Math.max(headerLength, prefix.length)];
+            System.arraycopy(prefix, 0, header, 0, prefix.length);
+            dbfStream.readFully(header, prefix.length, header.length - prefix.length);
+
+            dbfStream.header = DbfHeader.fromBytes(ByteBuffer.wrap(header));
+            dbfStream.row = new byte[dbfStream.header.getRecordLength()];
+            dbfStream.rowBuffer = ByteBuffer.wrap(dbfStream.row);
+        } catch (final ShapefileNotReadableException | RuntimeException e) {
+            try {
+                inputStream.close();
+            } catch (final IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+
+        return dbfStream;
+    }
+
+    private DbfStream() {}
+
+    private DataInputStream inputStream;
+    private Charset charset;
+    private String source;
+
+    private DbfHeader header;
+    private byte[] row;
+    private ByteBuffer rowBuffer;
+    private int recordNumber;
+
+    public DbfHeader getHeader() {
+        return header;
+    }
+
+    /**
+     * Creates a cursor that can read the given columns. It is filled by {@link #next(DbfRow)}.
+     *
+     * @param columns Names of the columns to read, or null for every column
+     * @return {@link DbfRow}
+     * @throws IllegalArgumentException if a column does not exist
+     */
+    public DbfRow newRow(final Collection<String> columns) {
+        return new DbfRow(null, header, charset, columns);
+    }
+
+    /**
+     * Reads the next row, and points the cursor at it.
+     *
+     * @param dbfRow A cursor created by {@link #newRow(Collection)}
+     * @return False when every row has been read
+     * @throws ShapefileNotReadableException if the stream ends before the last row
+     */
+    public boolean next(final DbfRow dbfRow) throws ShapefileNotReadableException {
+        if (recordNumber == header.getNumRecords()) {
+            return false;
+        }
+
+        readFully(row, row.length);
+        dbfRow.point(rowBuffer, 0, ++recordNumber);
+
+        return true;
+    }
+
+    @Override
+    public void close() throws ShapefileNotReadableException {
+        try {
+            inputStream.close();
+        } catch (final IOException e) {
+            throw new ShapefileNotReadableException(source, e);
+        }
+    }
+
+    private void readFully(final byte[] bytes, final int length) throws ShapefileNotReadableException {
+        readFully(bytes, 0, length);
+    }
+
+    private void readFully(final byte[] bytes, final int offset, final int length) throws ShapefileNotReadableException {
+        try {
+            inputStream.readFully(bytes, offset, length);
+        } catch (final EOFException e) {
+            throw new ShapefileNotReadableException(source + ": unexpected end of file", e);
+        } catch (final IOException e) {
+            throw new ShapefileNotReadableException(source, e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package esri.shapefile.dbf;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import esri.shapefile.io.MappedFile;
+import esri.shapefile.io.ShapefilePaths;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.stream.IntStream;
+
+/**
+ * A memory-mapped dBASE table.
+ *
+ * <p>
+ *   Rows are fixed-width, so row {@code n} starts at {@code headerLength + (n - 1) * recordLength} and can be reached
+ *   without reading any of the rows before it. Rows are read through {@link DbfRow} cursors created by
+ *   {@link #newRow(Collection)}.
+ * </p>
+ *
+ * <p>
+ *   dBASE tables do not record the encoding of their text. Shapefiles often ship a code page file (.cpg) naming it,
+ *   which is used when present; otherwise text is decoded as ISO-8859-1.
+ * </p>
+ */
+public final class DbfTable implements Closeable {
+
+    public static final Charset DEFAULT_CHARSET = StandardCharsets.ISO_8859_1;
+
+    /**
+     * Opens the table, decoding text with the charset named by its .cpg sibling, if any.
+     */
+    public static DbfTable open(final File dbf) throws ShapefileNotReadableException {
+        return open(dbf, readCodePage(ShapefilePaths.sibling(dbf, "cpg")));
+    }
+
+    public static DbfTable open(final File dbf, final Charset charset) throws ShapefileNotReadableException {
+        final MappedFile mappedFile = MappedFile.open(dbf);
+        final int headerLength = mappedFile.slice(0, DbfHeader.HEADER_PREFIX_SIZE).order(ByteOrder.LITTLE_ENDIAN).getShort(8) & 0xFFFF;
+
+        final DbfTable dbfTable = new DbfTable();
+        dbfTable.mappedFile = mappedFile;
+        dbfTable.header = DbfHeader.fromBytes(mappedFile.slice(0, Math.max(headerLength, DbfHeader.HEADER_PREFIX_SIZE)));
+        dbfTable.charset = charset;
+
+        return dbfTable;
+    }
+
+    /**
+     * Returns the charset named by the contents of a code page file (.cpg), or {@link #DEFAULT_CHARSET} when the name
+     * is blank or not a charset this JVM supports.
+     *
+     * @param codePage The bytes of the code page file
+     * @return {@link Charset}
+     */
+    public static Charset charsetForCodePage(final byte[] codePage) {
+        final String name = new String(codePage, StandardCharsets.US_ASCII).trim();
+
+        try {
+            return name.isEmpty() ? DEFAULT_CHARSET : Charset.forName(name);
+        } catch (final IllegalCharsetNameException | UnsupportedCharsetException e) {
+            return DEFAULT_CHARSET;
+        }
+    }
+
+    private static Charset readCodePage(final File cpg) {
+        if (!cpg.isFile()) {
+            return DEFAULT_CHARSET;
+        }
+
+        try {
+            return charsetForCodePage(Files.readAllBytes(cpg.toPath()));
+        } catch (final IOException e) {
+            return DEFAULT_CHARSET;
+        }
+    }
+
+    private DbfTable() {}
+
+    private MappedFile mappedFile;
+    private DbfHeader header;
+    private Charset charset;
+
+    public DbfHeader getHeader() {
+        return header;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public int getNumRecords() {
+        return header.getNumRecords();
+    }
+
+    /**
+     * Creates a cursor that can read the given columns. It must be moved to a row with {@link DbfRow#moveTo(int)}
+     * before it is read.
+     *
+     * @param columns Names of the columns to read, or null for every column
+     * @return {@link DbfRow}
+     * @throws IllegalArgumentException if a column does not exist
+     */
+    public DbfRow newRow(final Collection<String> columns) {
+        return new DbfRow(mappedFile, header, charset, columns);
+    }
+
+    /**
+     * Reads a single row into a {@link DbfRow} that does not depend on any cursor.
+     *
+     * @param recordNumber The 1-based position of the row
+     * @param columns Names of the columns to read, or null for every column
+     * @return {@link DbfRow}
+     * @throws ShapefileNotReadableException if there is no such row
+     */
+    public DbfRow readRow(final int recordNumber, final Collection<String> columns) throws ShapefileNotReadableException {
+        final DbfRow dbfRow = newRow(columns);
+        dbfRow.moveTo(recordNumber);
+
+        return dbfRow.copy();
+    }
+
+    /**
+     * Evaluates the predicate against every row that has not been deleted. The predicate is bound to the table once,
+     * before the first row, so that its fields are not looked up by name for every row.
+     *
+     * @param dbfPredicate
+     * @return The record numbers of the matching rows, in ascending order
+     * @throws ShapefileNotReadableException
+     * @throws IllegalArgumentException if a column the predicate reads does not exist
+     */
+    public int[] findRecordNumbers(final DbfPredicate dbfPredicate) throws ShapefileNotReadableException {
+        final IntStream.Builder recordNumbers = IntStream.builder();
+        final DbfPredicate boundPredicate = dbfPredicate.bind(header);
+        final DbfRow dbfRow = newRow(null);
+
+        for (int recordNumber = 1; recordNumber <= getNumRecords(); recordNumber++) {
+            dbfRow.moveTo(recordNumber);
+            if (!dbfRow.isDeleted() && boundPredicate.test(dbfRow)) {
+                recordNumbers.add(recordNumber);
+            }
+        }
+
+        return recordNumbers.build().toArray();
+    }
+
+    @Override
+    public void close() {
+        mappedFile.close();
+    }
+}
@@ -0,0 +1,344 @@
+package esri.shapefile.dbf;
+
+import esri.shapefile.exceptions.ShapefileNotWritableException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Writes a dBASE table one row at a time.
+ *
+ * <p>
+ *   Rows are fixed-width, so the header is the only part of the file that depends on how many rows there are. It is
+ *   written last, when the writer is closed, and every row before that is streamed through a direct buffer to the
+ *   channel. Numbers are formatted straight into the buffer without creating a {@link String}.
+ * </p>
+ */
+public final class DbfWriter implements Closeable {
+
+    static final int DEFAULT_BUFFER_SIZE = 256 << 10;
+
+    private static final byte FIELD_TERMINATOR = 0x0D;
+    private static final byte END_OF_FILE = 0x1A;
+
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L, 10000000000L,
+        100000000000L, 1000000000000L, 10000000000000L, 100000000000000L, 1000000000000000L, 10000000000000000L
+    };
+
+    /**
+     * Creates the table, replacing any existing file.
+     *
+     * @param dbf
+     * @param fields Descriptors of the columns, in order
+     * @param charset Charset text is encoded with
+     * @return {@link DbfWriter}
+     * @throws ShapefileNotWritableException
+     */
+    public static DbfWriter create(final File dbf, final List<DbfField> fields, final Charset charset) throws ShapefileNotWritableException {
+        final DbfWriter dbfWriter = new DbfWriter();
+        dbfWriter.file = dbf;
+        dbfWriter.charset = charset;
+
+        final List<DbfField> positionedFields = new ArrayList<>();
+        int offset = 1;
+        for (final DbfField field : fields) {
+            positionedFields.add(field.at(offset));
+            offset += field.getLength();
+        }
+
+        if (offset > 0xFFFF) {
+            throw new IllegalArgumentException("Rows may not be longer than 65535 bytes");
+        }
+
+        dbfWriter.fields = Collections.unmodifiableList(positionedFields);
+        dbfWriter.recordLength = offset;
+        dbfWriter.headerLength = DbfHeader.HEADER_PREFIX_SIZE + DbfField.DESCRIPTOR_SIZE * fields.size() + 1;
+        dbfWriter.buffer = ByteBuffer.allocateDirect(Math.max(DEFAULT_BUFFER_SIZE, offset));
+        dbfWriter.scratch = new byte[32];
+
+        try {
+            dbfWriter.fileChannel = FileChannel.open(dbf.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            dbfWriter.fileChannel.position(dbfWriter.headerLength);
+        } catch (final IOException e) {
+            throw new ShapefileNotWritableException(dbf, e);
+        }
+
+        return dbfWriter;
+    }
+
+    private DbfWriter() {}
+
+    private File file;
+    private Charset charset;
+    private List<DbfField> fields;
+    private int recordLength;
+    private int headerLength;
+
+    private FileChannel fileChannel;
+    private ByteBuffer buffer;
+    private byte[] scratch;
+
+    private int numRecords;
+    private boolean closed;
+
+    public List<DbfField> getFields() {
+        return fields;
+    }
+
+    public int getNumRecords() {
+        return numRecords;
+    }
+
+    /**
+     * Appends a row. Values are given in the order of the fields: a {@link CharSequence} or any other object for
+     * character fields, a {@link Number} for numeric fields, a {@link Boolean} for logical fields and a
+     * {@link LocalDate} for date fields. Null values are written as blanks, and numbers too wide for their field as
+     * asterisks.
+     *
+     * @param values One value per field
+     * @throws ShapefileNotWritableException
+     * @throws IllegalArgumentException if the number of values does not match the number of fields, or a value does
+     * not suit its field
+     */
+    public void write(final Object... values) throws ShapefileNotWritableException {
+        if (closed) {
+            throw new ShapefileNotWritableException(file.getAbsolutePath() + ": the writer has been closed");
+        } else if (values.length != fields.size()) {
+            throw new IllegalArgumentException(String.format("Expected %d values but got %d", fields.size(), values.length));
+        }
+
+        if (buffer.remaining() < recordLength) {
+            flush();
+        }
+
+        buffer.put((byte) ' ');
+        for (int i = 0; i < values.length; i++) {
+            putValue(fields.get(i), values[i]);
+        }
+
+        numRecords++;
+    }
+
+    /**
+     * Writes the header, now that the number of rows is known, and closes the file.
+     */
+    @Override
+    public void close() throws ShapefileNotWritableException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put(END_OF_FILE);
+            flush();
+
+            final ByteBuffer header = header();
+            while (header.hasRemaining()) {
+                fileChannel.write(header, header.position());
+            }
+        } catch (final IOException e) {
+            throw new ShapefileNotWritableException(file, e);
+        } finally {
+            try {
+                fileChannel.close();
+            } catch (final IOException e) {
+                // The header has been written, or the original failure is already being reported.
+            }
+        }
+    }
+
+    private ByteBuffer header() {
+        final ByteBuffer header = ByteBuffer.allocate(headerLength).order(ByteOrder.LITTLE_ENDIAN);
+        final LocalDate today = LocalDate.now();
+
+        header.put((byte) 3);
+        header.put((byte) (today.getYear() - 1900));
+        header.put((byte) today.getMonthValue());
+        header.put((byte) today.getDayOfMonth());
+        header.putInt(numRecords);
+        header.putShort((short) headerLength);
+        header.putShort((short) recordLength);
+
+        for (int i = 0; i < fields.size(); i++) {
+            final DbfField field = fields.get(i);
+            final int position = DbfHeader.HEADER_PREFIX_SIZE + DbfField.DESCRIPTOR_SIZE * i;
+            final byte[] name = field.getName().getBytes(StandardCharsets.US_ASCII);
+
+            for (int j = 0; j < name.length; j++) {
+                header.put(position + j, name[j]);
+            }
+            header.put(position + 11, (byte) field.getType());
+            header.put(position + 16, (byte) field.getLength());
+            header.put(position + 17, (byte) field.getDecimalCount());
+        }
+
+        header.put(headerLength - 1, FIELD_TERMINATOR);
+        header.rewind();
+
+        return header;
+    }
+
+    private void putValue(final DbfField field, final Object value) {
+        if (value == null) {
+            pad(field.getLength());
+            return;
+        }
+
+        switch (field.getType()) {
+            case 'N':
+            case 'F':
+                if (!(value instanceof Number)) {
+                    throw new IllegalArgumentException(field.getName() + " expects a number but got " + value);
+                }
+                putNumber(field, (Number) value);
+                break;
+            case 'L':
+                if (!(value instanceof Boolean)) {
+                    throw new IllegalArgumentException(field.getName() + " expects a boolean but got " + value);
+                }
+                buffer.put((byte) ((Boolean) value ? 'T' : 'F'));
+                break;
+            case 'D':
+                if (!(value instanceof LocalDate)) {
+                    throw new IllegalArgumentException(field.getName() + " expects a LocalDate but got " + value);
+                }
+                final LocalDate date = (LocalDate) value;
+                putDigits(date.getYear(), 4);
+                putDigits(date.getMonthValue(), 2);
+                putDigits(date.getDayOfMonth(), 2);
+                break;
+            default:
+                final byte[] bytes = value.toString().getBytes(charset);
+                final int length = Math.min(bytes.length, field.getLength());
+                buffer.put(bytes, 0, length);
+                pad(field.getLength() - length);
+        }
+    }
+
+    /**
+     * Right-aligns the number in its field, rounding half away from zero. Whole numbers and doubles that fit in a long once scaled by the number of
+     * decimals are formatted digit by digit; anything larger goes through {@link BigDecimal}.
+     */
+    private void putNumber(final DbfField field, final Number number) {
+        final int decimals = field.getDecimalCount();
+        final double value = number.doubleValue();
+
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            pad(field.getLength());
+            return;
+        }
+
+        final boolean integral = number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte;
+        final int length;
+
+        if (integral && decimals == 0 && number.longValue() != Long.MIN_VALUE) {
+            length = format(number.longValue(), 0);
+        } else if (decimals < POWERS_OF_TEN.length && Math.abs(value) * POWERS_OF_TEN[decimals] < 9e17) {
+            final long unscaled = Math.round(Math.abs(value) * POWERS_OF_TEN[decimals]);
+            length = format(value < 0 ? -unscaled : unscaled, decimals);
+        } else {
+            final BigDecimal exact = integral ? BigDecimal.valueOf(number.longValue()) : new BigDecimal(value);
+            final byte[] digits = exact.setScale(decimals, RoundingMode.HALF_UP).toPlainString().getBytes(StandardCharsets.US_ASCII);
+            if (digits.length > field.getLength()) {
+                overflow(field);
+            } else {
+                pad(field.getLength() - digits.length);
+                buffer.put(digits);
+            }
+            return;
+        }
+
+        if (length > field.getLength()) {
+            overflow(field);
+            return;
+        }
+
+        pad(field.getLength() - length);
+        buffer.put(scratch, scratch.length - length, length);
+    }
+
+    /**
+     * Formats {@code unscaled / 10^decimals} into the end of the scratch array.
+     *
+     * @return The number of bytes written, or more than the scratch array holds when it does not fit
+     */
+    private int format(final long unscaled, final int decimals) {
+        final boolean negative = unscaled < 0;
+        long remaining = Math.abs(unscaled);
+        int position = scratch.length;
+
+        for (int i = 0; i < decimals; i++) {
+            scratch[--position] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+
+        if (decimals > 0) {
+            scratch[--position] = '.';
+        }
+
+        do {
+            if (position == 0) {
+                return scratch.length + 1;
+            }
+            scratch[--position] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+
+        if (negative) {
+            scratch[--position] = '-';
+        }
+
+        return scratch.length - position;
+    }
+
+    private void putDigits(final int value, final int count) {
+        int divisor = (int) POWERS_OF_TEN[count - 1];
+        for (int i = 0; i < count; i++) {
+            buffer.put((byte) ('0' + (value / divisor) % 10));
+            divisor /= 10;
+        }
+    }
+
+    private void overflow(final DbfField field) {
+        for (int i = 0; i < field.getLength(); i++) {
+            buffer.put((byte) '*');
+        }
+    }
+
+    private void pad(final int count) {
+        for (int i = 0; i < count; i++) {
+            buffer.put((byte) ' ');
+        }
+    }
+
+    private void flush() throws ShapefileNotWritableException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                fileChannel.write(buffer);
+            }
+        } catch (final IOException e) {
+            throw new ShapefileNotWritableException(file, e);
+        }
+        buffer.clear();
+    }
+}
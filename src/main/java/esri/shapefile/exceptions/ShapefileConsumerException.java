@@ -6,7 +6,11 @@ import esri.shapefile.models.shapes.Shape;
 public class ShapefileConsumerException extends Exception {
 
     public ShapefileConsumerException(final RecordHeader recordHeader, final Shape shape, final Throwable cause) {
-        super(String.valueOf(recordHeader.getRecordNumber()), cause);
+        this(recordHeader.getRecordNumber(), cause);
+    }
+
+    public ShapefileConsumerException(final int recordNumber, final Throwable cause) {
+        super(String.valueOf(recordNumber), cause);
     }
 
 }
@@ -9,6 +9,10 @@ public class ShapefileNotReadableException extends IOException {
         super(message);
     }
 
+    public ShapefileNotReadableException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+
     public ShapefileNotReadableException(final File file, final Throwable cause) {
         super(file.getAbsolutePath(), cause);
     }
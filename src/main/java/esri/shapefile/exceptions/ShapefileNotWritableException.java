@@ -0,0 +1,18 @@
+package esri.shapefile.exceptions;
+
+import java.io.File;
+import java.io.IOException;
+
+public class ShapefileNotWritableException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ShapefileNotWritableException(final String message) {
+        super(message);
+    }
+
+    public ShapefileNotWritableException(final File file, final Throwable cause) {
+        super(file.getAbsolutePath(), cause);
+    }
+
+}
@@ -0,0 +1,323 @@
+package esri.shapefile.geometry;
+
+import esri.shapefile.models.BoundingBox;
+import esri.shapefile.models.shapes.MultiPartShape;
+import esri.shapefile.models.shapes.Point;
+import esri.shapefile.models.shapes.Polygon;
+
+/**
+ * Geometry computed directly over the packed coordinate arrays behind shapes.
+ *
+ * <p>
+ *   Shapes keep their points in a single array, packed as x0, y0, x1, y1, and so on, with each part (ring) spanning a
+ *   range of point indices. Every operation here is a plain loop over a range of that array: no {@link Point}s are
+ *   created, no lists are built, and nothing is boxed, so the JIT is free to unroll the loops and keep the running
+ *   sums in registers.
+ * </p>
+ *
+ * <p>
+ *   Ranges are given as point indices {@code [from, to)}, as returned by {@link MultiPartShape#getPartStart(int)} and
+ *   {@link MultiPartShape#getPartEnd(int)}. Rings may be closed, with the last point repeating the first, as the
+ *   specification requires, or left open; the closing edge is accounted for either way. Sums are taken relative to
+ *   the first point of each ring, which keeps the precision of areas and centroids of small rings far from the origin.
+ * </p>
+ *
+ * <p>
+ *   The specification orders the points of outer rings clockwise and those of holes counter-clockwise, so holes have
+ *   the opposite sign to outer rings and are subtracted by simply adding up signed areas.
+ * </p>
+ */
+public final class GeometryOps {
+
+    /**
+     * Returns the signed area of a ring by the shoelace formula: positive when its points run counter-clockwise, and
+     * negative when they run clockwise.
+     *
+     * @param xy Packed coordinates
+     * @param from Index of the first point of the ring
+     * @param to Index one past the last point of the ring
+     * @return Signed area
+     */
+    public static double signedArea(final double[] xy, final int from, final int to) {
+        if (to - from < 3) {
+            return 0;
+        }
+
+        final double x0 = xy[2 * from];
+        final double y0 = xy[2 * from + 1];
+
+        double sum = 0;
+        double previousX = 0;
+        double previousY = 0;
+        for (int i = 2 * from + 2; i < 2 * to; i += 2) {
+            final double x = xy[i] - x0;
+            final double y = xy[i + 1] - y0;
+            sum += previousX * y - x * previousY;
+            previousX = x;
+            previousY = y;
+        }
+
+        // The edge from the last point back to the first adds nothing, since the first point is the origin of the sum.
+        return sum / 2;
+    }
+
+    /**
+     * @return Whether the points of the ring run clockwise, as they do in an outer ring.
+     */
+    public static boolean isClockwise(final double[] xy, final int from, final int to) {
+        return signedArea(xy, from, to) < 0;
+    }
+
+    /**
+     * Returns the area of the polygon: the area of its outer rings less the area of its holes.
+     *
+     * @param polygon A polygon whose rings are oriented as the specification requires
+     * @return Area, in the squared units of its coordinates
+     */
+    public static double area(final Polygon polygon) {
+        final double[] xy = polygon.getCoordinates();
+
+        double signedArea = 0;
+        for (int part = 0; part < polygon.getNumParts(); part++) {
+            signedArea += signedArea(xy, polygon.getPartStart(part), polygon.getPartEnd(part));
+        }
+
+        return -signedArea;
+    }
+
+    /**
+     * Returns the centroid of the polygon: the centroids of its rings weighted by their signed areas, so holes pull
+     * the centroid away from themselves. When the polygon has no area, such as when all of its points lie on a line,
+     * the mean of its points is returned instead.
+     *
+     * @param polygon A polygon whose rings are oriented as the specification requires
+     * @return {@link Point}, or null if the polygon has no points
+     */
+    public static Point centroid(final Polygon polygon) {
+        final double[] xy = polygon.getCoordinates();
+
+        double signedArea = 0;
+        double weightedX = 0;
+        double weightedY = 0;
+        for (int part = 0; part < polygon.getNumParts(); part++) {
+            final int from = polygon.getPartStart(part);
+            final int to = polygon.getPartEnd(part);
+            if (to - from < 3) {
+                continue;
+            }
+
+            final double x0 = xy[2 * from];
+            final double y0 = xy[2 * from + 1];
+
+            double ringArea = 0;
+            double ringX = 0;
+            double ringY = 0;
+            double previousX = 0;
+            double previousY = 0;
+            for (int i = 2 * from + 2; i < 2 * to; i += 2) {
+                final double x = xy[i] - x0;
+                final double y = xy[i + 1] - y0;
+                final double cross = previousX * y - x * previousY;
+                ringArea += cross;
+                ringX += (previousX + x) * cross;
+                ringY += (previousY + y) * cross;
+                previousX = x;
+                previousY = y;
+            }
+
+            // Each ring's moments are relative to its own first point, so shift them back before adding them up.
+            signedArea += ringArea;
+            weightedX += ringX + 3 * x0 * ringArea;
+            weightedY += ringY + 3 * y0 * ringArea;
+        }
+
+        if (signedArea != 0) {
+            return Point.at(weightedX / (3 * signedArea), weightedY / (3 * signedArea));
+        }
+
+        final int numPoints = polygon.getNumPoints();
+        if (numPoints == 0) {
+            return null;
+        }
+
+        double sumX = 0;
+        double sumY = 0;
+        for (int i = 0; i < 2 * numPoints; i += 2) {
+            sumX += xy[i];
+            sumY += xy[i + 1];
+        }
+        return Point.at(sumX / numPoints, sumY / numPoints);
+    }
+
+    /**
+     * Returns the smallest box that holds every point in the range.
+     *
+     * @param xy Packed coordinates
+     * @param from Index of the first point
+     * @param to Index one past the last point
+     * @return {@link BoundingBox}
+     * @throws IllegalArgumentException if the range is empty
+     */
+    public static BoundingBox boundingBox(final double[] xy, final int from, final int to) {
+        if (to <= from) {
+            throw new IllegalArgumentException("No points in [" + from + ", " + to + ")");
+        }
+
+        double xMin = Double.POSITIVE_INFINITY;
+        double yMin = Double.POSITIVE_INFINITY;
+        double xMax = Double.NEGATIVE_INFINITY;
+        double yMax = Double.NEGATIVE_INFINITY;
+        for (int i = 2 * from; i < 2 * to; i += 2) {
+            xMin = Math.min(xMin, xy[i]);
+            xMax = Math.max(xMax, xy[i]);
+            yMin = Math.min(yMin, xy[i + 1]);
+            yMax = Math.max(yMax, xy[i + 1]);
+        }
+
+        return BoundingBox.of(xMin, yMin, xMax, yMax);
+    }
+
+    /**
+     * Whether the point lies inside the polygon, by the even-odd rule: a ray cast from the point crosses the rings of
+     * the polygon an odd number of times. Points inside a hole are outside the polygon. Points that lie exactly on an
+     * edge may be reported either way.
+     *
+     * @param polygon
+     * @param x
+     * @param y
+     * @return Whether the polygon contains the point
+     */
+    public static boolean contains(final Polygon polygon, final double x, final double y) {
+        final BoundingBox boundingBox = polygon.getBoundingBox();
+        if (x < boundingBox.getXMin() || x > boundingBox.getXMax() || y < boundingBox.getYMin() || y > boundingBox.getYMax()) {
+            return false;
+        }
+
+        final double[] xy = polygon.getCoordinates();
+
+        boolean inside = false;
+        for (int part = 0; part < polygon.getNumParts(); part++) {
+            if (crossesOddTimes(xy, polygon.getPartStart(part), polygon.getPartEnd(part), x, y)) {
+                inside = !inside;
+            }
+        }
+
+        return inside;
+    }
+
+    /**
+     * Tests many points against one polygon at once, by the same rule as {@link #contains(Polygon, double, double)}.
+     *
+     * <p>
+     *   Points outside the bounding box of the polygon are rejected first. The remaining points are then tested edge
+     *   by edge rather than point by point: each edge is loaded once and compared with every remaining point, which
+     *   keeps the edge in registers and walks the points sequentially, instead of walking every edge of a large
+     *   polygon once per point.
+     * </p>
+     *
+     * @param polygon
+     * @param points Packed coordinates of the points to test
+     * @param inside Set to whether the polygon contains each point; must have room for every point
+     * @return The number of points inside the polygon
+     * @throws IllegalArgumentException if {@code inside} is too short
+     */
+    public static int contains(final Polygon polygon, final double[] points, final boolean[] inside) {
+        final int numPoints = points.length / 2;
+        if (inside.length < numPoints) {
+            throw new IllegalArgumentException("Room for " + inside.length + " results, but there are " + numPoints + " points");
+        }
+
+        final BoundingBox boundingBox = polygon.getBoundingBox();
+        final double xMin = boundingBox.getXMin();
+        final double yMin = boundingBox.getYMin();
+        final double xMax = boundingBox.getXMax();
+        final double yMax = boundingBox.getYMax();
+
+        // Compact the candidates into their own packed array, so the edge loop below runs over them without gaps.
+        final int[] candidates = new int[numPoints];
+        final double[] candidateXY = new double[2 * numPoints];
+        int numCandidates = 0;
+        for (int i = 0; i < numPoints; i++) {
+            final double x = points[2 * i];
+            final double y = points[2 * i + 1];
+            inside[i] = false;
+            if (x >= xMin && x <= xMax && y >= yMin && y <= yMax) {
+                candidates[numCandidates] = i;
+                candidateXY[2 * numCandidates] = x;
+                candidateXY[2 * numCandidates + 1] = y;
+                numCandidates++;
+            }
+        }
+        if (numCandidates == 0) {
+            return 0;
+        }
+
+        final boolean[] crossings = new boolean[numCandidates];
+        final double[] xy = polygon.getCoordinates();
+        for (int part = 0; part < polygon.getNumParts(); part++) {
+            final int from = polygon.getPartStart(part);
+            final int to = polygon.getPartEnd(part);
+            if (to - from < 2) {
+                continue;
+            }
+
+            // Start with the edge from the last point to the first, which is empty when the ring is closed.
+            double x1 = xy[2 * (to - 1)];
+            double y1 = xy[2 * (to - 1) + 1];
+            for (int i = 2 * from; i < 2 * to; i += 2) {
+                final double x2 = xy[i];
+                final double y2 = xy[i + 1];
+
+                if (y1 != y2) {
+                    final double slope = (x2 - x1) / (y2 - y1);
+                    for (int k = 0; k < numCandidates; k++) {
+                        final double px = candidateXY[2 * k];
+                        final double py = candidateXY[2 * k + 1];
+                        if ((y1 > py) != (y2 > py) && px < x1 + (py - y1) * slope) {
+                            crossings[k] = !crossings[k];
+                        }
+                    }
+                }
+
+                x1 = x2;
+                y1 = y2;
+            }
+        }
+
+        int count = 0;
+        for (int k = 0; k < numCandidates; k++) {
+            if (crossings[k]) {
+                inside[candidates[k]] = true;
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Whether a ray cast from the point towards positive x crosses the edges of the ring an odd number of times.
+     */
+    static boolean crossesOddTimes(final double[] xy, final int from, final int to, final double x, final double y) {
+        if (to - from < 2) {
+            return false;
+        }
+
+        boolean odd = false;
+        double x1 = xy[2 * (to - 1)];
+        double y1 = xy[2 * (to - 1) + 1];
+        for (int i = 2 * from; i < 2 * to; i += 2) {
+            final double x2 = xy[i];
+            final double y2 = xy[i + 1];
+            if ((y1 > y) != (y2 > y) && x < x1 + (y - y1) * (x2 - x1) / (y2 - y1)) {
+                odd = !odd;
+            }
+            x1 = x2;
+            y1 = y2;
+        }
+
+        return odd;
+    }
+
+    private GeometryOps() {}
+}
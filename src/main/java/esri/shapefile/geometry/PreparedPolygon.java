@@ -0,0 +1,266 @@
+package esri.shapefile.geometry;
+
+import esri.shapefile.models.BoundingBox;
+import esri.shapefile.models.shapes.Point;
+import esri.shapefile.models.shapes.Polygon;
+
+import java.util.Arrays;
+
+/**
+ * A polygon prepared for answering many point-in-polygon queries.
+ *
+ * <p>
+ *   A ray cast from a point towards positive x can only cross edges whose y-range holds the point and which reach past
+ *   it on the right. Preparing a polygon sorts its edges by the middle of their y-ranges and packs them,
+ *   {@link #NODE_SIZE} at a time, into a perfectly balanced tree, stored level by level in flat arrays like a
+ *   {@link esri.shapefile.index.PackedRTree}. Every node records the y-range and the largest x of the edges beneath
+ *   it, so a query descends only into the nodes that could hold a crossing, and touches O(log n + k) nodes for a
+ *   polygon of n edges of which k straddle the query's y. For ordinary boundaries k is a handful, however many vertices
+ *   the polygon has.
+ * </p>
+ *
+ * <p>
+ *   Prepared polygons are immutable and may be shared freely between threads. Containment follows the even-odd rule,
+ *   as in {@link GeometryOps#contains(Polygon, double, double)}.
+ * </p>
+ */
+public final class PreparedPolygon {
+
+    /**
+     * The number of children of each node.
+     */
+    static final int NODE_SIZE = 8;
+
+    /**
+     * Prepares the polygon. This takes O(n log n) time for n points, and the polygon itself is not kept.
+     *
+     * @param polygon
+     * @return {@link PreparedPolygon}
+     */
+    public static PreparedPolygon of(final Polygon polygon) {
+        final double[] xy = polygon.getCoordinates();
+        final BoundingBox boundingBox = polygon.getBoundingBox();
+
+        // Gather the edges that a horizontal ray can cross, dropping horizontal ones, which it never can.
+        final double[] edges = new double[4 * polygon.getNumPoints()];
+        int numEdges = 0;
+        for (int part = 0; part < polygon.getNumParts(); part++) {
+            final int from = polygon.getPartStart(part);
+            final int to = polygon.getPartEnd(part);
+            if (to - from < 2) {
+                continue;
+            }
+
+            double x1 = xy[2 * (to - 1)];
+            double y1 = xy[2 * (to - 1) + 1];
+            for (int i = 2 * from; i < 2 * to; i += 2) {
+                final double x2 = xy[i];
+                final double y2 = xy[i + 1];
+                if (y1 != y2) {
+                    edges[4 * numEdges] = x1;
+                    edges[4 * numEdges + 1] = y1;
+                    edges[4 * numEdges + 2] = x2;
+                    edges[4 * numEdges + 3] = y2;
+                    numEdges++;
+                }
+                x1 = x2;
+                y1 = y2;
+            }
+        }
+
+        final double yMin = boundingBox.getYMin();
+        final double height = boundingBox.getYMax() - yMin;
+
+        // The middle of the edge sorts in the high bits and the edge in the low bits.
+        final long[] keys = new long[numEdges];
+        for (int edge = 0; edge < numEdges; edge++) {
+            final double middle = (edges[4 * edge + 1] + edges[4 * edge + 3]) / 2;
+            final long position = height > 0 ? (long) (Integer.MAX_VALUE * Math.max(0, Math.min(1, (middle - yMin) / height))) : 0;
+            keys[edge] = position << 32 | edge;
+        }
+        Arrays.sort(keys);
+
+        final int[] levelStarts = levelStarts(numEdges);
+        final int numNodes = levelStarts[levelStarts.length - 1];
+        final double[] sortedEdges = new double[4 * numEdges];
+        final double[] nodeYMin = new double[numNodes];
+        final double[] nodeYMax = new double[numNodes];
+        final double[] nodeXMax = new double[numNodes];
+
+        for (int node = 0; node < numEdges; node++) {
+            final int edge = (int) keys[node];
+            System.arraycopy(edges, 4 * edge, sortedEdges, 4 * node, 4);
+            nodeYMin[node] = Math.min(edges[4 * edge + 1], edges[4 * edge + 3]);
+            nodeYMax[node] = Math.max(edges[4 * edge + 1], edges[4 * edge + 3]);
+            nodeXMax[node] = Math.max(edges[4 * edge], edges[4 * edge + 2]);
+        }
+
+        for (int level = 1; level < levelStarts.length - 1; level++) {
+            final int childStart = levelStarts[level - 1];
+            final int childEnd = levelStarts[level];
+            for (int node = levelStarts[level], child = childStart; node < levelStarts[level + 1]; node++) {
+                double yMinOfChildren = Double.POSITIVE_INFINITY;
+                double yMaxOfChildren = Double.NEGATIVE_INFINITY;
+                double xMaxOfChildren = Double.NEGATIVE_INFINITY;
+                for (int j = 0; j < NODE_SIZE && child < childEnd; j++, child++) {
+                    yMinOfChildren = Math.min(yMinOfChildren, nodeYMin[child]);
+                    yMaxOfChildren = Math.max(yMaxOfChildren, nodeYMax[child]);
+                    xMaxOfChildren = Math.max(xMaxOfChildren, nodeXMax[child]);
+                }
+                nodeYMin[node] = yMinOfChildren;
+                nodeYMax[node] = yMaxOfChildren;
+                nodeXMax[node] = xMaxOfChildren;
+            }
+        }
+
+        return new PreparedPolygon(boundingBox, numEdges, levelStarts, sortedEdges, nodeYMin, nodeYMax, nodeXMax);
+    }
+
+    /**
+     * The index of the first node of each level, from the edges up to the root, followed by the number of nodes.
+     */
+    private static int[] levelStarts(final int numEdges) {
+        if (numEdges == 0) {
+            return new int[] { 0 };
+        }
+
+        int[] levelStarts = new int[] { 0, numEdges };
+        int levelSize = numEdges;
+        while (levelSize != 1) {
+            levelSize = (levelSize + NODE_SIZE - 1) / NODE_SIZE;
+            levelStarts = Arrays.copyOf(levelStarts, levelStarts.length + 1);
+            levelStarts[levelStarts.length - 1] = levelStarts[levelStarts.length - 2] + levelSize;
+        }
+
+        return levelStarts;
+    }
+
+    private PreparedPolygon(final BoundingBox boundingBox,
+                            final int numEdges,
+                            final int[] levelStarts,
+                            final double[] edges,
+                            final double[] nodeYMin,
+                            final double[] nodeYMax,
+                            final double[] nodeXMax) {
+        this.boundingBox = boundingBox;
+        this.xMin = boundingBox.getXMin();
+        this.yMin = boundingBox.getYMin();
+        this.xMax = boundingBox.getXMax();
+        this.yMax = boundingBox.getYMax();
+        this.numEdges = numEdges;
+        this.levelStarts = levelStarts;
+        this.edges = edges;
+        this.nodeYMin = nodeYMin;
+        this.nodeYMax = nodeYMax;
+        this.nodeXMax = nodeXMax;
+    }
+
+    private final BoundingBox boundingBox;
+    private final double xMin;
+    private final double yMin;
+    private final double xMax;
+    private final double yMax;
+    private final int numEdges;
+    private final int[] levelStarts;
+    private final double[] edges;
+    private final double[] nodeYMin;
+    private final double[] nodeYMax;
+    private final double[] nodeXMax;
+
+    public BoundingBox getBoundingBox() {
+        return boundingBox;
+    }
+
+    /**
+     * @return The number of edges a ray can cross, which excludes horizontal edges.
+     */
+    public int getNumEdges() {
+        return numEdges;
+    }
+
+    /**
+     * @return The number of levels of the tree, counting the edges as the first.
+     */
+    public int getNumLevels() {
+        return levelStarts.length - 1;
+    }
+
+    /**
+     * Whether the point lies inside the polygon. Points inside a hole are outside the polygon. Points that lie exactly
+     * on an edge may be reported either way.
+     *
+     * @param x
+     * @param y
+     * @return Whether the polygon contains the point
+     */
+    public boolean contains(final double x, final double y) {
+        if (numEdges == 0 || x < xMin || x > xMax || y < yMin || y > yMax) {
+            return false;
+        }
+
+        return crossesOddTimes(levelStarts.length - 2, 0, x, y);
+    }
+
+    public boolean contains(final Point point) {
+        return contains(point.getX(), point.getY());
+    }
+
+    /**
+     * Tests many points at once.
+     *
+     * @param points Packed coordinates of the points to test
+     * @param inside Set to whether the polygon contains each point; must have room for every point
+     * @return The number of points inside the polygon
+     * @throws IllegalArgumentException if {@code inside} is too short
+     */
+    public int contains(final double[] points, final boolean[] inside) {
+        final int numPoints = points.length / 2;
+        if (inside.length < numPoints) {
+            throw new IllegalArgumentException("Room for " + inside.length + " results, but there are " + numPoints + " points");
+        }
+
+        int count = 0;
+        for (int i = 0; i < numPoints; i++) {
+            inside[i] = contains(points[2 * i], points[2 * i + 1]);
+            count += inside[i] ? 1 : 0;
+        }
+
+        return count;
+    }
+
+    /**
+     * Whether a ray cast from the point crosses the edges beneath a node an odd number of times.
+     *
+     * @param level Level of the node, where the edges are level 0
+     * @param position Position of the node within its level
+     */
+    private boolean crossesOddTimes(final int level, final int position, final double x, final double y) {
+        final int node = levelStarts[level] + position;
+
+        // An edge is crossed when y is in [yMin, yMax), matching the test below, and when part of it lies right of x.
+        if (nodeYMin[node] > y || nodeYMax[node] <= y || nodeXMax[node] <= x) {
+            return false;
+        }
+
+        if (level == 0) {
+            final int i = 4 * position;
+            final double x1 = edges[i];
+            final double y1 = edges[i + 1];
+            final double x2 = edges[i + 2];
+            final double y2 = edges[i + 3];
+            return (y1 > y) != (y2 > y) && x < x1 + (y - y1) * (x2 - x1) / (y2 - y1);
+        }
+
+        final int levelSize = levelStarts[level] - levelStarts[level - 1];
+        final int end = Math.min(NODE_SIZE * position + NODE_SIZE, levelSize);
+
+        boolean odd = false;
+        for (int child = NODE_SIZE * position; child < end; child++) {
+            if (crossesOddTimes(level - 1, child, x, y)) {
+                odd = !odd;
+            }
+        }
+
+        return odd;
+    }
+}
@@ -0,0 +1,147 @@
+package esri.shapefile.geometry;
+
+import esri.shapefile.models.shapes.MultiPartShape;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Simplifies many shapes at once, in parallel.
+ *
+ * <p>
+ *   Each shape is ranked independently of the others, so the list is split into ranges that are ranked by separate
+ *   workers on a {@link ForkJoinPool}. To serve shapes at several tolerances, {@link #prepare(List)} them once and
+ *   call {@link SimplifiedShape#simplify(double)} for each tolerance.
+ * </p>
+ */
+public final class ShapeSimplifier {
+
+    /**
+     * Ranges are split until there are roughly this many per worker, so that work stealing evens out shapes of very
+     * different sizes.
+     */
+    private static final int TASKS_PER_WORKER = 8;
+
+    private final SimplificationMethod method;
+    private final int parallelism;
+
+    /**
+     * @param method How to rank the points of each shape
+     * @return A simplifier using every available processor
+     */
+    public static ShapeSimplifier create(final SimplificationMethod method) {
+        return new ShapeSimplifier(method, Runtime.getRuntime().availableProcessors());
+    }
+
+    private ShapeSimplifier(final SimplificationMethod method, final int parallelism) {
+        this.method = method;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @param parallelism The number of shapes ranked at once
+     * @return A copy of this simplifier with the parallelism changed
+     */
+    public ShapeSimplifier withParallelism(final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+
+        return new ShapeSimplifier(method, parallelism);
+    }
+
+    public SimplificationMethod getMethod() {
+        return method;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Ranks the points of every shape.
+     *
+     * @param shapes Polygons or polylines
+     * @return The ranked shapes, in the same order
+     * @throws IllegalArgumentException When a shape is neither a polygon nor a polyline
+     */
+    public <T extends MultiPartShape> List<SimplifiedShape<T>> prepare(final List<T> shapes) {
+        @SuppressWarnings("unchecked")
+        final SimplifiedShape<T>[] prepared = (SimplifiedShape<T>[]) new SimplifiedShape<?>[shapes.size()];
+        forEachIndex(shapes.size(), (index) -> prepared[index] = SimplifiedShape.of(shapes.get(index), method));
+
+        return Arrays.asList(prepared);
+    }
+
+    /**
+     * Simplifies every shape to a single tolerance.
+     *
+     * @param shapes Polygons or polylines
+     * @param tolerance See {@link SimplifiedShape#simplify(double)}
+     * @return The simplified shapes, in the same order
+     * @throws IllegalArgumentException When a shape is neither a polygon nor a polyline, or the tolerance is negative or
+     * not finite
+     */
+    public <T extends MultiPartShape> List<T> simplify(final List<T> shapes, final double tolerance) {
+        SimplifiedShape.checkTolerance(tolerance);
+
+        @SuppressWarnings("unchecked")
+        final T[] simplified = (T[]) new MultiPartShape[shapes.size()];
+        forEachIndex(shapes.size(), (index) -> simplified[index] = SimplifiedShape.of(shapes.get(index), method).simplify(tolerance));
+
+        return Arrays.asList(simplified);
+    }
+
+    private void forEachIndex(final int count, final IntConsumer action) {
+        if (parallelism == 1 || count < 2) {
+            for (int index = 0; index < count; index++) {
+                action.accept(index);
+            }
+            return;
+        }
+
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(parallelism);
+        try {
+            forkJoinPool.invoke(new IndexRange(action, 0, count, Math.max(1, count / (parallelism * TASKS_PER_WORKER))));
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    /**
+     * Runs the action for each index in [from, to), splitting the range in half until it is no larger than the
+     * threshold.
+     */
+    private static final class IndexRange extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final IntConsumer action;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        IndexRange(final IntConsumer action, final int from, final int to, final int threshold) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > threshold) {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new IndexRange(action, from, middle, threshold), new IndexRange(action, middle, to, threshold));
+                return;
+            }
+
+            for (int index = from; index < to; index++) {
+                action.accept(index);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package esri.shapefile.geometry;
+
+/**
+ * The ways a {@link SimplifiedShape} can rank the points of a shape.
+ *
+ * <p>
+ *   Either way, every point is given a significance: the smallest tolerance at which it is dropped. The first and last
+ *   points of every part are never dropped, and neither are the two most significant points in between of every ring,
+ *   so rings keep at least four points, the last repeating the first.
+ * </p>
+ */
+public enum SimplificationMethod {
+
+    /**
+     * The Douglas-Peucker algorithm. The significance of a point is its distance from the segment between the points
+     * kept on either side of it, in the units of the coordinates, so a tolerance is the largest distance a simplified
+     * line may stray from the original. The results are the same as running the algorithm at that tolerance.
+     */
+    DOUGLAS_PEUCKER {
+        @Override
+        void rank(final double[] xy, final int from, final int to, final boolean ring, final double[] significance, final VertexSignificance scratch) {
+            scratch.douglasPeucker(xy, from, to, ring, significance);
+        }
+    },
+
+    /**
+     * The Visvalingam-Whyatt algorithm. The significance of a point is the area of the triangle it makes with the
+     * points kept on either side of it, in the squared units of the coordinates, raised where needed so that no point
+     * is less significant than one dropped before it. It tends to keep the overall shape of a boundary better than
+     * Douglas-Peucker at the same number of points, and to leave fewer spikes.
+     */
+    VISVALINGAM_WHYATT {
+        @Override
+        void rank(final double[] xy, final int from, final int to, final boolean ring, final double[] significance, final VertexSignificance scratch) {
+            scratch.visvalingamWhyatt(xy, from, to, ring, significance);
+        }
+    };
+
+    /**
+     * Ranks the points [from, to) of a single part, writing the significance of each into the same positions of
+     * {@code significance}.
+     */
+    abstract void rank(double[] xy, int from, int to, boolean ring, double[] significance, VertexSignificance scratch);
+}
@@ -0,0 +1,148 @@
+package esri.shapefile.geometry;
+
+import esri.shapefile.models.BoundingBox;
+import esri.shapefile.models.shapes.MultiPartShape;
+import esri.shapefile.models.shapes.PolyLine;
+import esri.shapefile.models.shapes.Polygon;
+
+/**
+ * A polygon or polyline whose points have been ranked once, so that it can be simplified to any tolerance afterwards
+ * in a single pass over its points.
+ *
+ * <p>
+ *   Ranking gives every point a significance, by the chosen {@link SimplificationMethod}: the smallest tolerance at
+ *   which it is dropped. Simplifying keeps the points more significant than the tolerance, in their original order,
+ *   which takes O(n) time for n points whatever the tolerance, so the same shape can be served at every zoom level
+ *   without running the algorithm again. Higher tolerances keep a subset of the points kept by lower ones.
+ * </p>
+ *
+ * <p>
+ *   Every part keeps its first and last points, and every ring keeps at least four points, so a simplified shape has
+ *   the same parts as the original and no ring collapses into a line or a point. Rings are not checked for crossings
+ *   that dropping points can introduce, within a ring or between rings. The simplified shapes have no Z or M values.
+ * </p>
+ *
+ * <p>
+ *   A simplified shape keeps the original shape and an array of one double per point. It is immutable and may be
+ *   shared freely between threads.
+ * </p>
+ *
+ * @param <T> {@link Polygon} or {@link PolyLine}
+ */
+public final class SimplifiedShape<T extends MultiPartShape> {
+
+    private final T shape;
+    private final SimplificationMethod method;
+    private final double[] significance;
+
+    /**
+     * Ranks the points of a polygon or a polyline. This takes O(n log n) time for n points on typical boundaries.
+     *
+     * @param shape A {@link Polygon} or a {@link PolyLine}
+     * @param method How to rank the points
+     * @return {@link SimplifiedShape}
+     * @throws IllegalArgumentException When the shape is neither a polygon nor a polyline
+     */
+    public static <T extends MultiPartShape> SimplifiedShape<T> of(final T shape, final SimplificationMethod method) {
+        if (!(shape instanceof Polygon) && !(shape instanceof PolyLine)) {
+            throw new IllegalArgumentException("Only polygons and polylines can be simplified: " + shape.getShapeType());
+        }
+
+        final boolean rings = shape instanceof Polygon;
+        final double[] xy = shape.getCoordinates();
+        final double[] significance = new double[shape.getNumPoints()];
+        final VertexSignificance scratch = new VertexSignificance(shape.getNumPoints());
+        for (int part = 0; part < shape.getNumParts(); part++) {
+            final int from = shape.getPartStart(part);
+            final int to = shape.getPartEnd(part);
+            if (to > from) {
+                method.rank(xy, from, to, rings, significance, scratch);
+            }
+        }
+
+        return new SimplifiedShape<>(shape, method, significance);
+    }
+
+    private SimplifiedShape(final T shape, final SimplificationMethod method, final double[] significance) {
+        this.shape = shape;
+        this.method = method;
+        this.significance = significance;
+    }
+
+    /**
+     * @return The original shape.
+     */
+    public T getShape() {
+        return shape;
+    }
+
+    public SimplificationMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * @param point The index of a point of the original shape
+     * @return The smallest tolerance at which the point is dropped, which is infinite for points that are always kept.
+     */
+    public double getSignificance(final int point) {
+        return significance[point];
+    }
+
+    /**
+     * @return The number of points that {@link #simplify(double)} keeps at the tolerance.
+     */
+    public int getNumPoints(final double tolerance) {
+        checkTolerance(tolerance);
+
+        int count = 0;
+        for (final double value : significance) {
+            if (value > tolerance) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Simplifies the shape by dropping every point whose significance is no greater than the tolerance. A tolerance of
+     * zero drops only points that change nothing, such as repeated points and points in the middle of a straight run.
+     *
+     * @param tolerance For {@link SimplificationMethod#DOUGLAS_PEUCKER}, a distance; for
+     * {@link SimplificationMethod#VISVALINGAM_WHYATT}, an area
+     * @return A new shape of the same type, or the original shape when every point is kept
+     * @throws IllegalArgumentException When the tolerance is negative or not finite
+     */
+    @SuppressWarnings("unchecked")
+    public T simplify(final double tolerance) {
+        final int numPoints = getNumPoints(tolerance);
+        if (numPoints == shape.getNumPoints()) {
+            return shape;
+        }
+
+        final double[] source = shape.getCoordinates();
+        final double[] xy = new double[2 * numPoints];
+        final int[] parts = new int[shape.getNumParts()];
+
+        int count = 0;
+        for (int part = 0; part < parts.length; part++) {
+            parts[part] = count;
+            for (int i = shape.getPartStart(part); i < shape.getPartEnd(part); i++) {
+                if (significance[i] > tolerance) {
+                    xy[2 * count] = source[2 * i];
+                    xy[2 * count + 1] = source[2 * i + 1];
+                    count++;
+                }
+            }
+        }
+
+        final BoundingBox boundingBox = GeometryOps.boundingBox(xy, 0, numPoints);
+        return (T) (shape instanceof Polygon ? Polygon.of(boundingBox, parts, xy) : PolyLine.of(boundingBox, parts, xy));
+    }
+
+    static void checkTolerance(final double tolerance) {
+        if (!(tolerance >= 0) || Double.isInfinite(tolerance)) {
+            throw new IllegalArgumentException("Tolerance must be zero or more, and finite: " + tolerance);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package esri.shapefile.geometry;
+
+/**
+ * Ranks the points of a part by how much the part changes without them, for {@link SimplifiedShape}.
+ *
+ * <p>
+ *   Both algorithms run over the packed coordinates in place, with index arrays sized once for the whole shape: an
+ *   explicit stack of segments for Douglas-Peucker, and a linked list of the points still kept plus a binary heap of
+ *   their triangle areas for Visvalingam-Whyatt. Douglas-Peucker takes O(n log n) time on typical boundaries and
+ *   O(n&sup2;) at worst; Visvalingam-Whyatt always takes O(n log n). An instance is scratch space for a single thread.
+ * </p>
+ */
+final class VertexSignificance {
+
+    /**
+     * The significance of points that are never dropped.
+     */
+    static final double KEPT = Double.POSITIVE_INFINITY;
+
+    /**
+     * The number of points between the first and the last that every ring keeps, so that it keeps some area.
+     */
+    static final int MIN_RING_INTERIOR_POINTS = 2;
+
+    private final int[] stack;
+    private final int[] previous;
+    private final int[] next;
+    private final int[] heap;
+    private final int[] heapPositions;
+    private int heapSize;
+
+    /**
+     * @param numPoints The number of points of the shape whose parts are ranked
+     */
+    VertexSignificance(final int numPoints) {
+        this.stack = new int[2 * numPoints];
+        this.previous = new int[numPoints];
+        this.next = new int[numPoints];
+        this.heap = new int[numPoints];
+        this.heapPositions = new int[numPoints];
+    }
+
+    void douglasPeucker(final double[] xy, final int from, final int to, final boolean ring, final double[] significance) {
+        if (keepsEveryPoint(from, to, ring, significance)) {
+            return;
+        }
+
+        significance[from] = KEPT;
+        significance[to - 1] = KEPT;
+
+        int size = 0;
+        stack[size++] = from;
+        stack[size++] = to - 1;
+        while (size > 0) {
+            final int last = stack[--size];
+            final int first = stack[--size];
+            if (last - first < 2) {
+                continue;
+            }
+
+            final double x0 = xy[2 * first];
+            final double y0 = xy[2 * first + 1];
+            final double dx = xy[2 * last] - x0;
+            final double dy = xy[2 * last + 1] - y0;
+            final double length = dx * dx + dy * dy;
+
+            int farthest = first + 1;
+            double farthestDistance = -1;
+            for (int i = first + 1; i < last; i++) {
+                final double distance = squaredDistance(xy[2 * i] - x0, xy[2 * i + 1] - y0, dx, dy, length);
+                if (distance > farthestDistance) {
+                    farthest = i;
+                    farthestDistance = distance;
+                }
+            }
+
+            // A point is dropped no later than the point whose segment it was found on, which is the less significant
+            // of the segment's two ends.
+            significance[farthest] = Math.min(Math.sqrt(farthestDistance), Math.min(significance[first], significance[last]));
+
+            stack[size++] = first;
+            stack[size++] = farthest;
+            stack[size++] = farthest;
+            stack[size++] = last;
+        }
+
+        if (ring) {
+            for (int kept = 0; kept < MIN_RING_INTERIOR_POINTS; kept++) {
+                int mostSignificant = from + 1;
+                for (int i = from + 1; i < to - 1; i++) {
+                    if (significance[i] != KEPT && (significance[mostSignificant] == KEPT || significance[i] > significance[mostSignificant])) {
+                        mostSignificant = i;
+                    }
+                }
+                significance[mostSignificant] = KEPT;
+            }
+        }
+    }
+
+    void visvalingamWhyatt(final double[] xy, final int from, final int to, final boolean ring, final double[] significance) {
+        if (keepsEveryPoint(from, to, ring, significance)) {
+            return;
+        }
+
+        significance[from] = KEPT;
+        significance[to - 1] = KEPT;
+
+        heapSize = 0;
+        for (int i = from + 1; i < to - 1; i++) {
+            previous[i] = i - 1;
+            next[i] = i + 1;
+            significance[i] = triangleArea(xy, i - 1, i, i + 1);
+            push(i, significance);
+        }
+
+        // The area of each point dropped is raised to that of the point dropped before it, so that the points kept at
+        // a tolerance are exactly those left when every point of a smaller area has been dropped.
+        final int minimum = ring ? MIN_RING_INTERIOR_POINTS : 0;
+        double dropped = 0;
+        while (heapSize > minimum) {
+            final int point = pop(significance);
+            dropped = Math.max(dropped, significance[point]);
+            significance[point] = dropped;
+
+            final int before = previous[point];
+            final int after = next[point];
+            if (before != from) {
+                next[before] = after;
+                significance[before] = triangleArea(xy, previous[before], before, after);
+                update(before, significance);
+            }
+            if (after != to - 1) {
+                previous[after] = before;
+                significance[after] = triangleArea(xy, before, after, next[after]);
+                update(after, significance);
+            }
+        }
+
+        while (heapSize > 0) {
+            significance[heap[--heapSize]] = KEPT;
+        }
+    }
+
+    /**
+     * Marks every point of a part kept when it is too short to simplify: lines of two points or fewer, and rings with
+     * no more points than they must keep.
+     */
+    private static boolean keepsEveryPoint(final int from, final int to, final boolean ring, final double[] significance) {
+        if (to - from > (ring ? MIN_RING_INTERIOR_POINTS + 2 : 2)) {
+            return false;
+        }
+
+        for (int i = from; i < to; i++) {
+            significance[i] = KEPT;
+        }
+        return true;
+    }
+
+    /**
+     * The squared distance from the point (x, y) to the segment from the origin to (dx, dy).
+     */
+    private static double squaredDistance(final double x, final double y, final double dx, final double dy, final double length) {
+        final double t = length > 0 ? Math.max(0, Math.min(1, (x * dx + y * dy) / length)) : 0;
+        final double ex = x - t * dx;
+        final double ey = y - t * dy;
+
+        return ex * ex + ey * ey;
+    }
+
+    private static double triangleArea(final double[] xy, final int a, final int b, final int c) {
+        final double x = xy[2 * b];
+        final double y = xy[2 * b + 1];
+
+        return Math.abs((xy[2 * a] - x) * (xy[2 * c + 1] - y) - (xy[2 * c] - x) * (xy[2 * a + 1] - y)) / 2;
+    }
+
+    private void push(final int point, final double[] keys) {
+        heap[heapSize] = point;
+        heapPositions[point] = heapSize;
+        siftUp(heapSize++, keys);
+    }
+
+    private int pop(final double[] keys) {
+        final int point = heap[0];
+        heap[0] = heap[--heapSize];
+        heapPositions[heap[0]] = 0;
+        siftDown(0, keys);
+
+        return point;
+    }
+
+    /**
+     * Restores the heap after the key of a point in it has changed.
+     */
+    private void update(final int point, final double[] keys) {
+        siftDown(siftUp(heapPositions[point], keys), keys);
+    }
+
+    private int siftUp(final int position, final double[] keys) {
+        final int point = heap[position];
+        int hole = position;
+        while (hole > 0) {
+            final int parent = (hole - 1) >>> 1;
+            if (keys[heap[parent]] <= keys[point]) {
+                break;
+            }
+            move(parent, hole);
+            hole = parent;
+        }
+        heap[hole] = point;
+        heapPositions[point] = hole;
+
+        return hole;
+    }
+
+    private void siftDown(final int position, final double[] keys) {
+        final int point = heap[position];
+        int hole = position;
+        while (true) {
+            int child = 2 * hole + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            if (keys[point] <= keys[heap[child]]) {
+                break;
+            }
+            move(child, hole);
+            hole = child;
+        }
+        heap[hole] = point;
+        heapPositions[point] = hole;
+    }
+
+    private void move(final int from, final int to) {
+        heap[to] = heap[from];
+        heapPositions[heap[to]] = to;
+    }
+}
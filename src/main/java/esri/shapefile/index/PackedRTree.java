@@ -0,0 +1,372 @@
+package esri.shapefile.index;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import esri.shapefile.io.MappedFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A static, packed R-tree over the bounding boxes of the records in a shapefile.
+ *
+ * <p>
+ *   Records are sorted along a Hilbert curve through the centers of their boxes and packed, {@code nodeSize} at a
+ *   time, into a perfectly balanced tree that is stored level by level in flat arrays: first the leaves, then each
+ *   level of parents, with the root last. Every node is a box and an index. For a leaf the index is the record
+ *   number; for a parent it is the position of its first child. Because the tree is complete, the extent of each
+ *   level can be recomputed from the number of records alone, and a query needs nothing but the two arrays.
+ * </p>
+ *
+ * <p>
+ *   The tree is persisted as a sidecar file next to the shapefile and memory-mapped when it is opened, so a query
+ *   touches only the O(log n + k) nodes on its path. All values are little-endian.
+ * </p>
+ *
+ * <pre>
+ * Position  Field      Value      Type    Number
+ * --------  -----      -----      ----    ------
+ * Byte 0    Signature  "PRT1"     Byte    4
+ * Byte 4    NumItems   NumItems   Integer 1
+ * Byte 8    NodeSize   NodeSize   Integer 1
+ * Byte 12   NumNodes   NumNodes   Integer 1
+ * Byte 16   Boxes      Box        Double  4 * NumNodes
+ * Byte X    Indices    Index      Integer NumNodes
+ *
+ * * Note: X = 16 + 32 * NumNodes
+ * </pre>
+ */
+public final class PackedRTree implements SpatialIndex {
+
+    public static final String EXTENSION = "prt";
+
+    public static final int DEFAULT_NODE_SIZE = 16;
+
+    private static final int SIGNATURE = 'P' | 'R' << 8 | 'T' << 16 | '1' << 24;
+
+    private static final int HEADER_SIZE = 16;
+
+    private static final int HILBERT_MAX = (1 << 16) - 1;
+
+    /**
+     * Builds a tree over the boxes of the given records.
+     *
+     * @param recordNumbers The record number of each box
+     * @param boxes Packed as xMin, yMin, xMax, yMax for each record
+     * @param nodeSize Maximum number of children of each node
+     * @return {@link PackedRTree}
+     */
+    public static PackedRTree build(final int[] recordNumbers, final double[] boxes, final int nodeSize) {
+        if (nodeSize < 2) {
+            throw new IllegalArgumentException("Node size must be at least 2: " + nodeSize);
+        }
+
+        final int numItems = recordNumbers.length;
+        final int[] levelBounds = levelBounds(numItems, nodeSize);
+        final int numNodes = numItems == 0 ? 0 : levelBounds[levelBounds.length - 1];
+
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(HEADER_SIZE + numNodes * 36).order(ByteOrder.LITTLE_ENDIAN);
+        byteBuffer.putInt(SIGNATURE).putInt(numItems).putInt(nodeSize).putInt(numNodes);
+
+        final PackedRTree packedRTree = new PackedRTree(byteBuffer, numItems, nodeSize, numNodes);
+        if (numItems > 0) {
+            packedRTree.pack(recordNumbers, boxes, levelBounds);
+        }
+
+        return packedRTree;
+    }
+
+    /**
+     * Memory-maps a tree that was previously written with {@link #write(File)}.
+     */
+    public static PackedRTree open(final File file) throws ShapefileNotReadableException {
+        try (final MappedFile mappedFile = MappedFile.open(file)) {
+            if (mappedFile.size() > Integer.MAX_VALUE || mappedFile.size() < HEADER_SIZE) {
+                throw new ShapefileNotReadableException("Not a packed R-tree: " + file.getAbsolutePath());
+            }
+
+            final ByteBuffer byteBuffer = mappedFile.slice(0, (int) mappedFile.size()).order(ByteOrder.LITTLE_ENDIAN);
+            final int numItems = byteBuffer.getInt(4);
+            final int nodeSize = byteBuffer.getInt(8);
+            final int numNodes = byteBuffer.getInt(12);
+
+            if (byteBuffer.getInt(0) != SIGNATURE || nodeSize < 2 || byteBuffer.capacity() != HEADER_SIZE + numNodes * 36L) {
+                throw new ShapefileNotReadableException("Not a packed R-tree: " + file.getAbsolutePath());
+            }
+
+            // The number of nodes follows from the number of items, so a count that disagrees means a corrupt header.
+            // Bounding the number of items by the number of nodes, which fits in the file, also bounds the work of
+            // recomputing the levels.
+            if (numItems < 0 || numItems > numNodes) {
+                throw new ShapefileNotReadableException(String.format("%s: a packed R-tree of %d nodes cannot hold %d items",
+                        file.getAbsolutePath(), numNodes, numItems));
+            }
+            final int[] levelBounds = levelBounds(numItems, nodeSize);
+            if (levelBounds[levelBounds.length - 1] != numNodes) {
+                throw new ShapefileNotReadableException(String.format("%s: a packed R-tree of %d items has %d nodes, not %d",
+                        file.getAbsolutePath(), numItems, levelBounds[levelBounds.length - 1], numNodes));
+            }
+
+            return new PackedRTree(byteBuffer, numItems, nodeSize, numNodes);
+        }
+    }
+
+    private final ByteBuffer byteBuffer;
+    private final int numItems;
+    private final int nodeSize;
+    private final int numNodes;
+    private final int[] levelBounds;
+    private final int indicesOffset;
+
+    private PackedRTree(final ByteBuffer byteBuffer, final int numItems, final int nodeSize, final int numNodes) {
+        this.byteBuffer = byteBuffer;
+        this.numItems = numItems;
+        this.nodeSize = nodeSize;
+        this.numNodes = numNodes;
+        this.levelBounds = levelBounds(numItems, nodeSize);
+        this.indicesOffset = HEADER_SIZE + numNodes * 32;
+    }
+
+    public int getNumItems() {
+        return numItems;
+    }
+
+    public int getNodeSize() {
+        return nodeSize;
+    }
+
+    /**
+     * The boxes in the tree are the exact boxes of the records, so the result is exact.
+     *
+     * @throws ShapefileNotReadableException if a parent points at a child that does not come before it, which no tree
+     * written by {@link #write(File)} does
+     */
+    @Override
+    public int[] query(final double xMin, final double yMin, final double xMax, final double yMax) throws ShapefileNotReadableException {
+        if (numItems == 0) {
+            return new int[0];
+        }
+
+        int[] results = new int[16];
+        int numResults = 0;
+
+        int[] stack = new int[16];
+        int stackSize = 0;
+
+        int nodeIndex = numNodes - 1;
+        while (true) {
+            final int end = Math.min(nodeIndex + nodeSize, upperBound(nodeIndex));
+
+            for (int node = nodeIndex; node < end; node++) {
+                if (!intersects(node, xMin, yMin, xMax, yMax)) {
+                    continue;
+                }
+
+                final int index = byteBuffer.getInt(indicesOffset + 4 * node);
+                if (nodeIndex < numItems) {
+                    if (numResults == results.length) {
+                        results = Arrays.copyOf(results, numResults * 2);
+                    }
+                    results[numResults++] = index;
+                } else {
+                    if (index < 0 || index >= nodeIndex) {
+                        throw new ShapefileNotReadableException(String.format("Corrupt packed R-tree: node %d points at node %d", node, index));
+                    }
+                    if (stackSize == stack.length) {
+                        stack = Arrays.copyOf(stack, stackSize * 2);
+                    }
+                    stack[stackSize++] = index;
+                }
+            }
+
+            if (stackSize == 0) {
+                break;
+            }
+            nodeIndex = stack[--stackSize];
+        }
+
+        final int[] recordNumbers = Arrays.copyOf(results, numResults);
+        Arrays.sort(recordNumbers);
+        return recordNumbers;
+    }
+
+    /**
+     * Writes the tree to a sidecar file, replacing any existing file.
+     */
+    public void write(final File file) throws IOException {
+        try (final FileChannel fileChannel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            final ByteBuffer contents = byteBuffer.duplicate();
+            contents.clear();
+            while (contents.hasRemaining()) {
+                fileChannel.write(contents);
+            }
+        }
+    }
+
+    private void pack(final int[] recordNumbers, final double[] boxes, final int[] levelBounds) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < numItems; i++) {
+            minX = Math.min(minX, boxes[4 * i]);
+            minY = Math.min(minY, boxes[4 * i + 1]);
+            maxX = Math.max(maxX, boxes[4 * i + 2]);
+            maxY = Math.max(maxY, boxes[4 * i + 3]);
+        }
+
+        final double width = maxX - minX;
+        final double height = maxY - minY;
+
+        // The Hilbert value sorts in the high bits and the item in the low bits. Flipping the sign bit lets a signed
+        // sort order the unsigned Hilbert values correctly.
+        final long[] keys = new long[numItems];
+        for (int i = 0; i < numItems; i++) {
+            final double centerX = (boxes[4 * i] + boxes[4 * i + 2]) / 2;
+            final double centerY = (boxes[4 * i + 1] + boxes[4 * i + 3]) / 2;
+            final int x = width == 0 ? 0 : (int) (HILBERT_MAX * (centerX - minX) / width);
+            final int y = height == 0 ? 0 : (int) (HILBERT_MAX * (centerY - minY) / height);
+
+            keys[i] = ((long) hilbert(x, y) << 32 | i) ^ Long.MIN_VALUE;
+        }
+        Arrays.sort(keys);
+
+        for (int node = 0; node < numItems; node++) {
+            final int item = (int) keys[node];
+            putNode(node, boxes[4 * item], boxes[4 * item + 1], boxes[4 * item + 2], boxes[4 * item + 3], recordNumbers[item]);
+        }
+
+        int parent = numItems;
+        for (int level = 0, child = 0; level < levelBounds.length - 1; level++) {
+            final int end = levelBounds[level];
+
+            while (child < end) {
+                final int firstChild = child;
+                double nodeMinX = Double.POSITIVE_INFINITY;
+                double nodeMinY = Double.POSITIVE_INFINITY;
+                double nodeMaxX = Double.NEGATIVE_INFINITY;
+                double nodeMaxY = Double.NEGATIVE_INFINITY;
+
+                for (int j = 0; j < nodeSize && child < end; j++, child++) {
+                    nodeMinX = Math.min(nodeMinX, box(child, 0));
+                    nodeMinY = Math.min(nodeMinY, box(child, 1));
+                    nodeMaxX = Math.max(nodeMaxX, box(child, 2));
+                    nodeMaxY = Math.max(nodeMaxY, box(child, 3));
+                }
+
+                putNode(parent++, nodeMinX, nodeMinY, nodeMaxX, nodeMaxY, firstChild);
+            }
+        }
+    }
+
+    private void putNode(final int node, final double xMin, final double yMin, final double xMax, final double yMax, final int index) {
+        final int position = HEADER_SIZE + node * 32;
+        byteBuffer.putDouble(position, xMin);
+        byteBuffer.putDouble(position + 8, yMin);
+        byteBuffer.putDouble(position + 16, xMax);
+        byteBuffer.putDouble(position + 24, yMax);
+        byteBuffer.putInt(indicesOffset + 4 * node, index);
+    }
+
+    private double box(final int node, final int coordinate) {
+        return byteBuffer.getDouble(HEADER_SIZE + node * 32 + coordinate * 8);
+    }
+
+    private boolean intersects(final int node, final double xMin, final double yMin, final double xMax, final double yMax) {
+        final int position = HEADER_SIZE + node * 32;
+        return byteBuffer.getDouble(position) <= xMax &&
+               byteBuffer.getDouble(position + 8) <= yMax &&
+               byteBuffer.getDouble(position + 16) >= xMin &&
+               byteBuffer.getDouble(position + 24) >= yMin;
+    }
+
+    /**
+     * The end of the level that contains the node.
+     */
+    private int upperBound(final int node) {
+        for (final int levelBound : levelBounds) {
+            if (levelBound > node) {
+                return levelBound;
+            }
+        }
+
+        return numNodes;
+    }
+
+    /**
+     * The cumulative number of nodes at the end of each level, from the leaves up to the root.
+     */
+    private static int[] levelBounds(final int numItems, final int nodeSize) {
+        if (numItems == 0) {
+            return new int[] { 0 };
+        }
+
+        int[] levelBounds = new int[] { numItems };
+        int levelSize = numItems;
+        int numNodes = numItems;
+        do {
+            levelSize = (levelSize + nodeSize - 1) / nodeSize;
+            numNodes += levelSize;
+
+            levelBounds = Arrays.copyOf(levelBounds, levelBounds.length + 1);
+            levelBounds[levelBounds.length - 1] = numNodes;
+        } while (levelSize != 1);
+
+        return levelBounds;
+    }
+
+    /**
+     * Position of (x, y) along a Hilbert curve filling a 2^16 by 2^16 grid, from "Fast Hilbert curve generation,
+     * sorting, and range queries" by rawrunprotected, as used by flatbush.
+     */
+    static int hilbert(final int x, final int y) {
+        int a = x ^ y;
+        int b = 0xFFFF ^ a;
+        int c = 0xFFFF ^ (x | y);
+        int d = x & (y ^ 0xFFFF);
+
+        int A = a | (b >> 1);
+        int B = (a >> 1) ^ a;
+        int C = ((c >> 1) ^ (b & (d >> 1))) ^ c;
+        int D = ((a & (c >> 1)) ^ (d >> 1)) ^ d;
+
+        a = A; b = B; c = C; d = D;
+        A = ((a & (a >> 2)) ^ (b & (b >> 2)));
+        B = ((a & (b >> 2)) ^ (b & ((a ^ b) >> 2)));
+        C ^= ((a & (c >> 2)) ^ (b & (d >> 2)));
+        D ^= ((b & (c >> 2)) ^ ((a ^ b) & (d >> 2)));
+
+        a = A; b = B; c = C; d = D;
+        A = ((a & (a >> 4)) ^ (b & (b >> 4)));
+        B = ((a & (b >> 4)) ^ (b & ((a ^ b) >> 4)));
+        C ^= ((a & (c >> 4)) ^ (b & (d >> 4)));
+        D ^= ((b & (c >> 4)) ^ ((a ^ b) & (d >> 4)));
+
+        a = A; b = B; c = C; d = D;
+        C ^= ((a & (c >> 8)) ^ (b & (d >> 8)));
+        D ^= ((b & (c >> 8)) ^ ((a ^ b) & (d >> 8)));
+
+        a = C ^ (C >> 1);
+        b = D ^ (D >> 1);
+
+        int i0 = x ^ y;
+        int i1 = b | (0xFFFF ^ (i0 | a));
+
+        i0 = (i0 | (i0 << 8)) & 0x00FF00FF;
+        i0 = (i0 | (i0 << 4)) & 0x0F0F0F0F;
+        i0 = (i0 | (i0 << 2)) & 0x33333333;
+        i0 = (i0 | (i0 << 1)) & 0x55555555;
+
+        i1 = (i1 | (i1 << 8)) & 0x00FF00FF;
+        i1 = (i1 | (i1 << 4)) & 0x0F0F0F0F;
+        i1 = (i1 | (i1 << 2)) & 0x33333333;
+        i1 = (i1 | (i1 << 1)) & 0x55555555;
+
+        return (i1 << 1) | i0;
+    }
+}
@@ -0,0 +1,129 @@
+package esri.shapefile.index;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import esri.shapefile.io.MappedFile;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A quadtree spatial index (.qix), as written by MapServer's shptree and GDAL.
+ *
+ * <p>
+ *   The tree is stored depth first. Each node records the number of bytes taken up by its descendants, so a node whose
+ *   box misses the query is skipped together with its whole subtree, and a query becomes a single forward pass over
+ *   the nodes it needs. Shape ids in the tree begin at 0.
+ * </p>
+ *
+ * <pre>
+ * Position  Field      Value      Type     Number
+ * --------  -----      -----      ----     ------
+ * Byte 0    Signature  "SQT"      Byte     3
+ * Byte 3    ByteOrder  1 (LSB)    Byte     1
+ *                      2 (MSB)
+ * Byte 4    Version    1          Byte     1
+ * Byte 5    Reserved   0          Byte     3
+ * Byte 8    NumShapes  NumShapes  Integer  1
+ * Byte 12   MaxDepth   MaxDepth   Integer  1
+ * Byte 16   Nodes
+ *
+ * Node
+ * {
+ *   Integer Offset               // Number of bytes taken up by every descendant of the node
+ *   Double[4] Box                // Bounding Box
+ *   Integer NumShapes            // Number of shapes stored at the node
+ *   Integer[NumShapes] ShapeIds  // Shapes stored at the node
+ *   Integer NumChildren          // Number of child nodes, which follow
+ * }
+ * </pre>
+ *
+ * Files written before the header was introduced start directly with NumShapes and MaxDepth, in little-endian order.
+ */
+public final class QixIndex implements SpatialIndex {
+
+    public static final String EXTENSION = "qix";
+
+    public static QixIndex open(final File file) throws ShapefileNotReadableException {
+        try (final MappedFile mappedFile = MappedFile.open(file)) {
+            if (mappedFile.size() > Integer.MAX_VALUE || mappedFile.size() < 8) {
+                throw new ShapefileNotReadableException("Not a quadtree index: " + file.getAbsolutePath());
+            }
+
+            final ByteBuffer byteBuffer = mappedFile.slice(0, (int) mappedFile.size());
+            final QixIndex qixIndex = new QixIndex();
+            qixIndex.file = file;
+
+            if (byteBuffer.get(0) == 'S' && byteBuffer.get(1) == 'Q' && byteBuffer.get(2) == 'T') {
+                qixIndex.byteBuffer = byteBuffer.order(byteBuffer.get(3) == 2 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+                qixIndex.numShapes = byteBuffer.getInt(8);
+                qixIndex.firstNode = 16;
+            } else {
+                qixIndex.byteBuffer = byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+                qixIndex.numShapes = byteBuffer.getInt(0);
+                qixIndex.firstNode = 8;
+            }
+
+            return qixIndex;
+        }
+    }
+
+    private QixIndex() {}
+
+    private File file;
+    private ByteBuffer byteBuffer;
+    private int numShapes;
+    private int firstNode;
+
+    public int getNumShapes() {
+        return numShapes;
+    }
+
+    /**
+     * The boxes in the tree are the boxes of the quadrants, not of the shapes, so the result is a superset of the
+     * intersecting records.
+     *
+     * @throws ShapefileNotReadableException When a node has a negative size or runs past the end of the file
+     */
+    @Override
+    public int[] query(final double xMin, final double yMin, final double xMax, final double yMax) throws ShapefileNotReadableException {
+        int[] results = new int[16];
+        int numResults = 0;
+
+        int position = firstNode;
+        while (position + 44 <= byteBuffer.limit()) {
+            final int offset = byteBuffer.getInt(position);
+            final int numNodeShapes = byteBuffer.getInt(position + 36);
+            if (offset < 0 || numNodeShapes < 0 || numNodeShapes > (byteBuffer.limit() - position - 44) / 4) {
+                throw new ShapefileNotReadableException(String.format("%s: node at position %d has %d shapes and %d bytes of descendants",
+                        file.getAbsolutePath(), position, numNodeShapes, offset));
+            }
+            final int nodeSize = 44 + 4 * numNodeShapes;
+
+            final boolean intersects = byteBuffer.getDouble(position + 4) <= xMax &&
+                                       byteBuffer.getDouble(position + 12) <= yMax &&
+                                       byteBuffer.getDouble(position + 20) >= xMin &&
+                                       byteBuffer.getDouble(position + 28) >= yMin;
+
+            if (!intersects) {
+                // A subtree that reaches past the end of the file ends the query, like the end of the file itself.
+                position = (int) Math.min(byteBuffer.limit(), (long) position + nodeSize + offset);
+                continue;
+            }
+
+            if (numResults + numNodeShapes > results.length) {
+                results = Arrays.copyOf(results, Math.max(results.length * 2, numResults + numNodeShapes));
+            }
+            for (int i = 0; i < numNodeShapes; i++) {
+                results[numResults++] = byteBuffer.getInt(position + 40 + 4 * i) + 1;
+            }
+
+            position += nodeSize;
+        }
+
+        final int[] recordNumbers = Arrays.copyOf(results, numResults);
+        Arrays.sort(recordNumbers);
+        return recordNumbers;
+    }
+}
@@ -0,0 +1,168 @@
+package esri.shapefile.index;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import esri.shapefile.io.MappedFile;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * An ESRI spatial bin index (.sbn).
+ *
+ * <p>
+ *   The format is not published; this follows the layout documented by the shapelib project. The file starts with a
+ *   100-byte header laid out like the main file header, except that the shape count is stored at byte 28 and the
+ *   extent is stored as big-endian doubles. A bin index follows, and then the bins. Each bin holds up to 100 features,
+ *   and each feature is 8 bytes: its bounding box quantized to a 0-255 grid over the extent, and its record number.
+ * </p>
+ *
+ * <pre>
+ * Position  Field        Value         Type     Byte Order
+ * --------  -----        -----         ----     ----------
+ * Byte 0    File Code    9994          Integer  Big
+ * Byte 28   NumShapes    NumShapes     Integer  Big
+ * Byte 32   Extent       Xmin          Double   Big
+ * Byte 40   Extent       Ymin          Double   Big
+ * Byte 48   Extent       Xmax          Double   Big
+ * Byte 56   Extent       Ymax          Double   Big
+ * Byte 100  Bin Header   Bin Header    Integer  Big
+ * Byte 104  Index Size   Index Size    Integer  Big    // Size of the bin index, in 16-bit words
+ * Byte 108  Bin Index    ...
+ * Byte X    Bins         ...                           // X = 108 + 2 * Index Size
+ *
+ * Bin
+ * {
+ *   Integer BinId                 // Big endian
+ *   Integer ContentLength         // Big endian, in 16-bit words
+ *   Feature[ContentLength / 4]
+ * }
+ *
+ * Feature
+ * {
+ *   Byte[4] Box                   // Xmin, Ymin, Xmax, Ymax, each scaled to 0-255 over the extent
+ *   Integer RecordNumber          // Big endian, beginning at 1
+ * }
+ * </pre>
+ *
+ * <p>
+ *   Rather than descend the bin tree, a query compares the query box against every quantized feature box. The bins
+ *   take 8 bytes per record, a small fraction of the main file, and the comparison is conservative: the query is
+ *   rounded outwards to the grid, so every intersecting record is returned along with a few neighbours.
+ * </p>
+ */
+public final class SbnIndex implements SpatialIndex {
+
+    public static final String EXTENSION = "sbn";
+
+    private static final int BIN_INDEX_OFFSET = 108;
+
+    public static SbnIndex open(final File file) throws ShapefileNotReadableException {
+        try (final MappedFile mappedFile = MappedFile.open(file)) {
+            if (mappedFile.size() > Integer.MAX_VALUE || mappedFile.size() < BIN_INDEX_OFFSET) {
+                throw new ShapefileNotReadableException("Not a spatial bin index: " + file.getAbsolutePath());
+            }
+
+            final ByteBuffer byteBuffer = mappedFile.slice(0, (int) mappedFile.size()).order(ByteOrder.BIG_ENDIAN);
+            if (byteBuffer.getInt(0) != 9994) {
+                throw new ShapefileNotReadableException("Not a spatial bin index: " + file.getAbsolutePath());
+            }
+
+            final SbnIndex sbnIndex = new SbnIndex();
+            sbnIndex.byteBuffer = byteBuffer;
+            sbnIndex.numShapes = byteBuffer.getInt(28);
+            sbnIndex.xMin = byteBuffer.getDouble(32);
+            sbnIndex.yMin = byteBuffer.getDouble(40);
+            sbnIndex.xMax = byteBuffer.getDouble(48);
+            sbnIndex.yMax = byteBuffer.getDouble(56);
+            final long firstBin = BIN_INDEX_OFFSET + 2L * byteBuffer.getInt(104);
+            if (firstBin < BIN_INDEX_OFFSET || firstBin > byteBuffer.limit()) {
+                throw new ShapefileNotReadableException(String.format("%s: the bin index of %d words runs past the end of the file at %d",
+                        file.getAbsolutePath(), byteBuffer.getInt(104), byteBuffer.limit()));
+            }
+            sbnIndex.file = file;
+            sbnIndex.firstBin = (int) firstBin;
+
+            return sbnIndex;
+        }
+    }
+
+    private SbnIndex() {}
+
+    private File file;
+    private ByteBuffer byteBuffer;
+    private int numShapes;
+    private int firstBin;
+
+    private double xMin;
+    private double yMin;
+    private double xMax;
+    private double yMax;
+
+    public int getNumShapes() {
+        return numShapes;
+    }
+
+    /**
+     * The result is a superset of the intersecting records.
+     *
+     * @throws ShapefileNotReadableException When a bin has a negative size or runs past the end of the file
+     */
+    @Override
+    public int[] query(final double queryXMin, final double queryYMin, final double queryXMax, final double queryYMax) throws ShapefileNotReadableException {
+        if (queryXMin > xMax || queryXMax < xMin || queryYMin > yMax || queryYMax < yMin) {
+            return new int[0];
+        }
+
+        final int gridXMin = toGrid(queryXMin, xMin, xMax, -0.005, true);
+        final int gridYMin = toGrid(queryYMin, yMin, yMax, -0.005, true);
+        final int gridXMax = toGrid(queryXMax, xMin, xMax, 0.005, false);
+        final int gridYMax = toGrid(queryYMax, yMin, yMax, 0.005, false);
+
+        int[] results = new int[16];
+        int numResults = 0;
+
+        int position = firstBin;
+        while (position < byteBuffer.limit()) {
+            final long end = position + 8 + 2L * (position + 8 <= byteBuffer.limit() ? byteBuffer.getInt(position + 4) : 0);
+            if (end < position + 8 || end > byteBuffer.limit()) {
+                throw new ShapefileNotReadableException(String.format("%s: bin at position %d runs past the end of the file at %d",
+                        file.getAbsolutePath(), position, byteBuffer.limit()));
+            }
+
+            for (int feature = position + 8; feature + 8 <= end; feature += 8) {
+                if ((byteBuffer.get(feature) & 0xFF) <= gridXMax &&
+                    (byteBuffer.get(feature + 1) & 0xFF) <= gridYMax &&
+                    (byteBuffer.get(feature + 2) & 0xFF) >= gridXMin &&
+                    (byteBuffer.get(feature + 3) & 0xFF) >= gridYMin) {
+
+                    if (numResults == results.length) {
+                        results = Arrays.copyOf(results, numResults * 2);
+                    }
+                    results[numResults++] = byteBuffer.getInt(feature + 4);
+                }
+            }
+
+            position = (int) end;
+        }
+
+        final int[] recordNumbers = Arrays.copyOf(results, numResults);
+        Arrays.sort(recordNumbers);
+        return recordNumbers;
+    }
+
+    /**
+     * Scales a coordinate onto the 0-255 grid, rounding away from the query so that no intersecting feature is lost.
+     */
+    private static int toGrid(final double value, final double min, final double max, final double nudge, final boolean floor) {
+        final double extent = max - min;
+        if (extent <= 0) {
+            return floor ? 0 : 255;
+        }
+
+        final double scaled = (value - min) / extent * 255 + nudge;
+        final int grid = (int) (floor ? Math.floor(scaled) : Math.ceil(scaled));
+        return Math.max(0, Math.min(255, grid));
+    }
+}
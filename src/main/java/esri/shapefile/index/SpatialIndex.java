@@ -0,0 +1,19 @@
+package esri.shapefile.index;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+
+/**
+ * An index over the bounding boxes of the records in a shapefile.
+ */
+public interface SpatialIndex {
+
+    /**
+     * Finds the records that may intersect the query box. Depending on the index the result is either exact or a
+     * superset of the intersecting records, so callers that need an exact answer should still compare each record's
+     * own bounding box.
+     *
+     * @return Record numbers, beginning at 1, in ascending order
+     * @throws ShapefileNotReadableException When the index turns out to be corrupt
+     */
+    int[] query(final double xMin, final double yMin, final double xMax, final double yMax) throws ShapefileNotReadableException;
+}
@@ -0,0 +1,200 @@
+package esri.shapefile.io;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only, memory-mapped view of a file.
+ *
+ * <p>
+ *   A single {@link MappedByteBuffer} can address at most 2 GB, so larger files are mapped as a series of chunks.
+ *   Chunk {@code i} starts at {@code i * stride} and extends {@code overlap} bytes past the start of the next chunk,
+ *   which means any region no longer than {@code overlap} lies entirely within one chunk and can be handed out
+ *   without copying. Regions longer than that which happen to straddle a chunk boundary are copied into a heap buffer.
+ * </p>
+ *
+ * <p>
+ *   Instances are safe to share between threads; every read is absolute and never moves the position of the
+ *   underlying buffers.
+ * </p>
+ */
+public final class MappedFile implements Closeable {
+
+    /**
+     * Distance between the start of two consecutive chunks.
+     */
+    static final long DEFAULT_STRIDE = 1L << 30;
+
+    /**
+     * Number of bytes each chunk shares with the chunk that follows it.
+     */
+    static final int DEFAULT_OVERLAP = 64 << 20;
+
+    public static MappedFile open(final File file) throws ShapefileNotReadableException {
+        return open(file, DEFAULT_STRIDE, DEFAULT_OVERLAP);
+    }
+
+    static MappedFile open(final File file, final long stride, final int overlap) throws ShapefileNotReadableException {
+        try (final FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return map(file, fileChannel, stride, overlap);
+        } catch (final IOException e) {
+            throw new ShapefileNotReadableException(file, e);
+        }
+    }
+
+    private static MappedFile map(final File file, final FileChannel fileChannel, final long stride, final int overlap) throws IOException {
+        final MappedFile mappedFile = new MappedFile();
+        mappedFile.file = file;
+        mappedFile.size = fileChannel.size();
+        mappedFile.stride = stride;
+        mappedFile.overlap = overlap;
+
+        final int numberOfChunks = (int) Math.max(1, (mappedFile.size + stride - 1) / stride);
+        mappedFile.bigEndianChunks = new ByteBuffer[numberOfChunks];
+        mappedFile.littleEndianChunks = new ByteBuffer[numberOfChunks];
+
+        for (int chunk = 0; chunk < numberOfChunks; chunk++) {
+            final long start = chunk * stride;
+            final long length = Math.min(stride + overlap, mappedFile.size - start);
+            final MappedByteBuffer mappedByteBuffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, start, length);
+
+            mappedFile.bigEndianChunks[chunk] = mappedByteBuffer.asReadOnlyBuffer().order(ByteOrder.BIG_ENDIAN);
+            mappedFile.littleEndianChunks[chunk] = mappedByteBuffer.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        return mappedFile;
+    }
+
+    private MappedFile() {}
+
+    private File file;
+    private long size;
+    private long stride;
+    private int overlap;
+
+    private ByteBuffer[] bigEndianChunks;
+    private ByteBuffer[] littleEndianChunks;
+
+    public File getFile() {
+        return file;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns a buffer whose contents are the {@code length} bytes starting at {@code position}. The returned buffer
+     * has its own position and limit, starts in big-endian order, and is backed directly by the mapping whenever the
+     * region fits within a single chunk.
+     *
+     * @param position Absolute position within the file
+     * @param length Number of bytes in the region
+     * @return {@link ByteBuffer} positioned at zero with a limit of {@code length}
+     * @throws ShapefileNotReadableException if the region extends beyond the end of the file
+     */
+    public ByteBuffer slice(final long position, final int length) throws ShapefileNotReadableException {
+        checkBounds(position, length);
+
+        final int chunk = (int) (position / stride);
+        final int local = (int) (position - chunk * stride);
+        final ByteBuffer source = bigEndianChunks[chunk];
+
+        if (local + length <= source.capacity()) {
+            final ByteBuffer region = source.duplicate();
+            region.limit(local + length).position(local);
+            return region.slice();
+        }
+
+        return copy(position, length);
+    }
+
+    /**
+     * Whether the region can be read from a single chunk, through {@link #chunk(long, ByteOrder)} and
+     * {@link #chunkOffset(long)}, without copying it.
+     */
+    public boolean isContiguous(final long position, final int length) {
+        if (position < 0 || length < 0 || position + length > size) {
+            return false;
+        }
+
+        final int chunk = (int) (position / stride);
+        return position - chunk * stride + length <= bigEndianChunks[chunk].capacity();
+    }
+
+    /**
+     * Returns the buffer for the chunk that contains {@code position}. The buffer is shared by every caller, so it
+     * must only be read with absolute methods, starting at {@link #chunkOffset(long)}. This allows callers that visit
+     * every record to read them in place without allocating anything.
+     */
+    public ByteBuffer chunk(final long position, final ByteOrder byteOrder) {
+        return chunks(byteOrder)[(int) (position / stride)];
+    }
+
+    /**
+     * The index of {@code position} within the buffer returned by {@link #chunk(long, ByteOrder)}.
+     */
+    public int chunkOffset(final long position) {
+        return (int) (position % stride);
+    }
+
+    public int getInt(final long position, final ByteOrder byteOrder) throws ShapefileNotReadableException {
+        checkBounds(position, 4);
+
+        final int chunk = (int) (position / stride);
+        return chunks(byteOrder)[chunk].getInt((int) (position - chunk * stride));
+    }
+
+    public double getDouble(final long position, final ByteOrder byteOrder) throws ShapefileNotReadableException {
+        checkBounds(position, 8);
+
+        final int chunk = (int) (position / stride);
+        return chunks(byteOrder)[chunk].getDouble((int) (position - chunk * stride));
+    }
+
+    /**
+     * Mappings are released by the garbage collector once they are no longer referenced; the channel used to create
+     * them has already been closed, so there is nothing left to release here. This exists so that callers can treat a
+     * {@link MappedFile} like any other resource.
+     */
+    @Override
+    public void close() {}
+
+    private ByteBuffer[] chunks(final ByteOrder byteOrder) {
+        return byteOrder == ByteOrder.LITTLE_ENDIAN ? littleEndianChunks : bigEndianChunks;
+    }
+
+    private ByteBuffer copy(final long position, final int length) {
+        final ByteBuffer copy = ByteBuffer.allocate(length);
+
+        long current = position;
+        while (copy.hasRemaining()) {
+            final int chunk = (int) (current / stride);
+            final int local = (int) (current - chunk * stride);
+            final int available = (int) Math.min(stride - local, copy.remaining());
+
+            final ByteBuffer source = bigEndianChunks[chunk].duplicate();
+            source.limit(local + available).position(local);
+            copy.put(source);
+            current += available;
+        }
+
+        copy.flip();
+        return copy;
+    }
+
+    private void checkBounds(final long position, final int length) throws ShapefileNotReadableException {
+        if (position < 0 || length < 0 || position + length > size) {
+            throw new ShapefileNotReadableException(String.format("%s: cannot read %d bytes at position %d of %d",
+                    file.getAbsolutePath(), length, position, size));
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package esri.shapefile.io;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads a file sequentially through a background thread that stays ahead of the reader.
+ *
+ * <p>
+ *   A fixed ring of {@code depth} direct buffers, each {@code blockSize} bytes long, circulates between two threads.
+ *   The background thread takes an empty buffer, fills it with the next block of the file and hands it over; the
+ *   reading thread consumes it and hands it back. While the reading thread is busy with one block, up to
+ *   {@code depth - 1} further blocks are being read, so waiting on storage and working on the data overlap instead of
+ *   taking turns. No buffer is allocated after the ring is created.
+ * </p>
+ *
+ * <p>
+ *   A {@link ReadAheadChannel} must be read from a single thread.
+ * </p>
+ */
+public final class ReadAheadChannel implements Closeable {
+
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+    public static final int DEFAULT_DEPTH = 4;
+
+    /**
+     * Handed over after the last block, or after a failure.
+     */
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    /**
+     * Opens the file and starts reading ahead.
+     *
+     * @param file
+     * @param blockSize Number of bytes read at a time
+     * @param depth Number of buffers in the ring, at least 2
+     * @return {@link ReadAheadChannel}
+     * @throws ShapefileNotReadableException
+     * @throws IllegalArgumentException if the block size is not positive or the depth is less than 2
+     */
+    public static ReadAheadChannel open(final File file, final int blockSize, final int depth) throws ShapefileNotReadableException {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("The block size must be positive: " + blockSize);
+        } else if (depth < 2) {
+            throw new IllegalArgumentException("The read-ahead depth must be at least 2: " + depth);
+        }
+
+        final ReadAheadChannel readAheadChannel = new ReadAheadChannel(file, depth);
+        try {
+            readAheadChannel.fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        } catch (final IOException e) {
+            throw new ShapefileNotReadableException(file, e);
+        }
+
+        for (int i = 0; i < depth; i++) {
+            readAheadChannel.empty.add(ByteBuffer.allocateDirect(blockSize));
+        }
+
+        readAheadChannel.reader = new Thread(readAheadChannel::readAhead, "shapefile-read-ahead-" + file.getName());
+        readAheadChannel.reader.setDaemon(true);
+        readAheadChannel.reader.start();
+
+        return readAheadChannel;
+    }
+
+    private final File file;
+    private final BlockingQueue<ByteBuffer> empty;
+    private final BlockingQueue<ByteBuffer> filled;
+
+    private FileChannel fileChannel;
+    private Thread reader;
+    private volatile IOException failure;
+
+    /**
+     * The block being consumed, and the buffer records that straddle two blocks are assembled in.
+     */
+    private ByteBuffer current;
+    private ByteBuffer carry = ByteBuffer.allocate(0);
+    private long position;
+    private boolean ended;
+
+    private ReadAheadChannel(final File file, final int depth) {
+        this.file = file;
+        this.empty = new ArrayBlockingQueue<>(depth);
+        this.filled = new ArrayBlockingQueue<>(depth + 1);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return The number of bytes handed out so far.
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * Returns the next {@code length} bytes of the file. The bytes are read in place from the current block when they
+     * lie within it, and copied into a reusable buffer when they straddle two blocks. Either way, the returned buffer
+     * is only valid until the next call.
+     *
+     * @param length
+     * @return {@link ByteBuffer} positioned at zero with a limit of {@code length}, in big-endian order
+     * @throws ShapefileNotReadableException if the length is negative, as a corrupt record header can make it, or the
+     * file ends first, or reading it failed
+     */
+    public ByteBuffer next(final int length) throws ShapefileNotReadableException {
+        if (length < 0) {
+            throw new ShapefileNotReadableException(String.format("%s: negative length of %d bytes at position %d",
+                    file.getAbsolutePath(), length, position));
+        }
+
+        if (current != null && current.remaining() >= length) {
+            final ByteBuffer region = current.duplicate();
+            region.limit(region.position() + length);
+            current.position(current.position() + length);
+            position += length;
+
+            return region.slice();
+        }
+
+        if (carry.capacity() < length) {
+            carry = ByteBuffer.allocate(Math.max(length, carry.capacity() * 2));
+        }
+        carry.clear().limit(length);
+
+        while (carry.hasRemaining()) {
+            if (current == null || !current.hasRemaining()) {
+                advance();
+            }
+
+            final ByteBuffer source = current.duplicate();
+            source.limit(source.position() + Math.min(source.remaining(), carry.remaining()));
+            current.position(source.limit());
+            carry.put(source);
+        }
+
+        position += length;
+        carry.flip();
+        return carry;
+    }
+
+    /**
+     * Stops reading ahead and closes the file.
+     */
+    @Override
+    public void close() {
+        reader.interrupt();
+        try {
+            reader.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            fileChannel.close();
+        } catch (final IOException e) {
+            // Nothing was written, so nothing can be lost.
+        }
+    }
+
+    /**
+     * Hands the exhausted block back to the background thread and waits for the next one.
+     */
+    private void advance() throws ShapefileNotReadableException {
+        if (current != null) {
+            empty.add(current);
+            current = null;
+        }
+
+        if (ended) {
+            throw endOfFile();
+        }
+
+        try {
+            final ByteBuffer next = filled.take();
+            if (next == END) {
+                ended = true;
+                throw endOfFile();
+            }
+            current = next;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ShapefileNotReadableException(file, e);
+        }
+    }
+
+    private ShapefileNotReadableException endOfFile() {
+        if (failure != null) {
+            return new ShapefileNotReadableException(file, failure);
+        }
+
+        return new ShapefileNotReadableException("Unexpected end of file: " + file.getAbsolutePath());
+    }
+
+    /**
+     * Runs on the background thread until the end of the file, a failure, or {@link #close()}.
+     */
+    private void readAhead() {
+        long readPosition = 0;
+
+        try {
+            while (true) {
+                final ByteBuffer block = empty.take();
+                block.clear();
+
+                int read = 0;
+                while (block.hasRemaining() && (read = fileChannel.read(block, readPosition)) >= 0) {
+                    readPosition += read;
+                }
+
+                block.flip();
+                if (block.hasRemaining()) {
+                    filled.put(block);
+                }
+
+                if (read < 0) {
+                    break;
+                }
+            }
+        } catch (final InterruptedException e) {
+            return;
+        } catch (final IOException e) {
+            failure = e;
+        }
+
+        filled.offer(END);
+    }
+}
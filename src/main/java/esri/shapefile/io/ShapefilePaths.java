@@ -0,0 +1,82 @@
+package esri.shapefile.io;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * A shapefile is a set of files that share a base name: the main file (.shp), the index file (.shx), the dBASE
+ * table (.dbf) and any number of optional sidecars. This resolves the members of that set from the path of any one
+ * of them.
+ */
+public final class ShapefilePaths {
+
+    /**
+     * Returns the file next to {@code shapefile} with the same base name and the given extension. The case of the
+     * extension follows the case of the existing extension, so "ROADS.SHP" resolves to "ROADS.SHX".
+     *
+     * @param shapefile Any member of the shapefile
+     * @param extension Extension of the sibling, without the leading dot
+     * @return {@link File}
+     */
+    public static File sibling(final File shapefile, final String extension) {
+        return new File(shapefile.getParentFile(), siblingName(shapefile.getName(), extension));
+    }
+
+    /**
+     * Behaves like {@link #sibling(File, String)} for a path on any filesystem, including the filesystem of a zip
+     * archive.
+     *
+     * @param shapefile Any member of the shapefile
+     * @param extension Extension of the sibling, without the leading dot
+     * @return {@link Path}
+     */
+    public static Path sibling(final Path shapefile, final String extension) {
+        return shapefile.resolveSibling(siblingName(shapefile.getFileName().toString(), extension));
+    }
+
+    /**
+     * Finds the entry of a zip archive with the same base name as {@code entryName} and the given extension. Archives
+     * are often assembled by hand, so when there is no entry with the expected case, the name is matched regardless
+     * of case.
+     *
+     * @param zipFile The archive
+     * @param entryName Name of any member of the shapefile within the archive, including its directories
+     * @param extension Extension of the sibling, without the leading dot
+     * @return {@link ZipEntry}, or null if the archive has no such entry
+     */
+    public static ZipEntry siblingEntry(final ZipFile zipFile, final String entryName, final String extension) {
+        final int slash = entryName.lastIndexOf('/');
+        final String siblingName = entryName.substring(0, slash + 1) + siblingName(entryName.substring(slash + 1), extension);
+
+        final ZipEntry zipEntry = zipFile.getEntry(siblingName);
+        if (zipEntry != null) {
+            return zipEntry;
+        }
+
+        final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+            final ZipEntry candidate = entries.nextElement();
+            if (!candidate.isDirectory() && candidate.getName().equalsIgnoreCase(siblingName)) {
+                return candidate;
+            }
+        }
+
+        return null;
+    }
+
+    private static String siblingName(final String name, final String extension) {
+        final int dot = name.lastIndexOf('.');
+
+        final String baseName = dot < 0 ? name : name.substring(0, dot);
+        final String existingExtension = dot < 0 ? "" : name.substring(dot + 1);
+        final boolean upperCase = !existingExtension.isEmpty() && existingExtension.equals(existingExtension.toUpperCase(Locale.ROOT));
+
+        return baseName + "." + (upperCase ? extension.toUpperCase(Locale.ROOT) : extension.toLowerCase(Locale.ROOT));
+    }
+
+    private ShapefilePaths() {}
+}
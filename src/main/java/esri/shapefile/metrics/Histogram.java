@@ -0,0 +1,72 @@
+package esri.shapefile.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts non-negative values in buckets whose bounds are powers of two. Bucket 0 counts zeros, and bucket {@code i}
+ * counts values from {@code 2^(i-1)} up to, but not including, {@code 2^i}. That is precise enough to tell a record of
+ * a hundred vertices from one of a million, and recording a value costs one increment of a striped counter.
+ */
+public final class Histogram {
+
+    public static final int NUM_BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[NUM_BUCKETS];
+
+    public Histogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return The bucket that counts the value. Negative values are counted as zero.
+     */
+    public static int bucketOf(final long value) {
+        return value <= 0 ? 0 : Math.min(NUM_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value));
+    }
+
+    /**
+     * @return The smallest value counted by the bucket.
+     */
+    public static long lowerBound(final int bucket) {
+        return bucket == 0 ? 0 : 1L << (bucket - 1);
+    }
+
+    public void record(final long value) {
+        buckets[bucketOf(value)].increment();
+    }
+
+    /**
+     * @return The count in every bucket, up to the last one that is not empty.
+     */
+    public long[] getCounts() {
+        final long[] counts = new long[NUM_BUCKETS];
+        int length = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets[i].sum();
+            if (counts[i] != 0) {
+                length = i + 1;
+            }
+        }
+
+        final long[] trimmed = new long[length];
+        System.arraycopy(counts, 0, trimmed, 0, length);
+        return trimmed;
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (final LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+
+        return count;
+    }
+
+    public void reset() {
+        for (final LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package esri.shapefile.metrics;
+
+import esri.shapefile.ShapefileReader;
+import esri.shapefile.models.shapes.ShapeType;
+
+/**
+ * Listens to the work a {@link ShapefileReader} does, one record at a time.
+ *
+ * <p>
+ *   Set a listener with {@link ShapefileReader#withMetrics(ReaderMetrics)}. Methods are called on the thread that
+ *   read or decoded the record, which for parallel reads means several threads at once, so implementations must be
+ *   thread-safe and should be cheap. {@link ReaderStatistics} is a ready-made implementation that can be published
+ *   over JMX. A reader without a listener skips the bookkeeping entirely, including the calls to
+ *   {@link System#nanoTime()}.
+ * </p>
+ */
+public interface ReaderMetrics {
+
+    /**
+     * Called with the number of bytes of each decoded record, counting its header and its contents.
+     */
+    void bytesRead(final long bytes);
+
+    /**
+     * Called after a record has been decoded.
+     *
+     * @param shapeType The type of the decoded shape
+     * @param contentLengthBytes The length of the record contents
+     * @param numPoints The number of vertices of the shape; 1 for a point and 0 for a null shape
+     * @param decodeNanos Time spent decoding the record contents
+     */
+    void recordDecoded(final ShapeType shapeType, final int contentLengthBytes, final int numPoints, final long decodeNanos);
+
+    /**
+     * Called after a consumer has returned from consuming a record.
+     *
+     * @param consumeNanos Time spent in the consumer
+     */
+    void recordConsumed(final long consumeNanos);
+
+    /**
+     * Called for each record that was looked at but not decoded, because it did not match a spatial or attribute
+     * filter.
+     */
+    void recordSkipped();
+}
@@ -0,0 +1,221 @@
+package esri.shapefile.metrics;
+
+import esri.shapefile.models.shapes.ShapeType;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link ReaderMetrics} listener that keeps running totals, readable in code or over JMX.
+ *
+ * <p>
+ *   Every total is a {@link LongAdder}, which spreads updates from different threads over separate cells, so the
+ *   threads of a parallel read do not contend on a shared counter. Reading a total sums the cells, and is not atomic
+ *   with respect to reads in progress. One instance can be shared by any number of readers.
+ * </p>
+ *
+ * <pre>
+ * {@code
+ *   final ReaderStatistics statistics = new ReaderStatistics();
+ *   statistics.register("ingest");
+ *
+ *   new ShapefileReader().withMetrics(statistics).forEachRecord("/path/to/shapefile.shp", (recordHeader, shape) -> {
+ *       // ...
+ *   });
+ * }
+ * </pre>
+ */
+public final class ReaderStatistics implements ReaderMetrics, ReaderStatisticsMXBean {
+
+    public static final String DOMAIN = "esri.shapefile";
+
+    private static final ShapeType[] SHAPE_TYPES = ShapeType.values();
+
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder[] recordsDecoded = new LongAdder[SHAPE_TYPES.length];
+    private final LongAdder recordsConsumed = new LongAdder();
+    private final LongAdder recordsSkipped = new LongAdder();
+    private final LongAdder decodeNanos = new LongAdder();
+    private final LongAdder consumeNanos = new LongAdder();
+    private final Histogram recordSizes = new Histogram();
+    private final Histogram vertexCounts = new Histogram();
+
+    public ReaderStatistics() {
+        for (int i = 0; i < recordsDecoded.length; i++) {
+            recordsDecoded[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void bytesRead(final long bytes) {
+        bytesRead.add(bytes);
+    }
+
+    @Override
+    public void recordDecoded(final ShapeType shapeType, final int contentLengthBytes, final int numPoints, final long decodeNanos) {
+        recordsDecoded[shapeType.ordinal()].increment();
+        this.decodeNanos.add(decodeNanos);
+        recordSizes.record(contentLengthBytes);
+        vertexCounts.record(numPoints);
+    }
+
+    @Override
+    public void recordConsumed(final long consumeNanos) {
+        recordsConsumed.increment();
+        this.consumeNanos.add(consumeNanos);
+    }
+
+    @Override
+    public void recordSkipped() {
+        recordsSkipped.increment();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getRecordsDecoded() {
+        long total = 0;
+        for (final LongAdder count : recordsDecoded) {
+            total += count.sum();
+        }
+
+        return total;
+    }
+
+    public long getRecordsDecoded(final ShapeType shapeType) {
+        return recordsDecoded[shapeType.ordinal()].sum();
+    }
+
+    @Override
+    public Map<String, Long> getRecordsDecodedByShapeType() {
+        final Map<String, Long> counts = new LinkedHashMap<>();
+        for (final ShapeType shapeType : SHAPE_TYPES) {
+            final long count = recordsDecoded[shapeType.ordinal()].sum();
+            if (count != 0) {
+                counts.put(shapeType.name(), count);
+            }
+        }
+
+        return counts;
+    }
+
+    @Override
+    public long getRecordsConsumed() {
+        return recordsConsumed.sum();
+    }
+
+    @Override
+    public long getRecordsSkipped() {
+        return recordsSkipped.sum();
+    }
+
+    @Override
+    public long getDecodeNanos() {
+        return decodeNanos.sum();
+    }
+
+    @Override
+    public long getConsumeNanos() {
+        return consumeNanos.sum();
+    }
+
+    @Override
+    public double getMeanDecodeNanos() {
+        final long records = getRecordsDecoded();
+        return records == 0 ? 0 : (double) getDecodeNanos() / records;
+    }
+
+    @Override
+    public double getMeanConsumeNanos() {
+        final long records = getRecordsConsumed();
+        return records == 0 ? 0 : (double) getConsumeNanos() / records;
+    }
+
+    @Override
+    public long[] getRecordSizeHistogram() {
+        return recordSizes.getCounts();
+    }
+
+    @Override
+    public long[] getVertexCountHistogram() {
+        return vertexCounts.getCounts();
+    }
+
+    public Histogram getRecordSizes() {
+        return recordSizes;
+    }
+
+    public Histogram getVertexCounts() {
+        return vertexCounts;
+    }
+
+    @Override
+    public void reset() {
+        bytesRead.reset();
+        for (final LongAdder count : recordsDecoded) {
+            count.reset();
+        }
+        recordsConsumed.reset();
+        recordsSkipped.reset();
+        decodeNanos.reset();
+        consumeNanos.reset();
+        recordSizes.reset();
+        vertexCounts.reset();
+    }
+
+    /**
+     * Publishes the statistics with the platform MBean server, as {@code esri.shapefile:type=ReaderStatistics,name=...}.
+     *
+     * @param name Tells these statistics apart from those of other readers
+     * @return The name the statistics were registered under
+     * @throws IllegalArgumentException if the name is not valid in an {@link ObjectName}
+     * @throws IllegalStateException if statistics are already registered under the name
+     */
+    public ObjectName register(final String name) {
+        final ObjectName objectName = objectName(name);
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        } catch (final InstanceAlreadyExistsException e) {
+            throw new IllegalStateException("Already registered: " + objectName, e);
+        } catch (final JMException e) {
+            throw new IllegalArgumentException(objectName.toString(), e);
+        }
+
+        return objectName;
+    }
+
+    /**
+     * Removes the statistics registered under the name from the platform MBean server, if there are any.
+     */
+    public static void unregister(final String name) {
+        final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+        try {
+            mBeanServer.unregisterMBean(objectName(name));
+        } catch (final InstanceNotFoundException e) {
+            // Nothing to remove.
+        } catch (final JMException e) {
+            throw new IllegalArgumentException(name, e);
+        }
+    }
+
+    private static ObjectName objectName(final String name) {
+        try {
+            return new ObjectName(DOMAIN + ":type=ReaderStatistics,name=" + ObjectName.quote(name));
+        } catch (final MalformedObjectNameException e) {
+            throw new IllegalArgumentException(name, e);
+        }
+    }
+}
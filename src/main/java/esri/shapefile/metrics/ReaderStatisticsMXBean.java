@@ -0,0 +1,43 @@
+package esri.shapefile.metrics;
+
+import java.util.Map;
+
+/**
+ * The attributes and operations of {@link ReaderStatistics} published over JMX.
+ */
+public interface ReaderStatisticsMXBean {
+
+    long getBytesRead();
+
+    long getRecordsDecoded();
+
+    /**
+     * @return The number of records decoded, keyed by the name of their {@link esri.shapefile.models.shapes.ShapeType}.
+     * Types that have not been seen are left out.
+     */
+    Map<String, Long> getRecordsDecodedByShapeType();
+
+    long getRecordsConsumed();
+
+    long getRecordsSkipped();
+
+    long getDecodeNanos();
+
+    long getConsumeNanos();
+
+    double getMeanDecodeNanos();
+
+    double getMeanConsumeNanos();
+
+    /**
+     * @return The number of records whose contents are of each size in bytes, in the buckets of a {@link Histogram}.
+     */
+    long[] getRecordSizeHistogram();
+
+    /**
+     * @return The number of records with each number of vertices, in the buckets of a {@link Histogram}.
+     */
+    long[] getVertexCountHistogram();
+
+    void reset();
+}
@@ -16,6 +16,16 @@ public class BoundingBox {
         return boundingBox;
     }
 
+    public static BoundingBox of(final double xMin, final double yMin, final double xMax, final double yMax) {
+        final BoundingBox boundingBox = new BoundingBox();
+        boundingBox.xMin = xMin;
+        boundingBox.yMin = yMin;
+        boundingBox.xMax = xMax;
+        boundingBox.yMax = yMax;
+
+        return boundingBox;
+    }
+
     private BoundingBox() {}
 
     private double xMin;
@@ -38,4 +48,16 @@ public class BoundingBox {
     public double getYMax() {
         return yMax;
     }
+
+    /**
+     * Whether the two boxes share at least one point. Boxes that only touch along an edge intersect.
+     */
+    public boolean intersects(final double otherXMin, final double otherYMin, final double otherXMax, final double otherYMax) {
+        return xMin <= otherXMax && xMax >= otherXMin &&
+               yMin <= otherYMax && yMax >= otherYMin;
+    }
+
+    public boolean intersects(final BoundingBox other) {
+        return intersects(other.xMin, other.yMin, other.xMax, other.yMax);
+    }
 }
@@ -36,7 +36,10 @@ import java.nio.ByteOrder;
 public class MainFileHeader {
 
     public static MainFileHeader fromBytes(final byte[] bytes) {
-        final ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+        return fromBytes(ByteBuffer.wrap(bytes));
+    }
+
+    public static MainFileHeader fromBytes(final ByteBuffer byteBuffer) {
         final MainFileHeader mainFileHeader = new MainFileHeader();
 
         byteBuffer.order(ByteOrder.BIG_ENDIAN);
@@ -85,8 +88,12 @@ public class MainFileHeader {
         return fileLength;
     }
 
-    public int getFileLengthBytes() {
-        return fileLength * 2;
+    /**
+     * The file length is stored in 16-bit words, so files larger than 2 GB overflow a signed
+     * byte count. The stored value is treated as unsigned, which covers files up to 8 GB.
+     */
+    public long getFileLengthBytes() {
+        return Integer.toUnsignedLong(fileLength) * 2;
     }
 
     public int getVersion() {
@@ -0,0 +1,34 @@
+package esri.shapefile.models;
+
+import esri.shapefile.models.shapes.Shape;
+
+/**
+ * A record of the main file: a {@link RecordHeader} followed by the {@link Shape} in its record contents.
+ */
+public class Record {
+
+    public static Record of(final RecordHeader recordHeader, final Shape shape) {
+        final Record record = new Record();
+        record.recordHeader = recordHeader;
+        record.shape = shape;
+
+        return record;
+    }
+
+    private Record() {}
+
+    private RecordHeader recordHeader;
+    private Shape shape;
+
+    public RecordHeader getRecordHeader() {
+        return recordHeader;
+    }
+
+    public Shape getShape() {
+        return shape;
+    }
+
+    public int getRecordNumber() {
+        return recordHeader.getRecordNumber();
+    }
+}
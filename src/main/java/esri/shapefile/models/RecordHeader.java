@@ -27,7 +27,17 @@ public class RecordHeader {
      * @return {@link RecordHeader}
      */
     public static RecordHeader fromBytes(final byte[] bytes) {
-        final ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+        return fromBytes(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Convert the first 8 bytes of a {@link ByteBuffer} into a {@link RecordHeader}. The buffer is typically a slice
+     * of a memory-mapped shapefile, in which case nothing is copied.
+     *
+     * @param byteBuffer {@link ByteBuffer} whose first 8 bytes are the {@link RecordHeader}
+     * @return {@link RecordHeader}
+     */
+    public static RecordHeader fromBytes(final ByteBuffer byteBuffer) {
         final RecordHeader recordHeader = new RecordHeader();
 
         byteBuffer.order(ByteOrder.BIG_ENDIAN);
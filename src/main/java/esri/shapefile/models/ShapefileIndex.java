@@ -0,0 +1,130 @@
+package esri.shapefile.models;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The index file (.shx) contains a 100-byte header followed by 8-byte, fixed-length records. The header is
+ * identical in organization to the main file header, except that the file length is the total length of the
+ * index file.
+ *
+ * The I'th record in the index file stores the offset and content length for the I'th record in the main file.
+ * Both values are kept in primitive arrays so that finding a record in the main file is a constant time lookup.
+ *
+ * Position  Field           Value           Type     Byte Order
+ * --------  -----           -----           ----     ----------
+ * Byte 0    Offset          Offset          Integer  Big
+ * Byte 4    Content Length  Content Length  Integer  Big
+ */
+public class ShapefileIndex {
+
+    /**
+     * Index records have a fixed length of 8 bytes.
+     */
+    private static final int INDEX_RECORD_SIZE = 8;
+
+    private static final int MAIN_FILE_HEADER_SIZE = 100;
+
+    public static ShapefileIndex fromBytes(final byte[] bytes) {
+        return fromBytes(ByteBuffer.wrap(bytes));
+    }
+
+    public static ShapefileIndex fromBytes(final ByteBuffer byteBuffer) {
+        final ShapefileIndex shapefileIndex = new ShapefileIndex();
+        shapefileIndex.mainFileHeader = MainFileHeader.fromBytes(byteBuffer);
+
+        final int numRecords = (byteBuffer.limit() - MAIN_FILE_HEADER_SIZE) / INDEX_RECORD_SIZE;
+        shapefileIndex.offsets = new int[numRecords];
+        shapefileIndex.contentLengths = new int[numRecords];
+
+        byteBuffer.order(ByteOrder.BIG_ENDIAN);
+        for (int i = 0; i < numRecords; i++) {
+            final int position = MAIN_FILE_HEADER_SIZE + i * INDEX_RECORD_SIZE;
+            shapefileIndex.offsets[i] = byteBuffer.getInt(position);
+            shapefileIndex.contentLengths[i] = byteBuffer.getInt(position + 4);
+        }
+
+        return shapefileIndex;
+    }
+
+    /**
+     * Builds an index from offsets and content lengths that were found some other way, such as by walking the record
+     * headers of a main file that has no index file.
+     *
+     * @param mainFileHeader Header of the file the offsets were read from
+     * @param offsets Offset of each record, measured in 16-bit words
+     * @param contentLengths Content length of each record, measured in 16-bit words
+     * @return {@link ShapefileIndex}
+     */
+    public static ShapefileIndex of(final MainFileHeader mainFileHeader, final int[] offsets, final int[] contentLengths) {
+        final ShapefileIndex shapefileIndex = new ShapefileIndex();
+        shapefileIndex.mainFileHeader = mainFileHeader;
+        shapefileIndex.offsets = offsets;
+        shapefileIndex.contentLengths = contentLengths;
+
+        return shapefileIndex;
+    }
+
+    private ShapefileIndex() {}
+
+    /**
+     * The header of the index file.
+     */
+    private MainFileHeader mainFileHeader;
+
+    /**
+     * The offset of each record in the main file, measured in 16-bit words from the start of the main file.
+     * The offset points at the record header, not the record contents.
+     */
+    private int[] offsets;
+
+    /**
+     * The content length of each record, measured in 16-bit words. This is the same value stored in the
+     * record header.
+     */
+    private int[] contentLengths;
+
+    public MainFileHeader getMainFileHeader() {
+        return mainFileHeader;
+    }
+
+    public int getNumRecords() {
+        return offsets.length;
+    }
+
+    public boolean contains(final int recordNumber) {
+        return recordNumber >= 1 && recordNumber <= offsets.length;
+    }
+
+    /**
+     * @param recordNumber Record numbers begin at 1.
+     * @return The offset of the record, measured in 16-bit words.
+     */
+    public int getOffset(final int recordNumber) {
+        return offsets[recordNumber - 1];
+    }
+
+    /**
+     * @param recordNumber Record numbers begin at 1.
+     * @return The offset of the record header, measured in bytes from the start of the main file.
+     */
+    public long getOffsetBytes(final int recordNumber) {
+        return Integer.toUnsignedLong(offsets[recordNumber - 1]) * 2;
+    }
+
+    /**
+     * @param recordNumber Record numbers begin at 1.
+     * @return The content length of the record, measured in 16-bit words.
+     */
+    public int getContentLength(final int recordNumber) {
+        return contentLengths[recordNumber - 1];
+    }
+
+    /**
+     * @param recordNumber Record numbers begin at 1.
+     * @return The content length of the record, measured in bytes.
+     */
+    public int getContentLengthBytes(final int recordNumber) {
+        return contentLengths[recordNumber - 1] * 2;
+    }
+}
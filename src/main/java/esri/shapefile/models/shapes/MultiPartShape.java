@@ -0,0 +1,125 @@
+package esri.shapefile.models.shapes;
+
+import esri.shapefile.models.BoundingBox;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Base class for shapes whose points are divided into parts: polylines, polygons and multipatches.
+ *
+ * Position Field       Value     Type    Number    Order
+ * -------- -----       -----     ----    ------    -----
+ * Byte 0   Shape Type  Type      Integer 1         Little
+ * Byte 4   Box         Box       Double  4         Little
+ * Byte 36  NumParts    NumParts  Integer 1         Little
+ * Byte 40  NumPoints   NumPoints Integer 1         Little
+ * Byte 44  Parts       Parts     Integer NumParts  Little
+ * Byte X   Points      Points    Point   NumPoints Little
+ * Byte Y   Z, M        ...                         Little
+ *
+ * * Note: X = 44 + 4 * NumParts, or 44 + 8 * NumParts for a MultiPatch, whose part
+ *   types follow the parts.
+ */
+public abstract class MultiPartShape extends PackedShape {
+
+    /**
+     * The number of parts in the shape.
+     */
+    private int numParts;
+
+    /**
+     * An array of length NumParts. Stores, for each part, the index of its first
+     * point in the points array. Array indexes are with respect to 0.
+     */
+    private int[] parts;
+
+    protected MultiPartShape() {}
+
+    protected void setParts(final int[] parts) {
+        this.numParts = parts.length;
+        this.parts = parts;
+    }
+
+    /**
+     * Reads everything up to and including the parts array, leaving the buffer positioned after it.
+     *
+     * @return The number of points that follow
+     * @throws BufferUnderflowException When either count is negative, or too large for the bytes that remain
+     */
+    protected int readHeaderAndParts(final ByteBuffer byteBuffer) {
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        setShapeType(ShapeType.fromCode(byteBuffer.getInt()));
+        setBoundingBox(BoundingBox.fromBytes(byteBuffer));
+
+        numParts = byteBuffer.getInt();
+        final int numPoints = byteBuffer.getInt();
+        checkCount(byteBuffer, 4L * numParts + 16L * numPoints, numParts < 0 || numPoints < 0);
+        parts = readInts(byteBuffer, numParts);
+
+        return numPoints;
+    }
+
+    public int getNumParts() {
+        return numParts;
+    }
+
+    /**
+     * @return The index of the first point of the part.
+     */
+    public int getPartStart(final int part) {
+        return parts[part];
+    }
+
+    /**
+     * @return The index one past the last point of the part.
+     */
+    public int getPartEnd(final int part) {
+        return part + 1 < numParts ? parts[part + 1] : getNumPoints();
+    }
+
+    /**
+     * The array backing {@link #getParts()}. It is not a copy and must not be modified.
+     */
+    public int[] getPartStarts() {
+        return parts;
+    }
+
+    /**
+     * A read-only view of the parts array. The elements are boxed as they are accessed.
+     */
+    public List<Integer> getParts() {
+        return new AbstractList<Integer>() {
+            @Override
+            public Integer get(final int index) {
+                return parts[index];
+            }
+
+            @Override
+            public int size() {
+                return numParts;
+            }
+        };
+    }
+
+    /**
+     * A read-only view of the points of each part.
+     */
+    protected List<List<Point>> getPartPoints() {
+        return new AbstractList<List<Point>>() {
+            @Override
+            public List<Point> get(final int part) {
+                return getPoints(getPartStart(part), getPartEnd(part));
+            }
+
+            @Override
+            public int size() {
+                return numParts;
+            }
+        };
+    }
+}
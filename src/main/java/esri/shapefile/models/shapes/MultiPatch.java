@@ -0,0 +1,73 @@
+package esri.shapefile.models.shapes;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A MultiPatch consists of a number of surface patches. Each surface patch describes a surface.
+ * The surface patches of a MultiPatch are referred to as its parts, and the type of part controls
+ * how the order of vertices of a MultiPatch part is interpreted.
+ *
+ * MultiPatch
+ * {
+ *   Double[4] Box                // Bounding Box
+ *   Integer NumParts             // Number of Parts
+ *   Integer NumPoints            // Total Number of Points
+ *   Integer[NumParts] Parts      // Index to First Point in Part
+ *   Integer[NumParts] PartTypes  // Part Type
+ *   Point[NumPoints] Points      // Points for All Parts
+ *   Double[2] Z Range            // Bounding Z Range
+ *   Double[NumPoints] Z Array    // Z Values for All Points
+ *   Double[2] M Range            // Bounding Measure Range (optional)
+ *   Double[NumPoints] M Array    // Measures (optional)
+ * }
+ *
+ * Position Field       Value     Type    Number    Order
+ * -------- -----       -----     ----    ------    -----
+ * Byte 0   Shape Type  31        Integer 1         Little
+ * Byte 4   Box         Box       Double  4         Little
+ * Byte 36  NumParts    NumParts  Integer 1         Little
+ * Byte 40  NumPoints   NumPoints Integer 1         Little
+ * Byte 44  Parts       Parts     Integer NumParts  Little
+ * Byte W   PartTypes   PartTypes Integer NumParts  Little
+ * Byte X   Points      Points    Point   NumPoints Little
+ * Byte Y   Z, M        ...                         Little
+ *
+ * * Note: W = 44 + 4 * NumParts, X = W + 4 * NumParts
+ */
+public class MultiPatch extends MultiPartShape {
+
+    public static final int TRIANGLE_STRIP = 0;
+    public static final int TRIANGLE_FAN = 1;
+    public static final int OUTER_RING = 2;
+    public static final int INNER_RING = 3;
+    public static final int FIRST_RING = 4;
+    public static final int RING = 5;
+
+    public static MultiPatch fromBytes(final ByteBuffer byteBuffer) {
+        final MultiPatch multiPatch = new MultiPatch();
+        final int numPoints = multiPatch.readHeaderAndParts(byteBuffer);
+        multiPatch.partTypes = readInts(byteBuffer, multiPatch.getNumParts());
+        multiPatch.readPoints(byteBuffer, numPoints);
+
+        return multiPatch;
+    }
+
+    private MultiPatch() {}
+
+    /**
+     * An array of length NumParts. Stores the type of each part, one of {@link #TRIANGLE_STRIP},
+     * {@link #TRIANGLE_FAN}, {@link #OUTER_RING}, {@link #INNER_RING}, {@link #FIRST_RING} or {@link #RING}.
+     */
+    private int[] partTypes;
+
+    public int getPartType(final int part) {
+        return partTypes[part];
+    }
+
+    /**
+     * The array of part types. It is not a copy and must not be modified.
+     */
+    public int[] getPartTypes() {
+        return partTypes;
+    }
+}
@@ -0,0 +1,57 @@
+package esri.shapefile.models.shapes;
+
+import esri.shapefile.models.BoundingBox;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A MultiPoint represents a set of points.
+ *
+ * MultiPoint
+ * {
+ *   Double[4] Box           // Bounding Box
+ *   Integer NumPoints       // Number of Points
+ *   Point[NumPoints] Points // The Points in the Set
+ * }
+ *
+ * A MultiPointM (28) follows the points with the M section, and a MultiPointZ (18) follows
+ * them with the Z section and then an optional M section, as documented on {@link PackedShape}.
+ */
+public class MultiPoint extends PackedShape {
+
+    /**
+     * Position Field       Value     Type    Number    Order
+     * -------- -----       -----     ----    ------    -----
+     * Byte 0   Shape Type  8         Integer 1         Little
+     * Byte 4   Box         Box       Double  4         Little
+     * Byte 36  NumPoints   NumPoints Integer 1         Little
+     * Byte 40  Points      Points    Point   NumPoints Little
+     */
+    public static MultiPoint fromBytes(final ByteBuffer byteBuffer) {
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        final MultiPoint multiPoint = new MultiPoint();
+        multiPoint.setShapeType(ShapeType.fromCode(byteBuffer.getInt()));
+        multiPoint.setBoundingBox(BoundingBox.fromBytes(byteBuffer));
+        multiPoint.readPoints(byteBuffer, byteBuffer.getInt());
+
+        return multiPoint;
+    }
+
+    /**
+     * Builds a multipoint from coordinates that are already packed. The array is used as it is, not copied.
+     *
+     * @param boundingBox The bounding box of every point
+     * @param xy The coordinates of every point, packed as x0, y0, x1, y1, ...
+     * @return {@link MultiPoint}
+     */
+    public static MultiPoint of(final BoundingBox boundingBox, final double[] xy) {
+        final MultiPoint multiPoint = new MultiPoint();
+        multiPoint.setShape(ShapeType.MultiPoint, boundingBox, xy);
+
+        return multiPoint;
+    }
+
+    private MultiPoint() {}
+}
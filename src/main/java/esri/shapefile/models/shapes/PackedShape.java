@@ -0,0 +1,283 @@
+package esri.shapefile.models.shapes;
+
+import esri.shapefile.models.BoundingBox;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Base class for shapes made up of a sequence of points with a bounding box: multipoints and every multi-part
+ * shape. The points are held in primitive arrays rather than as {@link Point} objects. X and Y are packed together
+ * as x0, y0, x1, y1, and so on, and Z coordinates and measures, when the shape type has them, are kept in arrays
+ * of their own.
+ *
+ * The optional Z and M sections share a layout, which follows the points:
+ *
+ * Position  Field       Value        Type    Number     Byte Order
+ * --------  -----       -----        ----    ------     ----------
+ * Byte Y    Range Min   Min          Double  1          Little
+ * Byte Y+8  Range Max   Max          Double  1          Little
+ * Byte Y+16 Values      Values       Double  NumPoints  Little
+ */
+public abstract class PackedShape implements Shape {
+
+    private ShapeType shapeType;
+
+    /**
+     * The Bounding Box for the shape stored in the order Xmin, Ymin, Xmax, Ymax.
+     */
+    private BoundingBox boundingBox;
+
+    /**
+     * The total number of points.
+     */
+    private int numPoints;
+
+    /**
+     * An array of length 2 * NumPoints holding the coordinates of every point, packed
+     * as x0, y0, x1, y1, and so on.
+     */
+    private double[] xy;
+
+    private double zMin;
+    private double zMax;
+
+    /**
+     * An array of length NumPoints holding the Z coordinate of each point, or null when
+     * the shape type has no Z coordinates.
+     */
+    private double[] z;
+
+    private double mMin;
+    private double mMax;
+
+    /**
+     * An array of length NumPoints holding the measure of each point, or null when the
+     * shape type has no measures, or the record omits them.
+     */
+    private double[] m;
+
+    protected PackedShape() {}
+
+    protected void setShape(final ShapeType shapeType, final BoundingBox boundingBox, final double[] xy) {
+        this.shapeType = shapeType;
+        this.boundingBox = boundingBox;
+        this.numPoints = xy.length / 2;
+        this.xy = xy;
+    }
+
+    protected void setZ(final double zMin, final double zMax, final double[] z) {
+        this.zMin = zMin;
+        this.zMax = zMax;
+        this.z = z;
+    }
+
+    protected void setM(final double mMin, final double mMax, final double[] m) {
+        this.mMin = mMin;
+        this.mMax = mMax;
+        this.m = m;
+    }
+
+    /**
+     * Reads the points, followed by the Z and M sections that the shape type calls for. The measures of a Z type
+     * are optional, and are only read when the record contents are long enough to hold them.
+     *
+     * @throws BufferUnderflowException When the number of points is negative, or too large for the bytes that remain
+     */
+    protected void readPoints(final ByteBuffer byteBuffer, final int numPoints) {
+        checkCount(byteBuffer, 16L * numPoints, numPoints < 0);
+        this.numPoints = numPoints;
+        this.xy = readDoubles(byteBuffer, 2 * numPoints);
+
+        if (hasZType(shapeType)) {
+            this.zMin = byteBuffer.getDouble();
+            this.zMax = byteBuffer.getDouble();
+            this.z = readDoubles(byteBuffer, numPoints);
+        }
+
+        if ((hasZType(shapeType) || hasMType(shapeType)) && byteBuffer.remaining() >= 16 + 8 * numPoints) {
+            this.mMin = byteBuffer.getDouble();
+            this.mMax = byteBuffer.getDouble();
+            this.m = readDoubles(byteBuffer, numPoints);
+        }
+    }
+
+    protected void setShapeType(final ShapeType shapeType) {
+        this.shapeType = shapeType;
+    }
+
+    protected void setBoundingBox(final BoundingBox boundingBox) {
+        this.boundingBox = boundingBox;
+    }
+
+    /**
+     * Checks a count read from the record contents before any array is allocated for it, so that a corrupt count
+     * fails like truncated contents do, rather than with a {@link NegativeArraySizeException} or an enormous array.
+     *
+     * @param bytes The number of bytes the count calls for
+     * @param negative Whether the count, or any of the counts that make up the bytes, is negative
+     * @throws BufferUnderflowException When the count is negative or the bytes that remain are too few
+     */
+    protected static void checkCount(final ByteBuffer byteBuffer, final long bytes, final boolean negative) {
+        if (negative || bytes > byteBuffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+    }
+
+    protected static double[] readDoubles(final ByteBuffer byteBuffer, final int count) {
+        checkCount(byteBuffer, 8L * count, count < 0);
+        final double[] values = new double[count];
+        byteBuffer.asDoubleBuffer().get(values);
+        byteBuffer.position(byteBuffer.position() + 8 * count);
+
+        return values;
+    }
+
+    protected static int[] readInts(final ByteBuffer byteBuffer, final int count) {
+        checkCount(byteBuffer, 4L * count, count < 0);
+        final int[] values = new int[count];
+        byteBuffer.asIntBuffer().get(values);
+        byteBuffer.position(byteBuffer.position() + 4 * count);
+
+        return values;
+    }
+
+    private static boolean hasZType(final ShapeType shapeType) {
+        return shapeType == ShapeType.PolyLineZ || shapeType == ShapeType.PolygonZ ||
+               shapeType == ShapeType.MultiPointZ || shapeType == ShapeType.MultiPatch;
+    }
+
+    private static boolean hasMType(final ShapeType shapeType) {
+        return shapeType == ShapeType.PolyLineM || shapeType == ShapeType.PolygonM ||
+               shapeType == ShapeType.MultiPointM;
+    }
+
+    @Override
+    public ShapeType getShapeType() {
+        return shapeType;
+    }
+
+    public BoundingBox getBoundingBox() {
+        return boundingBox;
+    }
+
+    public int getNumPoints() {
+        return numPoints;
+    }
+
+    public double getX(final int point) {
+        return xy[2 * point];
+    }
+
+    public double getY(final int point) {
+        return xy[2 * point + 1];
+    }
+
+    public boolean hasZ() {
+        return z != null;
+    }
+
+    public boolean hasM() {
+        return m != null;
+    }
+
+    /**
+     * @return The Z coordinate of the point, or NaN when the shape has none.
+     */
+    public double getZ(final int point) {
+        return z == null ? Double.NaN : z[point];
+    }
+
+    /**
+     * @return The measure of the point, or NaN when the shape has none.
+     */
+    public double getM(final int point) {
+        return m == null ? Double.NaN : m[point];
+    }
+
+    public double getZMin() {
+        return zMin;
+    }
+
+    public double getZMax() {
+        return zMax;
+    }
+
+    public double getMMin() {
+        return mMin;
+    }
+
+    public double getMMax() {
+        return mMax;
+    }
+
+    /**
+     * The array backing {@link #getPoints()}, packed as x0, y0, x1, y1, and so on. It is not a copy and must not
+     * be modified.
+     */
+    public double[] getCoordinates() {
+        return xy;
+    }
+
+    /**
+     * The Z coordinates of every point, or null when the shape has none. It is not a copy and must not be modified.
+     */
+    public double[] getZValues() {
+        return z;
+    }
+
+    /**
+     * The measures of every point, or null when the shape has none. It is not a copy and must not be modified.
+     */
+    public double[] getMValues() {
+        return m;
+    }
+
+    /**
+     * A read-only view of the points. Each {@link Point} is created as it is accessed.
+     */
+    public List<Point> getPoints() {
+        return new PointList(0, numPoints);
+    }
+
+    protected List<Point> getPoints(final int start, final int end) {
+        return new PointList(start, end);
+    }
+
+    private Point pointAt(final int point) {
+        if (z != null) {
+            return Point.at(getX(point), getY(point), z[point], getM(point));
+        } else if (m != null) {
+            return Point.measuredAt(getX(point), getY(point), m[point]);
+        }
+
+        return Point.at(getX(point), getY(point));
+    }
+
+    private final class PointList extends AbstractList<Point> {
+
+        private final int start;
+        private final int end;
+
+        PointList(final int start, final int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public Point get(final int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+            }
+
+            return pointAt(start + index);
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+    }
+}
@@ -11,6 +11,27 @@ import java.nio.ByteOrder;
  * Byte 0   Shape Type 1     Integer 1      Little
  * Byte 4   X          X     Double  1      Little
  * Byte 12  Y          Y     Double  1      Little
+ *
+ * A PointM adds a measure after the coordinates.
+ *
+ * Position Field      Value Type    Number Byte Order
+ * -------- -----      ----- ----    ------ ----------
+ * Byte 0   Shape Type 21    Integer 1      Little
+ * Byte 4   X          X     Double  1      Little
+ * Byte 12  Y          Y     Double  1      Little
+ * Byte 20  M          M     Double  1      Little
+ *
+ * A PointZ adds a Z coordinate and a measure. Some writers omit the measure.
+ *
+ * Position Field      Value Type    Number Byte Order
+ * -------- -----      ----- ----    ------ ----------
+ * Byte 0   Shape Type 11    Integer 1      Little
+ * Byte 4   X          X     Double  1      Little
+ * Byte 12  Y          Y     Double  1      Little
+ * Byte 20  Z          Z     Double  1      Little
+ * Byte 28  M          M     Double  1      Little
+ *
+ * Z and M are NaN when the point does not have them.
  */
 public class Point implements Shape {
 
@@ -22,30 +43,56 @@ public class Point implements Shape {
         byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
 
         final Point point = new Point();
-        point.shapeType = byteBuffer.getInt(0);
+        point.shapeType = ShapeType.fromCode(byteBuffer.getInt(0));
         point.x = byteBuffer.getDouble(4);
         point.y = byteBuffer.getDouble(12);
 
+        if (point.shapeType == ShapeType.PointZ) {
+            point.z = byteBuffer.getDouble(20);
+            point.m = byteBuffer.limit() >= 36 ? byteBuffer.getDouble(28) : Double.NaN;
+        } else if (point.shapeType == ShapeType.PointM) {
+            point.m = byteBuffer.getDouble(20);
+        }
+
         return point;
     }
 
     public static Point at(final double x, final double y) {
         final Point point = new Point();
-        point.shapeType = 1;
+        point.shapeType = ShapeType.Point;
         point.x = x;
         point.y = y;
 
         return point;
     }
 
+    public static Point at(final double x, final double y, final double z, final double m) {
+        final Point point = at(x, y);
+        point.shapeType = ShapeType.PointZ;
+        point.z = z;
+        point.m = m;
+
+        return point;
+    }
+
+    public static Point measuredAt(final double x, final double y, final double m) {
+        final Point point = at(x, y);
+        point.shapeType = ShapeType.PointM;
+        point.m = m;
+
+        return point;
+    }
+
     private Point() {}
-    private int shapeType;
+    private ShapeType shapeType;
     private double x;
     private double y;
+    private double z = Double.NaN;
+    private double m = Double.NaN;
 
     @Override
     public ShapeType getShapeType() {
-        return ShapeType.Point;
+        return shapeType;
     }
 
     public double getX() {
@@ -56,13 +103,27 @@ public class Point implements Shape {
         return y;
     }
 
+    public double getZ() {
+        return z;
+    }
+
+    public double getM() {
+        return m;
+    }
+
+    /**
+     * Points are equal when they have the same shape type and the same coordinates, compared with
+     * {@link Double#compare(double, double)} as {@link #hashCode()} requires: 0.0 and -0.0 differ, and NaN equals NaN.
+     */
     @Override
     public boolean equals(final Object other) {
         if (other instanceof Point) {
             final Point otherPoint = (Point) other;
             return otherPoint.getShapeType() == this.getShapeType() &&
-                   otherPoint.getX() == this.getX() &&
-                   otherPoint.getY() == this.getY();
+                   Double.compare(otherPoint.getX(), this.getX()) == 0 &&
+                   Double.compare(otherPoint.getY(), this.getY()) == 0 &&
+                   Double.compare(otherPoint.getZ(), this.getZ()) == 0 &&
+                   Double.compare(otherPoint.getM(), this.getM()) == 0;
 
         } else {
             return false;
@@ -71,6 +132,6 @@ public class Point implements Shape {
 
     @Override
     public int hashCode() {
-        return 31 * String.format("%d%d%d", shapeType, x, y).hashCode();
+        return 31 * Double.hashCode(x) + Double.hashCode(y);
     }
 }
@@ -0,0 +1,75 @@
+package esri.shapefile.models.shapes;
+
+import esri.shapefile.models.BoundingBox;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * A PolyLine is an ordered set of vertices that consists of one or more parts. A part is a
+ * connected sequence of two or more points. Parts may or may not be connected to one another.
+ * Parts may or may not intersect one another.
+ *
+ * Because this specification does not forbid consecutive points with identical coordinates,
+ * shapefile readers must handle such cases. On the other hand, the degenerate, zero length
+ * parts that might result are not allowed.
+ *
+ * PolyLine
+ * {
+ *   Double[4] Box           // Bounding Box
+ *   Integer NumParts        // Number of Parts
+ *   Integer NumPoints       // Total Number of Points
+ *   Integer[NumParts] Parts // Index to First Point in Part
+ *   Point[NumPoints] Points // Points for All Parts
+ * }
+ *
+ * A PolyLineM (23) follows the points with the M section, and a PolyLineZ (13) follows them
+ * with the Z section and then an optional M section, as documented on {@link PackedShape}.
+ */
+public class PolyLine extends MultiPartShape {
+
+    /**
+     * Position Field       Value     Type    Number    Order
+     * -------- -----       -----     ----    ------    -----
+     * Byte 0   Shape Type  3         Integer 1         Little
+     * Byte 4   Box         Box       Double  4         Little
+     * Byte 36  NumParts    NumParts  Integer 1         Little
+     * Byte 40  NumPoints   NumPoints Integer 1         Little
+     * Byte 44  Parts       Parts     Integer NumParts  Little
+     * Byte X   Points      Points    Point   NumPoints Little
+     *
+     * * Note: X = 44 + 4 * NumParts
+     */
+    public static PolyLine fromBytes(final ByteBuffer byteBuffer) {
+        final PolyLine polyLine = new PolyLine();
+        final int numPoints = polyLine.readHeaderAndParts(byteBuffer);
+        polyLine.readPoints(byteBuffer, numPoints);
+
+        return polyLine;
+    }
+
+    /**
+     * Builds a polyline from coordinates that are already packed. The arrays are used as they are, not copied.
+     *
+     * @param boundingBox The bounding box of every point
+     * @param parts The index of the first point of each line
+     * @param xy The coordinates of every point, packed as x0, y0, x1, y1, ...
+     * @return {@link PolyLine}
+     */
+    public static PolyLine of(final BoundingBox boundingBox, final int[] parts, final double[] xy) {
+        final PolyLine polyLine = new PolyLine();
+        polyLine.setShape(ShapeType.PolyLine, boundingBox, xy);
+        polyLine.setParts(parts);
+
+        return polyLine;
+    }
+
+    private PolyLine() {}
+
+    /**
+     * A read-only view of the points of each line.
+     */
+    public List<List<Point>> getLines() {
+        return getPartPoints();
+    }
+}
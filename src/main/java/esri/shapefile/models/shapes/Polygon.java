@@ -3,10 +3,7 @@ package esri.shapefile.models.shapes;
 import esri.shapefile.models.BoundingBox;
 
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.IntStream;
 
 /**
  * A polygon consists of one or more rings. A ring is a connected sequence of four or more
@@ -33,8 +30,10 @@ import java.util.stream.IntStream;
  *   Point[NumPoints] Points // Points for All Parts
  * }
  *
+ * A PolygonM (25) follows the points with the M section, and a PolygonZ (15) follows them
+ * with the Z section and then an optional M section, as documented on {@link PackedShape}.
  */
-public class Polygon implements Shape {
+public class Polygon extends MultiPartShape {
 
     /**
      * Position Field       Value     Type    Number    Order
@@ -49,99 +48,35 @@ public class Polygon implements Shape {
      * * Note: X = 44 + 4 * NumParts
      */
     public static Polygon fromBytes(final ByteBuffer byteBuffer) {
-        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
-
         final Polygon polygon = new Polygon();
-        polygon.shapeType = byteBuffer.getInt();
-        polygon.boundingBox = BoundingBox.fromBytes(byteBuffer);
-
-        polygon.numParts = byteBuffer.getInt();
-        polygon.numPoints = byteBuffer.getInt();
-
-        polygon.parts = new ArrayList<>(polygon.numParts);
-        IntStream.range(0, polygon.numParts).forEach((ignored) -> {
-            polygon.parts.add(byteBuffer.getInt());
-        });
-
-        polygon.points = new ArrayList<>(polygon.numPoints);
-        IntStream.range(0, polygon.numPoints).forEach((ignored) -> {
-            final double x = byteBuffer.getDouble();
-            final double y = byteBuffer.getDouble();
-            polygon.points.add(Point.at(x,y));
-        });
+        final int numPoints = polygon.readHeaderAndParts(byteBuffer);
+        polygon.readPoints(byteBuffer, numPoints);
 
         return polygon;
     }
 
-    private Polygon() {}
-    private int shapeType;
-
-    /**
-     * The Bounding Box for the polygon stored in the order Xmin, Ymin, Xmax, Ymax.
-     */
-    private BoundingBox boundingBox;
-
     /**
-     * The number of rings in the polygon.
+     * Builds a polygon from coordinates that are already packed. The arrays are used as they are, not copied.
+     *
+     * @param boundingBox The bounding box of every point
+     * @param parts The index of the first point of each ring
+     * @param xy The coordinates of every point, packed as x0, y0, x1, y1, ...
+     * @return {@link Polygon}
      */
-    private int numParts;
+    public static Polygon of(final BoundingBox boundingBox, final int[] parts, final double[] xy) {
+        final Polygon polygon = new Polygon();
+        polygon.setShape(ShapeType.Polygon, boundingBox, xy);
+        polygon.setParts(parts);
 
-    /**
-     * The total number of points for all rings.
-     */
-    private int numPoints;
+        return polygon;
+    }
 
-    /**
-     * An array of length NumParts. Stores, for each ring, the index of its first
-     * point in the points array. Array indexes are with respect to 0.
-     */
-    private List<Integer> parts;
+    private Polygon() {}
 
     /**
-     * An array of length NumPoints. The points for each ring in the polygon are
-     * stored end to end. The points for Ring 2 follow the points for Ring 1, and so
-     * on. The parts array holds the array index of the starting point for each ring.
-     * There is no delimiter in the points array between rings.
+     * A read-only view of the points of each ring.
      */
-    private List<Point> points;
-
-    @Override
-    public ShapeType getShapeType() {
-        return ShapeType.Polygon;
-    }
-
-    public BoundingBox getBoundingBox() {
-        return boundingBox;
-    }
-
-    public int getNumParts() {
-        return numParts;
-    }
-
-    public int getNumPoints() {
-        return numPoints;
-    }
-
-    public List<Integer> getParts() {
-        return parts;
-    }
-
-    public List<Point> getPoints() {
-        return points;
-    }
-
     public List<List<Point>> getRings() {
-        final List<Integer> ringParts = new ArrayList(parts);
-        ringParts.add(numPoints);
-
-        final List<List<Point>> rings = new ArrayList<>(numParts);
-        ringParts.stream().reduce((startIndex, endIndex) -> {
-            final List<Point> ring = points.subList(startIndex, endIndex);
-            rings.add(ring);
-
-            return endIndex;
-        });
-
-        return rings;
+        return getPartPoints();
     }
 }
@@ -1,18 +1,67 @@
 package esri.shapefile.models.shapes;
 
+/**
+ * The shape types defined by the specification, along with the integer code that identifies each of them in the
+ * main file. The codes are not contiguous, so they are mapped explicitly rather than through {@link #ordinal()}.
+ */
 public enum ShapeType {
-    NullShape,
-    Point,
-    PolyLine,
-    Polygon,
-    MultiPoint,
-    PointZ,
-    PolyLineZ,
-    PolygonZ,
-    MultiPointZ,
-    PointM,
-    PolyLineM,
-    PolygonM,
-    MultiPointM,
-    MultiPatch
+    NullShape(0),
+    Point(1),
+    PolyLine(3),
+    Polygon(5),
+    MultiPoint(8),
+    PointZ(11),
+    PolyLineZ(13),
+    PolygonZ(15),
+    MultiPointZ(18),
+    PointM(21),
+    PolyLineM(23),
+    PolygonM(25),
+    MultiPointM(28),
+    MultiPatch(31);
+
+    public static ShapeType fromCode(final int code) {
+        switch (code) {
+            case 0:  return NullShape;
+            case 1:  return Point;
+            case 3:  return PolyLine;
+            case 5:  return Polygon;
+            case 8:  return MultiPoint;
+            case 11: return PointZ;
+            case 13: return PolyLineZ;
+            case 15: return PolygonZ;
+            case 18: return MultiPointZ;
+            case 21: return PointM;
+            case 23: return PolyLineM;
+            case 25: return PolygonM;
+            case 28: return MultiPointM;
+            case 31: return MultiPatch;
+            default: throw new IllegalArgumentException("Unknown Shape Value: " + code);
+        }
+    }
+
+    private final int code;
+
+    ShapeType(final int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Every shape other than a null shape or a single point stores its bounding box at byte 4 of its record contents.
+     */
+    public boolean hasBoundingBox() {
+        return this != NullShape && this != Point && this != PointZ && this != PointM;
+    }
+
+    public boolean isPoint() {
+        return this == Point || this == PointZ || this == PointM;
+    }
+
+    public boolean isMultiPoint() {
+        return this == MultiPoint || this == MultiPointZ || this == MultiPointM;
+    }
 }
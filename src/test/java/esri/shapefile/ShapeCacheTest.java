@@ -0,0 +1,141 @@
+package esri.shapefile;
+
+import esri.shapefile.models.Record;
+import esri.shapefile.models.ShapefileIndex;
+import esri.shapefile.models.shapes.Polygon;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class ShapeCacheTest {
+
+    /**
+     * Each fixture polygon has 5 points and one part.
+     */
+    private static final long POLYGON_WEIGHT = ShapeCache.RECORD_OVERHEAD_BYTES + 5 * 16 + 4;
+
+    @Test
+    public void testRecordsAreDecodedOnce() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(20);
+        final ShapeCache shapeCache = ShapeCache.create(1 << 20);
+        final ShapefileReader shapefileReader = new ShapefileReader().withShapeCache(shapeCache);
+        final ShapefileIndex shapefileIndex = shapefileReader.getShapefileIndex(shapefile.getPath());
+
+        final Record first = shapefileReader.readRecord(shapefile.getPath(), shapefileIndex, 7);
+        final Record second = shapefileReader.readRecord(shapefile.getPath(), shapefileIndex, 7);
+
+        assertSame(first, second);
+        assertEquals(7, ((Polygon) first.getShape()).getBoundingBox().getXMin(), 0.001);
+        assertEquals(1, shapeCache.getHitCount());
+        assertEquals(1, shapeCache.getMissCount());
+        assertEquals(0.5, shapeCache.getHitRate(), 0.001);
+        assertEquals(POLYGON_WEIGHT, shapeCache.getWeightBytes());
+    }
+
+    @Test
+    public void testBatchesOnlyReadTheMisses() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(20);
+        final ShapeCache shapeCache = ShapeCache.create(1 << 20);
+        final ShapefileReader shapefileReader = new ShapefileReader().withShapeCache(shapeCache);
+        final ShapefileIndex shapefileIndex = shapefileReader.getShapefileIndex(shapefile.getPath());
+
+        final Record cached = shapefileReader.readRecord(shapefile.getPath(), shapefileIndex, 3);
+        final List<Record> records = shapefileReader.readRecords(shapefile.getPath(), shapefileIndex, new int[] { 9, 3, 1 });
+
+        assertSame(cached, records.get(1));
+        assertEquals(9, records.get(0).getRecordHeader().getRecordNumber());
+        assertEquals(1, records.get(2).getRecordHeader().getRecordNumber());
+        assertEquals(3, shapeCache.size());
+        assertEquals(1, shapeCache.getHitCount());
+    }
+
+    @Test
+    public void testChangedFilesAreNotServedFromTheCache() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(5);
+        final ShapefileReader shapefileReader = new ShapefileReader().withShapeCache(ShapeCache.create(1 << 20));
+
+        final Record before = shapefileReader.readRecord(shapefile.getPath(), 2);
+        assertTrue(shapefile.setLastModified(shapefile.lastModified() - 60000));
+
+        assertNotSame(before, shapefileReader.readRecord(shapefile.getPath(), 2));
+    }
+
+    @Test
+    public void testFilesRewrittenWithinTheSameModificationTimeAreNotServedFromTheCache() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(5);
+        final ShapefileReader shapefileReader = new ShapefileReader().withShapeCache(ShapeCache.create(1 << 20));
+
+        final Record before = shapefileReader.readRecord(shapefile.getPath(), 2);
+        final long lastModified = shapefile.lastModified();
+        try (final RandomAccessFile randomAccessFile = new RandomAccessFile(shapefile, "rw")) {
+            randomAccessFile.setLength(shapefile.length() + 8);
+        }
+        assertTrue(shapefile.setLastModified(lastModified));
+
+        assertNotSame(before, shapefileReader.readRecord(shapefile.getPath(), 2));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedRecordsAreEvictedByWeight() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(10);
+        final ShapeCache shapeCache = ShapeCache.create(POLYGON_WEIGHT * 3, 1);
+        final ShapefileReader shapefileReader = new ShapefileReader().withShapeCache(shapeCache);
+        final ShapefileIndex shapefileIndex = shapefileReader.getShapefileIndex(shapefile.getPath());
+
+        shapefileReader.readRecords(shapefile.getPath(), shapefileIndex, new int[] { 1, 2, 3 });
+        shapefileReader.readRecord(shapefile.getPath(), shapefileIndex, 1);
+        shapefileReader.readRecord(shapefile.getPath(), shapefileIndex, 4);
+
+        assertEquals(3, shapeCache.size());
+        assertEquals(1, shapeCache.getEvictionCount());
+
+        shapeCache.resetStatistics();
+        shapefileReader.readRecords(shapefile.getPath(), shapefileIndex, new int[] { 1, 3, 4 });
+        assertEquals(3, shapeCache.getHitCount());
+        shapefileReader.readRecord(shapefile.getPath(), shapefileIndex, 2);
+        assertEquals(1, shapeCache.getMissCount());
+    }
+
+    @Test
+    public void testRecordsHeavierThanAStripeAreNotCached() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(1);
+        final ShapeCache shapeCache = ShapeCache.create(POLYGON_WEIGHT - 1, 1);
+
+        new ShapefileReader().withShapeCache(shapeCache).readRecord(shapefile.getPath(), 1);
+        assertEquals(0, shapeCache.size());
+    }
+
+    @Test
+    public void testConcurrentReads() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(50);
+        final ShapeCache shapeCache = ShapeCache.create(1 << 20);
+        final ShapefileReader shapefileReader = new ShapefileReader().withShapeCache(shapeCache);
+        final ShapefileIndex shapefileIndex = shapefileReader.getShapefileIndex(shapefile.getPath());
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Record>> futures = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                final int recordNumber = i % 50 + 1;
+                futures.add(executorService.submit(() -> shapefileReader.readRecord(shapefile.getPath(), shapefileIndex, recordNumber)));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(i % 50 + 1, futures.get(i).get().getRecordHeader().getRecordNumber());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertEquals(1000, shapeCache.getHitCount() + shapeCache.getMissCount());
+        assertEquals(50, shapeCache.size());
+    }
+}
@@ -0,0 +1,96 @@
+package esri.shapefile;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import esri.shapefile.models.BoundingBox;
+import esri.shapefile.models.shapes.Polygon;
+import esri.shapefile.models.shapes.ShapeType;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ShapeViewTest {
+
+    @Test
+    public void testReadingRecordsInPlace() throws Exception {
+        final String shapefilePath = ShapefileFixtures.writePolygons(100).getAbsolutePath();
+        final AtomicInteger recordCount = new AtomicInteger(0);
+
+        new ShapefileReader().forEachShapeView(shapefilePath, (shapeView) -> {
+            final int recordNumber = recordCount.incrementAndGet();
+            assertEquals(recordNumber, shapeView.getRecordNumber());
+            assertEquals(ShapeType.Polygon, shapeView.getShapeType());
+
+            assertEquals(recordNumber,       shapeView.getXMin(), 0.001);
+            assertEquals(recordNumber,       shapeView.getYMin(), 0.001);
+            assertEquals(recordNumber + 0.5, shapeView.getXMax(), 0.001);
+            assertEquals(recordNumber + 0.5, shapeView.getYMax(), 0.001);
+
+            assertEquals(1, shapeView.getNumParts());
+            assertEquals(ShapefileFixtures.POLYGON_POINTS, shapeView.getNumPoints());
+            assertEquals(0, shapeView.getPartStart(0));
+            assertEquals(ShapefileFixtures.POLYGON_POINTS, shapeView.getPartEnd(0));
+            assertEquals(recordNumber + 0.5, shapeView.getY(1), 0.001);
+        });
+
+        assertEquals(100, recordCount.get());
+    }
+
+    @Test
+    public void testDecodingOnlyIntersectingRecords() throws Exception {
+        final String shapefilePath = ShapefileFixtures.writePolygons(100).getAbsolutePath();
+        final AtomicInteger decodedCount = new AtomicInteger(0);
+
+        new ShapefileReader().forEachShapeView(shapefilePath, (shapeView) -> {
+            if (shapeView.intersects(10.0, 10.0, 12.0, 12.0)) {
+                final Polygon polygon = (Polygon) shapeView.toShape();
+                assertEquals(shapeView.getRecordNumber(), polygon.getBoundingBox().getXMin(), 0.001);
+                decodedCount.incrementAndGet();
+            }
+        });
+
+        assertEquals(3, decodedCount.get());
+    }
+
+    @Test
+    public void testRejectingCorruptContentLengths() throws Exception {
+        for (final int contentLength : new int[] { -4, -1, Integer.MIN_VALUE, Integer.MAX_VALUE, 10000 }) {
+            final File shapefile = ShapefileFixtures.writePolygons(3);
+            ShapefileFixtures.setContentLength(shapefile, 2, contentLength);
+            final AtomicInteger recordCount = new AtomicInteger(0);
+
+            try {
+                new ShapefileReader().forEachShapeView(shapefile.getAbsolutePath(), (shapeView) -> recordCount.incrementAndGet());
+                fail("Content length " + contentLength);
+            } catch (final ShapefileNotReadableException e) {
+                assertEquals(1, recordCount.get());
+            }
+
+            try {
+                new ShapefileReader().forEachRecordIntersecting(shapefile.getAbsolutePath(), BoundingBox.of(0, 0, 10, 10), (recordHeader, shape) -> {});
+                fail("Content length " + contentLength);
+            } catch (final ShapefileNotReadableException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void testRejectingContentsTooShortForTheBoundingBox() throws Exception {
+        for (final int contentLength : new int[] { 2, 10, 17 }) {
+            final File shapefile = ShapefileFixtures.writePolygons(3);
+            ShapefileFixtures.setContentLength(shapefile, 3, contentLength);
+            final AtomicInteger recordCount = new AtomicInteger(0);
+
+            try {
+                new ShapefileReader().forEachRecordIntersecting(shapefile.getAbsolutePath(), BoundingBox.of(0, 0, 10, 10),
+                        (recordHeader, shape) -> recordCount.incrementAndGet());
+                fail("Content length " + contentLength);
+            } catch (final ShapefileNotReadableException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("needs at least 36"));
+                assertEquals(2, recordCount.get());
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package esri.shapefile;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import esri.shapefile.models.BoundingBox;
+import esri.shapefile.models.Record;
+import esri.shapefile.models.shapes.Polygon;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ShapefileCacheTest {
+
+    @Test
+    public void testSessionsAreShared() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(30);
+        final ShapefileCache shapefileCache = ShapefileCache.create(Long.MAX_VALUE);
+
+        final ShapefileSession session = shapefileCache.session(shapefile.getPath());
+        assertSame(session, shapefileCache.session(shapefile.getAbsolutePath()));
+        assertSame(session.getMainFileHeader(), shapefileCache.getMainFileHeader(shapefile.getPath()));
+        assertSame(session.getShapefileIndex(), shapefileCache.getShapefileIndex(shapefile.getPath()));
+
+        final Record record = session.readRecord(12);
+        assertEquals(12, record.getRecordHeader().getRecordNumber());
+        assertEquals(12, ((Polygon) record.getShape()).getBoundingBox().getXMin(), 0.001);
+
+        final AtomicInteger records = new AtomicInteger();
+        session.forEachRecord((recordHeader, shape) -> records.incrementAndGet());
+        assertEquals(30, records.get());
+        assertEquals(1, shapefileCache.size());
+    }
+
+    @Test(expected = ShapefileNotReadableException.class)
+    public void testReadingARecordNumberOutOfRange() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(3);
+        ShapefileCache.create(Long.MAX_VALUE).session(shapefile.getPath()).readRecord(4);
+    }
+
+    @Test
+    public void testQueryingASessionWithAndWithoutASpatialIndex() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(100);
+        final BoundingBox envelope = BoundingBox.of(20.2, 20.2, 22.7, 23.0);
+
+        final List<Integer> recordNumbers = new ArrayList<>();
+        ShapefileCache.create(Long.MAX_VALUE).session(shapefile.getPath()).forEachRecordIntersecting(envelope, (recordHeader, shape) -> {
+            recordNumbers.add(recordHeader.getRecordNumber());
+        });
+        assertEquals(Arrays.asList(20, 21, 22), recordNumbers);
+
+        new ShapefileReader().buildSpatialIndex(shapefile.getPath());
+        final ShapefileSession session = ShapefileCache.create(Long.MAX_VALUE).session(shapefile.getPath());
+        assertNotNull(session.getSpatialIndex());
+        assertSame(session.getSpatialIndex(), session.getSpatialIndex());
+
+        recordNumbers.clear();
+        session.forEachRecordIntersecting(envelope, (recordHeader, shape) -> recordNumbers.add(recordHeader.getRecordNumber()));
+        assertEquals(Arrays.asList(20, 21, 22), recordNumbers);
+
+        recordNumbers.clear();
+        session.forEachRecordIntersecting(BoundingBox.of(200, 200, 300, 300), (recordHeader, shape) -> recordNumbers.add(recordHeader.getRecordNumber()));
+        assertTrue(recordNumbers.isEmpty());
+    }
+
+    @Test
+    public void testSessionsAreReplacedWhenTheFileChanges() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(10);
+        final ShapefileCache shapefileCache = ShapefileCache.create(Long.MAX_VALUE);
+
+        final ShapefileSession session = shapefileCache.session(shapefile.getPath());
+        assertTrue(shapefile.setLastModified(shapefile.lastModified() - 60000));
+
+        final ShapefileSession replaced = shapefileCache.session(shapefile.getPath());
+        assertNotSame(session, replaced);
+        assertSame(replaced, shapefileCache.session(shapefile.getPath()));
+        assertEquals(replaced.getWeightBytes(), shapefileCache.getWeightBytes());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedSessionsAreEvicted() throws Exception {
+        final File first = ShapefileFixtures.writePolygons(10);
+        final File second = ShapefileFixtures.writePolygons(10);
+        final File third = ShapefileFixtures.writePolygons(10);
+
+        final long weight = ShapefileCache.create(0).session(first.getPath()).getWeightBytes();
+        final ShapefileCache shapefileCache = ShapefileCache.create(weight * 2);
+
+        final ShapefileSession firstSession = shapefileCache.session(first.getPath());
+        shapefileCache.session(second.getPath());
+        assertSame(firstSession, shapefileCache.session(first.getPath()));
+
+        shapefileCache.session(third.getPath());
+
+        assertEquals(2, shapefileCache.size());
+        assertEquals(weight * 2, shapefileCache.getWeightBytes());
+        assertSame(firstSession, shapefileCache.session(first.getPath()));
+        assertEquals(2, shapefileCache.size());
+
+        shapefileCache.invalidateAll();
+        assertEquals(0, shapefileCache.size());
+        assertEquals(0, shapefileCache.getWeightBytes());
+    }
+
+    @Test
+    public void testConcurrentCallersShareOneSession() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(100);
+        final ShapefileCache shapefileCache = ShapefileCache.create(Long.MAX_VALUE);
+        final Set<ShapefileSession> sessions = ConcurrentHashMap.newKeySet();
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Record>> futures = new ArrayList<>();
+            for (int i = 1; i <= 100; i++) {
+                final int recordNumber = i;
+                futures.add(executorService.submit((Callable<Record>) () -> {
+                    final ShapefileSession session = shapefileCache.session(shapefile.getPath());
+                    sessions.add(session);
+                    return session.readRecord(recordNumber);
+                }));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(i + 1, futures.get(i).get().getRecordHeader().getRecordNumber());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertEquals(1, sessions.size());
+    }
+}
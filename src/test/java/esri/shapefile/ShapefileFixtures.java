@@ -0,0 +1,168 @@
+package esri.shapefile;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Builds small synthetic shapefiles for tests.
+ *
+ * Record {@code n} (starting at 1) is a closed square polygon with its lower left corner at (n, n) and sides of
+ * length 0.5, so its bounding box is (n, n, n + 0.5, n + 0.5). Its row in the dBASE table has an ID of n and a NAME
+ * of "Feature n", and a PARITY of "EVEN" or "ODD".
+ */
+public final class ShapefileFixtures {
+
+    public static final int POLYGON_POINTS = 5;
+
+    private static final int POLYGON_CONTENT_BYTES = 44 + 4 + POLYGON_POINTS * 16;
+
+    private static final int DBF_RECORD_BYTES = 1 + 10 + 16 + 4;
+
+    /**
+     * Writes {@code numberOfRecords} polygons to "fixture.shp" and "fixture.shx", and their attributes to
+     * "fixture.dbf", in a new temporary directory.
+     *
+     * @return The .shp file
+     */
+    public static File writePolygons(final int numberOfRecords) throws IOException {
+        final File directory = Files.createTempDirectory("esri-shapefile").toFile();
+        directory.deleteOnExit();
+
+        final File shp = new File(directory, "fixture.shp");
+        final File shx = new File(directory, "fixture.shx");
+        final File dbf = new File(directory, "fixture.dbf");
+        shp.deleteOnExit();
+        shx.deleteOnExit();
+        dbf.deleteOnExit();
+
+        final int recordBytes = 8 + POLYGON_CONTENT_BYTES;
+        final ByteBuffer shpBytes = ByteBuffer.allocate(100 + numberOfRecords * recordBytes);
+        final ByteBuffer shxBytes = ByteBuffer.allocate(100 + numberOfRecords * 8);
+
+        writeHeader(shpBytes, shpBytes.capacity(), numberOfRecords);
+        writeHeader(shxBytes, shxBytes.capacity(), numberOfRecords);
+
+        for (int recordNumber = 1; recordNumber <= numberOfRecords; recordNumber++) {
+            shxBytes.order(ByteOrder.BIG_ENDIAN);
+            shxBytes.putInt(shpBytes.position() / 2);
+            shxBytes.putInt(POLYGON_CONTENT_BYTES / 2);
+
+            shpBytes.order(ByteOrder.BIG_ENDIAN);
+            shpBytes.putInt(recordNumber);
+            shpBytes.putInt(POLYGON_CONTENT_BYTES / 2);
+            writePolygon(shpBytes, recordNumber);
+        }
+
+        write(shp, shpBytes);
+        write(shx, shxBytes);
+        write(dbf, dbfBytes(numberOfRecords));
+        return shp;
+    }
+
+    /**
+     * Overwrites the content length in the header of a record of a file written by {@link #writePolygons(int)}, in
+     * the main file only, as a corrupt or truncated file might hold.
+     *
+     * @param contentLength In 16-bit words
+     */
+    public static void setContentLength(final File shp, final int recordNumber, final int contentLength) throws IOException {
+        try (final RandomAccessFile randomAccessFile = new RandomAccessFile(shp, "rw")) {
+            randomAccessFile.seek(100 + (recordNumber - 1) * (8 + POLYGON_CONTENT_BYTES) + 4);
+            randomAccessFile.writeInt(contentLength);
+        }
+    }
+
+    private static void writeHeader(final ByteBuffer byteBuffer, final int fileLengthBytes, final int numberOfRecords) {
+        byteBuffer.order(ByteOrder.BIG_ENDIAN);
+        byteBuffer.putInt(9994);
+        byteBuffer.putInt(0);
+        byteBuffer.putInt(0);
+        byteBuffer.putInt(0);
+        byteBuffer.putInt(0);
+        byteBuffer.putInt(0);
+        byteBuffer.putInt(fileLengthBytes / 2);
+
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        byteBuffer.putInt(1000);
+        byteBuffer.putInt(5);
+        byteBuffer.putDouble(1);
+        byteBuffer.putDouble(1);
+        byteBuffer.putDouble(numberOfRecords + 0.5);
+        byteBuffer.putDouble(numberOfRecords + 0.5);
+        byteBuffer.putDouble(0);
+        byteBuffer.putDouble(0);
+        byteBuffer.putDouble(0);
+        byteBuffer.putDouble(0);
+    }
+
+    private static void writePolygon(final ByteBuffer byteBuffer, final int recordNumber) {
+        final double min = recordNumber;
+        final double max = recordNumber + 0.5;
+
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        byteBuffer.putInt(5);
+        byteBuffer.putDouble(min);
+        byteBuffer.putDouble(min);
+        byteBuffer.putDouble(max);
+        byteBuffer.putDouble(max);
+        byteBuffer.putInt(1);
+        byteBuffer.putInt(POLYGON_POINTS);
+        byteBuffer.putInt(0);
+
+        byteBuffer.putDouble(min).putDouble(min);
+        byteBuffer.putDouble(min).putDouble(max);
+        byteBuffer.putDouble(max).putDouble(max);
+        byteBuffer.putDouble(max).putDouble(min);
+        byteBuffer.putDouble(min).putDouble(min);
+    }
+
+    private static ByteBuffer dbfBytes(final int numberOfRecords) {
+        final int headerLength = 32 + 3 * 32 + 1;
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(headerLength + numberOfRecords * DBF_RECORD_BYTES + 1);
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        byteBuffer.put((byte) 3).put((byte) 116).put((byte) 10).put((byte) 18);
+        byteBuffer.putInt(numberOfRecords);
+        byteBuffer.putShort((short) headerLength);
+        byteBuffer.putShort((short) DBF_RECORD_BYTES);
+        byteBuffer.position(32);
+
+        writeDbfField(byteBuffer, "ID", 'N', 10);
+        writeDbfField(byteBuffer, "NAME", 'C', 16);
+        writeDbfField(byteBuffer, "PARITY", 'C', 4);
+        byteBuffer.put((byte) 0x0D);
+
+        for (int recordNumber = 1; recordNumber <= numberOfRecords; recordNumber++) {
+            byteBuffer.put((byte) ' ');
+            byteBuffer.put(String.format("%10d%-16s%-4s", recordNumber, "Feature " + recordNumber,
+                    recordNumber % 2 == 0 ? "EVEN" : "ODD").getBytes(StandardCharsets.US_ASCII));
+        }
+
+        byteBuffer.put((byte) 0x1A);
+        return byteBuffer;
+    }
+
+    private static void writeDbfField(final ByteBuffer byteBuffer, final String name, final char type, final int length) {
+        final int start = byteBuffer.position();
+        byteBuffer.put(name.getBytes(StandardCharsets.US_ASCII));
+        byteBuffer.position(start + 11);
+        byteBuffer.put((byte) type);
+        byteBuffer.position(start + 16);
+        byteBuffer.put((byte) length);
+        byteBuffer.position(start + 32);
+    }
+
+    private static void write(final File file, final ByteBuffer byteBuffer) throws IOException {
+        try (final FileOutputStream fileOutputStream = new FileOutputStream(file)) {
+            fileOutputStream.write(byteBuffer.array());
+        }
+    }
+
+    private ShapefileFixtures() {}
+}
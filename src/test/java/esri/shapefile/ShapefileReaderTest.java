@@ -1,11 +1,52 @@
 package esri.shapefile;
 
+import esri.shapefile.dbf.DbfPredicate;
+import esri.shapefile.exceptions.ShapefileConsumerException;
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import esri.shapefile.index.PackedRTree;
+import esri.shapefile.index.QixIndex;
+import esri.shapefile.index.SbnIndex;
+import esri.shapefile.io.ShapefilePaths;
+import esri.shapefile.metrics.ReaderStatistics;
+import esri.shapefile.models.BoundingBox;
 import esri.shapefile.models.MainFileHeader;
+import esri.shapefile.models.Record;
+import esri.shapefile.models.ShapefileIndex;
+import esri.shapefile.models.shapes.Polygon;
 import esri.shapefile.models.shapes.ShapeType;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 
 import static org.junit.Assert.*;
 
@@ -48,4 +89,662 @@ public class ShapefileReaderTest {
         assertEquals(4755, recordCount.intValue());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testReadingFromAStreamThatReturnsShortReads() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(100);
+        final AtomicInteger reads = new AtomicInteger();
+
+        // Hands out at most 7 bytes per read, as a pipe or a network filesystem may.
+        final InputStream trickle = new FilterInputStream(new FileInputStream(shapefile)) {
+            @Override
+            public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+                reads.incrementAndGet();
+                return super.read(bytes, offset, Math.min(length, 7));
+            }
+        };
+
+        final List<Integer> recordNumbers = new ArrayList<>();
+        new ShapefileReader().forEachRecord(trickle, shapefile.getName(), (recordHeader, shape) -> {
+            assertEquals(recordHeader.getRecordNumber(), ((Polygon) shape).getBoundingBox().getXMin(), 0.001);
+            assertEquals(recordHeader.getRecordNumber() + 0.5, ((Polygon) shape).getX(2), 0.001);
+            recordNumbers.add(recordHeader.getRecordNumber());
+        });
+
+        assertEquals(100, recordNumbers.size());
+        assertTrue(reads.get() >= shapefile.length() / 7);
+    }
+
+    @Test(expected = ShapefileNotReadableException.class)
+    public void testReadingATruncatedStreamFails() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(10);
+        final byte[] truncated = Arrays.copyOf(Files.readAllBytes(shapefile.toPath()), (int) shapefile.length() - 20);
+
+        new ShapefileReader().forEachRecord(new ByteArrayInputStream(truncated), "truncated", (recordHeader, shape) -> {});
+    }
+
+    @Test
+    public void testDecodingCorruptCountsFails() throws Exception {
+        // numParts, numPoints
+        final int[][] polygonCounts = { { -1, 5 }, { 1, -5 }, { Integer.MAX_VALUE, 5 }, { 1, Integer.MAX_VALUE }, { 1, 1 << 28 }, { 1, 6 } };
+        for (final int[] counts : polygonCounts) {
+            final ByteBuffer contents = ByteBuffer.allocate(128).order(ByteOrder.LITTLE_ENDIAN);
+            contents.putInt(5).putDouble(0).putDouble(0).putDouble(1).putDouble(1).putInt(counts[0]).putInt(counts[1]).putInt(0);
+            contents.clear();
+            assertNotDecoded(contents);
+        }
+
+        for (final int numPoints : new int[] { -1, Integer.MIN_VALUE, Integer.MAX_VALUE, 1 << 30 }) {
+            final ByteBuffer contents = ByteBuffer.allocate(56).order(ByteOrder.LITTLE_ENDIAN);
+            contents.putInt(8).putDouble(0).putDouble(0).putDouble(1).putDouble(1).putInt(numPoints);
+            contents.clear();
+            assertNotDecoded(contents);
+        }
+    }
+
+    @Test
+    public void testDecodingRecordsTooShortForAShapeTypeFails() throws Exception {
+        assertNotDecoded(ByteBuffer.allocate(0));
+        assertNotDecoded(ByteBuffer.allocate(2));
+
+        for (final int contentLength : new int[] { 0, 1 }) {
+            final File shapefile = ShapefileFixtures.writePolygons(10);
+            ShapefileFixtures.setContentLength(shapefile, 10, contentLength);
+
+            try (final InputStream inputStream = new FileInputStream(shapefile)) {
+                new ShapefileReader().forEachRecord(inputStream, (recordHeader, shape) -> {});
+                fail("Content length " + contentLength);
+            } catch (final ShapefileNotReadableException expected) {
+                assertTrue(expected.getMessage().contains("too short"));
+            }
+
+            try {
+                new ShapefileReader().forEachRecord(shapefile.getAbsolutePath(), (recordHeader, shape) -> {});
+                fail("Content length " + contentLength);
+            } catch (final ShapefileNotReadableException expected) {
+                assertTrue(expected.getMessage().contains("too short"));
+            }
+        }
+    }
+
+    @Test
+    public void testReadingRecordsRejectsCorruptIndexEntries() throws Exception {
+        // offset, content length, both in 16-bit words, for record 3
+        final int[][] entries = { { 50 + 2 * 70, -10 }, { 50 + 2 * 70, 0x40000001 }, { 50 + 2 * 70, 10 }, { 0, 64 }, { -1, 64 } };
+        for (final int[] entry : entries) {
+            final File shapefile = ShapefileFixtures.writePolygons(10);
+            try (final RandomAccessFile shx = new RandomAccessFile(ShapefilePaths.sibling(shapefile, "shx"), "rw")) {
+                shx.seek(100 + 2 * 8);
+                shx.writeInt(entry[0]);
+                shx.writeInt(entry[1]);
+            }
+
+            assertEquals(2, new ShapefileReader().readRecords(shapefile.getAbsolutePath(), new int[] { 1, 2 }).size());
+            try {
+                new ShapefileReader().readRecord(shapefile.getAbsolutePath(), 3);
+                fail(Arrays.toString(entry));
+            } catch (final ShapefileNotReadableException expected) {
+                // Rather than an IllegalArgumentException, an overflow or a huge allocation.
+            }
+        }
+    }
+
+    private static void assertNotDecoded(final ByteBuffer contents) {
+        try {
+            ShapefileReader.buildShapeFromBytes(contents);
+            fail("Decoded corrupt contents");
+        } catch (final ShapefileNotReadableException expected) {
+            assertTrue(expected.getMessage().contains("corrupt"));
+        }
+    }
+
+    /**
+     * Guards the throughput of the stream path: records are read through a buffer, so the number of reads grows with
+     * the size of the file divided by the size of the buffer, rather than with the number of records.
+     */
+    @Test
+    public void testStreamReadsAreBuffered() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(20000);
+        final AtomicInteger reads = new AtomicInteger();
+        final AtomicInteger closes = new AtomicInteger();
+
+        final InputStream counting = new FilterInputStream(new FileInputStream(shapefile)) {
+            @Override
+            public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+                reads.incrementAndGet();
+                return super.read(bytes, offset, length);
+            }
+
+            @Override
+            public void close() throws IOException {
+                closes.incrementAndGet();
+                super.close();
+            }
+        };
+
+        final AtomicInteger records = new AtomicInteger();
+        new ShapefileReader().forEachRecord(counting, shapefile.getName(), (recordHeader, shape) -> records.incrementAndGet());
+
+        assertEquals(20000, records.get());
+        assertTrue("Expected buffered reads but made " + reads.get(),
+                reads.get() <= shapefile.length() / StreamRecordReader.DEFAULT_BUFFER_SIZE + 2);
+        assertEquals(1, closes.get());
+    }
+
+    @Test
+    public void testReadingPolygonsThroughTheReadAheadPipeline() throws Exception {
+        final String shapefilePath = ShapefileFixtures.writePolygons(250).getAbsolutePath();
+        final ShapefileReader shapefileReader = new ShapefileReader();
+
+        // Blocks smaller than a record, so that every record straddles a block boundary.
+        for (final int blockSize : new int[] { 100, 4096 }) {
+            final List<Integer> recordNumbers = new ArrayList<>();
+            shapefileReader.forEachRecordPipelined(shapefilePath, (recordHeader, shape) -> {
+                final Polygon polygon = (Polygon) shape;
+                assertEquals(recordHeader.getRecordNumber(), polygon.getBoundingBox().getXMin(), 0.001);
+                assertEquals(recordHeader.getRecordNumber() + 0.5, polygon.getY(2), 0.001);
+                recordNumbers.add(recordHeader.getRecordNumber());
+            }, blockSize, 3);
+
+            assertEquals(250, recordNumbers.size());
+            assertEquals(Integer.valueOf(250), recordNumbers.get(249));
+        }
+    }
+
+    @Test
+    public void testReadingPolygonsFromAMappedFile() throws Exception {
+        final String shapefilePath = ShapefileFixtures.writePolygons(250).getAbsolutePath();
+        final ShapefileReader shapefileReader = new ShapefileReader();
+
+        final List<Integer> streamedRecordNumbers = new ArrayList<>();
+        shapefileReader.forEachRecord(shapefilePath, (recordHeader, shape) -> {
+            streamedRecordNumbers.add(recordHeader.getRecordNumber());
+        });
+
+        final List<Integer> mappedRecordNumbers = new ArrayList<>();
+        shapefileReader.forEachRecordMapped(shapefilePath, (recordHeader, shape) -> {
+            final Polygon polygon = (Polygon) shape;
+            assertEquals(recordHeader.getRecordNumber(), polygon.getBoundingBox().getXMin(), 0.001);
+            assertEquals(ShapefileFixtures.POLYGON_POINTS, polygon.getNumPoints());
+            mappedRecordNumbers.add(recordHeader.getRecordNumber());
+        });
+
+        assertEquals(250, mappedRecordNumbers.size());
+        assertEquals(streamedRecordNumbers, mappedRecordNumbers);
+    }
+
+    @Test
+    public void testReadingRecordsByRecordNumber() throws Exception {
+        final String shapefilePath = ShapefileFixtures.writePolygons(100).getAbsolutePath();
+        final ShapefileReader shapefileReader = new ShapefileReader();
+        final ShapefileIndex shapefileIndex = shapefileReader.getShapefileIndex(shapefilePath);
+        assertEquals(100, shapefileIndex.getNumRecords());
+
+        final Record record = shapefileReader.readRecord(shapefilePath, shapefileIndex, 42);
+        assertEquals(42, record.getRecordNumber());
+        assertEquals(42.0, ((Polygon) record.getShape()).getBoundingBox().getXMin(), 0.001);
+
+        final List<Record> records = shapefileReader.readRecords(shapefilePath, new int[] { 90, 3, 57 });
+        assertEquals(3, records.size());
+        assertEquals(90, records.get(0).getRecordNumber());
+        assertEquals(3,  records.get(1).getRecordNumber());
+        assertEquals(57, records.get(2).getRecordNumber());
+        assertEquals(57.5, ((Polygon) records.get(2).getShape()).getBoundingBox().getYMax(), 0.001);
+    }
+
+    @Test(expected = ShapefileNotReadableException.class)
+    public void testReadingARecordNumberOutOfRange() throws Exception {
+        final String shapefilePath = ShapefileFixtures.writePolygons(10).getAbsolutePath();
+        new ShapefileReader().readRecord(shapefilePath, 11);
+    }
+
+    @Test
+    public void testDecodingRecordsInParallel() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(1000);
+        final ShapefileReader shapefileReader = new ShapefileReader();
+
+        final List<Integer> orderedRecordNumbers = new ArrayList<>();
+        shapefileReader.parallelForEachRecord(shapefile.getAbsolutePath(), (recordHeader, shape) -> {
+            orderedRecordNumbers.add(recordHeader.getRecordNumber());
+        }, 4, ShapefileReader.Delivery.ORDERED);
+
+        assertEquals(1000, orderedRecordNumbers.size());
+        for (int i = 0; i < orderedRecordNumbers.size(); i++) {
+            assertEquals(i + 1, orderedRecordNumbers.get(i).intValue());
+        }
+
+        // Without an index file the offsets come from a pass over the record headers.
+        assertTrue(ShapefilePaths.sibling(shapefile, "shx").delete());
+
+        final Set<Integer> unorderedRecordNumbers = ConcurrentHashMap.newKeySet();
+        shapefileReader.parallelForEachRecord(shapefile.getAbsolutePath(), (recordHeader, shape) -> {
+            assertEquals(recordHeader.getRecordNumber(), ((Polygon) shape).getBoundingBox().getXMin(), 0.001);
+            unorderedRecordNumbers.add(recordHeader.getRecordNumber());
+        }, 4, ShapefileReader.Delivery.UNORDERED);
+
+        assertEquals(new HashSet<>(orderedRecordNumbers), unorderedRecordNumbers);
+    }
+
+    @Test
+    public void testScanningRecordHeadersRejectsCorruptContentLengths() throws Exception {
+        for (final int contentLength : new int[] { -4, -1000, Integer.MIN_VALUE, Integer.MAX_VALUE, 10000 }) {
+            final File shapefile = ShapefileFixtures.writePolygons(10);
+            assertTrue(ShapefilePaths.sibling(shapefile, "shx").delete());
+            ShapefileFixtures.setContentLength(shapefile, 5, contentLength);
+
+            try {
+                new ShapefileReader().parallelForEachRecord(shapefile.getAbsolutePath(), (recordHeader, shape) -> {}, 2);
+                fail("Content length " + contentLength);
+            } catch (final ShapefileNotReadableException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("content length of " + contentLength));
+            }
+
+            try (final Stream<Record> records = new ShapefileReader().records(shapefile.getAbsolutePath())) {
+                records.parallel().count();
+                fail("Content length " + contentLength);
+            } catch (final UncheckedIOException e) {
+                assertTrue(e.getCause() instanceof ShapefileNotReadableException);
+            }
+        }
+    }
+
+    @Test
+    public void testDecodingIndexedRecordsRejectsCorruptContentLengths() throws Exception {
+        for (final int contentLength : new int[] { -4, 0x80000002, Integer.MAX_VALUE, 10000 }) {
+            final File shapefile = ShapefileFixtures.writePolygons(10);
+            ShapefileFixtures.setContentLength(shapefile, 5, contentLength);
+
+            try (final Stream<Record> records = new ShapefileReader().records(shapefile.getAbsolutePath())) {
+                records.forEach((record) -> {});
+                fail("Content length " + contentLength);
+            } catch (final UncheckedIOException e) {
+                assertTrue(e.getCause().getMessage(), e.getCause().getMessage().contains("content length of " + contentLength));
+            }
+
+            try {
+                new ShapefileReader().parallelForEachRecord(shapefile.getAbsolutePath(), (recordHeader, shape) -> {}, 2);
+                fail("Content length " + contentLength);
+            } catch (final ShapefileNotReadableException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("content length of " + contentLength));
+            }
+        }
+    }
+
+    @Test
+    public void testWalkingTheMappedFileRejectsCorruptContentLengths() throws Exception {
+        for (final int contentLength : new int[] { -4, 0x80000002, Integer.MAX_VALUE, 10000 }) {
+            final File shapefile = ShapefileFixtures.writePolygons(10);
+            ShapefileFixtures.setContentLength(shapefile, 5, contentLength);
+
+            final AtomicInteger consumed = new AtomicInteger();
+            try {
+                new ShapefileReader().forEachRecordMapped(shapefile.getAbsolutePath(), (recordHeader, shape) -> consumed.incrementAndGet());
+                fail("Content length " + contentLength);
+            } catch (final ShapefileNotReadableException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("content length of " + contentLength));
+            }
+            assertEquals(4, consumed.get());
+
+            try {
+                new ShapefileReader().forEachFeature(shapefile.getAbsolutePath(), null, (recordHeader, shape, dbfRow) -> consumed.incrementAndGet());
+                fail("Content length " + contentLength);
+            } catch (final ShapefileNotReadableException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("content length of " + contentLength));
+            }
+            assertEquals(8, consumed.get());
+        }
+    }
+
+    @Test
+    public void testStreamingRejectsCorruptContentLengths() throws Exception {
+        for (final int contentLength : new int[] { -4, Integer.MIN_VALUE, Integer.MAX_VALUE, 10000 }) {
+            final File shapefile = ShapefileFixtures.writePolygons(10);
+            ShapefileFixtures.setContentLength(shapefile, 5, contentLength);
+
+            final AtomicInteger consumed = new AtomicInteger();
+            try (final InputStream inputStream = new FileInputStream(shapefile)) {
+                new ShapefileReader().forEachRecord(inputStream, (recordHeader, shape) -> consumed.incrementAndGet());
+                fail("Content length " + contentLength);
+            } catch (final ShapefileNotReadableException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("content length of " + contentLength));
+            }
+            assertEquals(4, consumed.get());
+
+            try {
+                new ShapefileReader().forEachRecordPipelined(shapefile.getAbsolutePath(), (recordHeader, shape) -> {}, 256, 2);
+                fail("Content length " + contentLength);
+            } catch (final ShapefileNotReadableException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("content length of " + contentLength));
+            }
+
+            try (final InputStream inputStream = new FileInputStream(shapefile);
+                 final InputStream dbf = new FileInputStream(ShapefilePaths.sibling(shapefile, "dbf"))) {
+                new ShapefileReader().forEachFeature(inputStream, dbf, StandardCharsets.US_ASCII, Arrays.asList("ID"), (recordHeader, shape, dbfRow) -> {});
+                fail("Content length " + contentLength);
+            } catch (final ShapefileNotReadableException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("content length of " + contentLength));
+            }
+        }
+
+        try (final StreamRecordReader streamRecordReader = new StreamRecordReader(new ByteArrayInputStream(new byte[16]), "bytes")) {
+            streamRecordReader.next(-8);
+            fail("Negative length");
+        } catch (final ShapefileNotReadableException expected) {
+            // Rather than an IndexOutOfBoundsException.
+        }
+    }
+
+    @Test(expected = ShapefileConsumerException.class)
+    public void testDecodingRecordsInParallelStopsWhenTheConsumerFails() throws Exception {
+        final String shapefilePath = ShapefileFixtures.writePolygons(100).getAbsolutePath();
+
+        new ShapefileReader().parallelForEachRecord(shapefilePath, (recordHeader, shape) -> {
+            if (recordHeader.getRecordNumber() == 50) {
+                throw new ShapefileConsumerException(recordHeader, shape, new IllegalStateException());
+            }
+        }, 4, ShapefileReader.Delivery.UNORDERED);
+    }
+
+    @Test
+    public void testStreamingRecords() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(5000);
+        final ShapefileReader shapefileReader = new ShapefileReader();
+
+        try (final Stream<Record> records = shapefileReader.records(shapefile.getAbsolutePath())) {
+            final Spliterator<Record> spliterator = records.spliterator();
+            assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+            assertEquals(5000, spliterator.estimateSize());
+        }
+
+        try (final Stream<Record> records = shapefileReader.records(shapefile.getAbsolutePath())) {
+            final Record record = records.filter(r -> r.getRecordNumber() > 10).findFirst().get();
+            assertEquals(11, record.getRecordNumber());
+        }
+
+        try (final Stream<Record> records = shapefileReader.records(shapefile.getAbsolutePath())) {
+            assertEquals(5000L * 5001 / 2, records.parallel().mapToLong(Record::getRecordNumber).sum());
+        }
+
+        // Without an index file the stream walks the record headers instead.
+        assertTrue(ShapefilePaths.sibling(shapefile, "shx").delete());
+
+        try (final Stream<Record> records = shapefileReader.records(shapefile.getAbsolutePath())) {
+            final List<Integer> recordNumbers = records.parallel().map(Record::getRecordNumber).collect(Collectors.toList());
+            assertEquals(5000, recordNumbers.size());
+            for (int i = 0; i < recordNumbers.size(); i++) {
+                assertEquals(i + 1, recordNumbers.get(i).intValue());
+            }
+        }
+
+        try (final Stream<Record> records = shapefileReader.records(shapefile.getAbsolutePath())) {
+            assertEquals(3, records.limit(3).count());
+        }
+    }
+
+    @Test
+    public void testReadingRecordsIntersectingAnEnvelope() throws Exception {
+        final String shapefilePath = ShapefileFixtures.writePolygons(100).getAbsolutePath();
+        final ShapefileReader shapefileReader = new ShapefileReader();
+
+        final List<Integer> recordNumbers = new ArrayList<>();
+        shapefileReader.forEachRecordIntersecting(shapefilePath, BoundingBox.of(20.2, 20.2, 22.7, 23.0), (recordHeader, shape) -> {
+            recordNumbers.add(recordHeader.getRecordNumber());
+        });
+        assertEquals(Arrays.asList(20, 21, 22), recordNumbers);
+
+        recordNumbers.clear();
+        shapefileReader.forEachRecordIntersecting(shapefilePath, BoundingBox.of(200, 200, 300, 300), (recordHeader, shape) -> {
+            recordNumbers.add(recordHeader.getRecordNumber());
+        });
+        assertTrue(recordNumbers.isEmpty());
+    }
+
+    @Test
+    public void testQueryingASpatialIndex() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(1000);
+        final ShapefileReader shapefileReader = new ShapefileReader();
+        final BoundingBox envelope = BoundingBox.of(500.2, 500.2, 510.7, 503.0);
+
+        final int[] scanned = shapefileReader.findRecordNumbersIntersecting(shapefile.getAbsolutePath(), envelope);
+        assertArrayEquals(new int[] { 500, 501, 502, 503 }, scanned);
+
+        shapefileReader.buildSpatialIndex(shapefile.getAbsolutePath());
+        assertTrue(ShapefilePaths.sibling(shapefile, PackedRTree.EXTENSION).isFile());
+        assertArrayEquals(scanned, shapefileReader.findRecordNumbersIntersecting(shapefile.getAbsolutePath(), envelope));
+
+        final List<Integer> recordNumbers = new ArrayList<>();
+        shapefileReader.forEachRecordIntersecting(shapefile.getAbsolutePath(), envelope, (recordHeader, shape) -> {
+            recordNumbers.add(recordHeader.getRecordNumber());
+        });
+        assertEquals(Arrays.asList(500, 501, 502, 503), recordNumbers);
+    }
+
+    @Test
+    public void testQueryingASpatialIndexReadsOnlyTheIndexEntriesOfTheCandidates() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(1000);
+        final ShapefileReader shapefileReader = new ShapefileReader();
+        shapefileReader.buildSpatialIndex(shapefile.getAbsolutePath());
+
+        // Pads the index file, sparsely, past the 2 GB that a full load can read at once.
+        try (final RandomAccessFile indexFile = new RandomAccessFile(ShapefilePaths.sibling(shapefile, "shx"), "rw")) {
+            indexFile.setLength(3L << 30);
+        }
+
+        final BoundingBox envelope = BoundingBox.of(500.2, 500.2, 510.7, 503.0);
+        assertArrayEquals(new int[] { 500, 501, 502, 503 }, shapefileReader.findRecordNumbersIntersecting(shapefile.getAbsolutePath(), envelope));
+
+        final List<Integer> recordNumbers = new ArrayList<>();
+        shapefileReader.forEachRecordIntersecting(shapefile.getAbsolutePath(), envelope, (recordHeader, shape) -> {
+            recordNumbers.add(recordHeader.getRecordNumber());
+        });
+        assertEquals(Arrays.asList(500, 501, 502, 503), recordNumbers);
+    }
+
+    @Test
+    public void testQueryingAQuadtreeThatShippedWithTheShapefile() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(100);
+
+        // A quadtree with a single node that holds every shape, so every record is a candidate.
+        final ByteBuffer qix = ByteBuffer.allocate(16 + 44 + 4 * 100).order(ByteOrder.LITTLE_ENDIAN);
+        qix.put((byte) 'S').put((byte) 'Q').put((byte) 'T').put((byte) 1).put((byte) 1).put(new byte[3]);
+        qix.putInt(100).putInt(1);
+        qix.putInt(0).putDouble(1).putDouble(1).putDouble(100.5).putDouble(100.5).putInt(100);
+        for (int shapeId = 0; shapeId < 100; shapeId++) {
+            qix.putInt(shapeId);
+        }
+        qix.putInt(0);
+        Files.write(ShapefilePaths.sibling(shapefile, "qix").toPath(), qix.array());
+
+        final int[] recordNumbers = new ShapefileReader().findRecordNumbersIntersecting(shapefile.getAbsolutePath(), BoundingBox.of(40.2, 40.2, 41.7, 41.7));
+        assertArrayEquals(new int[] { 40, 41 }, recordNumbers);
+    }
+
+    @Test
+    public void testIndexesOlderThanTheShapefileAreIgnored() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(100);
+        final BoundingBox envelope = BoundingBox.of(40.2, 40.2, 41.7, 41.7);
+
+        // A quadtree with a single node that holds no shapes, as if it were written before any were added.
+        final ByteBuffer qix = ByteBuffer.allocate(16 + 44).order(ByteOrder.LITTLE_ENDIAN);
+        qix.put((byte) 'S').put((byte) 'Q').put((byte) 'T').put((byte) 1).put((byte) 1).put(new byte[3]);
+        qix.putInt(0).putInt(1);
+        qix.putInt(0).putDouble(1).putDouble(1).putDouble(100.5).putDouble(100.5).putInt(0).putInt(0);
+        final File qixFile = ShapefilePaths.sibling(shapefile, QixIndex.EXTENSION);
+        Files.write(qixFile.toPath(), qix.array());
+        assertTrue(qixFile.setLastModified(shapefile.lastModified()));
+
+        final ShapefileReader shapefileReader = new ShapefileReader();
+        assertEquals(0, shapefileReader.findRecordNumbersIntersecting(shapefile.getAbsolutePath(), envelope).length);
+
+        assertTrue(qixFile.setLastModified(shapefile.lastModified() - 60000));
+        assertArrayEquals(new int[] { 40, 41 }, shapefileReader.findRecordNumbersIntersecting(shapefile.getAbsolutePath(), envelope));
+
+        final File sbnFile = ShapefilePaths.sibling(shapefile, SbnIndex.EXTENSION);
+        Files.write(sbnFile.toPath(), new byte[0]);
+        assertTrue(sbnFile.setLastModified(shapefile.lastModified() - 60000));
+        assertArrayEquals(new int[] { 40, 41 }, shapefileReader.findRecordNumbersIntersecting(shapefile.getAbsolutePath(), envelope));
+    }
+
+    @Test
+    public void testReadingFeaturesWithAttributes() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(20);
+        final List<String> names = new ArrayList<>();
+
+        new ShapefileReader().forEachFeature(shapefile.getAbsolutePath(), Arrays.asList("NAME"), (recordHeader, shape, dbfRow) -> {
+            assertEquals(recordHeader.getRecordNumber(), dbfRow.getRecordNumber());
+            assertEquals(recordHeader.getRecordNumber(), ((Polygon) shape).getBoundingBox().getXMin(), 0.001);
+            names.add(dbfRow.getString("NAME"));
+        });
+
+        assertEquals(20, names.size());
+        assertEquals("Feature 20", names.get(19));
+    }
+
+    @Test
+    public void testReadingOnlyFeaturesMatchingAPredicate() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(50);
+        final List<Integer> recordNumbers = new ArrayList<>();
+
+        new ShapefileReader().forEachFeatureMatching(shapefile.getAbsolutePath(), DbfPredicate.in("NAME", "Feature 7", "Feature 42"),
+                Arrays.asList("ID"), (recordHeader, shape, dbfRow) -> {
+            assertEquals(recordHeader.getRecordNumber(), dbfRow.getInt("ID"));
+            assertEquals(recordHeader.getRecordNumber(), ((Polygon) shape).getBoundingBox().getXMin(), 0.001);
+            recordNumbers.add(recordHeader.getRecordNumber());
+        });
+
+        assertEquals(Arrays.asList(7, 42), recordNumbers);
+    }
+
+    @Test
+    public void testReadingFromACallersStreamLeavesItOpen() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(30);
+        final AtomicInteger closes = new AtomicInteger();
+        final AtomicInteger records = new AtomicInteger();
+
+        try (final InputStream inputStream = new FilterInputStream(new FileInputStream(shapefile)) {
+            @Override
+            public void close() throws IOException {
+                closes.incrementAndGet();
+                super.close();
+            }
+        }) {
+            new ShapefileReader().forEachRecord(inputStream, (recordHeader, shape) -> records.incrementAndGet());
+            assertEquals(0, closes.get());
+        }
+
+        try (final ReadableByteChannel channel = Channels.newChannel(new FileInputStream(shapefile))) {
+            new ShapefileReader().forEachRecord(channel, (recordHeader, shape) -> records.incrementAndGet());
+            assertTrue(channel.isOpen());
+        }
+
+        assertEquals(60, records.get());
+    }
+
+    @Test
+    public void testReadingFeaturesFromAZipArchive() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(25);
+        final File archive = zip(shapefile, "data/FIXTURE.SHP", "data/fixture.shx", "data/Fixture.dbf");
+        final List<String> names = new ArrayList<>();
+
+        try (final ZipFile zipFile = new ZipFile(archive)) {
+            new ShapefileReader().forEachFeature(zipFile, "data/FIXTURE.SHP", Arrays.asList("NAME"), (recordHeader, shape, dbfRow) -> {
+                assertEquals(recordHeader.getRecordNumber(), dbfRow.getRecordNumber());
+                assertEquals(recordHeader.getRecordNumber(), ((Polygon) shape).getBoundingBox().getXMin(), 0.001);
+                names.add(dbfRow.getString("NAME"));
+            });
+
+            final ShapefileIndex shapefileIndex = new ShapefileReader().getShapefileIndex(zipFile, "data/FIXTURE.SHP");
+            assertEquals(25, shapefileIndex.getNumRecords());
+        }
+
+        assertEquals(25, names.size());
+        assertEquals("Feature 25", names.get(24));
+    }
+
+    @Test(expected = ShapefileNotReadableException.class)
+    public void testReadingAMissingZipEntryFails() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(1);
+        final File archive = zip(shapefile, "fixture.shp", "fixture.shx", "fixture.dbf");
+
+        try (final ZipFile zipFile = new ZipFile(archive)) {
+            new ShapefileReader().forEachRecord(zipFile, "roads.shp", (recordHeader, shape) -> {});
+        }
+    }
+
+    @Test
+    public void testReadingFeaturesThroughAZipFileSystem() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(15);
+        final File archive = zip(shapefile, "fixture.shp", "fixture.shx", "fixture.dbf");
+        final List<Integer> ids = new ArrayList<>();
+
+        try (final FileSystem fileSystem = FileSystems.newFileSystem(archive.toPath(), (ClassLoader) null)) {
+            final ShapefileReader shapefileReader = new ShapefileReader();
+
+            assertEquals(5, shapefileReader.getMainFileHeader(fileSystem.getPath("fixture.shp")).getShapeType());
+            assertEquals(15, shapefileReader.getShapefileIndex(fileSystem.getPath("fixture.shp")).getNumRecords());
+
+            shapefileReader.forEachFeature(fileSystem.getPath("fixture.shp"), null, (recordHeader, shape, dbfRow) ->
+                    ids.add(dbfRow.getInt("ID")));
+        }
+
+        assertEquals(15, ids.size());
+        assertEquals(Integer.valueOf(15), ids.get(14));
+    }
+
+    @Test
+    public void testReportingMetrics() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(40);
+        final ReaderStatistics statistics = new ReaderStatistics();
+        final ShapefileReader shapefileReader = new ShapefileReader().withMetrics(statistics);
+
+        shapefileReader.forEachRecord(shapefile.getAbsolutePath(), (recordHeader, shape) -> {});
+        assertEquals(40, statistics.getRecordsDecoded(ShapeType.Polygon));
+        assertEquals(40, statistics.getRecordsConsumed());
+        assertEquals(shapefile.length() - 100, statistics.getBytesRead());
+        assertEquals(40, statistics.getVertexCountHistogram()[3]);
+
+        statistics.reset();
+        shapefileReader.parallelForEachRecord(shapefile.getAbsolutePath(), (recordHeader, shape) -> {}, 4, ShapefileReader.Delivery.UNORDERED);
+        assertEquals(40, statistics.getRecordsDecoded());
+        assertEquals(40, statistics.getRecordsConsumed());
+
+        statistics.reset();
+        shapefileReader.forEachRecordIntersecting(shapefile.getAbsolutePath(), BoundingBox.of(0.5, 0.5, 3.1, 3.1), (recordHeader, shape) -> {});
+        assertEquals(3, statistics.getRecordsDecoded());
+        assertEquals(37, statistics.getRecordsSkipped());
+
+        statistics.reset();
+        shapefileReader.forEachFeatureMatching(shapefile.getAbsolutePath(), DbfPredicate.equalTo("NAME", "Feature 9"), null,
+                (recordHeader, shape, dbfRow) -> {});
+        assertEquals(1, statistics.getRecordsDecoded());
+        assertEquals(39, statistics.getRecordsSkipped());
+
+        assertNull(new ShapefileReader().getMetrics());
+        assertSame(statistics, shapefileReader.getMetrics());
+    }
+
+    /**
+     * Zips the main file, index file and dBASE table of a shapefile under the given entry names, along with a code
+     * page file.
+     */
+    private static File zip(final File shapefile, final String shpName, final String shxName, final String dbfName) throws IOException {
+        final File archive = File.createTempFile("esri-shapefile", ".zip");
+        archive.deleteOnExit();
+
+        try (final ZipOutputStream zipOutputStream = new ZipOutputStream(new FileOutputStream(archive))) {
+            final String[] names = { shpName, shxName, dbfName };
+            final String[] extensions = { "shp", "shx", "dbf" };
+            for (int i = 0; i < names.length; i++) {
+                zipOutputStream.putNextEntry(new ZipEntry(names[i]));
+                zipOutputStream.write(Files.readAllBytes(ShapefilePaths.sibling(shapefile, extensions[i]).toPath()));
+                zipOutputStream.closeEntry();
+            }
+
+            zipOutputStream.putNextEntry(new ZipEntry(shpName.substring(0, shpName.lastIndexOf('.')) + ".cpg"));
+            zipOutputStream.write("UTF-8".getBytes(StandardCharsets.US_ASCII));
+            zipOutputStream.closeEntry();
+        }
+
+        return archive;
+    }
+
+}
@@ -0,0 +1,135 @@
+package esri.shapefile;
+
+import esri.shapefile.dbf.DbfField;
+import esri.shapefile.io.ShapefilePaths;
+import esri.shapefile.models.BoundingBox;
+import esri.shapefile.models.MainFileHeader;
+import esri.shapefile.models.Record;
+import esri.shapefile.models.ShapefileIndex;
+import esri.shapefile.models.shapes.Null;
+import esri.shapefile.models.shapes.Point;
+import esri.shapefile.models.shapes.PolyLine;
+import esri.shapefile.models.shapes.Polygon;
+import esri.shapefile.models.shapes.ShapeType;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ShapefileWriterTest {
+
+    @Test
+    public void testRoundTrippingPolygonsWithAttributes() throws Exception {
+        final File input = ShapefileFixtures.writePolygons(200);
+        final File output = new File(input.getParentFile(), "copy.shp");
+        final ShapefileReader shapefileReader = new ShapefileReader();
+
+        try (final ShapefileWriter shapefileWriter = ShapefileWriter.create(output.getAbsolutePath(), ShapeType.Polygon,
+                Arrays.asList(DbfField.of("ID", 'N', 10, 0), DbfField.of("HALF", 'N', 12, 2), DbfField.of("NAME", 'C', 16, 0)))) {
+            shapefileReader.forEachFeature(input.getAbsolutePath(), (recordHeader, shape, dbfRow) -> {
+                try {
+                    shapefileWriter.write(shape, dbfRow.getLong("ID"), dbfRow.getLong("ID") / 2.0, dbfRow.getString("NAME"));
+                } catch (final Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+
+        assertArrayEquals(Files.readAllBytes(input.toPath()), Files.readAllBytes(output.toPath()));
+        assertArrayEquals(Files.readAllBytes(ShapefilePaths.sibling(input, "shx").toPath()),
+                Files.readAllBytes(ShapefilePaths.sibling(output, "shx").toPath()));
+
+        final List<Object> halves = new ArrayList<>();
+        shapefileReader.forEachFeature(output.getAbsolutePath(), (recordHeader, shape, dbfRow) -> {
+            assertEquals("Feature " + recordHeader.getRecordNumber(), dbfRow.getString("NAME"));
+            halves.add(dbfRow.getDouble("HALF"));
+        });
+
+        assertEquals(200, halves.size());
+        assertEquals(3.5, halves.get(6));
+    }
+
+    @Test
+    public void testWritingPolyLinesWithZAndNullShapes() throws Exception {
+        final File output = new File(Files.createTempDirectory("esri-shapefile").toFile(), "lines.shp");
+
+        try (final ShapefileWriter shapefileWriter = ShapefileWriter.create(output.getAbsolutePath(), ShapeType.PolyLine)) {
+            shapefileWriter.write(PolyLine.of(BoundingBox.of(0, 0, 2, 2), new int[] { 0 }, new double[] { 0, 0, 2, 2 }));
+            shapefileWriter.write(Null.fromBytes(new byte[4]));
+            shapefileWriter.write(PolyLine.of(BoundingBox.of(-1, 5, 1, 6), new int[] { 0 }, new double[] { -1, 5, 1, 6 }));
+            assertEquals(3, shapefileWriter.getNumRecords());
+        }
+
+        final ShapefileReader shapefileReader = new ShapefileReader();
+        final MainFileHeader mainFileHeader = shapefileReader.getMainFileHeader(output.getAbsolutePath());
+        assertEquals(3, mainFileHeader.getShapeType());
+        assertEquals(output.length(), mainFileHeader.getFileLengthBytes());
+        assertEquals(-1.0, mainFileHeader.getXMin(), 0.0);
+        assertEquals(6.0, mainFileHeader.getYMax(), 0.0);
+
+        final ShapefileIndex shapefileIndex = shapefileReader.getShapefileIndex(output.getAbsolutePath());
+        assertEquals(3, shapefileIndex.getNumRecords());
+
+        final Record record = shapefileReader.readRecord(output.getAbsolutePath(), 3);
+        assertEquals(3, record.getRecordNumber());
+        assertEquals(Point.at(1, 6), ((PolyLine) record.getShape()).getPoints().get(1));
+        assertEquals(ShapeType.NullShape, shapefileReader.readRecord(output.getAbsolutePath(), 2).getShape().getShapeType());
+    }
+
+    @Test
+    public void testWritingPointZ() throws Exception {
+        final File output = new File(Files.createTempDirectory("esri-shapefile").toFile(), "points.shp");
+
+        try (final ShapefileWriter shapefileWriter = ShapefileWriter.create(output.getAbsolutePath(), ShapeType.PointZ)) {
+            shapefileWriter.write(Point.at(1, 2, 3, 4));
+            shapefileWriter.write(Point.at(-1, -2, 30, 40));
+        }
+
+        final MainFileHeader mainFileHeader = new ShapefileReader().getMainFileHeader(output.getAbsolutePath());
+        assertEquals(3.0, mainFileHeader.getZMin(), 0.0);
+        assertEquals(30.0, mainFileHeader.getZMax(), 0.0);
+        assertEquals(40.0, mainFileHeader.getMMax(), 0.0);
+
+        assertEquals(Point.at(-1, -2, 30, 40), new ShapefileReader().readRecord(output.getAbsolutePath(), 2).getShape());
+    }
+
+    @Test
+    public void testAFailedWriteLeavesTheFilesInStep() throws Exception {
+        final File output = new File(Files.createTempDirectory("esri-shapefile").toFile(), "lines.shp");
+        final PolyLine polyLine = PolyLine.of(BoundingBox.of(0, 0, 1, 1), new int[] { 0 }, new double[] { 0, 0, 1, 1 });
+
+        try (final ShapefileWriter shapefileWriter = ShapefileWriter.create(output.getAbsolutePath(), ShapeType.PolyLine,
+                Arrays.asList(DbfField.of("NAME", 'C', 16, 0)))) {
+            assertEquals(1, shapefileWriter.write(polyLine, "Feature 1"));
+            try {
+                shapefileWriter.write(polyLine, "Feature 2", "Extra");
+                fail("Wrong number of values");
+            } catch (final IllegalArgumentException expected) {
+                assertEquals(1, shapefileWriter.getNumRecords());
+            }
+            assertEquals(2, shapefileWriter.write(polyLine, "Feature 2"));
+        }
+
+        final List<String> names = new ArrayList<>();
+        new ShapefileReader().forEachFeature(output.getAbsolutePath(), (recordHeader, shape, dbfRow) -> {
+            assertEquals("Feature " + recordHeader.getRecordNumber(), dbfRow.getString("NAME"));
+            names.add(dbfRow.getString("NAME"));
+        });
+        assertEquals(Arrays.asList("Feature 1", "Feature 2"), names);
+        assertEquals(2, new ShapefileReader().getShapefileIndex(output.getAbsolutePath()).getNumRecords());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectingShapesOfAnotherType() throws Exception {
+        final File output = new File(Files.createTempDirectory("esri-shapefile").toFile(), "points.shp");
+
+        try (final ShapefileWriter shapefileWriter = ShapefileWriter.create(output.getAbsolutePath(), ShapeType.Point)) {
+            shapefileWriter.write(Polygon.of(BoundingBox.of(0, 0, 1, 1), new int[] { 0 }, new double[] { 0, 0, 1, 1 }));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package esri.shapefile.converters.mvt;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class GeometryEncoderTest {
+
+    @Test
+    public void testEncodingAPoint() {
+        final GeometryEncoder geometryEncoder = new GeometryEncoder();
+        geometryEncoder.reset();
+        geometryEncoder.addPoint(25, 17);
+
+        // The example from the specification.
+        assertArrayEquals(new int[] { 9, 50, 34 }, commands(geometryEncoder));
+    }
+
+    @Test
+    public void testEncodingMultiplePoints() {
+        final GeometryEncoder geometryEncoder = new GeometryEncoder();
+        geometryEncoder.reset();
+        geometryEncoder.addPoint(5, 7);
+        geometryEncoder.addPoint(3, 2);
+
+        assertArrayEquals(new int[] { 17, 10, 14, 3, 9 }, commands(geometryEncoder));
+    }
+
+    @Test
+    public void testEncodingLines() {
+        final GeometryEncoder geometryEncoder = new GeometryEncoder();
+        geometryEncoder.reset();
+        assertTrue(geometryEncoder.addLine(new double[] { 2, 2, 2, 10, 10, 10 }, 0, 3));
+        assertTrue(geometryEncoder.addLine(new double[] { 1, 1, 3, 5 }, 0, 2));
+
+        assertArrayEquals(new int[] { 9, 4, 4, 18, 0, 16, 16, 0, 9, 17, 17, 10, 4, 8 }, commands(geometryEncoder));
+    }
+
+    @Test
+    public void testEncodingPolygons() {
+        final GeometryEncoder geometryEncoder = new GeometryEncoder();
+        geometryEncoder.reset();
+
+        // The example from the specification, which is already clockwise with y pointing down.
+        assertTrue(geometryEncoder.addRing(new double[] { 3, 6, 8, 12, 20, 34 }, 3, true));
+
+        assertArrayEquals(new int[] { 9, 6, 12, 18, 10, 12, 24, 44, 15 }, commands(geometryEncoder));
+    }
+
+    @Test
+    public void testInteriorRingsAreReversed() {
+        final GeometryEncoder geometryEncoder = new GeometryEncoder();
+        geometryEncoder.reset();
+        assertTrue(geometryEncoder.addRing(new double[] { 3, 6, 8, 12, 20, 34 }, 3, false));
+
+        // (3, 6), then (20, 34) and (8, 12).
+        assertArrayEquals(new int[] { 9, 6, 12, 18, 34, 56, 23, 43, 15 }, commands(geometryEncoder));
+    }
+
+    @Test
+    public void testRoundingDropsRepeatedPoints() {
+        final GeometryEncoder geometryEncoder = new GeometryEncoder();
+        geometryEncoder.reset();
+
+        assertFalse(geometryEncoder.addLine(new double[] { 1.1, 1.1, 0.9, 0.9, 1.2, 0.8 }, 0, 3));
+        assertFalse(geometryEncoder.addRing(new double[] { 0, 0, 0.2, 0.2, 5, 5, 0.1, 0.1 }, 4, true));
+        assertTrue(geometryEncoder.isEmpty());
+    }
+
+    private static int[] commands(final GeometryEncoder geometryEncoder) {
+        return Arrays.copyOf(geometryEncoder.commands(), geometryEncoder.size());
+    }
+}
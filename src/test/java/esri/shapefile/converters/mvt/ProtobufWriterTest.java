@@ -0,0 +1,78 @@
+package esri.shapefile.converters.mvt;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ProtobufWriterTest {
+
+    @Test
+    public void testWritingVarints() {
+        assertArrayEquals(new byte[] { 0 }, varint(0));
+        assertArrayEquals(new byte[] { 1 }, varint(1));
+        assertArrayEquals(new byte[] { (byte) 0xAC, 0x02 }, varint(300));
+        assertArrayEquals(new byte[] { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                                       (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01 }, varint(-1));
+        assertEquals(2, ProtobufWriter.varintSize(300));
+        assertEquals(10, ProtobufWriter.varintSize(-1));
+    }
+
+    @Test
+    public void testZigZag() {
+        assertEquals(0, ProtobufWriter.zigZag(0));
+        assertEquals(1, ProtobufWriter.zigZag(-1));
+        assertEquals(2, ProtobufWriter.zigZag(1));
+        assertEquals(3, ProtobufWriter.zigZag(-2));
+        assertEquals(4294967295L, ProtobufWriter.zigZag((long) Integer.MIN_VALUE));
+        assertEquals(-1, ProtobufWriter.zigZag(Integer.MIN_VALUE));
+    }
+
+    @Test
+    public void testWritingFields() {
+        final ProtobufWriter writer = new ProtobufWriter();
+        writer.writeUInt32(1, 150);
+        writer.writeString(2, "testing");
+        writer.writeBool(7, true);
+
+        assertArrayEquals(new byte[] { 0x08, (byte) 0x96, 0x01, 0x12, 0x07, 't', 'e', 's', 't', 'i', 'n', 'g', 0x38, 0x01 }, writer.toByteArray());
+    }
+
+    @Test
+    public void testWritingDoubles() {
+        final ProtobufWriter writer = new ProtobufWriter();
+        writer.writeDouble(3, 1.0);
+
+        assertArrayEquals(new byte[] { 0x19, 0, 0, 0, 0, 0, 0, (byte) 0xF0, 0x3F }, writer.toByteArray());
+    }
+
+    @Test
+    public void testWritingPackedFields() {
+        final ProtobufWriter writer = new ProtobufWriter();
+        writer.writePackedUInt32(4, new int[] { 9, 3, 270, 86942 }, 1, 4);
+        writer.writePackedUInt32(5, new int[0], 0, 0);
+
+        assertArrayEquals(new byte[] { 0x22, 0x06, 0x03, (byte) 0x8E, 0x02, (byte) 0x9E, (byte) 0xA7, 0x05 }, writer.toByteArray());
+    }
+
+    @Test
+    public void testWritingMessages() {
+        final ProtobufWriter message = new ProtobufWriter();
+        message.writeUInt32(1, 150);
+
+        final ProtobufWriter writer = new ProtobufWriter(1);
+        for (int i = 0; i < 100; i++) {
+            writer.writeMessage(3, message);
+        }
+
+        assertEquals(500, writer.size());
+        assertEquals(0x1A, writer.toByteArray()[495]);
+        assertEquals(3, writer.toByteArray()[496]);
+    }
+
+    private static byte[] varint(final long value) {
+        final ProtobufWriter writer = new ProtobufWriter();
+        writer.writeVarint(value);
+
+        return writer.toByteArray();
+    }
+}
@@ -0,0 +1,379 @@
+package esri.shapefile.converters.mvt;
+
+import esri.shapefile.ShapefileWriter;
+import esri.shapefile.dbf.DbfField;
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import esri.shapefile.models.BoundingBox;
+import esri.shapefile.models.shapes.MultiPoint;
+import esri.shapefile.models.shapes.PolyLine;
+import esri.shapefile.models.shapes.Polygon;
+import esri.shapefile.models.shapes.Shape;
+import esri.shapefile.models.shapes.ShapeType;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ShapefileToMvtConverterTest {
+
+    /**
+     * A square from (-10, -10) to (10, 10) degrees, with a clockwise outer ring, around a counter-clockwise hole from
+     * (-1, -1) to (1, 1).
+     */
+    private static final Polygon SQUARE = Polygon.of(BoundingBox.of(-10, -10, 10, 10), new int[] { 0, 5 }, new double[] {
+        -10, -10, -10, 10, 10, 10, 10, -10, -10, -10,
+        -1, -1, 1, -1, 1, 1, -1, 1, -1, -1
+    });
+
+    @Test
+    public void testTilingAPolygon() throws Exception {
+        final File shapefile = write(ShapeType.Polygon, SQUARE);
+        final File directory = Files.createTempDirectory("tiles").toFile();
+
+        final long numTiles = ShapefileToMvtConverter.create("squares").withZoomLevels(0, 2)
+            .convert(shapefile.getPath(), TileDirectory.create(directory));
+
+        // One tile at zoom 0, and the four tiles around the center at zoom 1 and 2.
+        assertEquals(9, numTiles);
+        assertTrue(TileDirectory.create(directory).getFile(1, 0, 1).exists());
+        assertTrue(TileDirectory.create(directory).getFile(2, 2, 2).exists());
+        assertFalse(TileDirectory.create(directory).getFile(2, 0, 0).exists());
+
+        final Map<Integer, List<Object>> layer = layer(Files.readAllBytes(TileDirectory.create(directory).getFile(0, 0, 0).toPath()));
+        assertEquals("squares", string(layer.get(1).get(0)));
+        assertEquals(2L, layer.get(15).get(0));
+        assertEquals(4096L, layer.get(5).get(0));
+        assertEquals(1, layer.get(2).size());
+
+        final Map<Integer, List<Object>> feature = message((byte[]) layer.get(2).get(0));
+        assertEquals(1L, feature.get(1).get(0));
+        assertEquals(3L, feature.get(3).get(0));
+
+        // Two rings of four points, the first exterior and the second interior.
+        final int[] geometry = packed((byte[]) feature.get(4).get(0));
+        final List<int[]> rings = rings(geometry);
+        assertEquals(2, rings.size());
+        assertEquals(4, rings.get(0).length / 2);
+        assertTrue(area(rings.get(0)) > 0);
+        assertTrue(area(rings.get(1)) < 0);
+
+        // 20 degrees of the 360 around the world, at zoom 0.
+        final int[] outer = rings.get(0);
+        assertEquals(Math.round(4096 * 170 / 360.0), min(outer, 0));
+        assertEquals(Math.round(4096 * 190 / 360.0), max(outer, 0));
+    }
+
+    @Test
+    public void testClippingToTiles() throws Exception {
+        final File shapefile = write(ShapeType.Polygon, SQUARE);
+        final File archive = File.createTempFile("tiles", "." + TileArchive.EXTENSION);
+        archive.deleteOnExit();
+
+        try (final TileArchiveWriter tileArchiveWriter = TileArchiveWriter.create(archive)) {
+            ShapefileToMvtConverter.create("squares").withZoomLevels(1, 1).withBuffer(16).convert(shapefile.getPath(), tileArchiveWriter);
+        }
+
+        try (final TileArchive tileArchive = TileArchive.open(archive)) {
+            assertEquals(4, tileArchive.getNumTiles());
+
+            // The north-west quarter of the square, in the south-east corner of the north-west tile, with the
+            // hole's quarter, each clipped to the tile and its buffer.
+            final Map<Integer, List<Object>> feature = message((byte[]) layer(tileArchive.getTile(1, 0, 0)).get(2).get(0));
+            final List<int[]> rings = rings(packed((byte[]) feature.get(4).get(0)));
+            assertEquals(2, rings.size());
+            assertEquals(4096 + 16, max(rings.get(0), 0));
+            assertEquals(4096 + 16, max(rings.get(0), 1));
+            assertEquals(Math.round(8192 * 170 / 360.0), min(rings.get(0), 0));
+        }
+    }
+
+    @Test
+    public void testAttributes() throws Exception {
+        final File shapefile = write(ShapeType.Polygon, SQUARE);
+        final File archive = File.createTempFile("tiles", "." + TileArchive.EXTENSION);
+        archive.deleteOnExit();
+
+        try (final TileArchiveWriter tileArchiveWriter = TileArchiveWriter.create(archive)) {
+            ShapefileToMvtConverter.create("squares").withZoomLevels(0, 0).withColumns(Arrays.asList("NAME", "SIDES"))
+                .convert(shapefile.getPath(), tileArchiveWriter);
+        }
+
+        try (final TileArchive tileArchive = TileArchive.open(archive)) {
+            final Map<Integer, List<Object>> layer = layer(tileArchive.getTile(0, 0, 0));
+            assertEquals(Arrays.asList("NAME", "SIDES"), Arrays.asList(string(layer.get(3).get(0)), string(layer.get(3).get(1))));
+            assertEquals("Feature 1", string(message((byte[]) layer.get(4).get(0)).get(1).get(0)));
+            assertEquals(4L, ProtobufDecoding.zigZag((long) (Long) message((byte[]) layer.get(4).get(1)).get(6).get(0)));
+
+            final Map<Integer, List<Object>> feature = message((byte[]) layer.get(2).get(0));
+            assertArrayEquals(new int[] { 0, 0, 1, 1 }, packed((byte[]) feature.get(2).get(0)));
+        }
+    }
+
+    @Test
+    public void testLinesAreSplitAtTileEdges() throws Exception {
+        final PolyLine line = PolyLine.of(BoundingBox.of(-10, 5, 10, 5), new int[] { 0 }, new double[] { -10, 5, 10, 5 });
+        final File shapefile = write(ShapeType.PolyLine, line);
+        final File directory = Files.createTempDirectory("tiles").toFile();
+
+        assertEquals(2, ShapefileToMvtConverter.create("lines").withZoomLevels(1, 1).withBuffer(0)
+            .convert(shapefile.getPath(), TileDirectory.create(directory)));
+
+        final Map<Integer, List<Object>> feature = message((byte[]) layer(Files.readAllBytes(TileDirectory.create(directory).getFile(1, 1, 0).toPath())).get(2).get(0));
+        assertEquals(2L, feature.get(3).get(0));
+
+        // MoveTo to the western edge, and a single LineTo 10 degrees east.
+        final int[] geometry = packed((byte[]) feature.get(4).get(0));
+        assertEquals(6, geometry.length);
+        assertEquals(9, geometry[0]);
+        assertEquals(0, ProtobufDecoding.zigZag(geometry[1]));
+        assertEquals(10, geometry[3]);
+        assertEquals(Math.round(8192 * 10 / 360.0), ProtobufDecoding.zigZag(geometry[4]));
+    }
+
+    @Test(timeout = 60000)
+    public void testLongLinesAcrossManyTiles() throws Exception {
+        // A diagonal across most of the world, whose bounding box covers almost every tile at zoom 14.
+        final int numPoints = 50000;
+        final double[] xy = new double[2 * numPoints];
+        for (int i = 0; i < numPoints; i++) {
+            xy[2 * i] = -170 + 340.0 * i / (numPoints - 1);
+            xy[2 * i + 1] = -80 + 160.0 * i / (numPoints - 1);
+        }
+        final File shapefile = write(ShapeType.PolyLine, PolyLine.of(BoundingBox.of(-170, -80, 170, 80), new int[] { 0 }, xy));
+        final File archive = File.createTempFile("tiles", "." + TileArchive.EXTENSION);
+        archive.deleteOnExit();
+
+        final long numTiles;
+        try (final TileArchiveWriter tileArchiveWriter = TileArchiveWriter.create(archive)) {
+            numTiles = ShapefileToMvtConverter.create("lines").withZoomLevels(14, 14).withBuffer(0).convert(shapefile.getPath(), tileArchiveWriter);
+        }
+
+        // The line crosses each column and each row it spans once, so it reaches about one tile per column and row.
+        assertTrue(numTiles > 16384 * 340 / 360);
+        assertTrue(numTiles < 2 * 16384 + 16384);
+    }
+
+    @Test
+    public void testPoints() throws Exception {
+        final MultiPoint points = MultiPoint.of(BoundingBox.of(-90, -45, 90, 45), new double[] { -90, -45, 90, 45, 90.000001, 45 });
+        final File shapefile = write(ShapeType.MultiPoint, points);
+        final File directory = Files.createTempDirectory("tiles").toFile();
+
+        assertEquals(1, ShapefileToMvtConverter.create("points").withZoomLevels(0, 0)
+            .convert(shapefile.getPath(), TileDirectory.create(directory)));
+
+        final Map<Integer, List<Object>> feature = message((byte[]) layer(Files.readAllBytes(TileDirectory.create(directory).getFile(0, 0, 0).toPath())).get(2).get(0));
+        assertEquals(1L, feature.get(3).get(0));
+
+        // The last two points round onto the same spot, and are both kept.
+        final int[] geometry = packed((byte[]) feature.get(4).get(0));
+        assertEquals(1 | 3 << 3, geometry[0]);
+        assertEquals(1024, ProtobufDecoding.zigZag(geometry[1]));
+        assertEquals(0, geometry[5]);
+    }
+
+    @Test
+    public void testParallelismDoesNotChangeTheTiles() throws Exception {
+        final File shapefile = write(ShapeType.Polygon, SQUARE);
+        final File serial = File.createTempFile("tiles", "." + TileArchive.EXTENSION);
+        final File parallel = File.createTempFile("tiles", "." + TileArchive.EXTENSION);
+        serial.deleteOnExit();
+        parallel.deleteOnExit();
+
+        final ShapefileToMvtConverter converter = ShapefileToMvtConverter.create("squares").withZoomLevels(0, 6);
+        try (final TileArchiveWriter tileArchiveWriter = TileArchiveWriter.create(serial)) {
+            converter.withParallelism(1).convert(shapefile.getPath(), tileArchiveWriter);
+        }
+        try (final TileArchiveWriter tileArchiveWriter = TileArchiveWriter.create(parallel)) {
+            converter.withParallelism(4).convert(shapefile.getPath(), tileArchiveWriter);
+        }
+
+        try (final TileArchive expected = TileArchive.open(serial); final TileArchive actual = TileArchive.open(parallel)) {
+            assertEquals(expected.getNumTiles(), actual.getNumTiles());
+            for (int zoom = 0; zoom <= 6; zoom++) {
+                for (int x = 0; x < 1 << zoom; x++) {
+                    for (int y = 0; y < 1 << zoom; y++) {
+                        assertArrayEquals(expected.getTile(zoom, x, y), actual.getTile(zoom, x, y));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWebMercatorCoordinates() throws Exception {
+        final double half = CoordinateSystem.HALF_CIRCUMFERENCE;
+        final Polygon world = Polygon.of(BoundingBox.of(-half, -half, half, half), new int[] { 0 }, new double[] {
+            -half, -half, -half, half, half, half, half, -half, -half, -half
+        });
+        final File directory = Files.createTempDirectory("tiles").toFile();
+
+        assertEquals(1 + 4 + 16, ShapefileToMvtConverter.create("world").withZoomLevels(0, 2)
+            .withCoordinateSystem(CoordinateSystem.WEB_MERCATOR)
+            .convert(write(ShapeType.Polygon, world).getPath(), TileDirectory.create(directory)));
+    }
+
+    @Test(expected = ShapefileNotReadableException.class)
+    public void testMissingShapefile() throws Exception {
+        ShapefileToMvtConverter.create("missing").convert("/does/not/exist.shp", TileDirectory.create(new File("/tmp")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZoomLevelsOutOfOrder() {
+        ShapefileToMvtConverter.create("squares").withZoomLevels(3, 2);
+    }
+
+    private static File write(final ShapeType shapeType, final Shape shape) throws Exception {
+        final File shapefile = new File(Files.createTempDirectory("mvt").toFile(), "shapes.shp");
+        shapefile.deleteOnExit();
+
+        try (final ShapefileWriter shapefileWriter = ShapefileWriter.create(shapefile.getPath(), shapeType,
+                Arrays.asList(DbfField.of("NAME", 'C', 16, 0), DbfField.of("SIDES", 'N', 4, 0)))) {
+            shapefileWriter.write(shape, "Feature 1", 4);
+        }
+
+        return shapefile;
+    }
+
+    private static Map<Integer, List<Object>> layer(final byte[] tile) {
+        final Map<Integer, List<Object>> message = message(tile);
+        assertEquals(1, message.size());
+        assertEquals(1, message.get(3).size());
+
+        return message((byte[]) message.get(3).get(0));
+    }
+
+    /**
+     * Reads the fields of a message: varints as longs, fixed 64-bit values as their bits, and length-delimited fields
+     * as bytes.
+     */
+    private static Map<Integer, List<Object>> message(final byte[] bytes) {
+        final ByteBuffer byteBuffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        final Map<Integer, List<Object>> fields = new HashMap<>();
+        while (byteBuffer.hasRemaining()) {
+            final long key = ProtobufDecoding.varint(byteBuffer);
+            final Object value;
+            switch ((int) (key & 7)) {
+                case ProtobufWriter.VARINT:
+                    value = ProtobufDecoding.varint(byteBuffer);
+                    break;
+                case ProtobufWriter.FIXED64:
+                    value = byteBuffer.getLong();
+                    break;
+                case ProtobufWriter.LENGTH_DELIMITED:
+                    final byte[] field = new byte[(int) ProtobufDecoding.varint(byteBuffer)];
+                    byteBuffer.get(field);
+                    value = field;
+                    break;
+                default:
+                    throw new AssertionError("Unexpected wire type " + (key & 7));
+            }
+            fields.computeIfAbsent((int) (key >>> 3), (number) -> new ArrayList<>()).add(value);
+        }
+
+        return fields;
+    }
+
+    private static int[] packed(final byte[] bytes) {
+        final ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+        final List<Integer> values = new ArrayList<>();
+        while (byteBuffer.hasRemaining()) {
+            values.add((int) ProtobufDecoding.varint(byteBuffer));
+        }
+
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static String string(final Object bytes) {
+        return new String((byte[]) bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes polygon geometry into rings of absolute coordinates.
+     */
+    private static List<int[]> rings(final int[] geometry) {
+        final List<int[]> rings = new ArrayList<>();
+        int x = 0;
+        int y = 0;
+        int i = 0;
+        while (i < geometry.length) {
+            assertEquals(9, geometry[i++]);
+            x += ProtobufDecoding.zigZag(geometry[i++]);
+            y += ProtobufDecoding.zigZag(geometry[i++]);
+
+            final int lineTo = geometry[i++];
+            assertEquals(2, lineTo & 7);
+            final int[] ring = new int[2 * (1 + (lineTo >>> 3))];
+            ring[0] = x;
+            ring[1] = y;
+            for (int point = 1; point < ring.length / 2; point++) {
+                x += ProtobufDecoding.zigZag(geometry[i++]);
+                y += ProtobufDecoding.zigZag(geometry[i++]);
+                ring[2 * point] = x;
+                ring[2 * point + 1] = y;
+            }
+            assertEquals(15, geometry[i++]);
+            rings.add(ring);
+        }
+
+        return rings;
+    }
+
+    private static long area(final int[] ring) {
+        long area = 0;
+        for (int i = 0, j = ring.length / 2 - 1; i < ring.length / 2; j = i++) {
+            area += (long) ring[2 * j] * ring[2 * i + 1] - (long) ring[2 * i] * ring[2 * j + 1];
+        }
+
+        return area;
+    }
+
+    private static int min(final int[] ring, final int coordinate) {
+        int min = Integer.MAX_VALUE;
+        for (int i = coordinate; i < ring.length; i += 2) {
+            min = Math.min(min, ring[i]);
+        }
+        return min;
+    }
+
+    private static int max(final int[] ring, final int coordinate) {
+        int max = Integer.MIN_VALUE;
+        for (int i = coordinate; i < ring.length; i += 2) {
+            max = Math.max(max, ring[i]);
+        }
+        return max;
+    }
+
+    private static final class ProtobufDecoding {
+
+        private static long varint(final ByteBuffer byteBuffer) {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                final byte b = byteBuffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        private static int zigZag(final int value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private static long zigZag(final long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package esri.shapefile.converters.mvt;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class TileArchiveTest {
+
+    @Test
+    public void testWritingAndReadingTiles() throws Exception {
+        final File file = File.createTempFile("tiles", "." + TileArchive.EXTENSION);
+        file.deleteOnExit();
+
+        try (final TileArchiveWriter tileArchiveWriter = TileArchiveWriter.create(file)) {
+            tileArchiveWriter.write(2, 3, 1, new byte[] { 1, 2, 3 });
+            tileArchiveWriter.write(0, 0, 0, new byte[] { 4 });
+            tileArchiveWriter.write(2, 1, 3, new byte[0]);
+            tileArchiveWriter.write(TileArchive.MAX_ZOOM, (1 << 29) - 1, (1 << 29) - 1, new byte[] { 5, 6 });
+        }
+
+        try (final TileArchive tileArchive = TileArchive.open(file)) {
+            assertEquals(4, tileArchive.getNumTiles());
+            assertArrayEquals(new byte[] { 1, 2, 3 }, tileArchive.getTile(2, 3, 1));
+            assertArrayEquals(new byte[] { 4 }, tileArchive.getTile(0, 0, 0));
+            assertArrayEquals(new byte[0], tileArchive.getTile(2, 1, 3));
+            assertArrayEquals(new byte[] { 5, 6 }, tileArchive.getTile(TileArchive.MAX_ZOOM, (1 << 29) - 1, (1 << 29) - 1));
+            assertNull(tileArchive.getTile(2, 1, 1));
+            assertTrue(tileArchive.contains(2, 3, 1));
+            assertFalse(tileArchive.contains(1, 3, 1));
+        }
+    }
+
+    @Test
+    public void testManyTiles() throws Exception {
+        final File file = File.createTempFile("tiles", "." + TileArchive.EXTENSION);
+        file.deleteOnExit();
+
+        try (final TileArchiveWriter tileArchiveWriter = TileArchiveWriter.create(file)) {
+            for (int x = 63; x >= 0; x--) {
+                for (int y = 0; y < 64; y++) {
+                    tileArchiveWriter.write(6, x, y, new byte[] { (byte) x, (byte) y });
+                }
+            }
+        }
+
+        try (final TileArchive tileArchive = TileArchive.open(file)) {
+            assertEquals(64 * 64, tileArchive.getNumTiles());
+            assertArrayEquals(new byte[] { 17, 42 }, tileArchive.getTile(6, 17, 42));
+        }
+    }
+
+    @Test(expected = ShapefileNotReadableException.class)
+    public void testOpeningSomethingElse() throws Exception {
+        final File file = File.createTempFile("tiles", "." + TileArchive.EXTENSION);
+        file.deleteOnExit();
+        Files.write(file.toPath(), new byte[32]);
+
+        TileArchive.open(file);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZoomTooHigh() throws Exception {
+        final File file = File.createTempFile("tiles", "." + TileArchive.EXTENSION);
+        file.deleteOnExit();
+
+        try (final TileArchiveWriter tileArchiveWriter = TileArchiveWriter.create(file)) {
+            tileArchiveWriter.write(TileArchive.MAX_ZOOM + 1, 0, 0, new byte[0]);
+        }
+    }
+}
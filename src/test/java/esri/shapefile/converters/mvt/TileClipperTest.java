@@ -0,0 +1,104 @@
+package esri.shapefile.converters.mvt;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class TileClipperTest {
+
+    @Test
+    public void testRingsInsideAreUnchanged() {
+        final TileClipper tileClipper = new TileClipper(0, 10);
+        final double[] ring = { 1, 1, 1, 9, 9, 9, 9, 1 };
+
+        assertEquals(4, tileClipper.clipRing(ring, 4));
+        assertArrayEquals(ring, Arrays.copyOf(tileClipper.output(), 8), 0);
+    }
+
+    @Test
+    public void testClippingARing() {
+        final TileClipper tileClipper = new TileClipper(0, 10);
+
+        // A square from (5, 5) to (15, 15) keeps its corner inside the clip square.
+        final int count = tileClipper.clipRing(new double[] { 5, 5, 15, 5, 15, 15, 5, 15 }, 4);
+
+        assertEquals(4, count);
+        assertArrayEquals(new double[] { 5, 5, 5, 10, 10, 5, 10, 10 }, sorted(tileClipper.output(), count), 0);
+    }
+
+    @Test
+    public void testClippingARingAroundTheSquare() {
+        final TileClipper tileClipper = new TileClipper(0, 10);
+
+        final int count = tileClipper.clipRing(new double[] { -5, -5, 15, -5, 15, 15, -5, 15 }, 4);
+
+        assertEquals(4, count);
+        assertArrayEquals(new double[] { 0, 0, 0, 10, 10, 0, 10, 10 }, sorted(tileClipper.output(), count), 0);
+    }
+
+    @Test
+    public void testClippingARingOutsideTheSquare() {
+        final TileClipper tileClipper = new TileClipper(0, 10);
+
+        assertEquals(0, tileClipper.clipRing(new double[] { 20, 20, 30, 20, 30, 30 }, 3));
+    }
+
+    @Test
+    public void testClippingALargeRing() {
+        final TileClipper tileClipper = new TileClipper(0, 10);
+        final double[] ring = new double[2 * 1000];
+        for (int i = 0; i < 1000; i++) {
+            final double angle = 2 * Math.PI * i / 1000;
+            ring[2 * i] = 5 + 7 * Math.cos(angle);
+            ring[2 * i + 1] = 5 + 7 * Math.sin(angle);
+        }
+
+        final int count = tileClipper.clipRing(ring, 1000);
+
+        assertTrue(count > 4);
+        for (int i = 0; i < 2 * count; i++) {
+            assertTrue(tileClipper.output()[i] >= 0 && tileClipper.output()[i] <= 10);
+        }
+    }
+
+    @Test
+    public void testClippingALine() {
+        final TileClipper tileClipper = new TileClipper(0, 10);
+
+        // In at the left, out at the top, back in from the top, and out at the right.
+        final int pieces = tileClipper.clipLine(new double[] { -5, 5, 5, 5, 5, 15, 7, 15, 7, 5, 15, 5 }, 6);
+
+        assertEquals(2, pieces);
+        assertEquals(0, tileClipper.pieceStart(0));
+        assertEquals(3, tileClipper.pieceStart(1));
+        assertEquals(6, tileClipper.pieceStart(2));
+        assertArrayEquals(new double[] { 0, 5, 5, 5, 5, 10, 7, 10, 7, 5, 10, 5 }, Arrays.copyOf(tileClipper.output(), 12), 1e-12);
+    }
+
+    @Test
+    public void testClippingALineOutsideTheSquare() {
+        final TileClipper tileClipper = new TileClipper(0, 10);
+
+        assertEquals(0, tileClipper.clipLine(new double[] { -5, -5, -5, 15, 15, 15 }, 3));
+    }
+
+    /**
+     * The points of a ring, sorted by x then y, so rings can be compared wherever they start.
+     */
+    private static double[] sorted(final double[] xy, final int count) {
+        final Double[][] points = new Double[count][];
+        for (int i = 0; i < count; i++) {
+            points[i] = new Double[] { xy[2 * i], xy[2 * i + 1] };
+        }
+        Arrays.sort(points, (a, b) -> a[0].equals(b[0]) ? Double.compare(a[1], b[1]) : Double.compare(a[0], b[0]));
+
+        final double[] sorted = new double[2 * count];
+        for (int i = 0; i < count; i++) {
+            sorted[2 * i] = points[i][0];
+            sorted[2 * i + 1] = points[i][1];
+        }
+        return sorted;
+    }
+}
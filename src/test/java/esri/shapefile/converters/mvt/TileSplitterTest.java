@@ -0,0 +1,132 @@
+package esri.shapefile.converters.mvt;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TileSplitterTest {
+
+    @Test
+    public void testSplittingARingMatchesClippingItToEveryTile() {
+        final double[] ring = new double[2 * 1000];
+        for (int i = 0; i < 1000; i++) {
+            // Clockwise, as an outer ring, around the middle of an 8 by 8 block of tiles.
+            final double angle = -2 * Math.PI * i / 1000;
+            ring[2 * i] = 4.1 + 3.3 * Math.cos(angle);
+            ring[2 * i + 1] = 3.9 + 3.6 * Math.sin(angle);
+        }
+
+        final TileSplitter tileSplitter = new TileSplitter(TileBuilder.POLYGON, 0.25);
+        final TileSplitter.Parts parts = tileSplitter.parts();
+        for (int i = 0; i < 1000; i++) {
+            parts.add(ring[2 * i], ring[2 * i + 1]);
+        }
+        parts.endPart(true);
+
+        final TileClipper tileClipper = new TileClipper(-0.25, 1.25);
+        final Map<Long, Double> areas = new HashMap<>();
+        tileSplitter.split(parts, 0, 0, 7, 7, (x, y, pieces) -> {
+            assertEquals(1, pieces.getNumParts());
+            assertTrue(pieces.flag(0));
+
+            final int count = tileClipper.clipRing(local(pieces.coordinates(), pieces.start(0), pieces.end(0), x, y), pieces.end(0) - pieces.start(0));
+            assertNull(areas.put((long) x << 32 | y, area(tileClipper.output(), count)));
+        });
+
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                final int count = tileClipper.clipRing(local(ring, 0, 1000, x, y), 1000);
+                final Double area = areas.get((long) x << 32 | y);
+                if (count == 0) {
+                    assertNull(area);
+                } else {
+                    assertEquals(area(tileClipper.output(), count), area, 1e-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSplittingALineMatchesClippingItToEveryTile() {
+        final double[] line = new double[2 * 500];
+        for (int i = 0; i < 500; i++) {
+            line[2 * i] = 0.3 + 15.4 * i / 499;
+            line[2 * i + 1] = 2.5 + 2 * Math.sin(i / 20.0);
+        }
+
+        final TileSplitter tileSplitter = new TileSplitter(TileBuilder.LINESTRING, 0.1);
+        final TileSplitter.Parts parts = tileSplitter.parts();
+        for (int i = 0; i < 500; i++) {
+            parts.add(line[2 * i], line[2 * i + 1]);
+        }
+        parts.endPart(false);
+
+        final TileClipper tileClipper = new TileClipper(-0.1, 1.1);
+        final Map<Long, Double> lengths = new HashMap<>();
+        tileSplitter.split(parts, 0, 0, 15, 7, (x, y, pieces) -> {
+            double length = 0;
+            for (int piece = 0; piece < pieces.getNumParts(); piece++) {
+                final int numPieces = tileClipper.clipLine(local(pieces.coordinates(), pieces.start(piece), pieces.end(piece), x, y), pieces.end(piece) - pieces.start(piece));
+                length += length(tileClipper, numPieces);
+            }
+            assertNull(lengths.put((long) x << 32 | y, length));
+        });
+
+        for (int x = 0; x < 16; x++) {
+            for (int y = 0; y < 8; y++) {
+                final double expected = length(tileClipper, tileClipper.clipLine(local(line, 0, 500, x, y), 500));
+                final Double length = lengths.get((long) x << 32 | y);
+                assertEquals(expected, length == null ? 0 : length, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testSplittingPoints() {
+        final TileSplitter tileSplitter = new TileSplitter(TileBuilder.POINT, 0);
+        final TileSplitter.Parts parts = tileSplitter.parts();
+        parts.add(0.5, 0.5);
+        parts.endPart(false);
+        parts.add(3.5, 2.5);
+        parts.endPart(false);
+
+        final Map<Long, Integer> counts = new HashMap<>();
+        tileSplitter.split(parts, 0, 0, 3, 3, (x, y, points) -> counts.put((long) x << 32 | y, points.getNumParts()));
+
+        assertEquals(2, counts.size());
+        assertEquals(Integer.valueOf(1), counts.get(0L));
+        assertEquals(Integer.valueOf(1), counts.get(3L << 32 | 2));
+    }
+
+    private static double[] local(final double[] xy, final int from, final int to, final int x, final int y) {
+        final double[] local = new double[2 * (to - from)];
+        for (int i = from; i < to; i++) {
+            local[2 * (i - from)] = xy[2 * i] - x;
+            local[2 * (i - from) + 1] = xy[2 * i + 1] - y;
+        }
+        return local;
+    }
+
+    private static double area(final double[] xy, final int count) {
+        double area = 0;
+        for (int i = 0; i < count; i++) {
+            final int j = (i + 1) % count;
+            area += xy[2 * i] * xy[2 * j + 1] - xy[2 * j] * xy[2 * i + 1];
+        }
+        return area / 2;
+    }
+
+    private static double length(final TileClipper tileClipper, final int numPieces) {
+        final double[] xy = tileClipper.output();
+        double length = 0;
+        for (int piece = 0; piece < numPieces; piece++) {
+            for (int i = tileClipper.pieceStart(piece); i + 1 < tileClipper.pieceStart(piece + 1); i++) {
+                length += Math.hypot(xy[2 * i + 2] - xy[2 * i], xy[2 * i + 3] - xy[2 * i + 1]);
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,82 @@
+package esri.shapefile.converters.svg;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class AsciiWriterTest {
+
+    @Test
+    public void testWritingNumbers() throws Exception {
+        assertEquals("0", format(0, 3));
+        assertEquals("0", format(-0.0, 3));
+        assertEquals("0", format(-0.0004, 3));
+        assertEquals("12.5", format(12.5, 3));
+        assertEquals("3", format(3.0, 1));
+        assertEquals("-7.25", format(-7.25, 2));
+        assertEquals("0.005", format(0.005, 3));
+        assertEquals("0.05", format(0.0501, 3));
+        assertEquals("1", format(0.96, 1));
+        assertEquals("100", format(99.99, 1));
+        assertEquals("1.23456789", format(1.23456789, 9));
+        assertEquals("123456789012", format(123456789012.0, 0));
+    }
+
+    @Test
+    public void testWritingNumbersThatAreNotFinite() throws Exception {
+        assertEquals("0", format(Double.NaN, 1));
+        assertEquals("0", format(Double.POSITIVE_INFINITY, 1));
+    }
+
+    @Test
+    public void testWritingLargeNumbers() throws Exception {
+        assertEquals(Double.toString(1e20), format(1e20, 1));
+        assertEquals(Double.toString(-1e20), format(-1e20, 1));
+    }
+
+    @Test
+    public void testWritingIntegers() throws Exception {
+        assertEquals("-42", write(writer -> writer.write(-42L)));
+        assertEquals(String.valueOf(Long.MIN_VALUE), write(writer -> writer.write(Long.MIN_VALUE)));
+        assertEquals(String.valueOf(Long.MAX_VALUE), write(writer -> writer.write(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void testWritingPastTheBuffer() throws Exception {
+        final String written = write(writer -> {
+            for (int i = 0; i < 100000; i++) {
+                writer.write(i * 0.5, 1).write(' ');
+            }
+        });
+
+        final String[] numbers = written.split(" ");
+        assertEquals(100000, numbers.length);
+        assertEquals("49999.5", numbers[99999]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyDecimals() throws Exception {
+        format(1, AsciiWriter.MAX_DECIMALS + 1);
+    }
+
+    private interface Writes {
+        void to(AsciiWriter writer) throws IOException;
+    }
+
+    private static String format(final double value, final int decimals) throws IOException {
+        return write(writer -> writer.write(value, decimals));
+    }
+
+    private static String write(final Writes writes) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final AsciiWriter writer = new AsciiWriter(outputStream);
+        writes.to(writer);
+        writer.flush();
+
+        return new String(outputStream.toByteArray(), StandardCharsets.US_ASCII);
+    }
+}
@@ -1,13 +1,18 @@
-/*
 package esri.shapefile.converters.svg;
 
-import esri.shapefile.ShapefileReader;
+import esri.shapefile.ShapefileFixtures;
+import esri.shapefile.ShapefileWriter;
+import esri.shapefile.models.BoundingBox;
+import esri.shapefile.models.shapes.Polygon;
+import esri.shapefile.models.shapes.ShapeType;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.IntStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import static org.junit.Assert.*;
 
@@ -15,9 +20,92 @@ public class ShapefileToSvgConverterTest {
 
     @Test
     public void testConvertingAShapefileToSvg() throws Exception {
-        final String shapefilePath = this.getClass().getResource("/fixtures/2004_us_election/elpo04p020.shp").getFile();
-        final ShapefileToSvgConverter shapefileToSvgConverter = new ShapefileToSvgConverter();
-        final File svgFile = shapefileToSvgConverter.convert(shapefilePath);
-        System.out.println(svgFile.getAbsolutePath());
+        final File shapefile = ShapefileFixtures.writePolygons(20);
+        final File svgFile = new ShapefileToSvgConverter().convert(shapefile.getPath());
+        svgFile.deleteOnExit();
+
+        final String svg = new String(Files.readAllBytes(svgFile.toPath()), StandardCharsets.US_ASCII);
+        assertTrue(svg.startsWith("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"1024\" height=\"1024\" viewBox=\"0 0 1024 1024\">"));
+        assertTrue(svg.endsWith("</g>\n</svg>\n"));
+        assertEquals(20, count(svg, "<path "));
+    }
+
+    @Test
+    public void testCoordinatesAreScaledToPixels() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(2);
+        final String svg = convert(new ShapefileToSvgConverter().withWidth(150), shapefile);
+
+        // The extent is (1, 1) to (2.5, 2.5), so each unit is 100 pixels, and y is flipped.
+        assertTrue(svg, svg.contains("<path d=\"M0,150 0,100 50,100 50,150Z\"/>"));
+        assertTrue(svg, svg.contains("<path d=\"M100,50 100,0 150,0 150,50Z\"/>"));
+    }
+
+    @Test
+    public void testSubPixelShapesAreLeftOut() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(100);
+
+        // Each polygon is half a unit wide, and the extent is 99.5 units wide: under a pixel at a width of 100.
+        final String svg = convert(new ShapefileToSvgConverter().withWidth(100), shapefile);
+
+        assertEquals(0, count(svg, "<path "));
+        assertTrue(svg.endsWith("</svg>\n"));
+    }
+
+    @Test
+    public void testSubPixelVerticesAreLeftOut() throws Exception {
+        // A 100 x 100 square whose bottom edge has a vertex every 0.01 units: a hundredth of a pixel at a width of 100.
+        final double[] xy = new double[2 * 10004];
+        for (int i = 0; i <= 10000; i++) {
+            xy[2 * i] = i * 0.01;
+        }
+        xy[2 * 10001] = 100;
+        xy[2 * 10001 + 1] = 100;
+        xy[2 * 10002 + 1] = 100;
+
+        final File shapefile = File.createTempFile("dense", ".shp");
+        shapefile.deleteOnExit();
+        try (final ShapefileWriter shapefileWriter = ShapefileWriter.create(shapefile.getPath(), ShapeType.Polygon)) {
+            shapefileWriter.write(Polygon.of(BoundingBox.of(0, 0, 100, 100), new int[] { 0 }, xy));
+        }
+
+        final String svg = convert(new ShapefileToSvgConverter().withWidth(100), shapefile);
+
+        // One vertex per pixel along the bottom edge, then the two corners at the top.
+        assertTrue(svg, svg.contains("<path d=\"M0,100 1,100 2,100 3,100 "));
+        assertTrue(svg, svg.contains(" 99,100 100,100 100,0 0,0Z\"/>"));
+        assertEquals(1 + 100 + 2, count(svg, ","));
+    }
+
+    @Test(expected = IOException.class)
+    public void testWriteErrorsAreThrown() throws Exception {
+        final File shapefile = ShapefileFixtures.writePolygons(20);
+
+        new ShapefileToSvgConverter().convert(shapefile.getPath(), new OutputStream() {
+            @Override
+            public void write(final int b) throws IOException {
+                throw new IOException("Disk full");
+            }
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWidthMustBePositive() {
+        new ShapefileToSvgConverter().withWidth(0);
+    }
+
+    private static String convert(final ShapefileToSvgConverter converter, final File shapefile) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        converter.convert(shapefile.getPath(), outputStream);
+
+        return new String(outputStream.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    private static int count(final String text, final String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) {
+            count++;
+        }
+
+        return count;
     }
-}*/
+}
@@ -0,0 +1,82 @@
+package esri.shapefile.dbf;
+
+import esri.shapefile.ShapefileFixtures;
+import esri.shapefile.io.ShapefilePaths;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class DbfPredicateTest {
+
+    private final String dbfPath = this.getClass().getResource("/fixtures/2004_us_election/elpo04p020.dbf").getFile();
+
+    @Test
+    public void testMatchingTextByBytes() throws Exception {
+        final DbfReader dbfReader = new DbfReader();
+        final int[] alaska = dbfReader.findRecordNumbers(dbfPath, DbfPredicate.equalTo("STATE", "AK"));
+
+        final int[] expected = { 0 };
+        dbfReader.forEachRow(dbfPath, (dbfRow) -> {
+            if (dbfRow.getString("STATE").equals("AK")) {
+                assertEquals(dbfRow.getRecordNumber(), alaska[expected[0]++]);
+            }
+        });
+
+        assertTrue(alaska.length > 0);
+        assertEquals(expected[0], alaska.length);
+    }
+
+    @Test
+    public void testCombiningPredicates() throws Exception {
+        final String path = ShapefilePaths.sibling(ShapefileFixtures.writePolygons(30), "dbf").getPath();
+        final DbfReader dbfReader = new DbfReader();
+
+        assertArrayEquals(new int[] { 10, 11, 12 }, dbfReader.findRecordNumbers(path, DbfPredicate.between("ID", 10, 12)));
+        assertArrayEquals(new int[] { 10, 12 }, dbfReader.findRecordNumbers(path,
+                DbfPredicate.between("ID", 10, 12).and(DbfPredicate.equalTo("PARITY", "EVEN"))));
+        assertArrayEquals(new int[] { 1, 3, 29, 30 }, dbfReader.findRecordNumbers(path,
+                DbfPredicate.in("NAME", "Feature 1", "Feature 3").or(DbfPredicate.greaterThan("ID", 28.5))));
+        assertArrayEquals(new int[] { 2, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29 }, dbfReader.findRecordNumbers(path,
+                DbfPredicate.startsWith("NAME", "Feature 2").and(DbfPredicate.lessThan("ID", 30))));
+        assertEquals(30, dbfReader.findRecordNumbers(path, DbfPredicate.isNull("ID").negate()).length);
+    }
+
+    @Test
+    public void testBindingAPredicateToEachTable() throws Exception {
+        final String path = ShapefilePaths.sibling(ShapefileFixtures.writePolygons(30), "dbf").getPath();
+        final String shorter = ShapefilePaths.sibling(ShapefileFixtures.writePolygons(11), "dbf").getPath();
+        final DbfPredicate predicate = DbfPredicate.equalTo("PARITY", "ODD").and(DbfPredicate.between("ID", 8, 12));
+        final DbfReader dbfReader = new DbfReader();
+
+        // The same predicate is bound again to each table it is evaluated against.
+        assertArrayEquals(new int[] { 9, 11 }, dbfReader.findRecordNumbers(path, predicate));
+        assertArrayEquals(new int[] { 9, 11 }, dbfReader.findRecordNumbers(shorter, predicate));
+
+        try (final DbfTable dbfTable = DbfTable.open(new File(path))) {
+            final DbfPredicate bound = DbfPredicate.startsWith("NAME", "Feature 2").negate().bind(dbfTable.getHeader());
+            final DbfRow dbfRow = dbfTable.newRow(null);
+
+            dbfRow.moveTo(2);
+            assertFalse(bound.test(dbfRow));
+            dbfRow.moveTo(3);
+            assertTrue(bound.test(dbfRow));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBindingAPredicateToATableWithoutItsColumnFails() throws Exception {
+        try (final DbfTable dbfTable = DbfTable.open(new File(dbfPath))) {
+            DbfPredicate.isNull("ID").bind(dbfTable.getHeader());
+        }
+    }
+
+    @Test
+    public void testParsingNumbersWithoutStrings() throws Exception {
+        new DbfReader().forEachRow(dbfPath, (dbfRow) -> {
+            assertEquals(Double.parseDouble(dbfRow.getString("AREA")), dbfRow.getDouble("AREA"), 0.0);
+            assertEquals(Double.parseDouble(dbfRow.getString("PERIMETER")), dbfRow.getDouble("PERIMETER"), 0.0);
+        });
+    }
+}
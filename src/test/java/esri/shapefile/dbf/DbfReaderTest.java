@@ -0,0 +1,120 @@
+package esri.shapefile.dbf;
+
+import esri.shapefile.ShapefileFixtures;
+import esri.shapefile.io.ShapefilePaths;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DbfReaderTest {
+
+    private final String dbfPath = this.getClass().getResource("/fixtures/2004_us_election/elpo04p020.dbf").getFile();
+
+    @Test
+    public void testReadingHeader() throws Exception {
+        final DbfHeader dbfHeader = new DbfReader().getHeader(dbfPath);
+
+        assertEquals(3, dbfHeader.getVersion());
+        assertEquals(4755, dbfHeader.getNumRecords());
+        assertEquals(545, dbfHeader.getHeaderLength());
+        assertEquals(243, dbfHeader.getRecordLength());
+        assertEquals(16, dbfHeader.getFields().size());
+
+        final DbfField county = dbfHeader.getField("county");
+        assertEquals("COUNTY", county.getName());
+        assertEquals('C', county.getType());
+        assertEquals(50, county.getLength());
+        assertEquals(1 + 10 + 19 * 3 + 2, county.getOffset());
+
+        final DbfField area = dbfHeader.getField("AREA");
+        assertEquals('F', area.getType());
+        assertEquals(11, area.getDecimalCount());
+
+        assertNull(dbfHeader.getField("MISSING"));
+        assertEquals(-1, dbfHeader.indexOf("MISSING"));
+    }
+
+    @Test
+    public void testReadingRows() throws Exception {
+        final List<String> states = new ArrayList<>();
+
+        new DbfReader().forEachRow(dbfPath, (dbfRow) -> {
+            if (dbfRow.getRecordNumber() == 1) {
+                assertFalse(dbfRow.isDeleted());
+                assertEquals(1, dbfRow.getInt("OBJECTID"));
+                assertEquals(7.00989775164, dbfRow.getDouble("AREA"), 1e-11);
+                assertEquals("AK", dbfRow.getString("STATE"));
+                assertEquals("State House District 8, Denali-University", dbfRow.getString("COUNTY"));
+                assertEquals(5758L, dbfRow.getLong("VOTE_DEM"));
+                assertEquals(44.5, Double.parseDouble(dbfRow.getString("PERCENT_DE")), 0.001);
+            }
+            states.add(dbfRow.getString("STATE"));
+        });
+
+        assertEquals(4755, states.size());
+    }
+
+    @Test
+    public void testProjectingColumns() throws Exception {
+        final int[] rows = { 0 };
+
+        new DbfReader().forEachRow(dbfPath, Arrays.asList("STATE", "VOTE_REP"), (dbfRow) -> {
+            assertEquals(2, dbfRow.getColumns().size());
+            assertEquals(Arrays.asList("STATE", "VOTE_REP"), new ArrayList<>(dbfRow.toMap().keySet()));
+
+            try {
+                dbfRow.getString("COUNTY");
+                fail("Reading a column that was not projected should fail");
+            } catch (final IllegalArgumentException expected) {
+                rows[0]++;
+            }
+        });
+
+        assertEquals(4755, rows[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testProjectingUnknownColumnFails() throws Exception {
+        new DbfReader().forEachRow(dbfPath, Arrays.asList("NOPE"), (dbfRow) -> {});
+    }
+
+    @Test
+    public void testReadingSingleRow() throws Exception {
+        final DbfRow dbfRow = new DbfReader().readRow(dbfPath, 2);
+
+        assertEquals(2, dbfRow.getRecordNumber());
+        assertEquals("2", dbfRow.getValue("OBJECTID"));
+        assertEquals("AK", dbfRow.getValue("STATE"));
+    }
+
+    @Test
+    public void testCopiesOutliveTheCursor() throws Exception {
+        final List<DbfRow> copies = new ArrayList<>();
+
+        new DbfReader().forEachRow(dbfPath, Arrays.asList("OBJECTID"), (dbfRow) -> copies.add(dbfRow.copy()));
+
+        assertEquals(4755, copies.size());
+        assertEquals(1, copies.get(0).getInt("OBJECTID"));
+        assertEquals(4755, copies.get(4754).getRecordNumber());
+        assertEquals(889, copies.get(4754).getInt("OBJECTID"));
+    }
+
+    @Test
+    public void testReadingSyntheticTable() throws Exception {
+        final String path = ShapefilePaths.sibling(ShapefileFixtures.writePolygons(3), "dbf").getPath();
+        final DbfHeader dbfHeader = new DbfReader().getHeader(path);
+
+        assertEquals(LocalDate.of(2016, 10, 18), dbfHeader.getLastUpdate());
+        assertEquals(3, dbfHeader.getNumRecords());
+
+        final DbfRow dbfRow = new DbfReader().readRow(path, 3);
+        assertEquals(3L, dbfRow.getValue("ID"));
+        assertEquals("Feature 3", dbfRow.getString("NAME"));
+        assertFalse(dbfRow.isNull("NAME"));
+    }
+}
@@ -0,0 +1,101 @@
+package esri.shapefile.dbf;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class DbfStreamTest {
+
+    private final String dbfPath = this.getClass().getResource("/fixtures/2004_us_election/elpo04p020.dbf").getFile();
+
+    @Test
+    public void testStreamingRowsMatchesTheMappedTable() throws Exception {
+        try (final DbfTable dbfTable = DbfTable.open(new File(dbfPath));
+             final DbfStream dbfStream = DbfStream.open(new FileInputStream(dbfPath), DbfTable.DEFAULT_CHARSET, dbfPath)) {
+            assertEquals(4755, dbfStream.getHeader().getNumRecords());
+            assertEquals(545, dbfStream.getHeader().getHeaderLength());
+
+            final DbfRow streamed = dbfStream.newRow(Arrays.asList("STATE", "COUNTY", "VOTE_DEM"));
+            final DbfRow mapped = dbfTable.newRow(null);
+
+            int rows = 0;
+            while (dbfStream.next(streamed)) {
+                mapped.moveTo(streamed.getRecordNumber());
+                assertEquals(mapped.getString("STATE"), streamed.getString("STATE"));
+                assertEquals(mapped.getString("COUNTY"), streamed.getString("COUNTY"));
+                assertEquals(mapped.getString("VOTE_DEM"), streamed.getString("VOTE_DEM"));
+                rows++;
+            }
+
+            assertEquals(4755, rows);
+            assertFalse(dbfStream.next(streamed));
+        }
+    }
+
+    @Test
+    public void testReadingTheFirstRow() throws Exception {
+        try (final DbfStream dbfStream = DbfStream.open(new FileInputStream(dbfPath), DbfTable.DEFAULT_CHARSET, dbfPath)) {
+            final DbfRow dbfRow = dbfStream.newRow(null);
+
+            assertTrue(dbfStream.next(dbfRow));
+            assertEquals(1, dbfRow.getRecordNumber());
+            assertEquals("AK", dbfRow.getString("STATE"));
+            assertEquals("State House District 8, Denali-University", dbfRow.getString("COUNTY"));
+
+            final DbfRow copy = dbfRow.copy();
+            assertTrue(dbfStream.next(dbfRow));
+            assertEquals("AK", copy.getString("STATE"));
+            assertEquals(2, dbfRow.getRecordNumber());
+        }
+    }
+
+    @Test(expected = ShapefileNotReadableException.class)
+    public void testReadingATruncatedTableFails() throws Exception {
+        final byte[] bytes = Files.readAllBytes(new File(dbfPath).toPath());
+        final byte[] truncated = Arrays.copyOf(bytes, 545 + 243 * 3 + 100);
+
+        try (final DbfStream dbfStream = DbfStream.open(new ByteArrayInputStream(truncated), DbfTable.DEFAULT_CHARSET, "truncated")) {
+            final DbfRow dbfRow = dbfStream.newRow(null);
+            while (dbfStream.next(dbfRow)) {
+                // Reads until the stream runs out.
+            }
+        }
+    }
+
+    @Test
+    public void testTheStreamIsClosedWhenTheHeaderCannotBeRead() throws Exception {
+        final byte[] bytes = Files.readAllBytes(new File(dbfPath).toPath());
+        final AtomicBoolean closed = new AtomicBoolean();
+        final InputStream inputStream = new ByteArrayInputStream(Arrays.copyOf(bytes, 100)) {
+            @Override
+            public void close() throws IOException {
+                closed.set(true);
+                super.close();
+            }
+        };
+
+        try {
+            DbfStream.open(inputStream, DbfTable.DEFAULT_CHARSET, "truncated");
+            fail("Truncated header");
+        } catch (final ShapefileNotReadableException expected) {
+            assertTrue(closed.get());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStreamedRowsCannotBeMoved() throws Exception {
+        try (final DbfStream dbfStream = DbfStream.open(new FileInputStream(dbfPath), DbfTable.DEFAULT_CHARSET, dbfPath)) {
+            dbfStream.newRow(null).moveTo(3);
+        }
+    }
+}
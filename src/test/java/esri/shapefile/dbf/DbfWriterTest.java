@@ -0,0 +1,55 @@
+package esri.shapefile.dbf;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class DbfWriterTest {
+
+    @Test
+    public void testWritingEveryFieldType() throws Exception {
+        final File dbf = new File(Files.createTempDirectory("esri-shapefile").toFile(), "table.dbf");
+
+        try (final DbfWriter dbfWriter = DbfWriter.create(dbf, Arrays.asList(
+                DbfField.of("NAME", 'C', 8, 0),
+                DbfField.of("COUNT", 'N', 6, 0),
+                DbfField.of("RATIO", 'F', 10, 3),
+                DbfField.of("ACTIVE", 'L', 1, 0),
+                DbfField.of("SINCE", 'D', 8, 0)), StandardCharsets.ISO_8859_1)) {
+            dbfWriter.write("Zürich", 42, -0.0625, true, LocalDate.of(2016, 12, 25));
+            dbfWriter.write("A name that is too long", 1234567, 1e20, false, null);
+            dbfWriter.write(null, null, Double.NaN, null, null);
+        }
+
+        final DbfReader dbfReader = new DbfReader(StandardCharsets.ISO_8859_1);
+        final DbfHeader dbfHeader = dbfReader.getHeader(dbf.getPath());
+        assertEquals(3, dbfHeader.getNumRecords());
+        assertEquals(1 + 8 + 6 + 10 + 1 + 8, dbfHeader.getRecordLength());
+        assertEquals(32 + 5 * 32 + 1, dbfHeader.getHeaderLength());
+        assertEquals(dbfHeader.getHeaderLength() + 3 * dbfHeader.getRecordLength() + 1, dbf.length());
+
+        final DbfRow first = dbfReader.readRow(dbf.getPath(), 1);
+        assertEquals("Zürich", first.getString("NAME"));
+        assertEquals(42L, first.getValue("COUNT"));
+        assertEquals(-0.063, first.getDouble("RATIO"), 0.0);
+        assertEquals(Boolean.TRUE, first.getBoolean("ACTIVE"));
+        assertEquals(LocalDate.of(2016, 12, 25), first.getDate("SINCE"));
+
+        final DbfRow second = dbfReader.readRow(dbf.getPath(), 2);
+        assertEquals("A name t", second.getString("NAME"));
+        assertTrue(Double.isNaN(second.getDouble("COUNT")));
+        assertTrue(Double.isNaN(second.getDouble("RATIO")));
+        assertNull(second.getDate("SINCE"));
+
+        final DbfRow third = dbfReader.readRow(dbf.getPath(), 3);
+        assertTrue(third.isNull("NAME"));
+        assertTrue(third.isNull("RATIO"));
+        assertNull(third.getValue("ACTIVE"));
+    }
+}
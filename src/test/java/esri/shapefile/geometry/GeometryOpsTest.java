@@ -0,0 +1,125 @@
+package esri.shapefile.geometry;
+
+import esri.shapefile.models.BoundingBox;
+import esri.shapefile.models.shapes.Point;
+import esri.shapefile.models.shapes.Polygon;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GeometryOpsTest {
+
+    /**
+     * A 10 x 10 square with a clockwise outer ring and a counter-clockwise 2 x 2 hole at (2, 2).
+     */
+    private static final Polygon SQUARE_WITH_HOLE = Polygon.of(BoundingBox.of(0, 0, 10, 10), new int[] { 0, 5 }, new double[] {
+        0, 0, 0, 10, 10, 10, 10, 0, 0, 0,
+        2, 2, 4, 2, 4, 4, 2, 4, 2, 2
+    });
+
+    @Test
+    public void testSignedArea() {
+        final double[] clockwise = { 0, 0, 0, 1, 1, 1, 1, 0, 0, 0 };
+        final double[] counterClockwise = { 0, 0, 1, 0, 1, 1, 0, 1, 0, 0 };
+
+        assertEquals(-1, GeometryOps.signedArea(clockwise, 0, 5), 1e-12);
+        assertEquals(1, GeometryOps.signedArea(counterClockwise, 0, 5), 1e-12);
+        assertTrue(GeometryOps.isClockwise(clockwise, 0, 5));
+        assertFalse(GeometryOps.isClockwise(counterClockwise, 0, 5));
+    }
+
+    @Test
+    public void testSignedAreaOfAnOpenRing() {
+        assertEquals(1, GeometryOps.signedArea(new double[] { 0, 0, 1, 0, 1, 1, 0, 1 }, 0, 4), 1e-12);
+    }
+
+    @Test
+    public void testSignedAreaFarFromTheOrigin() {
+        final double[] xy = { 1e9, 1e9, 1e9 + 1, 1e9, 1e9 + 1, 1e9 + 1, 1e9, 1e9 + 1, 1e9, 1e9 };
+
+        assertEquals(1, GeometryOps.signedArea(xy, 0, 5), 1e-12);
+    }
+
+    @Test
+    public void testAreaSubtractsHoles() {
+        assertEquals(96, GeometryOps.area(SQUARE_WITH_HOLE), 1e-12);
+    }
+
+    @Test
+    public void testCentroid() {
+        final Point centroid = GeometryOps.centroid(SQUARE_WITH_HOLE);
+
+        // (100 * 5 - 4 * 3) / 96
+        assertEquals(488.0 / 96, centroid.getX(), 1e-12);
+        assertEquals(488.0 / 96, centroid.getY(), 1e-12);
+    }
+
+    @Test
+    public void testCentroidOfADegeneratePolygon() {
+        final Polygon line = Polygon.of(BoundingBox.of(0, 0, 4, 0), new int[] { 0 }, new double[] { 0, 0, 4, 0, 2, 0, 0, 0 });
+
+        assertEquals(1.5, GeometryOps.centroid(line).getX(), 1e-12);
+        assertEquals(0, GeometryOps.centroid(line).getY(), 1e-12);
+    }
+
+    @Test
+    public void testBoundingBox() {
+        final BoundingBox boundingBox = GeometryOps.boundingBox(SQUARE_WITH_HOLE.getCoordinates(), 5, 10);
+
+        assertEquals(2, boundingBox.getXMin(), 0);
+        assertEquals(2, boundingBox.getYMin(), 0);
+        assertEquals(4, boundingBox.getXMax(), 0);
+        assertEquals(4, boundingBox.getYMax(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBoundingBoxOfNoPoints() {
+        GeometryOps.boundingBox(new double[0], 0, 0);
+    }
+
+    @Test
+    public void testContains() {
+        assertTrue(GeometryOps.contains(SQUARE_WITH_HOLE, 1, 1));
+        assertTrue(GeometryOps.contains(SQUARE_WITH_HOLE, 9, 5));
+        assertFalse(GeometryOps.contains(SQUARE_WITH_HOLE, 3, 3));
+        assertFalse(GeometryOps.contains(SQUARE_WITH_HOLE, 11, 5));
+        assertFalse(GeometryOps.contains(SQUARE_WITH_HOLE, 5, -1));
+    }
+
+    @Test
+    public void testContainsManyPointsAgreesWithContains() {
+        final Random random = new Random(42);
+        final double[] points = new double[2 * 1000];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = random.nextDouble() * 14 - 2;
+        }
+
+        final boolean[] inside = new boolean[1000];
+        final int count = GeometryOps.contains(SQUARE_WITH_HOLE, points, inside);
+
+        int expectedCount = 0;
+        for (int i = 0; i < 1000; i++) {
+            final boolean expected = GeometryOps.contains(SQUARE_WITH_HOLE, points[2 * i], points[2 * i + 1]);
+            assertEquals("Point " + i, expected, inside[i]);
+            expectedCount += expected ? 1 : 0;
+        }
+        assertEquals(expectedCount, count);
+        assertTrue(count > 0);
+    }
+
+    @Test
+    public void testContainsManyPointsClearsPreviousResults() {
+        final boolean[] inside = { true, true };
+
+        assertEquals(0, GeometryOps.contains(SQUARE_WITH_HOLE, new double[] { 3, 3, 20, 20 }, inside));
+        assertFalse(inside[0]);
+        assertFalse(inside[1]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testContainsManyPointsNeedsRoomForEveryResult() {
+        GeometryOps.contains(SQUARE_WITH_HOLE, new double[] { 1, 1, 2, 2 }, new boolean[1]);
+    }
+}
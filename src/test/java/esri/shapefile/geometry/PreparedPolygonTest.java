@@ -0,0 +1,156 @@
+package esri.shapefile.geometry;
+
+import esri.shapefile.models.BoundingBox;
+import esri.shapefile.models.shapes.Point;
+import esri.shapefile.models.shapes.Polygon;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class PreparedPolygonTest {
+
+    /**
+     * A clockwise star with the given number of points around (0, 0), and a counter-clockwise square hole in the middle.
+     */
+    private static Polygon star(final int numPoints) {
+        final double[] xy = new double[2 * (2 * numPoints + 1) + 2 * 5];
+        for (int i = 0; i < 2 * numPoints; i++) {
+            final double angle = -Math.PI * i / numPoints;
+            final double radius = i % 2 == 0 ? 100 : 60;
+            xy[2 * i] = radius * Math.cos(angle);
+            xy[2 * i + 1] = radius * Math.sin(angle);
+        }
+        xy[4 * numPoints] = xy[0];
+        xy[4 * numPoints + 1] = xy[1];
+
+        final double[] hole = { -10, -10, 10, -10, 10, 10, -10, 10, -10, -10 };
+        System.arraycopy(hole, 0, xy, 2 * (2 * numPoints + 1), hole.length);
+
+        return Polygon.of(BoundingBox.of(-100, -100, 100, 100), new int[] { 0, 2 * numPoints + 1 }, xy);
+    }
+
+    @Test
+    public void testAgreesWithRayCasting() {
+        final Polygon polygon = star(5000);
+        final PreparedPolygon preparedPolygon = PreparedPolygon.of(polygon);
+
+        final Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            final double x = random.nextDouble() * 240 - 120;
+            final double y = random.nextDouble() * 240 - 120;
+            assertEquals(x + ", " + y, GeometryOps.contains(polygon, x, y), preparedPolygon.contains(x, y));
+        }
+    }
+
+    @Test
+    public void testHoles() {
+        final PreparedPolygon preparedPolygon = PreparedPolygon.of(star(100));
+
+        assertTrue(preparedPolygon.contains(30, 0));
+        assertFalse(preparedPolygon.contains(0, 0));
+        assertFalse(preparedPolygon.contains(Point.at(5, 5)));
+        assertFalse(preparedPolygon.contains(150, 0));
+    }
+
+    @Test
+    public void testEdgesArePackedIntoATree() {
+        final PreparedPolygon preparedPolygon = PreparedPolygon.of(star(5000));
+
+        // The top and bottom of the hole are horizontal. 10002 edges need 5 levels of parents of 8 children each.
+        assertEquals(10002, preparedPolygon.getNumEdges());
+        assertEquals(6, preparedPolygon.getNumLevels());
+    }
+
+    @Test
+    public void testEdgesAsTallAsThePolygon() {
+        // A saw whose teeth are all as tall as the polygon, so every edge straddles every query.
+        final int teeth = 1000;
+        final double[] xy = new double[2 * (2 * teeth + 2)];
+        for (int tooth = 0; tooth < teeth; tooth++) {
+            xy[4 * tooth + 2] = tooth + 0.5;
+            xy[4 * tooth + 3] = 1000;
+            xy[4 * tooth + 4] = tooth + 1;
+        }
+
+        final Polygon polygon = Polygon.of(BoundingBox.of(0, 0, teeth, 1000), new int[] { 0 }, xy);
+        final PreparedPolygon preparedPolygon = PreparedPolygon.of(polygon);
+
+        assertEquals(2 * teeth, preparedPolygon.getNumEdges());
+        assertTrue(preparedPolygon.contains(500.5, 900));
+        assertFalse(preparedPolygon.contains(500, 900));
+        assertFalse(preparedPolygon.contains(500, 100));
+        assertTrue(preparedPolygon.contains(500.5, 100));
+
+        final Random random = new Random(11);
+        for (int i = 0; i < 10000; i++) {
+            final double x = random.nextDouble() * teeth;
+            final double y = random.nextDouble() * 1000;
+            assertEquals(x + ", " + y, GeometryOps.contains(polygon, x, y), preparedPolygon.contains(x, y));
+        }
+    }
+
+    @Test
+    public void testPolygonWithoutEdges() {
+        final Polygon empty = Polygon.of(BoundingBox.of(0, 0, 0, 0), new int[0], new double[0]);
+
+        assertFalse(PreparedPolygon.of(empty).contains(0, 0));
+    }
+
+    @Test
+    public void testHorizontalEdgesAreDropped() {
+        final Polygon square = Polygon.of(BoundingBox.of(0, 0, 1, 1), new int[] { 0 }, new double[] { 0, 0, 0, 1, 1, 1, 1, 0, 0, 0 });
+        final PreparedPolygon preparedPolygon = PreparedPolygon.of(square);
+
+        assertEquals(2, preparedPolygon.getNumEdges());
+        assertTrue(preparedPolygon.contains(0.5, 0.5));
+        assertTrue(preparedPolygon.contains(0.5, 0.999));
+    }
+
+    @Test
+    public void testContainsManyPoints() {
+        final PreparedPolygon preparedPolygon = PreparedPolygon.of(star(100));
+        final boolean[] inside = new boolean[3];
+
+        assertEquals(1, preparedPolygon.contains(new double[] { 30, 0, 0, 0, 150, 0 }, inside));
+        assertTrue(inside[0]);
+        assertFalse(inside[1]);
+        assertFalse(inside[2]);
+    }
+
+    @Test
+    public void testSharedBetweenThreads() throws Exception {
+        final Polygon polygon = star(2000);
+        final PreparedPolygon preparedPolygon = PreparedPolygon.of(polygon);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            final List<Future<Boolean>> results = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                final long seed = thread;
+                results.add(executor.submit(() -> {
+                    final Random random = new Random(seed);
+                    for (int i = 0; i < 5000; i++) {
+                        final double x = random.nextDouble() * 200 - 100;
+                        final double y = random.nextDouble() * 200 - 100;
+                        if (GeometryOps.contains(polygon, x, y) != preparedPolygon.contains(x, y)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (final Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
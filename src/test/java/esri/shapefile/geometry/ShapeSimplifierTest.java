@@ -0,0 +1,76 @@
+package esri.shapefile.geometry;
+
+import esri.shapefile.models.shapes.MultiPartShape;
+import esri.shapefile.models.shapes.PolyLine;
+import esri.shapefile.models.shapes.Polygon;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ShapeSimplifierTest {
+
+    @Test
+    public void testPreparingInParallel() {
+        final Random random = new Random(1);
+        final List<Polygon> polygons = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            polygons.add(SimplifiedShapeTest.circle(random, 10 + random.nextInt(2000), 1 + random.nextInt(100)));
+        }
+
+        for (final SimplificationMethod method : SimplificationMethod.values()) {
+            final List<SimplifiedShape<Polygon>> prepared = ShapeSimplifier.create(method).withParallelism(4).prepare(polygons);
+
+            assertEquals(polygons.size(), prepared.size());
+            for (int i = 0; i < polygons.size(); i++) {
+                final SimplifiedShape<Polygon> expected = SimplifiedShape.of(polygons.get(i), method);
+                assertSame(polygons.get(i), prepared.get(i).getShape());
+                for (final double tolerance : new double[] { 0, 0.1, 1, 10 }) {
+                    assertArrayEquals(expected.simplify(tolerance).getCoordinates(), prepared.get(i).simplify(tolerance).getCoordinates(), 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSimplifyingInParallel() {
+        final Random random = new Random(2);
+        final List<PolyLine> lines = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lines.add(SimplifiedShapeTest.randomWalk(random, 2 + random.nextInt(1000)));
+        }
+
+        final List<PolyLine> serial = ShapeSimplifier.create(SimplificationMethod.VISVALINGAM_WHYATT).withParallelism(1).simplify(lines, 2);
+        final List<PolyLine> parallel = ShapeSimplifier.create(SimplificationMethod.VISVALINGAM_WHYATT).withParallelism(3).simplify(lines, 2);
+
+        for (int i = 0; i < lines.size(); i++) {
+            assertArrayEquals(serial.get(i).getCoordinates(), parallel.get(i).getCoordinates(), 0);
+            assertTrue(parallel.get(i).getNumPoints() <= lines.get(i).getNumPoints());
+        }
+    }
+
+    @Test
+    public void testEmptyList() {
+        assertTrue(ShapeSimplifier.create(SimplificationMethod.DOUGLAS_PEUCKER).prepare(Collections.<Polygon>emptyList()).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShapesThatCannotBeSimplified() {
+        final List<MultiPartShape> shapes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            shapes.add(SimplifiedShapeTest.randomWalk(new Random(i), 10));
+        }
+        shapes.add(SimplifiedShapeTest.triangleFan());
+
+        ShapeSimplifier.create(SimplificationMethod.DOUGLAS_PEUCKER).withParallelism(2).prepare(shapes);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParallelismMustBePositive() {
+        ShapeSimplifier.create(SimplificationMethod.DOUGLAS_PEUCKER).withParallelism(0);
+    }
+}
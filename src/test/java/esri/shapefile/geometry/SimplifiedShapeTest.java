@@ -0,0 +1,284 @@
+package esri.shapefile.geometry;
+
+import esri.shapefile.models.BoundingBox;
+import esri.shapefile.models.shapes.MultiPatch;
+import esri.shapefile.models.shapes.PolyLine;
+import esri.shapefile.models.shapes.Polygon;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SimplifiedShapeTest {
+
+    @Test
+    public void testDouglasPeuckerMatchesTheAlgorithmAtEveryTolerance() {
+        final PolyLine line = randomWalk(new Random(1), 2000);
+        final SimplifiedShape<PolyLine> simplified = SimplifiedShape.of(line, SimplificationMethod.DOUGLAS_PEUCKER);
+
+        for (final double tolerance : new double[] { 0, 0.1, 0.5, 1, 2, 5, 10, 50, 1000 }) {
+            assertArrayEquals("Tolerance " + tolerance, douglasPeucker(line.getCoordinates(), tolerance),
+                              simplified.simplify(tolerance).getCoordinates(), 0);
+        }
+    }
+
+    @Test
+    public void testVisvalingamWhyattMatchesTheAlgorithmAtEveryTolerance() {
+        final PolyLine line = randomWalk(new Random(2), 2000);
+        final SimplifiedShape<PolyLine> simplified = SimplifiedShape.of(line, SimplificationMethod.VISVALINGAM_WHYATT);
+
+        for (final double tolerance : new double[] { 0, 0.1, 0.5, 1, 2, 5, 10, 50, 1000 }) {
+            assertArrayEquals("Tolerance " + tolerance, visvalingamWhyatt(line.getCoordinates(), tolerance),
+                              simplified.simplify(tolerance).getCoordinates(), 0);
+        }
+    }
+
+    @Test
+    public void testHigherTolerancesKeepFewerOfTheSamePoints() {
+        for (final SimplificationMethod method : SimplificationMethod.values()) {
+            final SimplifiedShape<Polygon> simplified = SimplifiedShape.of(circle(new Random(3), 5000, 100), method);
+
+            int previous = Integer.MAX_VALUE;
+            for (double tolerance = 0.01; tolerance < 1000; tolerance *= 2) {
+                final int numPoints = simplified.getNumPoints(tolerance);
+                assertTrue(numPoints <= previous);
+                assertEquals(numPoints, simplified.simplify(tolerance).getNumPoints());
+                previous = numPoints;
+            }
+        }
+    }
+
+    @Test
+    public void testRingsNeverCollapse() {
+        final Polygon polygon = circle(new Random(4), 1000, 10);
+
+        for (final SimplificationMethod method : SimplificationMethod.values()) {
+            final Polygon simplified = SimplifiedShape.of(polygon, method).simplify(1e9);
+
+            // The first point, the last point repeating it, and two points in between.
+            assertEquals(method.name(), 4, simplified.getNumPoints());
+            assertEquals(simplified.getX(0), simplified.getX(3), 0);
+            assertEquals(simplified.getY(0), simplified.getY(3), 0);
+            assertTrue(method.name(), Math.abs(GeometryOps.area(simplified)) > 0);
+            assertTrue(method.name(), GeometryOps.isClockwise(simplified.getCoordinates(), 0, 4));
+        }
+    }
+
+    @Test
+    public void testPartsArePreserved() {
+        final Polygon circle = circle(new Random(5), 500, 10);
+        final Polygon hole = circle(new Random(6), 500, 2);
+
+        final double[] xy = Arrays.copyOf(circle.getCoordinates(), 2 * (circle.getNumPoints() + hole.getNumPoints()));
+        final double[] reversed = hole.getCoordinates();
+        for (int i = 0; i < hole.getNumPoints(); i++) {
+            xy[2 * (circle.getNumPoints() + i)] = reversed[2 * (hole.getNumPoints() - 1 - i)];
+            xy[2 * (circle.getNumPoints() + i) + 1] = reversed[2 * (hole.getNumPoints() - 1 - i) + 1];
+        }
+        final Polygon polygon = Polygon.of(circle.getBoundingBox(), new int[] { 0, circle.getNumPoints() }, xy);
+
+        for (final SimplificationMethod method : SimplificationMethod.values()) {
+            final Polygon simplified = SimplifiedShape.of(polygon, method).simplify(0.05);
+
+            assertEquals(2, simplified.getNumParts());
+            assertTrue(simplified.getNumPoints() < polygon.getNumPoints());
+            assertTrue(simplified.getPartEnd(1) - simplified.getPartStart(1) >= 4);
+            assertTrue(GeometryOps.isClockwise(simplified.getCoordinates(), simplified.getPartStart(0), simplified.getPartEnd(0)));
+            assertFalse(GeometryOps.isClockwise(simplified.getCoordinates(), simplified.getPartStart(1), simplified.getPartEnd(1)));
+            assertEquals(GeometryOps.area(polygon), GeometryOps.area(simplified), GeometryOps.area(polygon) * 0.05);
+
+            final BoundingBox boundingBox = simplified.getBoundingBox();
+            assertTrue(boundingBox.getXMin() >= polygon.getBoundingBox().getXMin());
+            assertTrue(boundingBox.getXMax() <= polygon.getBoundingBox().getXMax());
+        }
+    }
+
+    @Test
+    public void testZeroToleranceDropsOnlyPointsThatChangeNothing() {
+        final PolyLine line = PolyLine.of(BoundingBox.of(0, 0, 4, 1), new int[] { 0 }, new double[] {
+            0, 0, 1, 0, 2, 0, 2, 0, 3, 1, 4, 0
+        });
+
+        for (final SimplificationMethod method : SimplificationMethod.values()) {
+            assertArrayEquals(method.name(), new double[] { 0, 0, 2, 0, 3, 1, 4, 0 },
+                              SimplifiedShape.of(line, method).simplify(0).getCoordinates(), 0);
+        }
+    }
+
+    @Test
+    public void testKeepingEveryPointReturnsTheOriginalShape() {
+        final Polygon triangle = Polygon.of(BoundingBox.of(0, 0, 1, 1), new int[] { 0 }, new double[] { 0, 0, 0, 1, 1, 0, 0, 0 });
+        final SimplifiedShape<Polygon> simplified = SimplifiedShape.of(triangle, SimplificationMethod.DOUGLAS_PEUCKER);
+
+        assertSame(triangle, simplified.simplify(100));
+        assertSame(triangle, simplified.getShape());
+        assertEquals(Double.POSITIVE_INFINITY, simplified.getSignificance(2), 0);
+    }
+
+    @Test
+    public void testSquaresBecomeTriangles() {
+        final Polygon square = Polygon.of(BoundingBox.of(0, 0, 1, 1), new int[] { 0 }, new double[] { 0, 0, 0, 1, 1, 1, 1, 0, 0, 0 });
+
+        for (final SimplificationMethod method : SimplificationMethod.values()) {
+            final SimplifiedShape<Polygon> simplified = SimplifiedShape.of(square, method);
+            assertSame(square, simplified.simplify(0));
+            assertEquals(4, simplified.simplify(100).getNumPoints());
+        }
+    }
+
+    @Test
+    public void testSignificance() {
+        final PolyLine line = PolyLine.of(BoundingBox.of(0, 0, 4, 3), new int[] { 0 }, new double[] { 0, 0, 2, 3, 4, 0 });
+
+        assertEquals(3, SimplifiedShape.of(line, SimplificationMethod.DOUGLAS_PEUCKER).getSignificance(1), 1e-12);
+        assertEquals(6, SimplifiedShape.of(line, SimplificationMethod.VISVALINGAM_WHYATT).getSignificance(1), 1e-12);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMultiPatchesCannotBeSimplified() {
+        SimplifiedShape.of(triangleFan(), SimplificationMethod.DOUGLAS_PEUCKER);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeTolerance() {
+        SimplifiedShape.of(randomWalk(new Random(7), 10), SimplificationMethod.DOUGLAS_PEUCKER).simplify(-1);
+    }
+
+    static MultiPatch triangleFan() {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(44 + 4 + 4 + 3 * 16 + 16 + 3 * 8).order(ByteOrder.LITTLE_ENDIAN);
+        byteBuffer.putInt(31).putDouble(0).putDouble(0).putDouble(1).putDouble(1);
+        byteBuffer.putInt(1).putInt(3).putInt(0).putInt(MultiPatch.TRIANGLE_FAN);
+        byteBuffer.putDouble(0).putDouble(0).putDouble(1).putDouble(0).putDouble(1).putDouble(1);
+        byteBuffer.putDouble(0).putDouble(0).putDouble(0).putDouble(0).putDouble(0);
+        byteBuffer.rewind();
+
+        return MultiPatch.fromBytes(byteBuffer);
+    }
+
+    static PolyLine randomWalk(final Random random, final int numPoints) {
+        final double[] xy = new double[2 * numPoints];
+        for (int i = 1; i < numPoints; i++) {
+            xy[2 * i] = xy[2 * i - 2] + random.nextGaussian();
+            xy[2 * i + 1] = xy[2 * i - 1] + random.nextGaussian();
+        }
+
+        return PolyLine.of(GeometryOps.boundingBox(xy, 0, numPoints), new int[] { 0 }, xy);
+    }
+
+    /**
+     * A closed, clockwise ring of points around a circle, each nudged a little in or out.
+     */
+    static Polygon circle(final Random random, final int numPoints, final double radius) {
+        final double[] xy = new double[2 * (numPoints + 1)];
+        for (int i = 0; i < numPoints; i++) {
+            final double angle = -2 * Math.PI * i / numPoints;
+            final double r = radius * (1 + 0.01 * random.nextGaussian());
+            xy[2 * i] = r * Math.cos(angle);
+            xy[2 * i + 1] = r * Math.sin(angle);
+        }
+        xy[2 * numPoints] = xy[0];
+        xy[2 * numPoints + 1] = xy[1];
+
+        return Polygon.of(GeometryOps.boundingBox(xy, 0, numPoints + 1), new int[] { 0 }, xy);
+    }
+
+    /**
+     * The textbook recursion, keeping points farther than the tolerance from the segment between the points kept
+     * around them.
+     */
+    private static double[] douglasPeucker(final double[] xy, final double tolerance) {
+        final int numPoints = xy.length / 2;
+        final boolean[] kept = new boolean[numPoints];
+        kept[0] = true;
+        kept[numPoints - 1] = true;
+        split(xy, 0, numPoints - 1, tolerance, kept);
+
+        return keep(xy, kept);
+    }
+
+    private static void split(final double[] xy, final int first, final int last, final double tolerance, final boolean[] kept) {
+        int farthest = -1;
+        double farthestDistance = tolerance;
+        for (int i = first + 1; i < last; i++) {
+            final double distance = distanceToSegment(xy, i, first, last);
+            if (distance > farthestDistance) {
+                farthest = i;
+                farthestDistance = distance;
+            }
+        }
+
+        if (farthest >= 0) {
+            kept[farthest] = true;
+            split(xy, first, farthest, tolerance, kept);
+            split(xy, farthest, last, tolerance, kept);
+        }
+    }
+
+    private static double distanceToSegment(final double[] xy, final int point, final int first, final int last) {
+        final double dx = xy[2 * last] - xy[2 * first];
+        final double dy = xy[2 * last + 1] - xy[2 * first + 1];
+        final double x = xy[2 * point] - xy[2 * first];
+        final double y = xy[2 * point + 1] - xy[2 * first + 1];
+        final double t = Math.max(0, Math.min(1, (x * dx + y * dy) / (dx * dx + dy * dy)));
+
+        return Math.hypot(x - t * dx, y - t * dy);
+    }
+
+    /**
+     * The textbook loop, dropping the point that makes the smallest triangle with its neighbours for as long as that
+     * triangle is no larger than the tolerance.
+     */
+    private static double[] visvalingamWhyatt(final double[] xy, final double tolerance) {
+        final List<Integer> points = new ArrayList<>();
+        for (int i = 0; i < xy.length / 2; i++) {
+            points.add(i);
+        }
+
+        while (points.size() > 2) {
+            int smallest = -1;
+            double smallestArea = Double.POSITIVE_INFINITY;
+            for (int i = 1; i + 1 < points.size(); i++) {
+                final double area = triangleArea(xy, points.get(i - 1), points.get(i), points.get(i + 1));
+                if (area < smallestArea) {
+                    smallest = i;
+                    smallestArea = area;
+                }
+            }
+            if (smallestArea > tolerance) {
+                break;
+            }
+            points.remove(smallest);
+        }
+
+        final boolean[] kept = new boolean[xy.length / 2];
+        for (final int point : points) {
+            kept[point] = true;
+        }
+
+        return keep(xy, kept);
+    }
+
+    private static double triangleArea(final double[] xy, final int a, final int b, final int c) {
+        return Math.abs((xy[2 * a] - xy[2 * b]) * (xy[2 * c + 1] - xy[2 * b + 1]) - (xy[2 * c] - xy[2 * b]) * (xy[2 * a + 1] - xy[2 * b + 1])) / 2;
+    }
+
+    private static double[] keep(final double[] xy, final boolean[] kept) {
+        final double[] result = new double[xy.length];
+        int count = 0;
+        for (int i = 0; i < kept.length; i++) {
+            if (kept[i]) {
+                result[2 * count] = xy[2 * i];
+                result[2 * count + 1] = xy[2 * i + 1];
+                count++;
+            }
+        }
+
+        return Arrays.copyOf(result, 2 * count);
+    }
+}
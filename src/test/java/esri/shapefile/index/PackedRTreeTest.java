@@ -0,0 +1,110 @@
+package esri.shapefile.index;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class PackedRTreeTest {
+
+    @Test
+    public void testQueryingMatchesABruteForceSearch() throws Exception {
+        final Random random = new Random(42);
+        final int numItems = 5000;
+
+        final int[] recordNumbers = IntStream.rangeClosed(1, numItems).toArray();
+        final double[] boxes = new double[4 * numItems];
+        for (int i = 0; i < numItems; i++) {
+            final double x = random.nextDouble() * 360 - 180;
+            final double y = random.nextDouble() * 180 - 90;
+            boxes[4 * i] = x;
+            boxes[4 * i + 1] = y;
+            boxes[4 * i + 2] = x + random.nextDouble() * 5;
+            boxes[4 * i + 3] = y + random.nextDouble() * 5;
+        }
+
+        final PackedRTree packedRTree = PackedRTree.build(recordNumbers, boxes, PackedRTree.DEFAULT_NODE_SIZE);
+
+        final File file = File.createTempFile("packed-r-tree", "." + PackedRTree.EXTENSION);
+        file.deleteOnExit();
+        packedRTree.write(file);
+        final PackedRTree mappedPackedRTree = PackedRTree.open(file);
+        assertEquals(numItems, mappedPackedRTree.getNumItems());
+
+        for (int query = 0; query < 100; query++) {
+            final double xMin = random.nextDouble() * 360 - 180;
+            final double yMin = random.nextDouble() * 180 - 90;
+            final double xMax = xMin + random.nextDouble() * 40;
+            final double yMax = yMin + random.nextDouble() * 20;
+
+            final int[] expected = IntStream.range(0, numItems)
+                    .filter(i -> boxes[4 * i] <= xMax && boxes[4 * i + 2] >= xMin && boxes[4 * i + 1] <= yMax && boxes[4 * i + 3] >= yMin)
+                    .map(i -> recordNumbers[i])
+                    .toArray();
+
+            assertArrayEquals(expected, packedRTree.query(xMin, yMin, xMax, yMax));
+            assertArrayEquals(expected, mappedPackedRTree.query(xMin, yMin, xMax, yMax));
+        }
+    }
+
+    @Test
+    public void testQueryingAnEmptyTree() throws Exception {
+        final PackedRTree packedRTree = PackedRTree.build(new int[0], new double[0], PackedRTree.DEFAULT_NODE_SIZE);
+        assertEquals(0, packedRTree.query(-180, -90, 180, 90).length);
+    }
+
+    @Test
+    public void testQueryingASingleItem() throws Exception {
+        final PackedRTree packedRTree = PackedRTree.build(new int[] { 7 }, new double[] { 1, 1, 2, 2 }, PackedRTree.DEFAULT_NODE_SIZE);
+        assertArrayEquals(new int[] { 7 }, packedRTree.query(0, 0, 1.5, 1.5));
+        assertEquals(0, packedRTree.query(3, 3, 4, 4).length);
+    }
+
+    @Test(timeout = 10000)
+    public void testCorruptTreesAreRejected() throws Exception {
+        final int numItems = 100;
+        final int[] recordNumbers = IntStream.rangeClosed(1, numItems).toArray();
+        final double[] boxes = new double[4 * numItems];
+        for (int i = 0; i < numItems; i++) {
+            boxes[4 * i] = boxes[4 * i + 1] = i;
+            boxes[4 * i + 2] = boxes[4 * i + 3] = i + 1;
+        }
+
+        final File file = File.createTempFile("packed-r-tree", "." + PackedRTree.EXTENSION);
+        file.deleteOnExit();
+
+        for (final int corruptNumItems : new int[] { -1, Integer.MIN_VALUE, 99, 1000000, Integer.MAX_VALUE }) {
+            PackedRTree.build(recordNumbers, boxes, PackedRTree.DEFAULT_NODE_SIZE).write(file);
+            writeInt(file, 4, corruptNumItems);
+
+            try {
+                PackedRTree.open(file);
+                fail("Number of items " + corruptNumItems);
+            } catch (final ShapefileNotReadableException expected) {
+                // Rather than looping forever, or failing on the first query.
+            }
+        }
+
+        // 100 leaves, 7 parents and the root, which points back at itself.
+        PackedRTree.build(recordNumbers, boxes, PackedRTree.DEFAULT_NODE_SIZE).write(file);
+        writeInt(file, 16 + 32 * 108 + 4 * 107, 107);
+        try {
+            PackedRTree.open(file).query(0, 0, 100, 100);
+            fail("Root pointing at itself");
+        } catch (final ShapefileNotReadableException expected) {
+            // Rather than looping forever.
+        }
+    }
+
+    private static void writeInt(final File file, final long position, final int value) throws Exception {
+        try (final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.seek(position);
+            randomAccessFile.writeInt(Integer.reverseBytes(value));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package esri.shapefile.index;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class QixIndexTest {
+
+    @Test
+    public void testQueryingAQuadtree() throws Exception {
+        // A root covering (0, 0, 10, 10) holding shape 0, with two quadrants:
+        // (0, 0, 5, 5) holding shapes 1 and 2, and (5, 5, 10, 10) holding shape 3.
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(16 + 48 + 52 + 48).order(ByteOrder.LITTLE_ENDIAN);
+        byteBuffer.put((byte) 'S').put((byte) 'Q').put((byte) 'T').put((byte) 1).put((byte) 1).put(new byte[3]);
+        byteBuffer.putInt(4).putInt(2);
+
+        writeNode(byteBuffer, 52 + 48, 0, 0, 10, 10, new int[] { 0 }, 2);
+        writeNode(byteBuffer, 0, 0, 0, 5, 5, new int[] { 1, 2 }, 0);
+        writeNode(byteBuffer, 0, 5, 5, 10, 10, new int[] { 3 }, 0);
+
+        final File file = File.createTempFile("quadtree", ".qix");
+        file.deleteOnExit();
+        try (final FileOutputStream fileOutputStream = new FileOutputStream(file)) {
+            fileOutputStream.write(byteBuffer.array());
+        }
+
+        final QixIndex qixIndex = QixIndex.open(file);
+        assertEquals(4, qixIndex.getNumShapes());
+        assertArrayEquals(new int[] { 1, 2, 3 }, qixIndex.query(1, 1, 2, 2));
+        assertArrayEquals(new int[] { 1, 4 }, qixIndex.query(8, 8, 9, 9));
+        assertArrayEquals(new int[] { 1, 2, 3, 4 }, qixIndex.query(4, 4, 6, 6));
+        assertEquals(0, qixIndex.query(20, 20, 30, 30).length);
+    }
+
+    @Test
+    public void testCorruptNodesAreRejected() throws Exception {
+        // offset, numShapes of a root node with no children
+        final int[][] corruptNodes = { { -48, 0 }, { Integer.MIN_VALUE, 0 }, { 0, -1 }, { 0, 2 }, { 0, Integer.MAX_VALUE } };
+        for (final int[] corruptNode : corruptNodes) {
+            final ByteBuffer byteBuffer = ByteBuffer.allocate(16 + 48).order(ByteOrder.LITTLE_ENDIAN);
+            byteBuffer.put((byte) 'S').put((byte) 'Q').put((byte) 'T').put((byte) 1).put((byte) 1).put(new byte[3]);
+            byteBuffer.putInt(1).putInt(1);
+            writeNode(byteBuffer, corruptNode[0], 0, 0, 10, 10, new int[] { 0 }, 0);
+            byteBuffer.putInt(52, corruptNode[1]);
+
+            final QixIndex qixIndex = QixIndex.open(write(byteBuffer));
+            for (final double corner : new double[] { 5, 20 }) {
+                try {
+                    qixIndex.query(corner, corner, corner + 1, corner + 1);
+                    fail("Queried a corrupt node: " + Arrays.toString(corruptNode));
+                } catch (final ShapefileNotReadableException expected) {
+                    // Whether or not the node intersects the query.
+                }
+            }
+        }
+    }
+
+    private static File write(final ByteBuffer byteBuffer) throws Exception {
+        final File file = File.createTempFile("quadtree", ".qix");
+        file.deleteOnExit();
+        try (final FileOutputStream fileOutputStream = new FileOutputStream(file)) {
+            fileOutputStream.write(byteBuffer.array());
+        }
+        return file;
+    }
+
+    private static void writeNode(final ByteBuffer byteBuffer, final int offset, final double xMin, final double yMin,
+                                  final double xMax, final double yMax, final int[] shapeIds, final int numChildren) {
+        byteBuffer.putInt(offset);
+        byteBuffer.putDouble(xMin).putDouble(yMin).putDouble(xMax).putDouble(yMax);
+        byteBuffer.putInt(shapeIds.length);
+        for (final int shapeId : shapeIds) {
+            byteBuffer.putInt(shapeId);
+        }
+        byteBuffer.putInt(numChildren);
+    }
+}
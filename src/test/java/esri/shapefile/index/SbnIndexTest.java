@@ -0,0 +1,92 @@
+package esri.shapefile.index;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+public class SbnIndexTest {
+
+    @Test
+    public void testQueryingSpatialBins() throws Exception {
+        final SbnIndex sbnIndex = SbnIndex.open(write(spatialBins()));
+        assertEquals(3, sbnIndex.getNumShapes());
+        assertArrayEquals(new int[] { 1 }, sbnIndex.query(12, 12, 15, 15));
+        assertArrayEquals(new int[] { 2, 3 }, sbnIndex.query(110, 40, 210, 110));
+        assertEquals(0, sbnIndex.query(50, 50, 60, 60).length);
+        assertEquals(0, sbnIndex.query(300, 300, 400, 400).length);
+    }
+
+    @Test
+    public void testCorruptIndexSizesAreRejected() throws Exception {
+        for (final int indexSize : new int[] { -1, Integer.MIN_VALUE, Integer.MAX_VALUE, 1000 }) {
+            final ByteBuffer byteBuffer = spatialBins();
+            byteBuffer.putInt(104, indexSize);
+
+            try {
+                SbnIndex.open(write(byteBuffer)).query(0, 0, 255, 255);
+                fail("Index size " + indexSize);
+            } catch (final ShapefileNotReadableException expected) {
+                // Rather than an IndexOutOfBoundsException.
+            }
+        }
+    }
+
+    @Test
+    public void testCorruptBinsAreRejected() throws Exception {
+        // The content length of the second bin, and the size of the file.
+        final int[][] corruptions = { { -4, 156 }, { Integer.MIN_VALUE, 156 }, { Integer.MAX_VALUE, 156 }, { 6, 156 }, { 4, 159 } };
+        for (final int[] corruption : corruptions) {
+            final ByteBuffer byteBuffer = spatialBins();
+            byteBuffer.putInt(144, corruption[0]);
+            final ByteBuffer resized = ByteBuffer.allocate(corruption[1]);
+            resized.put(byteBuffer.array(), 0, Math.min(byteBuffer.capacity(), corruption[1]));
+
+            final SbnIndex sbnIndex = SbnIndex.open(write(resized));
+            try {
+                sbnIndex.query(0, 0, 255, 255);
+                fail(corruption[0] + " words in a file of " + corruption[1] + " bytes");
+            } catch (final ShapefileNotReadableException expected) {
+                // Rather than quietly dropping the remaining bins.
+            }
+        }
+    }
+
+    /**
+     * One bin index entry, followed by two bins over an extent of (0, 0, 255, 255).
+     */
+    private static ByteBuffer spatialBins() {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(108 + 8 + 8 + 16 + 8 + 8).order(ByteOrder.BIG_ENDIAN);
+        byteBuffer.putInt(9994);
+        byteBuffer.position(28);
+        byteBuffer.putInt(3);
+        byteBuffer.putDouble(0).putDouble(0).putDouble(255).putDouble(255);
+        byteBuffer.position(100);
+        byteBuffer.putInt(0).putInt(4);
+        byteBuffer.putInt(0).putInt(0);
+
+        byteBuffer.putInt(1).putInt(8);
+        byteBuffer.put((byte) 10).put((byte) 10).put((byte) 20).put((byte) 20).putInt(1);
+        byteBuffer.put((byte) 100).put((byte) 100).put((byte) 120).put((byte) 120).putInt(2);
+
+        byteBuffer.putInt(2).putInt(4);
+        byteBuffer.put((byte) 200).put((byte) 0).put((byte) 255).put((byte) 50).putInt(3);
+
+        return byteBuffer;
+    }
+
+    private static File write(final ByteBuffer byteBuffer) throws Exception {
+        final File file = File.createTempFile("spatial-bins", ".sbn");
+        file.deleteOnExit();
+        try (final FileOutputStream fileOutputStream = new FileOutputStream(file)) {
+            fileOutputStream.write(byteBuffer.array());
+        }
+
+        return file;
+    }
+}
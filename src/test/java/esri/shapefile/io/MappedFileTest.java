@@ -0,0 +1,62 @@
+package esri.shapefile.io;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+public class MappedFileTest {
+
+    @Test
+    public void testReadingAcrossChunks() throws Exception {
+        final File file = File.createTempFile("mapped-file", ".bin");
+        file.deleteOnExit();
+
+        final ByteBuffer contents = ByteBuffer.allocate(4096);
+        contents.order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < 1024; i++) {
+            contents.putInt(i);
+        }
+
+        try (final FileOutputStream fileOutputStream = new FileOutputStream(file)) {
+            fileOutputStream.write(contents.array());
+        }
+
+        // Chunks start every 1000 bytes and overlap the next chunk by 16 bytes.
+        final MappedFile mappedFile = MappedFile.open(file, 1000, 16);
+        assertEquals(4096, mappedFile.size());
+
+        assertEquals(249, mappedFile.getInt(996, ByteOrder.LITTLE_ENDIAN));
+        assertEquals(250, mappedFile.getInt(1000, ByteOrder.LITTLE_ENDIAN));
+
+        // Fits within the overlap of the first chunk.
+        final ByteBuffer shared = mappedFile.slice(992, 16).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(16, shared.remaining());
+        assertEquals(248, shared.getInt(0));
+        assertEquals(251, shared.getInt(12));
+
+        // Spans three chunks, so it has to be copied.
+        final ByteBuffer copied = mappedFile.slice(800, 2400).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(2400, copied.remaining());
+        for (int i = 0; i < 600; i++) {
+            assertEquals(200 + i, copied.getInt(i * 4));
+        }
+    }
+
+    @Test(expected = ShapefileNotReadableException.class)
+    public void testReadingPastTheEndOfTheFile() throws Exception {
+        final File file = File.createTempFile("mapped-file", ".bin");
+        file.deleteOnExit();
+
+        try (final FileOutputStream fileOutputStream = new FileOutputStream(file)) {
+            fileOutputStream.write(new byte[8]);
+        }
+
+        MappedFile.open(file).slice(4, 8);
+    }
+}
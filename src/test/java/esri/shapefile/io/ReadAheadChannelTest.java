@@ -0,0 +1,97 @@
+package esri.shapefile.io;
+
+import esri.shapefile.exceptions.ShapefileNotReadableException;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+public class ReadAheadChannelTest {
+
+    @Test
+    public void testReadingWithinAndAcrossBlocks() throws Exception {
+        final File file = writeInts(1024);
+
+        // Blocks of 100 bytes do not line up with the 4-byte integers.
+        try (final ReadAheadChannel readAheadChannel = ReadAheadChannel.open(file, 100, 3)) {
+            for (int i = 0; i < 1024; i += 8) {
+                final ByteBuffer region = readAheadChannel.next(32).order(ByteOrder.LITTLE_ENDIAN);
+                assertEquals(32, region.remaining());
+                for (int j = 0; j < 8; j++) {
+                    assertEquals(i + j, region.getInt(4 * j));
+                }
+            }
+            assertEquals(4096, readAheadChannel.position());
+        }
+    }
+
+    @Test
+    public void testReadingRegionsLargerThanABlock() throws Exception {
+        final File file = writeInts(1024);
+
+        try (final ReadAheadChannel readAheadChannel = ReadAheadChannel.open(file, 64, 2)) {
+            readAheadChannel.next(4);
+
+            final ByteBuffer region = readAheadChannel.next(4000).order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals(1, region.getInt(0));
+            assertEquals(1000, region.getInt(3996));
+        }
+    }
+
+    @Test(expected = ShapefileNotReadableException.class)
+    public void testReadingPastTheEndFails() throws Exception {
+        final File file = writeInts(16);
+
+        try (final ReadAheadChannel readAheadChannel = ReadAheadChannel.open(file, 32, 2)) {
+            readAheadChannel.next(60);
+            readAheadChannel.next(8);
+        }
+    }
+
+    @Test
+    public void testReadingANegativeLengthFails() throws Exception {
+        final File file = writeInts(16);
+
+        try (final ReadAheadChannel readAheadChannel = ReadAheadChannel.open(file, 32, 2)) {
+            readAheadChannel.next(8);
+            for (final int length : new int[] { -1, -8, Integer.MIN_VALUE }) {
+                try {
+                    readAheadChannel.next(length);
+                    fail("Length " + length);
+                } catch (final ShapefileNotReadableException e) {
+                    assertTrue(e.getMessage(), e.getMessage().contains("negative length"));
+                }
+            }
+            assertEquals(8, readAheadChannel.position());
+        }
+    }
+
+    @Test
+    public void testClosingBeforeTheEndStopsReadingAhead() throws Exception {
+        final File file = writeInts(1 << 16);
+
+        final ReadAheadChannel readAheadChannel = ReadAheadChannel.open(file, 128, 4);
+        readAheadChannel.next(16);
+        readAheadChannel.close();
+    }
+
+    private static File writeInts(final int count) throws Exception {
+        final File file = File.createTempFile("read-ahead", ".bin");
+        file.deleteOnExit();
+
+        final ByteBuffer contents = ByteBuffer.allocate(4 * count).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < count; i++) {
+            contents.putInt(i);
+        }
+
+        try (final FileOutputStream fileOutputStream = new FileOutputStream(file)) {
+            fileOutputStream.write(contents.array());
+        }
+
+        return file;
+    }
+}
@@ -0,0 +1,76 @@
+package esri.shapefile.metrics;
+
+import esri.shapefile.models.shapes.ShapeType;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+public class ReaderStatisticsTest {
+
+    @Test
+    public void testHistogramBuckets() {
+        assertEquals(0, Histogram.bucketOf(0));
+        assertEquals(1, Histogram.bucketOf(1));
+        assertEquals(2, Histogram.bucketOf(2));
+        assertEquals(2, Histogram.bucketOf(3));
+        assertEquals(3, Histogram.bucketOf(4));
+        assertEquals(11, Histogram.bucketOf(1024));
+        assertEquals(1024, Histogram.lowerBound(11));
+
+        final Histogram histogram = new Histogram();
+        histogram.record(0);
+        histogram.record(5);
+        histogram.record(7);
+
+        assertArrayEquals(new long[] { 1, 0, 0, 2 }, histogram.getCounts());
+        assertEquals(3, histogram.getCount());
+    }
+
+    @Test
+    public void testAccumulatingRecords() {
+        final ReaderStatistics statistics = new ReaderStatistics();
+        statistics.recordDecoded(ShapeType.Polygon, 128, 5, 100);
+        statistics.recordDecoded(ShapeType.Polygon, 128, 5, 300);
+        statistics.recordDecoded(ShapeType.NullShape, 4, 0, 20);
+        statistics.recordConsumed(50);
+        statistics.recordSkipped();
+        statistics.bytesRead(400);
+
+        assertEquals(3, statistics.getRecordsDecoded());
+        assertEquals(2, statistics.getRecordsDecoded(ShapeType.Polygon));
+        assertEquals(Long.valueOf(1), statistics.getRecordsDecodedByShapeType().get("NullShape"));
+        assertEquals(420, statistics.getDecodeNanos());
+        assertEquals(140.0, statistics.getMeanDecodeNanos(), 0.001);
+        assertEquals(50.0, statistics.getMeanConsumeNanos(), 0.001);
+        assertEquals(1, statistics.getRecordsSkipped());
+        assertEquals(400, statistics.getBytesRead());
+        assertEquals(2, statistics.getVertexCountHistogram()[Histogram.bucketOf(5)]);
+
+        statistics.reset();
+        assertEquals(0, statistics.getRecordsDecoded());
+        assertEquals(0, statistics.getVertexCountHistogram().length);
+    }
+
+    @Test
+    public void testPublishingOverJmx() throws Exception {
+        final ReaderStatistics statistics = new ReaderStatistics();
+        statistics.recordSkipped();
+
+        final ObjectName objectName = statistics.register("test");
+        try {
+            final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(1L, mBeanServer.getAttribute(objectName, "RecordsSkipped"));
+
+            mBeanServer.invoke(objectName, "reset", new Object[0], new String[0]);
+            assertEquals(0, statistics.getRecordsSkipped());
+        } finally {
+            ReaderStatistics.unregister("test");
+        }
+
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName));
+    }
+}
@@ -0,0 +1,38 @@
+package esri.shapefile.models;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+
+import static org.junit.Assert.*;
+
+public class ShapefileIndexTest {
+
+    @Test
+    public void testBuildingFromAnIndexFile() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final InputStream inputStream = this.getClass().getResourceAsStream("/fixtures/2004_us_election/elpo04p020.shx")) {
+            final byte[] buffer = new byte[8192];
+            for (int read = inputStream.read(buffer); read >= 0; read = inputStream.read(buffer)) {
+                bytes.write(buffer, 0, read);
+            }
+        }
+
+        final ShapefileIndex shapefileIndex = ShapefileIndex.fromBytes(bytes.toByteArray());
+        assertEquals(9994,  shapefileIndex.getMainFileHeader().getFileCode());
+        assertEquals(19070, shapefileIndex.getMainFileHeader().getFileLength());
+        assertEquals(4755,  shapefileIndex.getNumRecords());
+
+        assertEquals(50,     shapefileIndex.getOffset(1));
+        assertEquals(100,    shapefileIndex.getOffsetBytes(1));
+        assertEquals(13136,  shapefileIndex.getContentLength(1));
+        assertEquals(26272,  shapefileIndex.getContentLengthBytes(1));
+        assertEquals(13190,  shapefileIndex.getOffset(2));
+        assertEquals(266062, shapefileIndex.getContentLength(2));
+
+        assertTrue(shapefileIndex.contains(4755));
+        assertFalse(shapefileIndex.contains(0));
+        assertFalse(shapefileIndex.contains(4756));
+    }
+}
@@ -0,0 +1,43 @@
+package esri.shapefile.models.shapes;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+public class MultiPatchTest {
+
+    @Test
+    public void testBuildingFromBytes() throws Exception {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(44 + 4 + 4 + 3 * 16 + 16 + 3 * 8);
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        byteBuffer.putInt(31);   // Shape Type (MultiPatch)
+        byteBuffer.putDouble(0); // Min X
+        byteBuffer.putDouble(0); // Min Y
+        byteBuffer.putDouble(1); // Max X
+        byteBuffer.putDouble(1); // Max Y
+
+        byteBuffer.putInt(1); // Number of Parts
+        byteBuffer.putInt(3); // Number of Points
+        byteBuffer.putInt(0); // Parts
+        byteBuffer.putInt(MultiPatch.TRIANGLE_FAN); // Part Types
+
+        byteBuffer.putDouble(0).putDouble(0);
+        byteBuffer.putDouble(1).putDouble(0);
+        byteBuffer.putDouble(1).putDouble(1);
+
+        byteBuffer.putDouble(3).putDouble(5);
+        byteBuffer.putDouble(3).putDouble(4).putDouble(5);
+
+        byteBuffer.rewind();
+        final MultiPatch multiPatch = MultiPatch.fromBytes(byteBuffer);
+        assertEquals(ShapeType.MultiPatch, multiPatch.getShapeType());
+        assertEquals(MultiPatch.TRIANGLE_FAN, multiPatch.getPartType(0));
+        assertEquals(1.0, multiPatch.getX(2), 0.001);
+        assertEquals(1.0, multiPatch.getY(2), 0.001);
+        assertEquals(5.0, multiPatch.getZ(2), 0.001);
+        assertFalse(multiPatch.hasM());
+    }
+}
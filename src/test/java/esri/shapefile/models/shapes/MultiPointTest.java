@@ -0,0 +1,52 @@
+package esri.shapefile.models.shapes;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class MultiPointTest {
+
+    @Test
+    public void testBuildingFromBytes() throws Exception {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(40 + 3 * 16);
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        byteBuffer.putInt(8);    // Shape Type (MultiPoint)
+        byteBuffer.putDouble(1); // Min X
+        byteBuffer.putDouble(2); // Min Y
+        byteBuffer.putDouble(5); // Max X
+        byteBuffer.putDouble(6); // Max Y
+        byteBuffer.putInt(3);    // Number of Points
+
+        byteBuffer.putDouble(1).putDouble(2);
+        byteBuffer.putDouble(3).putDouble(4);
+        byteBuffer.putDouble(5).putDouble(6);
+
+        byteBuffer.rewind();
+        final MultiPoint multiPoint = MultiPoint.fromBytes(byteBuffer);
+        assertEquals(ShapeType.MultiPoint, multiPoint.getShapeType());
+        assertEquals(3, multiPoint.getNumPoints());
+        assertEquals(Arrays.asList(Point.at(1, 2), Point.at(3, 4), Point.at(5, 6)), multiPoint.getPoints());
+    }
+
+    @Test
+    public void testBuildingMultiPointMFromBytes() throws Exception {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(40 + 16 + 16 + 8);
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        byteBuffer.putInt(28);   // Shape Type (MultiPointM)
+        byteBuffer.putDouble(1).putDouble(2).putDouble(1).putDouble(2);
+        byteBuffer.putInt(1);
+        byteBuffer.putDouble(1).putDouble(2);
+        byteBuffer.putDouble(7).putDouble(7);
+        byteBuffer.putDouble(7);
+
+        byteBuffer.rewind();
+        final MultiPoint multiPoint = MultiPoint.fromBytes(byteBuffer);
+        assertEquals(ShapeType.MultiPointM, multiPoint.getShapeType());
+        assertFalse(multiPoint.hasZ());
+        assertEquals(Point.measuredAt(1, 2, 7), multiPoint.getPoints().get(0));
+    }
+}
@@ -32,4 +32,65 @@ public class PointTest {
         assertEquals(4.56, point.getY(), 0.001);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testEqualPointsHaveEqualHashCodes() throws Exception {
+        assertEquals(Point.at(1.23, 4.56), Point.at(1.23, 4.56));
+        assertEquals(Point.at(1.23, 4.56).hashCode(), Point.at(1.23, 4.56).hashCode());
+        assertNotEquals(Point.at(1.23, 4.56), Point.at(4.56, 1.23));
+    }
+
+    @Test
+    public void testSignedZerosAreConsistentWithHashCodes() throws Exception {
+        // Equal points must hash alike, so points that hash differently must not be equal.
+        assertNotEquals(Point.at(0.0, 1), Point.at(-0.0, 1));
+        assertNotEquals(Point.at(1, 0.0), Point.at(1, -0.0));
+        assertEquals(Point.at(Double.NaN, 1), Point.at(Double.NaN, 1));
+        assertEquals(Point.at(Double.NaN, 1).hashCode(), Point.at(Double.NaN, 1).hashCode());
+    }
+
+    @Test
+    public void testBuildingPointZFromBytes() throws Exception {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(36);
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        byteBuffer.putInt(11);
+        byteBuffer.putDouble(2.2);
+        byteBuffer.putDouble(3.3);
+        byteBuffer.putDouble(4.4);
+        byteBuffer.putDouble(5.5);
+
+        final Point point = Point.fromBytes(byteBuffer.array());
+        assertEquals(ShapeType.PointZ, point.getShapeType());
+        assertEquals(4.4, point.getZ(), 0.001);
+        assertEquals(5.5, point.getM(), 0.001);
+    }
+
+    @Test
+    public void testBuildingPointZWithoutMeasureFromBytes() throws Exception {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(28);
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        byteBuffer.putInt(11);
+        byteBuffer.putDouble(2.2);
+        byteBuffer.putDouble(3.3);
+        byteBuffer.putDouble(4.4);
+
+        final Point point = Point.fromBytes(byteBuffer.array());
+        assertEquals(4.4, point.getZ(), 0.001);
+        assertTrue(Double.isNaN(point.getM()));
+    }
+
+    @Test
+    public void testBuildingPointMFromBytes() throws Exception {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(28);
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        byteBuffer.putInt(21);
+        byteBuffer.putDouble(2.2);
+        byteBuffer.putDouble(3.3);
+        byteBuffer.putDouble(6.6);
+
+        final Point point = Point.fromBytes(byteBuffer.array());
+        assertEquals(ShapeType.PointM, point.getShapeType());
+        assertTrue(Double.isNaN(point.getZ()));
+        assertEquals(6.6, point.getM(), 0.001);
+        assertEquals(Point.measuredAt(2.2, 3.3, 6.6), point);
+    }
+}
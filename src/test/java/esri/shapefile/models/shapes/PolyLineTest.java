@@ -0,0 +1,105 @@
+package esri.shapefile.models.shapes;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class PolyLineTest {
+
+    @Test
+    public void testBuildingFromBytes() throws Exception {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(44 + 8 + 4 * 16);
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        byteBuffer.putInt(3);    // Shape Type (PolyLine)
+        byteBuffer.putDouble(0); // Min X
+        byteBuffer.putDouble(0); // Min Y
+        byteBuffer.putDouble(3); // Max X
+        byteBuffer.putDouble(3); // Max Y
+
+        byteBuffer.putInt(2); // Number of Parts
+        byteBuffer.putInt(4); // Number of Points
+
+        // Parts
+        byteBuffer.putInt(0);
+        byteBuffer.putInt(2);
+
+        // Points
+        byteBuffer.putDouble(0).putDouble(0);
+        byteBuffer.putDouble(1).putDouble(1);
+        byteBuffer.putDouble(2).putDouble(2);
+        byteBuffer.putDouble(3).putDouble(3);
+
+        byteBuffer.rewind();
+        final PolyLine polyLine = PolyLine.fromBytes(byteBuffer);
+        assertEquals(ShapeType.PolyLine, polyLine.getShapeType());
+        assertEquals(3.0, polyLine.getBoundingBox().getXMax(), 0.001);
+
+        assertEquals(2, polyLine.getNumParts());
+        assertEquals(4, polyLine.getNumPoints());
+        assertFalse(polyLine.hasZ());
+        assertFalse(polyLine.hasM());
+
+        assertEquals(Arrays.asList(Point.at(2, 2), Point.at(3, 3)), polyLine.getLines().get(1));
+    }
+
+    @Test
+    public void testBuildingPolyLineZFromBytes() throws Exception {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(44 + 4 + 2 * 16 + 16 + 2 * 8 + 16 + 2 * 8);
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        byteBuffer.putInt(13);   // Shape Type (PolyLineZ)
+        byteBuffer.putDouble(0); // Min X
+        byteBuffer.putDouble(0); // Min Y
+        byteBuffer.putDouble(1); // Max X
+        byteBuffer.putDouble(1); // Max Y
+
+        byteBuffer.putInt(1); // Number of Parts
+        byteBuffer.putInt(2); // Number of Points
+        byteBuffer.putInt(0);
+
+        byteBuffer.putDouble(0).putDouble(0);
+        byteBuffer.putDouble(1).putDouble(1);
+
+        // Z Range and Values
+        byteBuffer.putDouble(10).putDouble(20);
+        byteBuffer.putDouble(10).putDouble(20);
+
+        // M Range and Values
+        byteBuffer.putDouble(0.5).putDouble(1.5);
+        byteBuffer.putDouble(0.5).putDouble(1.5);
+
+        byteBuffer.rewind();
+        final PolyLine polyLine = PolyLine.fromBytes(byteBuffer);
+        assertEquals(ShapeType.PolyLineZ, polyLine.getShapeType());
+        assertTrue(polyLine.hasZ());
+        assertTrue(polyLine.hasM());
+
+        assertEquals(10.0, polyLine.getZMin(), 0.001);
+        assertEquals(20.0, polyLine.getZMax(), 0.001);
+        assertEquals(20.0, polyLine.getZ(1), 0.001);
+        assertEquals(1.5, polyLine.getM(1), 0.001);
+        assertEquals(Point.at(1, 1, 20, 1.5), polyLine.getPoints().get(1));
+    }
+
+    @Test
+    public void testBuildingPolyLineZWithoutMeasuresFromBytes() throws Exception {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(44 + 4 + 2 * 16 + 16 + 2 * 8);
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        byteBuffer.putInt(13);
+        byteBuffer.putDouble(0).putDouble(0).putDouble(1).putDouble(1);
+        byteBuffer.putInt(1).putInt(2).putInt(0);
+        byteBuffer.putDouble(0).putDouble(0);
+        byteBuffer.putDouble(1).putDouble(1);
+        byteBuffer.putDouble(10).putDouble(20);
+        byteBuffer.putDouble(10).putDouble(20);
+
+        byteBuffer.rewind();
+        final PolyLine polyLine = PolyLine.fromBytes(byteBuffer);
+        assertTrue(polyLine.hasZ());
+        assertFalse(polyLine.hasM());
+        assertTrue(Double.isNaN(polyLine.getM(0)));
+    }
+}
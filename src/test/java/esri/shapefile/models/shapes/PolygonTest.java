@@ -1,7 +1,9 @@
 package esri.shapefile.models.shapes;
 
+import esri.shapefile.models.BoundingBox;
 import org.junit.Test;
 
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Arrays;
@@ -63,4 +65,44 @@ public class PolygonTest {
             Point.at(0, 0)
         ), polygon.getPoints());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testAccessingPackedCoordinates() throws Exception {
+        final Polygon polygon = Polygon.of(BoundingBox.of(0, 0, 10, 10), new int[] { 0, 5 }, new double[] {
+            0, 0,   0, 10,   10, 10,   10, 0,   0, 0,
+            2, 2,   4, 2,    4, 4,     2, 2
+        });
+
+        assertEquals(2, polygon.getNumParts());
+        assertEquals(9, polygon.getNumPoints());
+
+        assertEquals(0, polygon.getPartStart(0));
+        assertEquals(5, polygon.getPartEnd(0));
+        assertEquals(5, polygon.getPartStart(1));
+        assertEquals(9, polygon.getPartEnd(1));
+
+        assertEquals(10.0, polygon.getX(2), 0.001);
+        assertEquals(4.0,  polygon.getY(7), 0.001);
+        assertEquals(Point.at(4, 2), polygon.getPoints().get(6));
+
+        assertEquals(Arrays.asList(0, 5), polygon.getParts());
+        assertEquals(2, polygon.getRings().size());
+        assertEquals(Arrays.asList(
+            Point.at(2, 2),
+            Point.at(4, 2),
+            Point.at(4, 4),
+            Point.at(2, 2)
+        ), polygon.getRings().get(1));
+    }
+
+    @Test(expected = BufferUnderflowException.class)
+    public void testANegativeNumberOfPartsIsRejected() {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+        byteBuffer.putInt(5).putDouble(0).putDouble(0).putDouble(1).putDouble(1);
+        byteBuffer.putInt(-1); // Number of Parts
+        byteBuffer.putInt(1);  // Number of Points
+        byteBuffer.rewind();
+
+        Polygon.fromBytes(byteBuffer);
+    }
+}